@@ -27,6 +27,8 @@ public class PeerDTO extends BaseDTO {
     private Integer weight;
     private Long downloadedVolume;
     private Long uploadedVolume;
+    private Integer outboundQueueSize;
+    private Long droppedOutboundMessages;
     private String application;
     private String version;
     private String platform;
@@ -0,0 +1,29 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Schema(name = "TableTrimStats", description = "Timings of the derived table trim since the node start.")
+public class TableTrimStatsDTO {
+    @Schema(name = "tableName", description = "The table name.")
+    private String tableName;
+    @Schema(name = "trimCount", description = "The number of times the table was trimmed.")
+    private int trimCount;
+    @Schema(name = "lastHeight", description = "The height of the latest trim.")
+    private int lastHeight;
+    @Schema(name = "lastTime", description = "The duration of the latest trim, in milliseconds.")
+    private long lastTime;
+    @Schema(name = "maxTime", description = "The max duration of the trim, in milliseconds.")
+    private long maxTime;
+    @Schema(name = "totalTime", description = "The total duration of all trims, in milliseconds.")
+    private long totalTime;
+}
@@ -0,0 +1,29 @@
+/*
+ *  Copyright © 2020-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.api.p2p.request;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.UUID;
+
+/**
+ * Announcement of the new transactions by their full hashes, sent instead of the processTransactions request
+ * to the peers, which provide TX_INVENTORY service. Receiver requests only the transactions, which it does not have,
+ * using the {@link GetMemPoolTransactionsRequest}
+ */
+@Getter
+@Setter
+public class AnnounceTransactionsRequest extends BaseP2PRequest {
+    /**
+     * Base64 encoded concatenated 32-byte full hashes of the transactions
+     */
+    public String fullHashes;
+
+    public AnnounceTransactionsRequest(String fullHashes, UUID chainId) {
+        super("announceTransactions", chainId);
+        this.fullHashes = fullHashes;
+    }
+}
@@ -3,6 +3,7 @@
  */
 package com.apollocurrency.aplwallet.api.p2p.request;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.EqualsAndHashCode;
@@ -26,6 +27,12 @@ public class BaseP2PRequest {
     public final Integer protocol = 1;
     public String requestType;
     private UUID chainId;
+    /**
+     * Binary data, which is sent after the JSON request in the same websocket message and is not included into the JSON
+     */
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    private byte[] attachment;
 
     public BaseP2PRequest(String requestType, UUID chainId) {
         this.requestType = requestType;
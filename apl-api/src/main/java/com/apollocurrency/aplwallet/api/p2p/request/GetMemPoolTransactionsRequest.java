@@ -0,0 +1,32 @@
+/*
+ *  Copyright © 2020-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.api.p2p.request;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.UUID;
+
+/**
+ * Request of the announced unconfirmed transactions by their full hashes, response has the same format
+ * as the getUnconfirmedTransactions response
+ */
+@Getter
+@Setter
+public class GetMemPoolTransactionsRequest extends BaseP2PRequest {
+    /**
+     * Base64 encoded concatenated 32-byte full hashes of the transactions
+     */
+    public String fullHashes;
+    /**
+     * Request transactions in the binary format, supported only by the peers, which provide BINARY_P2P service
+     */
+    public boolean binary;
+
+    public GetMemPoolTransactionsRequest(String fullHashes, UUID chainId) {
+        super("getMemPoolTransactions", chainId);
+        this.fullHashes = fullHashes;
+    }
+}
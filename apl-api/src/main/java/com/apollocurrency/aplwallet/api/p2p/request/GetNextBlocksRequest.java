@@ -5,6 +5,7 @@
 package com.apollocurrency.aplwallet.api.p2p.request;
 
 import lombok.Getter;
+import lombok.Setter;
 
 import java.util.List;
 import java.util.UUID;
@@ -15,6 +16,11 @@ public class GetNextBlocksRequest extends BaseP2PRequest {
 
     private final List<String> blockIds;
     private final String blockId;
+    /**
+     * Request blocks in the binary format, supported only by the peers, which provide BINARY_P2P service
+     */
+    @Setter
+    private boolean binary;
 
     public GetNextBlocksRequest(List<String> blockIds, String blockId, UUID chainId) {
         super(requestType, chainId);
@@ -12,6 +12,10 @@ import java.util.UUID;
 public class GetUnconfirmedTransactionsRequest extends BaseP2PRequest {
 
     public List<String> exclude = new ArrayList<>();
+    /**
+     * Request transactions in the binary format, supported only by the peers, which provide BINARY_P2P service
+     */
+    public boolean binary;
 
     public GetUnconfirmedTransactionsRequest(UUID chainId) {
         super("getUnconfirmedTransactions", chainId);
@@ -19,7 +19,6 @@ public class ProcessBlockRequest extends BaseP2PRequest {
     public String previousBlock;
     public int timestamp;
     public int timeout;
-
     ProcessBlockRequest(UUID chainId) {
         super("processBlock", chainId);
     }
@@ -31,4 +30,16 @@ public class ProcessBlockRequest extends BaseP2PRequest {
         this.timeout = block.getTimeout();
         this.previousBlock = block.getPreviousBlock();
     }
+
+    /**
+     * Create request with the block in the binary format sent as the request attachment instead of the {@link #block},
+     * for the peers, which provide BINARY_P2P service
+     */
+    public ProcessBlockRequest(byte[] binaryBlock, String previousBlock, int timestamp, int timeout, UUID chainId) {
+        this(chainId);
+        setAttachment(binaryBlock);
+        this.previousBlock = previousBlock;
+        this.timestamp = timestamp;
+        this.timeout = timeout;
+    }
 }
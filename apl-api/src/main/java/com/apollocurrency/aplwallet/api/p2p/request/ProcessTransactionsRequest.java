@@ -26,4 +26,13 @@ public class ProcessTransactionsRequest extends BaseP2PRequest {
         this(chainId);
         this.transactions = transactions;
     }
+
+    /**
+     * Create request with the transactions in the binary format sent as the request attachment instead of the
+     * {@link #transactions}, for the peers, which provide BINARY_P2P service
+     */
+    public ProcessTransactionsRequest(byte[] binaryTransactions, UUID chainId) {
+        this(chainId);
+        setAttachment(binaryTransactions);
+    }
 }
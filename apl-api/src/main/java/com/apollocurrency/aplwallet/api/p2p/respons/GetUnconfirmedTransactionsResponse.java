@@ -1,6 +1,7 @@
 package com.apollocurrency.aplwallet.api.p2p.respons;
 
 import com.apollocurrency.aplwallet.api.dto.TransactionDTO;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Getter;
 
 import java.util.List;
@@ -8,4 +9,9 @@ import java.util.List;
 @Getter
 public class GetUnconfirmedTransactionsResponse extends BaseP2PResponse {
     public List<TransactionDTO> unconfirmedTransactions;
+    /**
+     * Transactions in the binary format received as the response attachment instead of the {@link #unconfirmedTransactions}
+     */
+    @JsonIgnore
+    public byte[] unconfirmedTransactionsBinary;
 }
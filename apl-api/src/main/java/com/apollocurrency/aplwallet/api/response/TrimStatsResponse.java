@@ -0,0 +1,24 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.api.response;
+
+import com.apollocurrency.aplwallet.api.dto.TableTrimStatsDTO;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(name = "TrimStatsResponse", description = "The derived tables trim stats response.")
+public class TrimStatsResponse extends ResponseBase {
+    @Schema(name = "trimStats", description = "List of table trim stats objects")
+    private List<TableTrimStatsDTO> trimStats;
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.bench;
+
+import com.apollocurrency.aplwallet.apl.core.app.AplException;
+import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Block;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.BlockImpl;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Transaction;
+import com.apollocurrency.aplwallet.apl.core.service.state.account.AccountPublicKeyService;
+import com.apollocurrency.aplwallet.apl.core.service.state.account.AccountService;
+import com.apollocurrency.aplwallet.apl.core.transaction.CachedTransactionTypeFactory;
+import com.apollocurrency.aplwallet.apl.core.transaction.TransactionBuilder;
+import com.apollocurrency.aplwallet.apl.core.transaction.TransactionSigner;
+import com.apollocurrency.aplwallet.apl.core.transaction.TransactionTypeFactory;
+import com.apollocurrency.aplwallet.apl.core.transaction.messages.Attachment;
+import com.apollocurrency.aplwallet.apl.core.transaction.messages.MessageAppendix;
+import com.apollocurrency.aplwallet.apl.core.transaction.types.messaging.ArbitraryMessageTransactionType;
+import com.apollocurrency.aplwallet.apl.core.transaction.types.payment.OrdinaryPaymentTransactionType;
+import com.apollocurrency.aplwallet.apl.crypto.Crypto;
+import com.apollocurrency.aplwallet.apl.util.injectable.DbProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Generates benchmark data in memory, so that benchmarks do not depend on the network, files or the node database.
+ * All data is generated from the fixed seeds and is the same for each run, which makes results of different runs comparable.
+ */
+public final class BenchmarkFixtures {
+    public static final int TIMESTAMP = 78881629;
+    public static final long BASE_TARGET = 1000L;
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * @return transaction builder, which supports ordinary payments and arbitrary messages
+     */
+    public static TransactionBuilder transactionBuilder() {
+        return new TransactionBuilder(transactionTypeFactory());
+    }
+
+    /**
+     * @return factory of the ordinary payment and arbitrary message transaction types
+     */
+    public static TransactionTypeFactory transactionTypeFactory() {
+        BlockchainConfig blockchainConfig = mock(BlockchainConfig.class);
+        AccountService accountService = mock(AccountService.class);
+        return new CachedTransactionTypeFactory(List.of(
+            new OrdinaryPaymentTransactionType(blockchainConfig, accountService),
+            new ArbitraryMessageTransactionType(blockchainConfig, accountService)));
+    }
+
+    public static byte[] keySeed(int index) {
+        return Crypto.getKeySeed("apl-bench-secret-" + index);
+    }
+
+    /**
+     * Generate signed ordinary payments of the different senders, every second payment has a plain message of up to 160 bytes
+     *
+     * @param builder transaction builder
+     * @param count   number of transactions
+     * @param seed    seed of the amounts, recipients and messages
+     */
+    public static List<Transaction> transactions(TransactionBuilder builder, int count, long seed) {
+        Random random = new Random(seed);
+        TransactionSigner signer = new TransactionSigner(mock(AccountPublicKeyService.class));
+        List<Transaction> transactions = new ArrayList<>(count);
+        try {
+            for (int i = 0; i < count; i++) {
+                byte[] keySeed = keySeed(i);
+                Transaction.Builder txBuilder = builder.newTransactionBuilder(Crypto.getPublicKey(keySeed),
+                    (1 + random.nextInt(10_000)) * 100_000_000L, 100_000_000L, (short) 1440, Attachment.ORDINARY_PAYMENT, TIMESTAMP + i)
+                    .recipientId(random.nextLong())
+                    .ecBlockHeight(0)
+                    .ecBlockId(random.nextLong());
+                if (i % 2 == 0) {
+                    byte[] message = new byte[random.nextInt(160) + 1];
+                    random.nextBytes(message);
+                    txBuilder.appendix(new MessageAppendix(message));
+                }
+                Transaction transaction = txBuilder.build();
+                signer.sign(transaction, keySeed);
+                transactions.add(transaction);
+            }
+        } catch (AplException.NotValidException e) {
+            throw new IllegalStateException("Unable to generate transactions", e);
+        }
+        return transactions;
+    }
+
+    /**
+     * @return block of the given transactions signed by the generator with the fixed key
+     */
+    public static BlockImpl block(List<Transaction> transactions) {
+        byte[] keySeed = Crypto.getKeySeed("apl-bench-generator");
+        long totalAmount = 0;
+        long totalFee = 0;
+        int payloadLength = 0;
+        for (Transaction transaction : transactions) {
+            totalAmount += transaction.getAmountATM();
+            totalFee += transaction.getFeeATM();
+            payloadLength += transaction.getFullSize();
+        }
+        return new BlockImpl(Block.ADAPTIVE_BLOCK_VERSION, TIMESTAMP + transactions.size() + 60, 1L, totalAmount, totalFee,
+            payloadLength, new byte[32], Crypto.getPublicKey(keySeed), new byte[32], new byte[32], 5,
+            transactions, keySeed, BASE_TARGET);
+    }
+
+    /**
+     * @return properties of the new in-memory H2 database
+     */
+    public static DbProperties inMemoryDbProperties() {
+        return new DbProperties()
+            .dbUrl("jdbc:h2:mem:aplBench" + UUID.randomUUID() + ";MV_STORE=TRUE;CACHE_SIZE=16000")
+            .dbType("h2")
+            .dbParams("")
+            .dbUsername("sa")
+            .dbPassword("sa")
+            .maxConnections(10)
+            .chainId(UUID.fromString("b5d7b697-f359-4ce5-a619-fa34b6fb01a5"))
+            .loginTimeout(10)
+            .maxMemoryRows(100000)
+            .defaultLockTimeout(10);
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.bench;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs benchmarks of this module and writes results in JSON format, so that results of different builds can be compared
+ * by the JMH result visualizers.
+ * <p>Usage: java -jar benchmarks.jar [benchmark regexp] [result file], all benchmarks are run by default
+ * and results are written to the apl-bench-results.json</p>
+ */
+public class BenchmarkRunner {
+    private static final String DEFAULT_RESULT_FILE = "apl-bench-results.json";
+
+    public static void main(String[] args) throws RunnerException {
+        ChainedOptionsBuilder options = new OptionsBuilder()
+            .include(args.length > 0 ? args[0] : BenchmarkRunner.class.getPackageName() + ".*")
+            .resultFormat(ResultFormatType.JSON)
+            .result(args.length > 1 ? args[1] : DEFAULT_RESULT_FILE);
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.bench;
+
+import com.apollocurrency.aplwallet.apl.core.app.AplException;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.BlockImpl;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Transaction;
+import com.apollocurrency.aplwallet.apl.core.service.blockchain.BlockParserImpl;
+import com.apollocurrency.aplwallet.apl.core.service.blockchain.BlockSerializer;
+import com.apollocurrency.aplwallet.apl.core.service.blockchain.Blockchain;
+import com.apollocurrency.aplwallet.apl.core.service.state.account.AccountService;
+import com.apollocurrency.aplwallet.apl.core.transaction.TransactionBuilder;
+import com.apollocurrency.aplwallet.apl.core.transaction.TransactionSerializerImpl;
+import com.apollocurrency.aplwallet.apl.core.transaction.TransactionValidator;
+import com.apollocurrency.aplwallet.apl.core.transaction.messages.PrunableLoadingService;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Measures {@link BlockParserImpl#parseBlock(JSONObject, long)} of the block received from the peer depending on the number
+ * of the block transactions: transactions parsing and the block signature verification. Transaction signatures are not verified,
+ * see {@link CryptoBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BlockParserBenchmark {
+
+    @Param({"0", "100", "255"})
+    int txCount;
+
+    private BlockParserImpl parser;
+    private JSONObject blockJson;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ParseException {
+        TransactionBuilder transactionBuilder = BenchmarkFixtures.transactionBuilder();
+        TransactionValidator validator = mock(TransactionValidator.class);
+        doReturn(true).when(validator).checkSignature(isNull(), any(Transaction.class));
+        parser = new BlockParserImpl(mock(AccountService.class), transactionBuilder, validator);
+
+        List<Transaction> transactions = BenchmarkFixtures.transactions(transactionBuilder, txCount, 2);
+        BlockImpl block = BenchmarkFixtures.block(transactions);
+        Blockchain blockchain = mock(Blockchain.class);
+        doReturn(transactions).when(blockchain).getOrLoadTransactions(block);
+        BlockSerializer serializer = new BlockSerializer(blockchain, new TransactionSerializerImpl(mock(PrunableLoadingService.class)));
+        // parse the written json to get the same value types as in the peer response
+        blockJson = (JSONObject) new JSONParser().parse(serializer.getJSONObject(block).toJSONString());
+    }
+
+    @Benchmark
+    public BlockImpl parseBlock() throws AplException.NotValidException, AplException.NotCurrentlyValidException {
+        return parser.parseBlock(blockJson, BenchmarkFixtures.BASE_TARGET);
+    }
+}
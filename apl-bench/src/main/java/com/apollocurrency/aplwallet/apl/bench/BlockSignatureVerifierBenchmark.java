@@ -0,0 +1,133 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.bench;
+
+import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Block;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Transaction;
+import com.apollocurrency.aplwallet.apl.core.service.blockchain.BlockSignatureVerifier;
+import com.apollocurrency.aplwallet.apl.core.service.blockchain.Blockchain;
+import com.apollocurrency.aplwallet.apl.core.service.blockchain.BlockchainProcessorImpl;
+import com.apollocurrency.aplwallet.apl.core.service.state.PhasingPollService;
+import com.apollocurrency.aplwallet.apl.core.service.state.account.AccountControlPhasingService;
+import com.apollocurrency.aplwallet.apl.core.service.state.account.AccountPublicKeyService;
+import com.apollocurrency.aplwallet.apl.core.service.state.account.AccountService;
+import com.apollocurrency.aplwallet.apl.core.signature.Signature;
+import com.apollocurrency.aplwallet.apl.core.signature.SignatureToolFactory;
+import com.apollocurrency.aplwallet.apl.core.transaction.FeeCalculator;
+import com.apollocurrency.aplwallet.apl.core.transaction.TransactionValidator;
+import com.apollocurrency.aplwallet.apl.core.transaction.TransactionVersionValidator;
+import com.apollocurrency.aplwallet.apl.core.transaction.VerifiedSignatureCache;
+import com.apollocurrency.aplwallet.apl.core.transaction.messages.AppendixValidatorRegistry;
+import com.apollocurrency.aplwallet.apl.core.transaction.messages.PrunableLoadingService;
+import com.apollocurrency.aplwallet.apl.crypto.Crypto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures how signature verification part of the block acceptance scales with the number of block transactions:
+ * parallel stateless stage ({@link BlockSignatureVerifier}) followed by the sequential stateful
+ * {@link TransactionValidator#verifySignature(Transaction)} as it is done by the {@link BlockchainProcessorImpl#pushBlock(Block)}.
+ * <p>threads = 1 corresponds to the single-core verification under the write lock.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BlockSignatureVerifierBenchmark {
+
+    @Param({"10", "100", "255", "1000"})
+    int txCount;
+
+    @Param({"1", "4", "16"})
+    int threads;
+
+    private BlockSignatureVerifier verifier;
+    private TransactionValidator validator;
+    private Block block;
+    private List<Transaction> transactions;
+    private byte[][] signatureBytes;
+    private Signature[] signatures;
+
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        AccountPublicKeyService accountPublicKeyService = mock(AccountPublicKeyService.class);
+        doReturn(true).when(accountPublicKeyService).setOrVerifyPublicKey(anyLong(), any(byte[].class));
+        validator = new TransactionValidator(mock(BlockchainConfig.class), mock(PhasingPollService.class), mock(Blockchain.class),
+            mock(FeeCalculator.class), mock(AccountService.class), accountPublicKeyService, mock(AccountControlPhasingService.class),
+            mock(TransactionVersionValidator.class), mock(PrunableLoadingService.class), mock(AppendixValidatorRegistry.class),
+            new VerifiedSignatureCache(null));
+        verifier = new BlockSignatureVerifier(validator, threads, 2);
+
+        Random random = new Random(txCount);
+        transactions = new ArrayList<>(txCount);
+        signatureBytes = new byte[txCount][];
+        signatures = new Signature[txCount];
+        for (int i = 0; i < txCount; i++) {
+            byte[] keySeed = Crypto.getKeySeed("benchmark-secret-" + i);
+            byte[] publicKey = Crypto.getPublicKey(keySeed);
+            byte[] document = new byte[176];
+            random.nextBytes(document);
+            signatureBytes[i] = Crypto.sign(document, keySeed);
+
+            int index = i;
+            Transaction transaction = mock(Transaction.class);
+            doReturn((byte) 1).when(transaction).getVersion();
+            doReturn((long) i + 1).when(transaction).getSenderId();
+            doReturn(publicKey).when(transaction).getSenderPublicKey();
+            doReturn(document).when(transaction).getUnsignedBytes();
+            when(transaction.getSignature()).thenAnswer(invocation -> signatures[index]);
+            transactions.add(transaction);
+        }
+        block = mock(Block.class);
+        doReturn(transactions).when(block).getTransactions();
+    }
+
+    @Setup(Level.Invocation)
+    public void resetSignatures() {
+        for (int i = 0; i < txCount; i++) {
+            signatures[i] = SignatureToolFactory.createSignature(signatureBytes[i]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        verifier.shutdown();
+    }
+
+    @Benchmark
+    public void verifyBlockSignatures(Blackhole blackhole) {
+        verifier.verify(block);
+        for (Transaction transaction : transactions) {
+            blackhole.consume(validator.verifySignature(transaction));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.bench;
+
+import com.apollocurrency.aplwallet.apl.core.dao.state.derived.CachedTable;
+import com.apollocurrency.aplwallet.apl.core.dao.state.derived.HeightIndexedCache;
+import com.apollocurrency.aplwallet.apl.core.dao.state.keyfactory.DbKey;
+import com.apollocurrency.aplwallet.apl.core.dao.state.keyfactory.LongKey;
+import com.apollocurrency.aplwallet.apl.core.entity.state.account.PublicKey;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures cost of the cache rollback of the last block depending on the cache size:
+ * full scan of the cache values (previous implementation of the {@link CachedTable#rollback(int)})
+ * versus lookup by the height index of the {@link HeightIndexedCache}.
+ * <p>Each block updates {@link #KEYS_PER_BLOCK} entities, rollback removes entities of the last block,
+ * which are put back before the next invocation.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class CachedTableRollbackBenchmark {
+    private static final int KEYS_PER_BLOCK = 100;
+
+    @Param({"10000", "100000", "1000000"})
+    int cacheSize;
+
+    private Cache<DbKey, PublicKey> plainCache;
+    private HeightIndexedCache<PublicKey> indexedCache;
+    private PublicKey[] lastBlockEntities;
+    private int lastHeight;
+
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        plainCache = CacheBuilder.newBuilder().maximumSize(cacheSize).build();
+        indexedCache = new HeightIndexedCache<>(CacheBuilder.newBuilder().maximumSize(cacheSize).<DbKey, PublicKey>build());
+        lastHeight = cacheSize / KEYS_PER_BLOCK;
+        lastBlockEntities = new PublicKey[KEYS_PER_BLOCK];
+        for (int i = 0; i < cacheSize; i++) {
+            PublicKey publicKey = new PublicKey(i, new byte[32], i / KEYS_PER_BLOCK + 1);
+            publicKey.setDbKey(new LongKey(i));
+            if (publicKey.getHeight() == lastHeight) {
+                lastBlockEntities[i % KEYS_PER_BLOCK] = publicKey;
+            }
+            plainCache.put(publicKey.getDbKey(), publicKey);
+            indexedCache.put(publicKey);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void restoreLastBlock() {
+        for (PublicKey publicKey : lastBlockEntities) {
+            plainCache.put(publicKey.getDbKey(), publicKey);
+            indexedCache.put(publicKey);
+        }
+    }
+
+    @Benchmark
+    public int fullScanRollback() {
+        int height = lastHeight - 1;
+        Map<DbKey, PublicKey> map = plainCache.asMap();
+        int removed = 0;
+        for (PublicKey publicKey : map.values()) {
+            if (publicKey.getHeight() > height) {
+                plainCache.invalidate(publicKey.getDbKey());
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    @Benchmark
+    public int indexedRollback() {
+        return indexedCache.rollback(lastHeight - 1);
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.bench;
+
+import com.apollocurrency.aplwallet.apl.crypto.Crypto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Crypto#sign(byte[], byte[])} and {@link Crypto#verify(byte[], byte[], byte[])} of the documents
+ * of the transaction size
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CryptoBenchmark {
+
+    @Param({"176", "1024"})
+    int documentSize;
+
+    private byte[] keySeed;
+    private byte[] publicKey;
+    private byte[] document;
+    private byte[] signature;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keySeed = BenchmarkFixtures.keySeed(0);
+        publicKey = Crypto.getPublicKey(keySeed);
+        document = new byte[documentSize];
+        new Random(documentSize).nextBytes(document);
+        signature = Crypto.sign(document, keySeed);
+    }
+
+    @Benchmark
+    public byte[] sign() {
+        return Crypto.sign(document, keySeed);
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return Crypto.verify(signature, document, publicKey);
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.bench;
+
+import com.apollocurrency.aplwallet.apl.core.shard.helper.csv.CsvEscaper;
+import com.apollocurrency.aplwallet.apl.core.shard.helper.csv.CsvEscaperImpl;
+import com.apollocurrency.aplwallet.apl.core.shard.helper.csv.CsvReaderImpl;
+import com.apollocurrency.aplwallet.apl.core.shard.helper.csv.CsvWriterImpl;
+import org.h2.tools.SimpleResultSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures export of {@link #ROW_COUNT} rows of the derived table shape to CSV by the {@link CsvWriterImpl}
+ * and import of the same rows by the {@link CsvReaderImpl}, as it is done for the shard archive. Rows are written to and read from memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvBenchmark {
+    private static final int ROW_COUNT = 10_000;
+
+    private final CsvEscaper escaper = new CsvEscaperImpl();
+    private final Path dataExportPath = Paths.get(System.getProperty("java.io.tmpdir"));
+    private List<Object[]> rows;
+    private String csv;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        Random random = new Random(ROW_COUNT);
+        rows = new ArrayList<>(ROW_COUNT);
+        for (int i = 0; i < ROW_COUNT; i++) {
+            byte[] publicKey = new byte[32];
+            random.nextBytes(publicKey);
+            rows.add(new Object[]{(long) i + 1, random.nextLong(), "name-" + i, "description, \"quoted\" " + random.nextInt(),
+                publicKey, i / 10, random.nextBoolean()});
+        }
+        csv = write();
+    }
+
+    @Benchmark
+    public String writeCsv() throws SQLException {
+        return write();
+    }
+
+    @Benchmark
+    public void readCsv(Blackhole blackhole) throws IOException, SQLException {
+        try (CsvReaderImpl reader = new CsvReaderImpl(dataExportPath, escaper);
+             ResultSet rs = reader.read(new StringReader(csv), null)) {
+            int columnCount = rs.getMetaData().getColumnCount();
+            while (rs.next()) {
+                for (int i = 1; i <= columnCount; i++) {
+                    blackhole.consume(rs.getObject(i));
+                }
+            }
+        }
+    }
+
+    private String write() throws SQLException {
+        StringWriter output = new StringWriter(csv == null ? 1024 : csv.length());
+        try (CsvWriterImpl writer = new CsvWriterImpl(dataExportPath, null, escaper)) {
+            writer.write(output, resultSet());
+        }
+        return output.toString();
+    }
+
+    private ResultSet resultSet() {
+        SimpleResultSet rs = new SimpleResultSet();
+        rs.addColumn("DB_ID", Types.BIGINT, 19, 0);
+        rs.addColumn("ID", Types.BIGINT, 19, 0);
+        rs.addColumn("NAME", Types.VARCHAR, 100, 0);
+        rs.addColumn("DESCRIPTION", Types.VARCHAR, 1000, 0);
+        rs.addColumn("PUBLIC_KEY", Types.VARBINARY, 32, 0);
+        rs.addColumn("HEIGHT", Types.INTEGER, 10, 0);
+        rs.addColumn("LATEST", Types.BOOLEAN, 1, 0);
+        rows.forEach(rs::addRow);
+        return rs;
+    }
+}
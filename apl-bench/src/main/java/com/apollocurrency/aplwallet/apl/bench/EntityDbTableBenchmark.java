@@ -0,0 +1,86 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.bench;
+
+import com.apollocurrency.aplwallet.apl.core.dao.TransactionalDataSource;
+import com.apollocurrency.aplwallet.apl.core.dao.appdata.cdi.transaction.JdbiHandleFactory;
+import com.apollocurrency.aplwallet.apl.core.dao.state.account.AccountInfoTable;
+import com.apollocurrency.aplwallet.apl.core.dao.state.derived.EntityDbTable;
+import com.apollocurrency.aplwallet.apl.core.dao.state.keyfactory.DbKey;
+import com.apollocurrency.aplwallet.apl.core.entity.state.account.AccountInfo;
+import com.apollocurrency.aplwallet.apl.core.service.appdata.DatabaseManager;
+import com.apollocurrency.aplwallet.apl.core.service.appdata.impl.DatabaseManagerImpl;
+import com.apollocurrency.aplwallet.apl.core.service.fulltext.FullTextConfig;
+import com.apollocurrency.aplwallet.apl.core.service.state.DerivedTablesRegistry;
+import com.apollocurrency.aplwallet.apl.util.injectable.PropertiesHolder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.enterprise.event.Event;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Measures {@link EntityDbTable#get(DbKey)} of the random existing entity of the versioned account_info table
+ * on the embedded in-memory H2 database with the node schema, depending on the table size.
+ * Each entity has {@link #VERSIONS} versions, so that the lookup of the latest version is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntityDbTableBenchmark {
+    private static final int VERSIONS = 3;
+
+    @Param({"1000", "100000"})
+    int entityCount;
+
+    private DatabaseManager databaseManager;
+    private AccountInfoTable table;
+    private DbKey[] keys;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        databaseManager = new DatabaseManagerImpl(BenchmarkFixtures.inMemoryDbProperties(), new PropertiesHolder(), new JdbiHandleFactory());
+        table = new AccountInfoTable(mock(DerivedTablesRegistry.class), databaseManager, mock(FullTextConfig.class), mock(Event.class));
+        keys = new DbKey[entityCount];
+        TransactionalDataSource dataSource = databaseManager.getDataSource();
+        for (int version = 0; version < VERSIONS; version++) {
+            dataSource.begin();
+            for (int i = 0; i < entityCount; i++) {
+                long accountId = i + 1;
+                table.insert(new AccountInfo(accountId, "account-" + i, "description of the account " + i + " v" + version, version));
+                keys[i] = AccountInfoTable.newKey(accountId);
+            }
+            dataSource.commit();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        databaseManager.shutdown();
+    }
+
+    @Benchmark
+    public AccountInfo get() {
+        return table.get(keys[ThreadLocalRandom.current().nextInt(entityCount)]);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.bench;
+
+import com.apollocurrency.aplwallet.apl.core.dao.appdata.MemPoolUnconfirmedTransactionTable;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Transaction;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.UnconfirmedTransaction;
+import com.apollocurrency.aplwallet.apl.core.service.appdata.DatabaseManager;
+import com.apollocurrency.aplwallet.apl.core.service.blockchain.GlobalSync;
+import com.apollocurrency.aplwallet.apl.core.service.blockchain.MemPool;
+import com.apollocurrency.aplwallet.apl.core.service.blockchain.MemPoolInMemoryState;
+import com.apollocurrency.aplwallet.apl.core.transaction.TransactionValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Measures addition of the processed transactions to the {@link MemPool} in-memory index and their removal
+ * after the block acceptance, depending on the number of transactions, which are already in the pool.
+ * Unconfirmed transactions table is stubbed and transactions are not validated, so that only in-memory indexes
+ * are measured, not the whole admission of the transaction.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MemPoolProcessedIndexBenchmark {
+    private static final int ADMITTED_COUNT = 100;
+
+    @Param({"0", "2000"})
+    int poolSize;
+
+    private MemPool memPool;
+    private List<UnconfirmedTransaction> admitted;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MemPoolUnconfirmedTransactionTable table = mock(MemPoolUnconfirmedTransactionTable.class);
+        doReturn(Stream.empty()).when(table).getAllUnconfirmedTransactionsStream();
+        memPool = new MemPool(table, new MemPoolInMemoryState(3000, 2000, 5000), mock(GlobalSync.class),
+            mock(TransactionValidator.class), mock(DatabaseManager.class, RETURNS_DEEP_STUBS), Integer.MAX_VALUE, false);
+
+        List<Transaction> transactions = BenchmarkFixtures.transactions(BenchmarkFixtures.transactionBuilder(), poolSize + ADMITTED_COUNT, 3);
+        List<UnconfirmedTransaction> unconfirmed = new ArrayList<>(transactions.size());
+        for (int i = 0; i < transactions.size(); i++) {
+            unconfirmed.add(new UnconfirmedTransaction(transactions.get(i), BenchmarkFixtures.TIMESTAMP + i));
+        }
+        unconfirmed.subList(0, poolSize).forEach(memPool::addProcessed);
+        admitted = unconfirmed.subList(poolSize, unconfirmed.size());
+    }
+
+    @Benchmark
+    public int addAndRemoveProcessed() {
+        for (UnconfirmedTransaction transaction : admitted) {
+            memPool.addProcessed(transaction);
+        }
+        int count = memPool.allProcessedCount();
+        for (UnconfirmedTransaction transaction : admitted) {
+            memPool.removeProcessedTransaction(transaction.getId());
+        }
+        return count;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.bench;
+
+import com.apollocurrency.aplwallet.apl.core.shard.hash.MerkleTree;
+import com.apollocurrency.aplwallet.apl.crypto.Crypto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link MerkleTree} construction from the leaves of the block id size, as it is done for the shard hash
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MerkleTreeBenchmark {
+
+    @Param({"1000", "100000"})
+    int leafCount;
+
+    private List<byte[]> leaves;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(leafCount);
+        leaves = new ArrayList<>(leafCount);
+        for (int i = 0; i < leafCount; i++) {
+            byte[] leaf = new byte[32];
+            random.nextBytes(leaf);
+            leaves.add(leaf);
+        }
+    }
+
+    @Benchmark
+    public byte[] buildTree() {
+        return new MerkleTree(Crypto.sha256(), leaves).getRoot().getValue();
+    }
+}
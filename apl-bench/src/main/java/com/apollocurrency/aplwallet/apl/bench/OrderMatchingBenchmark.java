@@ -0,0 +1,115 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.bench;
+
+import com.apollocurrency.aplwallet.apl.core.dao.state.order.OrderBook;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Transaction;
+import com.apollocurrency.aplwallet.apl.core.entity.state.order.AskOrder;
+import com.apollocurrency.aplwallet.apl.core.transaction.messages.ColoredCoinsAskOrderPlacement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Measures matching of the bid order, which sweeps {@link #SWEPT_LEVELS} ask levels, depending on the order book depth:
+ * lookup of the best ask by the scan of all asset orders for each fill (what the sorted query without the price index
+ * does, database round trip is not included) versus lookup in the {@link OrderBook}.
+ * <p>Swept orders are put back before the next invocation.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderMatchingBenchmark {
+    private static final int SWEPT_LEVELS = 50;
+    private static final long ASSET_ID = 100L;
+
+    @Param({"100", "1000", "10000", "100000"})
+    int depth;
+
+    private final Comparator<AskOrder> priority = Comparator.comparingLong(AskOrder::getPriceATM)
+        .thenComparingInt(AskOrder::getCreationHeight);
+    private List<AskOrder> orders;
+    private List<AskOrder> sweptOrders;
+    private List<AskOrder> scannedOrders;
+    private OrderBook<AskOrder> orderBook;
+
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        orders = new ArrayList<>(depth);
+        for (int i = 0; i < depth; i++) {
+            orders.add(askOrder(i + 1, 1000 + (i * 7919L) % depth, i));
+        }
+        sweptOrders = new ArrayList<>(orders);
+        sweptOrders.sort(priority);
+        sweptOrders = new ArrayList<>(sweptOrders.subList(0, Math.min(SWEPT_LEVELS, depth)));
+        orderBook = new OrderBook<>(Comparator.comparingLong(AskOrder::getPriceATM));
+        orderBook.getFirst(ASSET_ID, id -> orders);
+        scannedOrders = new ArrayList<>(orders);
+    }
+
+    @Setup(Level.Invocation)
+    public void restoreSweptOrders() {
+        sweptOrders.forEach(orderBook::put);
+        scannedOrders.clear();
+        scannedOrders.addAll(orders);
+    }
+
+    @Benchmark
+    public long scanMatching() {
+        long filled = 0;
+        for (int i = 0; i < SWEPT_LEVELS && !scannedOrders.isEmpty(); i++) {
+            int best = 0;
+            for (int j = 1; j < scannedOrders.size(); j++) {
+                if (priority.compare(scannedOrders.get(j), scannedOrders.get(best)) < 0) {
+                    best = j;
+                }
+            }
+            AskOrder order = scannedOrders.remove(best);
+            filled += order.getQuantityATU();
+        }
+        return filled;
+    }
+
+    @Benchmark
+    public long orderBookMatching() {
+        long filled = 0;
+        AskOrder order;
+        for (int i = 0; i < SWEPT_LEVELS && (order = orderBook.getFirst(ASSET_ID, id -> orders)) != null; i++) {
+            orderBook.remove(order);
+            filled += order.getQuantityATU();
+        }
+        return filled;
+    }
+
+    private static AskOrder askOrder(long id, long price, int height) {
+        Transaction transaction = mock(Transaction.class);
+        doReturn(id).when(transaction).getId();
+        doReturn(id * 10).when(transaction).getSenderId();
+        doReturn(height).when(transaction).getHeight();
+        doReturn((short) 0).when(transaction).getIndex();
+        return new AskOrder(transaction, new ColoredCoinsAskOrderPlacement(ASSET_ID, 100, price), height);
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.bench;
+
+import com.apollocurrency.aplwallet.apl.core.peer.Peer2PeerTransport;
+import com.apollocurrency.aplwallet.apl.core.peer.ResponseWaiter;
+import com.apollocurrency.aplwallet.apl.util.ExpiringConcurrentMap;
+import com.apollocurrency.aplwallet.apl.util.HashedTimerWheel;
+import com.apollocurrency.aplwallet.apl.util.task.NamedThreadFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures request/response churn of the {@link Peer2PeerTransport} request map from many threads: each operation registers
+ * the waiter of the new request, looks it up as the response arrives and removes it, every 100th request never gets the response
+ * and should be expired by the map.
+ * <p>Baseline is the self-cleaning map, which was used before {@link ExpiringConcurrentMap}: per-entry synchronized access
+ * and the sweep of all entries every 5 s by the own scheduler.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(1)
+public class RequestMapBenchmark {
+    private static final long TTL_MS = 1000;
+
+    private HashedTimerWheel timerWheel;
+    private ExpiringConcurrentMap<Long, ResponseWaiter> expiringMap;
+    private SelfCleaningMap<Long, ResponseWaiter> selfCleaningMap;
+
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        timerWheel = new HashedTimerWheel("BenchmarkTimerWheel", 100, 512);
+        expiringMap = new ExpiringConcurrentMap<>(timerWheel, TTL_MS, TimeUnit.MILLISECONDS, (id, waiter) -> waiter.expire());
+        selfCleaningMap = new SelfCleaningMap<>(TTL_MS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        timerWheel.stop();
+        selfCleaningMap.shutdown();
+    }
+
+    @Benchmark
+    public ResponseWaiter expiringMapChurn() {
+        long requestId = ThreadLocalRandom.current().nextLong();
+        expiringMap.put(requestId, new ResponseWaiter());
+        ResponseWaiter waiter = expiringMap.get(requestId);
+        if (requestId % 100 != 0) {
+            expiringMap.remove(requestId);
+        }
+        return waiter;
+    }
+
+    @Benchmark
+    public ResponseWaiter selfCleaningMapChurn() {
+        long requestId = ThreadLocalRandom.current().nextLong();
+        selfCleaningMap.putValue(requestId, new ResponseWaiter());
+        ResponseWaiter waiter = selfCleaningMap.getValue(requestId);
+        if (requestId % 100 != 0) {
+            selfCleaningMap.remove(requestId);
+        }
+        return waiter;
+    }
+
+    private static class SelfCleaningMap<K, V> extends ConcurrentHashMap<K, SelfCleaningMap.ValueEntry<V>> {
+        private final ScheduledExecutorService executor = Executors.newScheduledThreadPool(1, new NamedThreadFactory("SelfClearingHashmap"));
+        private final long removeDelay;
+
+        SelfCleaningMap(long removeDelay) {
+            this.removeDelay = removeDelay;
+            executor.scheduleWithFixedDelay(this::cleanup, 5000, 5000, TimeUnit.MILLISECONDS);
+        }
+
+        V getValue(K key) {
+            ValueEntry<V> entry = get(key);
+            if (entry == null) {
+                return null;
+            }
+            synchronized (entry) {
+                entry.accessTime = System.currentTimeMillis();
+                return entry.value;
+            }
+        }
+
+        V putValue(K key, V value) {
+            ValueEntry<V> entry = get(key);
+            if (entry == null) {
+                put(key, new ValueEntry<>(value));
+                return null;
+            }
+            synchronized (entry) {
+                V prev = entry.value;
+                entry.value = value;
+                entry.modificationTime = System.currentTimeMillis();
+                return prev;
+            }
+        }
+
+        void shutdown() {
+            executor.shutdownNow();
+        }
+
+        private void cleanup() {
+            Set<K> keysToRemove = new HashSet<>();
+            forEach((key, entry) -> {
+                long currentTime = System.currentTimeMillis();
+                synchronized (entry) {
+                    if (currentTime - entry.accessTime > removeDelay || currentTime - entry.modificationTime > removeDelay) {
+                        keysToRemove.add(key);
+                    }
+                }
+            });
+            keysToRemove.forEach(this::remove);
+        }
+
+        private static class ValueEntry<V> {
+            private volatile long modificationTime = System.currentTimeMillis();
+            private volatile long accessTime = System.currentTimeMillis();
+            private volatile V value;
+
+            ValueEntry(V value) {
+                this.value = value;
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.bench;
+
+import com.apollocurrency.aplwallet.apl.core.converter.db.TransactionRowMapper;
+import com.apollocurrency.aplwallet.apl.core.dao.TransactionalDataSource;
+import com.apollocurrency.aplwallet.apl.core.dao.appdata.cdi.transaction.JdbiHandleFactory;
+import com.apollocurrency.aplwallet.apl.core.dao.blockchain.TransactionDaoImpl;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Transaction;
+import com.apollocurrency.aplwallet.apl.core.service.appdata.DatabaseManager;
+import com.apollocurrency.aplwallet.apl.core.service.appdata.impl.DatabaseManagerImpl;
+import com.apollocurrency.aplwallet.apl.core.transaction.TransactionBuilder;
+import com.apollocurrency.aplwallet.apl.core.transaction.TransactionTypeFactory;
+import com.apollocurrency.aplwallet.apl.util.injectable.PropertiesHolder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures throughput of the {@link TransactionDaoImpl} read queries depending on the number of client threads.
+ * Read queries are not serialized by the dao, so that the throughput should grow with the number of threads
+ * up to the connection pool size / number of cores.
+ * <p>Run using {@link #main(String[])}, one run per thread count, results are written in JSON format</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionDaoConcurrencyBenchmark {
+    private static final int[] THREADS = {1, 2, 4, 8, 16};
+    private static final int TRANSACTION_COUNT = 10_000;
+    private static final int TRANSACTIONS_PER_BLOCK = 100;
+
+    private DatabaseManager databaseManager;
+    private TransactionDaoImpl dao;
+    private long accountId;
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : THREADS) {
+            Options options = new OptionsBuilder()
+                .include(TransactionDaoConcurrencyBenchmark.class.getSimpleName())
+                .threads(threads)
+                .resultFormat(ResultFormatType.JSON)
+                .result("transaction-dao-concurrency-benchmark-" + threads + ".json")
+                .build();
+            new Runner(options).run();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        databaseManager = new DatabaseManagerImpl(BenchmarkFixtures.inMemoryDbProperties().maxConnections(THREADS[THREADS.length - 1] * 2),
+            new PropertiesHolder(), new JdbiHandleFactory());
+        TransactionTypeFactory transactionTypeFactory = BenchmarkFixtures.transactionTypeFactory();
+        TransactionBuilder transactionBuilder = new TransactionBuilder(transactionTypeFactory);
+        dao = new TransactionDaoImpl(databaseManager, transactionTypeFactory, new TransactionRowMapper(transactionTypeFactory, transactionBuilder));
+
+        List<Transaction> transactions = BenchmarkFixtures.transactions(transactionBuilder, TRANSACTION_COUNT, 5);
+        for (int i = 0; i < transactions.size(); i++) {
+            transactions.get(i).setHeight(i / TRANSACTIONS_PER_BLOCK + 1);
+        }
+        accountId = transactions.get(0).getSenderId();
+        TransactionalDataSource dataSource = databaseManager.getDataSource();
+        Connection con = dataSource.begin();
+        dao.saveTransactions(con, transactions);
+        dataSource.commit();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        databaseManager.shutdown();
+    }
+
+    @Benchmark
+    public int getAccountTransactionCount() {
+        return dao.getTransactionCount(accountId, (byte) 0, (byte) 0);
+    }
+
+    @Benchmark
+    public int getAccountTransactionCountByFilter() {
+        return dao.getTransactionCountByFilter(databaseManager.getDataSource(), accountId, 0, (byte) -1, (byte) -1,
+            0, false, false, false, false, false, true, Integer.MAX_VALUE, 0);
+    }
+
+    @Benchmark
+    public Object getTransactionsBeforeHeight() {
+        return dao.getTransactionsBeforeHeight(Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.bench;
+
+import com.apollocurrency.aplwallet.apl.core.app.AplException;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Transaction;
+import com.apollocurrency.aplwallet.apl.core.transaction.TransactionBuilder;
+import com.apollocurrency.aplwallet.apl.core.transaction.TransactionSerializer;
+import com.apollocurrency.aplwallet.apl.core.transaction.TransactionSerializerImpl;
+import com.apollocurrency.aplwallet.apl.core.transaction.messages.PrunableLoadingService;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Measures round trips of {@link #TX_COUNT} transactions through the byte format (parse and serialize back)
+ * and through the JSON format of the {@link TransactionSerializerImpl} (serialize, write, parse and build)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionSerializationBenchmark {
+    private static final int TX_COUNT = 100;
+
+    private TransactionBuilder builder;
+    private TransactionSerializer serializer;
+    private List<Transaction> transactions;
+    private List<byte[]> transactionBytes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        builder = BenchmarkFixtures.transactionBuilder();
+        serializer = new TransactionSerializerImpl(mock(PrunableLoadingService.class));
+        transactions = BenchmarkFixtures.transactions(builder, TX_COUNT, 1);
+        transactionBytes = new ArrayList<>(TX_COUNT);
+        for (Transaction transaction : transactions) {
+            transactionBytes.add(transaction.bytes());
+        }
+    }
+
+    @Benchmark
+    public void bytesRoundTrip(Blackhole blackhole) throws AplException.NotValidException {
+        for (byte[] bytes : transactionBytes) {
+            blackhole.consume(builder.newTransactionBuilder(bytes).build().bytes());
+        }
+    }
+
+    @Benchmark
+    public void jsonRoundTrip(Blackhole blackhole) throws AplException.NotValidException, ParseException {
+        JSONParser parser = new JSONParser();
+        for (Transaction transaction : transactions) {
+            String json = serializer.toJson(transaction).toJSONString();
+            blackhole.consume(builder.newTransactionBuilder((JSONObject) parser.parse(json)).build());
+        }
+    }
+}
@@ -7,7 +7,6 @@ import com.apollocurrency.aplwallet.api.p2p.request.GetNextBlocksRequest;
 import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
 import com.apollocurrency.aplwallet.apl.core.entity.blockchain.BlockImpl;
 import com.apollocurrency.aplwallet.apl.core.peer.Peer;
-import com.apollocurrency.aplwallet.apl.core.peer.PeerNotConnectedException;
 import com.apollocurrency.aplwallet.apl.core.peer.parser.GetNextBlocksResponseParser;
 import com.apollocurrency.aplwallet.apl.core.peer.respons.GetNextBlocksResponse;
 import org.slf4j.Logger;
@@ -15,13 +14,14 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
 
 /**
- * Callable method to get the next block segment from the selected peer
+ * Asynchronous request to get the next block segment from the selected peer
  */
-public class GetNextBlocksTask implements Callable<List<BlockImpl>> {
+public class GetNextBlocksTask {
     private static final Logger log = LoggerFactory.getLogger(GetNextBlocksTask.class);
     /**
      * Block identifier list
@@ -30,7 +30,7 @@ public class GetNextBlocksTask implements Callable<List<BlockImpl>> {
     private final BlockchainConfig blockchainConfig;
     private final GetNextBlocksResponseParser getNextBlocksResponseParser;
     /**
-     * Callable future
+     * Request future
      */
     private Future<List<BlockImpl>> future;
     /**
@@ -52,14 +52,14 @@ public class GetNextBlocksTask implements Callable<List<BlockImpl>> {
     /**
      * Time it took to return getNextBlocks
      */
-    private long responseTime;
+    private volatile long responseTime;
     /**
      * height of the block from which we will start to download next blocks
      */
     private int startHeight;
 
     /**
-     * Create the callable future
+     * Create the request task
      *
      * @param blockIds    Block identifier list
      * @param start       Start index within the list
@@ -79,12 +79,13 @@ public class GetNextBlocksTask implements Callable<List<BlockImpl>> {
     }
 
     /**
-     * Return the result
+     * Send the request without blocking the calling thread, no thread is waiting for the peer response.
+     * Response blocks are parsed by the given executor.
      *
-     * @return List of blocks or null if an error occurred
+     * @param parserExecutor executor for the response parsing
+     * @return future of the list of blocks, completed with null if an error occurred
      */
-    @Override
-    public List<BlockImpl> call() {
+    public CompletableFuture<List<BlockImpl>> sendAsync(Executor parserExecutor) {
         requestCount++;
         //
         // Build the block request list
@@ -99,18 +100,16 @@ public class GetNextBlocksTask implements Callable<List<BlockImpl>> {
             Long.toUnsignedString(blockIds.get(start)),
             blockchainConfig.getChain().getChainId()
         );
+        request.setBinary(getNextBlocksResponseParser.isBinarySupportedBy(peer));
 
-        GetNextBlocksResponse response;
         long startTime = System.currentTimeMillis();
-        try {
-            log.trace("Try to send GetNextBlock request: blockId={} to peer={}", request.getBlockId(), peer.getAnnouncedAddress());
-            response = peer.send(request, getNextBlocksResponseParser);
-        } catch (PeerNotConnectedException ex) {
-            return null;
-        } finally {
-            responseTime = System.currentTimeMillis() - startTime;
-        }
+        log.trace("Try to send GetNextBlock request: blockId={} to peer={}", request.getBlockId(), peer.getAnnouncedAddress());
+        return peer.sendAsync(request, getNextBlocksResponseParser, parserExecutor)
+            .whenComplete((response, error) -> responseTime = System.currentTimeMillis() - startTime)
+            .thenApply(this::processResponse);
+    }
 
+    private List<BlockImpl> processResponse(GetNextBlocksResponse response) {
         if (response == null) {
             log.debug("NULL GetNextBlocks response from peer: {}", peer.getAnnouncedAddress());
             return null;
@@ -131,18 +130,18 @@ public class GetNextBlocksTask implements Callable<List<BlockImpl>> {
     }
 
     /**
-     * Return the callable future
+     * Return the request future
      *
-     * @return Callable future
+     * @return Request future
      */
     public Future<List<BlockImpl>> getFuture() {
         return future;
     }
 
     /**
-     * Set the callable future
+     * Set the request future
      *
-     * @param future Callable future
+     * @param future Request future
      */
     public void setFuture(Future<List<BlockImpl>> future) {
         this.future = future;
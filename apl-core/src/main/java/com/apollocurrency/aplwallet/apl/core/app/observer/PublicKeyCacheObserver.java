@@ -2,13 +2,9 @@ package com.apollocurrency.aplwallet.apl.core.app.observer;
 
 import com.apollocurrency.aplwallet.apl.core.app.observer.events.BlockEvent;
 import com.apollocurrency.aplwallet.apl.core.app.observer.events.BlockEventType;
-import com.apollocurrency.aplwallet.apl.core.cache.PublicKeyCacheConfig;
-import com.apollocurrency.aplwallet.apl.core.dao.state.keyfactory.DbKey;
+import com.apollocurrency.aplwallet.apl.core.dao.state.publickey.PublicKeyTableProducer;
 import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Block;
-import com.apollocurrency.aplwallet.apl.core.entity.state.account.PublicKey;
 import com.apollocurrency.aplwallet.apl.core.shard.DbHotSwapConfig;
-import com.apollocurrency.aplwallet.apl.util.cache.InMemoryCacheManager;
-import com.google.common.cache.Cache;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.enterprise.event.Observes;
@@ -19,22 +15,20 @@ import javax.inject.Singleton;
 @Singleton
 public class PublicKeyCacheObserver {
 
-    private InMemoryCacheManager cacheManager;
-    private Cache<DbKey, PublicKey> publicKeyCache;
+    private final PublicKeyTableProducer publicKeyTableProducer;
 
     @Inject
-    public PublicKeyCacheObserver(InMemoryCacheManager cacheManager) {
-        this.cacheManager = cacheManager;
-        this.publicKeyCache = cacheManager.acquireCache(PublicKeyCacheConfig.PUBLIC_KEY_CACHE_NAME);
+    public PublicKeyCacheObserver(PublicKeyTableProducer publicKeyTableProducer) {
+        this.publicKeyTableProducer = publicKeyTableProducer;
     }
 
 
     public void onRescanBegan(@Observes @BlockEvent(BlockEventType.RESCAN_BEGIN) Block block) {
-        publicKeyCache.invalidateAll();
+        publicKeyTableProducer.invalidateCache();
     }
 
     public void onDbHotSwapBegin(@Observes DbHotSwapConfig dbHotSwapConfig) {
-        publicKeyCache.invalidateAll();
+        publicKeyTableProducer.invalidateCache();
     }
 
     //TODO: Don't remove this comment, that code might be helpful for further data layer redesign
@@ -0,0 +1,313 @@
+/*
+ * Copyright © 2020-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.app.runnable;
+
+import com.apollocurrency.aplwallet.apl.core.app.GetNextBlocksTask;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Block;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.BlockImpl;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.PeerBlock;
+import com.apollocurrency.aplwallet.apl.core.peer.Peer;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Downloads blocks of the chain from several peers and returns them in the chain order.
+ * <p>Chain is split into segments, up to maxSegmentsInFlight segments are requested at the same time from different peers.
+ * Blocks, which arrive out of order, are buffered until all previous blocks are downloaded. Segment is requested again
+ * from another peer, when the peer returned no blocks or only a part of them, and a duplicate request is sent to another peer,
+ * when the segment blocks all other downloaded blocks for more than stragglerTimeout ms.
+ * Only the request, which returned no valid blocks, is counted as the segment failure, so that the segment is not
+ * abandoned because of the duplicate requests, which returned the blocks already downloaded by another peer.</p>
+ * <p>Requests are sent by the non-blocking peer API, so that no thread waits for the peer responses,
+ * completed requests are queued and handled by the download thread.</p>
+ * <p>Not thread-safe, should be used by the single blockchain download thread</p>
+ */
+@Slf4j
+class BlockDownloadPipeline {
+    private static final int MAX_SEGMENT_FAILURES = 3;
+
+    private final List<Long> chainBlockIds;
+    private final Peer feederPeer;
+    private final List<Peer> peers;
+    private final int maxSegmentsInFlight;
+    private final long stragglerTimeout;
+    private final SegmentTaskFactory taskFactory;
+    private final ExecutorService networkService;
+    private final BlockingQueue<Request> completedRequests = new LinkedBlockingQueue<>();
+
+    private final Queue<Segment> pendingSegments = new ArrayDeque<>();
+    private final LinkedList<Segment> inFlightSegments = new LinkedList<>();
+    private final Set<Request> requests = new HashSet<>();
+    private final Map<Long, PeerBlock> downloadedBlocks = new HashMap<>();
+    private int nextIndex = 1;
+    private int nextPeerIndex;
+    private boolean failed; // stop requesting new segments, when one of them cannot be downloaded
+    @Getter
+    private long maxResponseTime;
+    @Getter
+    private Peer slowestPeer;
+
+    /**
+     * @param chainBlockIds       ids of the blocks to download, the first one is the common block
+     * @param segmentSize         number of blocks requested by the single getNextBlocks request
+     * @param feederPeer          peer, which supplied chainBlockIds
+     * @param peers               peers to download blocks from
+     * @param networkService      executor for the getNextBlocks responses parsing
+     * @param maxSegmentsInFlight max number of segments requested at the same time
+     * @param stragglerTimeout    time in ms to wait for the segment, which blocks the download, before its request
+     *                            will be duplicated to another peer
+     * @param taskFactory         creates getNextBlocks request task for the given segment boundaries
+     */
+    BlockDownloadPipeline(List<Long> chainBlockIds, int segmentSize, Peer feederPeer, List<Peer> peers,
+                          ExecutorService networkService, int maxSegmentsInFlight, long stragglerTimeout,
+                          SegmentTaskFactory taskFactory) {
+        this.chainBlockIds = chainBlockIds;
+        this.feederPeer = feederPeer;
+        this.peers = peers;
+        this.maxSegmentsInFlight = Math.max(1, maxSegmentsInFlight);
+        this.stragglerTimeout = stragglerTimeout;
+        this.taskFactory = taskFactory;
+        this.networkService = networkService;
+        int stop = chainBlockIds.size() - 1;
+        for (int start = 0; start < stop; start += segmentSize) {
+            pendingSegments.add(new Segment(start, Math.min(start + segmentSize, stop)));
+        }
+        this.nextPeerIndex = peers.isEmpty() ? 0 : ThreadLocalRandom.current().nextInt(peers.size());
+    }
+
+    /**
+     * Wait for the next block of the chain
+     *
+     * @return next block of the chain or null, when all blocks were returned or the next block cannot be downloaded
+     * @throws InterruptedException when download thread was interrupted
+     */
+    PeerBlock next() throws InterruptedException {
+        while (true) {
+            PeerBlock peerBlock = poll();
+            if (peerBlock != null || nextIndex >= chainBlockIds.size() || inFlightSegments.isEmpty()) {
+                return peerBlock;
+            }
+            Segment head = inFlightSegments.getFirst();
+            if (head.failed) {
+                return null;
+            }
+            Request completed = completedRequests.poll(stragglerTimeout, TimeUnit.MILLISECONDS);
+            if (completed != null) {
+                handleCompleted(completed);
+            } else if (head.requests.size() < 2) {
+                log.debug("Segment [{}..{}] is downloading for more than {} ms, request it from another peer",
+                    head.start, head.stop, stragglerTimeout);
+                submit(head);
+            }
+        }
+    }
+
+    /**
+     * @return next block of the chain, when it is already downloaded, otherwise null
+     */
+    PeerBlock poll() {
+        Request completed;
+        while ((completed = completedRequests.poll()) != null) {
+            handleCompleted(completed);
+        }
+        fillWindow();
+        if (nextIndex >= chainBlockIds.size()) {
+            return null;
+        }
+        PeerBlock peerBlock = downloadedBlocks.remove(chainBlockIds.get(nextIndex));
+        if (peerBlock != null) {
+            nextIndex++;
+        }
+        return peerBlock;
+    }
+
+    /**
+     * Cancel all requests, which are in flight, and release downloaded blocks
+     */
+    void cancel() {
+        requests.forEach(request -> request.future.cancel(false));
+        requests.clear();
+        completedRequests.clear();
+        inFlightSegments.clear();
+        pendingSegments.clear();
+        downloadedBlocks.clear();
+    }
+
+    private void fillWindow() {
+        while (!failed && inFlightSegments.size() < maxSegmentsInFlight && !pendingSegments.isEmpty()) {
+            Segment segment = pendingSegments.poll();
+            inFlightSegments.add(segment);
+            submit(segment);
+        }
+    }
+
+    private void submit(Segment segment) {
+        Peer peer = selectPeer(segment);
+        if (peer == null) {
+            if (segment.requests.isEmpty()) {
+                log.debug("Unable to download segment [{}..{}], no more peers to try", segment.start, segment.stop);
+                segment.failed = true;
+                failed = true;
+            }
+            return;
+        }
+        GetNextBlocksTask task = taskFactory.create(segment.start, segment.stop);
+        task.setPeer(peer);
+        CompletableFuture<List<BlockImpl>> future = task.sendAsync(networkService);
+        task.setFuture(future);
+        Request request = new Request(segment, task, future, peer, segment.start);
+        segment.requests.add(request);
+        requests.add(request);
+        future.whenComplete((blocks, error) -> completedRequests.add(request));
+    }
+
+    /**
+     * First segment and the first retry of the other segments are sent to the feeder peer,
+     * other requests are distributed between connected peers, which did not fail to return blocks of this segment yet
+     * and are not downloading this segment right now
+     */
+    private Peer selectPeer(Segment segment) {
+        if (segment.failures >= MAX_SEGMENT_FAILURES) {
+            return null;
+        }
+        if ((segment.first || segment.failures > 0) && segment.canRequest(feederPeer)) {
+            return feederPeer;
+        }
+        for (int i = 0; i < peers.size(); i++) {
+            if (nextPeerIndex >= peers.size()) {
+                nextPeerIndex = 0;
+            }
+            Peer peer = peers.get(nextPeerIndex++);
+            if (segment.canRequest(peer)) {
+                return peer;
+            }
+        }
+        return segment.canRequest(feederPeer) ? feederPeer : null;
+    }
+
+    private void handleCompleted(Request request) {
+        if (!requests.remove(request)) {
+            return;
+        }
+        Segment segment = request.segment;
+        segment.requests.remove(request);
+        List<BlockImpl> blocks = getResult(request);
+        if (request.task.getResponseTime() > maxResponseTime) {
+            maxResponseTime = request.task.getResponseTime();
+            slowestPeer = request.peer;
+        }
+        if (segment.isDone()) {
+            return;
+        }
+        // peer failed, when it returned no valid blocks; a duplicate request may return only the blocks,
+        // which were already downloaded by another request, it is a partial progress, not a failure
+        boolean peerFailed = true;
+        if (blocks != null) {
+            int index = request.start + 1;
+            for (Block block : blocks) {
+                if (index > segment.stop || block.getId() != chainBlockIds.get(index)) {
+                    break;
+                }
+                downloadedBlocks.putIfAbsent(block.getId(), new PeerBlock(request.peer, block));
+                index++;
+            }
+            peerFailed = index - 1 == request.start;
+            if (index - 1 > segment.start) {
+                segment.start = index - 1;
+            } else if (!peerFailed) {
+                log.trace("Peer {} returned blocks of the segment [{}..{}], which are already downloaded",
+                    request.peer.getHost(), request.start, segment.stop);
+            }
+        }
+        if (peerFailed) {
+            segment.failures++;
+            segment.failedPeers.add(request.peer);
+        }
+        if (segment.isDone()) {
+            segment.requests.forEach(duplicate -> {
+                duplicate.future.cancel(false);
+                requests.remove(duplicate);
+            });
+            segment.requests.clear();
+            inFlightSegments.remove(segment);
+        } else if (segment.requests.isEmpty()) {
+            submit(segment);
+        }
+    }
+
+    private List<BlockImpl> getResult(Request request) {
+        try {
+            return request.future.getNow(null);
+        } catch (CancellationException e) {
+            return null;
+        } catch (CompletionException e) {
+            log.debug("Unable to get blocks from peer {}: {}", request.peer.getHost(), e.getCause().toString());
+            return null;
+        }
+    }
+
+    @FunctionalInterface
+    interface SegmentTaskFactory {
+        GetNextBlocksTask create(int start, int stop);
+    }
+
+    private static class Segment {
+        private final boolean first;
+        private final int stop;
+        private final List<Request> requests = new ArrayList<>(2);
+        private final Set<Peer> failedPeers = new HashSet<>();
+        private int start;
+        private int failures;
+        private boolean failed;
+
+        Segment(int start, int stop) {
+            this.first = start == 0;
+            this.start = start;
+            this.stop = stop;
+        }
+
+        boolean isDone() {
+            return start >= stop;
+        }
+
+        boolean canRequest(Peer peer) {
+            return !failedPeers.contains(peer) && requests.stream().noneMatch(request -> request.peer == peer);
+        }
+    }
+
+    private static class Request {
+        private final Segment segment;
+        private final GetNextBlocksTask task;
+        private final CompletableFuture<List<BlockImpl>> future;
+        private final Peer peer;
+        private final int start;
+
+        Request(Segment segment, GetNextBlocksTask task, CompletableFuture<List<BlockImpl>> future, Peer peer, int start) {
+            this.segment = segment;
+            this.task = task;
+            this.future = future;
+            this.peer = peer;
+            this.start = start;
+        }
+    }
+}
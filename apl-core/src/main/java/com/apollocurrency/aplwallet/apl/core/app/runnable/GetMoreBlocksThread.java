@@ -14,7 +14,6 @@ import com.apollocurrency.aplwallet.apl.core.app.AplException;
 import com.apollocurrency.aplwallet.apl.core.app.GetNextBlocksTask;
 import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
 import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Block;
-import com.apollocurrency.aplwallet.apl.core.entity.blockchain.BlockImpl;
 import com.apollocurrency.aplwallet.apl.core.entity.blockchain.BlockchainProcessorState;
 import com.apollocurrency.aplwallet.apl.core.entity.blockchain.PeerBlock;
 import com.apollocurrency.aplwallet.apl.core.peer.Peer;
@@ -26,6 +25,7 @@ import com.apollocurrency.aplwallet.apl.core.peer.parser.GetMilestoneBlockIdsRes
 import com.apollocurrency.aplwallet.apl.core.peer.parser.GetNextBlockIdsResponseParser;
 import com.apollocurrency.aplwallet.apl.core.peer.parser.GetNextBlocksResponseParser;
 import com.apollocurrency.aplwallet.apl.core.service.appdata.TimeService;
+import com.apollocurrency.aplwallet.apl.core.service.blockchain.BlockPreValidator;
 import com.apollocurrency.aplwallet.apl.core.service.blockchain.BlockSerializer;
 import com.apollocurrency.aplwallet.apl.core.service.blockchain.Blockchain;
 import com.apollocurrency.aplwallet.apl.core.service.blockchain.BlockchainProcessor;
@@ -40,14 +40,8 @@ import lombok.extern.slf4j.Slf4j;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
-import java.util.concurrent.ThreadLocalRandom;
 
 @Slf4j
 public class GetMoreBlocksThread implements Runnable {
@@ -62,11 +56,14 @@ public class GetMoreBlocksThread implements Runnable {
     private final ExecutorService networkService;
     private final TransactionProcessor transactionProcessor;
     private final Integer defaultNumberOfForkConfirmations;
+    private final int maxSegmentsInFlight;
+    private final long stragglerTimeout;
 
     private final BlockchainProcessorState blockchainProcessorState;
     private final GetCumulativeDifficultyRequest getCumulativeDifficultyRequest;
     private final GetNextBlocksResponseParser getNextBlocksResponseParser;
     private final BlockSerializer blockSerializer;
+    private final BlockPreValidator blockPreValidator;
 
     private boolean peerHasMore;
     private List<Peer> connectedPublicPeers;
@@ -81,7 +78,8 @@ public class GetMoreBlocksThread implements Runnable {
                                ExecutorService networkService, PropertiesHolder propertiesHolder,
                                TransactionProcessor transactionProcessor,
                                GetNextBlocksResponseParser getNextBlocksResponseParser,
-                               BlockSerializer blockSerializer) {
+                               BlockSerializer blockSerializer,
+                               BlockPreValidator blockPreValidator) {
         this.blockchainProcessor = blockchainProcessor;
         this.blockchainProcessorState = blockchainProcessorState;
 
@@ -94,9 +92,12 @@ public class GetMoreBlocksThread implements Runnable {
         this.networkService = networkService;
         this.transactionProcessor = transactionProcessor;
         this.defaultNumberOfForkConfirmations = propertiesHolder.getIntProperty("apl.numberOfForkConfirmations");
+        this.maxSegmentsInFlight = propertiesHolder.getIntProperty("apl.blockDownload.segmentsInFlight", 20);
+        this.stragglerTimeout = propertiesHolder.getIntProperty("apl.blockDownload.stragglerTimeout", 5000);
         this.getNextBlocksResponseParser = getNextBlocksResponseParser;
         this.getCumulativeDifficultyRequest = new GetCumulativeDifficultyRequest(blockchainConfig.getChain().getChainId());
         this.blockSerializer = blockSerializer;
+        this.blockPreValidator = blockPreValidator;
     }
 
     @Override
@@ -419,112 +420,88 @@ public class GetMoreBlocksThread implements Runnable {
      */
     private void downloadBlockchain(final Peer feederPeer, final Block commonBlock, final int startHeight) throws InterruptedException {
         log.debug("Downloading blockchain from: {} at height: {}", feederPeer.getHostWithPort(), startHeight);
-        Map<Long, PeerBlock> blockMap = new HashMap<>();
         //
         // Break the download into multiple segments.  The first block in each segment
-        // is the common block for that segment.
+        // is the common block for that segment. Segments are downloaded from different peers
+        // and blocks are returned by the pipeline in the chain order.
         //
-        List<GetNextBlocksTask> getList = new ArrayList<>();
         int segSize = Constants.MAX_AUTO_ROLLBACK / 20;
-        int stop = chainBlockIds.size() - 1;
-        for (int start = 0; start < stop; start += segSize) {
-            getList.add(new GetNextBlocksTask(chainBlockIds, start,
-                Math.min(start + segSize, stop), startHeight, blockchainConfig, getNextBlocksResponseParser));
+        BlockDownloadPipeline pipeline = new BlockDownloadPipeline(chainBlockIds, segSize, feederPeer, connectedPublicPeers,
+            networkService, maxSegmentsInFlight, stragglerTimeout,
+            (start, stop) -> new GetNextBlocksTask(chainBlockIds, start, stop, startHeight, blockchainConfig, getNextBlocksResponseParser));
+        try {
+            if (blockchain.getLastBlock().getId() == commonBlock.getId()) {
+                pushDownloadedBlocks(pipeline, startHeight);
+            } else {
+                processDownloadedFork(pipeline, feederPeer, commonBlock, startHeight);
+            }
+        } finally {
+            pipeline.cancel();
         }
-        int nextPeerIndex = ThreadLocalRandom.current().nextInt(connectedPublicPeers.size());
-        long maxResponseTime = 0;
-        Peer slowestPeer = null;
-        //
-        // Issue the getNextBlocks requests and get the results.  We will repeat
-        // a request if the peer didn't respond or returned a partial block list.
-        // The download will be aborted if we are unable to get a segment after
-        // retrying with different peers.
-        //
-        download:
-        while (!getList.isEmpty()) {
-            //
-            // Submit threads to issue 'getNextBlocks' requests.  The first segment
-            // will always be sent to the feeder peer.  Subsequent segments will
-            // be sent to the feeder peer if we failed trying to download the blocks
-            // from another peer.  We will stop the download and process any pending
-            // blocks if we are unable to download a segment from the feeder peer.
-            //
-            for (GetNextBlocksTask nextBlocks : getList) {
-                Peer peer;
-                if (nextBlocks.getRequestCount() > 1) {
-                    break download;
-                }
-                if (nextBlocks.getStart() == 0 || nextBlocks.getRequestCount() != 0) {
-                    peer = feederPeer;
-                } else {
-                    if (nextPeerIndex >= connectedPublicPeers.size()) {
-                        nextPeerIndex = 0;
-                    }
-                    peer = connectedPublicPeers.get(nextPeerIndex++);
+        Peer slowestPeer = pipeline.getSlowestPeer();
+        if (slowestPeer != null && connectedPublicPeers.size() >= PeersService.maxNumberOfConnectedPublicPeers && chainBlockIds.size() > Constants.MAX_AUTO_ROLLBACK / 2) {
+            log.debug("Solwest peer {} took {} ms, disconnecting", slowestPeer.getHost(), pipeline.getMaxResponseTime());
+            slowestPeer.deactivate("This peer is slowest");
+        }
+    }
+
+    /**
+     * Push blocks to the blockchain as soon as they are downloaded, while the next segments are still downloading.
+     * Write lock is held only while pushing a single block. Stateless validation (signatures, payload) of the block is
+     * finished before acquiring the lock and validation of the next downloaded block is started before pushing the current one,
+     * so that it runs in parallel with the current block processing.
+     * We will stop if we encounter a missing or invalid block.
+     */
+    private void pushDownloadedBlocks(BlockDownloadPipeline pipeline, int startHeight) throws InterruptedException {
+        PeerBlock peerBlock = pipeline.next();
+        while (peerBlock != null) {
+            Block block = peerBlock.getBlock();
+            PeerBlock nextPeerBlock = pipeline.poll();
+            if (nextPeerBlock != null) {
+                blockPreValidator.submit(nextPeerBlock.getBlock());
+            }
+            blockPreValidator.prepare(block);
+//TODO: check do we need this lock
+// Maybe better to find another sync solution
+            globalSync.writeLock();
+            try {
+                if (blockchain.getHeight() - startHeight >= Constants.MAX_AUTO_ROLLBACK) {
+                    return;
                 }
-                if (nextBlocks.getPeer() == peer) {
-                    break download;
+                if (blockchain.getLastBlock().getId() != block.getPreviousBlockId()) {
+                    log.debug("Downloaded block {} does not continue the blockchain, stop download", block.getId());
+                    return;
                 }
-                nextBlocks.setPeer(peer);
-                Future<List<BlockImpl>> future = networkService.submit(nextBlocks);
-                nextBlocks.setFuture(future);
-            }
-            //
-            // Get the results.  A peer is on a different fork if a returned
-            // block is not in the block identifier list.
-            //
-            Iterator<GetNextBlocksTask> it = getList.iterator();
-            while (it.hasNext()) {
-                GetNextBlocksTask nextBlocks = it.next();
-                List<BlockImpl> blockList;
                 try {
-                    blockList = nextBlocks.getFuture().get();
-                } catch (ExecutionException exc) {
-                    throw new RuntimeException(exc.getMessage(), exc);
-                }
-                if (blockList == null) {
-// most certainly this is wrong. We should not kill peer if it does not have blocks higher then we
-//                        nextBlocks.getPeer().deactivate();
-                    continue;
-                }
-                Peer peer = nextBlocks.getPeer();
-                int index = nextBlocks.getStart() + 1;
-                for (Block block : blockList) {
-                    if (block.getId() != chainBlockIds.get(index)) {
-                        break;
-                    }
-                    blockMap.put(block.getId(), new PeerBlock(peer, block));
-                    index++;
-                }
-                if (index > nextBlocks.getStop()) {
-                    it.remove();
-                } else {
-                    nextBlocks.setStart(index - 1);
-                }
-                if (nextBlocks.getResponseTime() > maxResponseTime) {
-                    maxResponseTime = nextBlocks.getResponseTime();
-                    slowestPeer = nextBlocks.getPeer();
+                    blockchainProcessor.pushBlock(block);
+                } catch (BlockchainProcessor.BlockNotAcceptedException e) {
+                    peerBlock.getPeer().blacklist(e);
+                    return;
                 }
+            } finally {
+                globalSync.writeUnlock();
             }
-
+            peerBlock = nextPeerBlock != null ? nextPeerBlock : pipeline.next();
         }
-        if (slowestPeer != null && connectedPublicPeers.size() >= PeersService.maxNumberOfConnectedPublicPeers && chainBlockIds.size() > Constants.MAX_AUTO_ROLLBACK / 2) {
-            log.debug("Solwest peer {} took {} ms, disconnecting", slowestPeer.getHost(), maxResponseTime);
-            slowestPeer.deactivate("This peer is slowest");
+    }
+
+    /**
+     * Download all blocks of the peer's fork and then switch to it. We will stop if we encounter
+     * a missing block (this will happen if an invalid block is encountered when downloading the blocks)
+     */
+    private void processDownloadedFork(BlockDownloadPipeline pipeline, Peer feederPeer, Block commonBlock, int startHeight) throws InterruptedException {
+        List<PeerBlock> peerBlocks = new ArrayList<>();
+        PeerBlock downloadedBlock;
+        while ((downloadedBlock = pipeline.next()) != null) {
+            peerBlocks.add(downloadedBlock);
         }
-        //
-        // Add the new blocks to the blockchain.  We will stop if we encounter
-        // a missing block (this will happen if an invalid block is encountered
-        // when downloading the blocks)
-        //
 //TODO: check do we need this lock
 // Maybe better to find another sync solution
         globalSync.writeLock();
         try {
             List<Block> forkBlocks = new ArrayList<>();
-            for (int index = 1; index < chainBlockIds.size() && blockchain.getHeight() - startHeight < Constants.MAX_AUTO_ROLLBACK; index++) {
-                PeerBlock peerBlock = blockMap.get(chainBlockIds.get(index));
-                if (peerBlock == null) {
+            for (PeerBlock peerBlock : peerBlocks) {
+                if (blockchain.getHeight() - startHeight >= Constants.MAX_AUTO_ROLLBACK) {
                     break;
                 }
                 Block block = peerBlock.getBlock();
@@ -549,7 +526,6 @@ public class GetMoreBlocksThread implements Runnable {
         } finally {
             globalSync.writeUnlock();
         }
-
     }
 
     private void processFork(final Peer peer, final List<Block> forkBlocks, final Block commonBlock) {
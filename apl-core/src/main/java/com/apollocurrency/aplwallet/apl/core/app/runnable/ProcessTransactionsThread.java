@@ -9,6 +9,7 @@ import com.apollocurrency.aplwallet.api.p2p.respons.GetUnconfirmedTransactionsRe
 import com.apollocurrency.aplwallet.apl.core.app.AplException;
 import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
 import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Transaction;
+import com.apollocurrency.aplwallet.apl.core.peer.BinaryP2PCodec;
 import com.apollocurrency.aplwallet.apl.core.peer.Peer;
 import com.apollocurrency.aplwallet.apl.core.peer.PeerState;
 import com.apollocurrency.aplwallet.apl.core.peer.PeersService;
@@ -35,6 +36,7 @@ import java.util.stream.Collectors;
 public class ProcessTransactionsThread implements Runnable {
 
     private BlockchainProcessor blockchainProcessor;
+    private BinaryP2PCodec binaryP2PCodec;
     private final TransactionProcessor transactionProcessor;
     private final MemPool memPool;
     private final BlockchainConfig blockchainConfig;
@@ -73,18 +75,24 @@ public class ProcessTransactionsThread implements Runnable {
                 Collections.sort(exclude);
 
                 request.setExclude(exclude);
+                request.setBinary(lookupBinaryP2PCodec().isSupportedBy(peer));
 
                 GetUnconfirmedTransactionsResponse response = peer.send(request, new GetUnconfirmedTransactionsResponseParser());
 
-                if (response == null || CollectionUtil.isEmpty(response.unconfirmedTransactions)) {
+                if (response == null || (CollectionUtil.isEmpty(response.unconfirmedTransactions) && response.unconfirmedTransactionsBinary == null)) {
                     return;
                 }
 
                 try {
-                    List<Transaction> transactions = response.unconfirmedTransactions
-                        .stream()
-                        .map(dtoConverter::convert)
-                        .collect(Collectors.toList());
+                    List<Transaction> transactions;
+                    if (response.unconfirmedTransactionsBinary != null) {
+                        transactions = lookupBinaryP2PCodec().decodeTransactions(response.unconfirmedTransactionsBinary);
+                    } else {
+                        transactions = response.unconfirmedTransactions
+                            .stream()
+                            .map(dtoConverter::convert)
+                            .collect(Collectors.toList());
+                    }
 
                     log.trace("Will process {} txs from peer {}", transactions.size(), peer.getAnnouncedAddress());
 
@@ -109,4 +117,11 @@ public class ProcessTransactionsThread implements Runnable {
         return blockchainProcessor;
     }
 
+    private BinaryP2PCodec lookupBinaryP2PCodec() {
+        if (binaryP2PCodec == null) {
+            binaryP2PCodec = CDI.current().select(BinaryP2PCodec.class).get();
+        }
+        return binaryP2PCodec;
+    }
+
 }
@@ -0,0 +1,23 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.core.cache;
+
+import com.apollocurrency.aplwallet.apl.util.cache.CacheConfigurator;
+import com.apollocurrency.aplwallet.apl.util.cache.InMemoryCacheManager;
+
+public class VerifiedSignatureCacheConfig extends CacheConfigurator {
+
+    public static final String VERIFIED_SIGNATURE_CACHE_NAME = "VERIFIED_SIGNATURE_CACHE";
+
+    public VerifiedSignatureCacheConfig(int priority) {
+        super(VERIFIED_SIGNATURE_CACHE_NAME,
+            InMemoryCacheManager.newCalc()
+                .addAggregation(0) // HashCode key object
+                .addArrayExtra(32) // transaction full hash
+                .addReference() // verification mark
+                .calc(),
+            priority);
+    }
+}
@@ -61,6 +61,21 @@ public interface TransactionIndexDao {
     @DatabaseSpecificDml(DmlMarker.IFNULL_USE)
     long countTransactionIndexByShardId(@Bind("shardId") long shardId);
 
+    @Transactional(readOnly = true)
+    @SqlQuery("SELECT count(*) FROM transaction_shard_index")
+    long countTransactionIndex();
+
+    /**
+     * Page through the indexed transaction ids in ascending order
+     *
+     * @param fromId min transaction id, inclusive
+     * @param limit  max number of ids
+     * @return ids, which are not less than fromId
+     */
+    @Transactional(readOnly = true)
+    @SqlQuery("SELECT transaction_id FROM transaction_shard_index WHERE transaction_id >= :fromId ORDER BY transaction_id LIMIT :limit")
+    List<Long> getTransactionIds(@Bind("fromId") long fromId, @Bind("limit") int limit);
+
     @Transactional(readOnly = true)
     @SqlQuery("SELECT height from transaction_shard_index where transaction_id = :transactionId")
     Integer getTransactionHeightByTransactionId(@Bind("transactionId") long transactionId);
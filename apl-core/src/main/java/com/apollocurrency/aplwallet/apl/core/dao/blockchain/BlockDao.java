@@ -59,6 +59,8 @@ public interface BlockDao {
 
     int getBlockCount(TransactionalDataSource dataSource, long accountId);
 
+    int getBlockCount(TransactionalDataSource dataSource, long accountId, int timestamp);
+
     List<Long> getBlockIdsAfter(int height, int limit);
 
 //    List<Block> getBlocksAfter(long blockId, int limit, List<Block> result);
@@ -349,12 +349,21 @@ public class BlockDaoImpl implements BlockDao {
 
     @Override
     public int getBlockCount(TransactionalDataSource dataSource, long accountId) {
+        return getBlockCount(dataSource, accountId, 0);
+    }
+
+    @Override
+    public int getBlockCount(TransactionalDataSource dataSource, long accountId, int timestamp) {
         if (dataSource == null) {
             dataSource = databaseManager.getDataSource();
         }
         try (Connection con = dataSource.getConnection();
-             PreparedStatement pstmt = con.prepareStatement("SELECT COUNT(*) FROM block WHERE generator_id = ?")) {
+             PreparedStatement pstmt = con.prepareStatement("SELECT COUNT(*) FROM block WHERE generator_id = ?"
+                 + (timestamp > 0 ? " AND timestamp >= ?" : ""))) {
             pstmt.setLong(1, accountId);
+            if (timestamp > 0) {
+                pstmt.setInt(2, timestamp);
+            }
             try (ResultSet rs = pstmt.executeQuery()) {
                 rs.next();
                 return rs.getInt(1);
@@ -12,6 +12,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.function.LongConsumer;
 
 public interface TransactionDao {
 
@@ -47,6 +48,11 @@ public interface TransactionDao {
 
     int getTransactionCount();
 
+    /**
+     * Pass ids of all transactions stored in the given datasource to the consumer without loading transactions
+     */
+    void forEachTransactionId(TransactionalDataSource dataSource, LongConsumer consumer);
+
     Long getTransactionCount(TransactionalDataSource dataSource, int from, int to);
 
     List<Transaction> loadTransactionList(Connection conn, PreparedStatement pstmt) throws SQLException, AplException.NotValidException;
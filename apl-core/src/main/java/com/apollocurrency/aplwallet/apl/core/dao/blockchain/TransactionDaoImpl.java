@@ -58,6 +58,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.LongConsumer;
 
 import static com.apollocurrency.aplwallet.apl.core.transaction.TransactionTypes.TransactionTypeSpec.PRIVATE_PAYMENT;
 
@@ -346,7 +347,7 @@ public class TransactionDaoImpl implements TransactionDao {
     }
 
     @Override
-    public synchronized int getTransactionCount() {
+    public int getTransactionCount() {
         TransactionalDataSource dataSource = databaseManager.getDataSource();
         try (Connection con = dataSource.getConnection();
              PreparedStatement pstmt = con.prepareStatement("SELECT COUNT(*) FROM transaction");
@@ -359,13 +360,26 @@ public class TransactionDaoImpl implements TransactionDao {
     }
 
     @Override
-    public synchronized Long getTransactionCount(TransactionalDataSource dataSource, int from, int to) {
+    public void forEachTransactionId(TransactionalDataSource dataSource, LongConsumer consumer) {
+        try (Connection con = dataSource.getConnection();
+             PreparedStatement pstmt = con.prepareStatement("SELECT id FROM transaction");
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                consumer.accept(rs.getLong(1));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e.toString(), e);
+        }
+    }
+
+    @Override
+    public Long getTransactionCount(TransactionalDataSource dataSource, int from, int to) {
         if (dataSource == null) {
             // select from main db
             dataSource = databaseManager.getDataSource();
         }
-        try (Connection con = dataSource.getConnection()) {
-            PreparedStatement pstmt = con.prepareStatement("SELECT count(*) FROM transaction WHERE height >= ? AND height < ?");
+        try (Connection con = dataSource.getConnection();
+             PreparedStatement pstmt = con.prepareStatement("SELECT count(*) FROM transaction WHERE height >= ? AND height < ?")) {
             pstmt.setInt(1, from);
             pstmt.setInt(2, to);
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -380,7 +394,7 @@ public class TransactionDaoImpl implements TransactionDao {
     }
 
     @Override
-    public synchronized List<Transaction> getTransactions(
+    public List<Transaction> getTransactions(
         TransactionalDataSource dataSource,
         long accountId, int numberOfConfirmations, byte type, byte subtype,
         int blockTimestamp, boolean withMessage, boolean phasedOnly, boolean nonPhasedOnly,
@@ -393,10 +407,10 @@ public class TransactionDaoImpl implements TransactionDao {
         createTransactionSelectSqlWithOrder(buf, "transaction.*", type, subtype,
             blockTimestamp, withMessage, phasedOnly, nonPhasedOnly, executedOnly, includePrivate, height);
         buf.append(DbUtils.limitsClause(from, to)); // append 'limit offset' clause
-        try (Connection con = dataSource.getConnection()) {
-            String sql = buf.toString();
-            log.trace("getTx sql = {}\naccountId={}, from={}, to={}", sql, accountId, from, to);
-            PreparedStatement pstmt = con.prepareStatement(sql);
+        String sql = buf.toString();
+        log.trace("getTx sql = {}\naccountId={}, from={}, to={}", sql, accountId, from, to);
+        try (Connection con = dataSource.getConnection();
+             PreparedStatement pstmt = con.prepareStatement(sql)) {
             int i = setStatement(pstmt, accountId, numberOfConfirmations, type, subtype, blockTimestamp,
                 withMessage, phasedOnly, nonPhasedOnly, includeExpiredPrunable, executedOnly, includePrivate, height, prunableExpiration);
             DbUtils.setLimits(++i, pstmt, from, to); // // append 'limit offset' clauese values
@@ -492,7 +506,7 @@ public class TransactionDaoImpl implements TransactionDao {
     }
 
     @Override
-    public synchronized int getTransactionCountByFilter(
+    public int getTransactionCountByFilter(
         TransactionalDataSource dataSource, long accountId,
         int numberOfConfirmations, byte type, byte subtype, int blockTimestamp, boolean withMessage, boolean phasedOnly,
         boolean nonPhasedOnly, boolean includeExpiredPrunable, boolean executedOnly,
@@ -565,7 +579,7 @@ public class TransactionDaoImpl implements TransactionDao {
     }
 
     @Override
-    public synchronized List<Transaction> getTransactions(byte type, byte subtype, int from, int to) {
+    public List<Transaction> getTransactions(byte type, byte subtype, int from, int to) {
         StringBuilder sqlQuery = new StringBuilder("SELECT * FROM transaction WHERE (type <> ? OR subtype <> ?) ");
         if (type >= 0) {
             sqlQuery.append("AND type = ? ");
@@ -596,7 +610,7 @@ public class TransactionDaoImpl implements TransactionDao {
     }
 
     @Override
-    public synchronized List<Transaction> getTransactions(int fromDbId, int toDbId) {
+    public List<Transaction> getTransactions(int fromDbId, int toDbId) {
         TransactionalDataSource dataSource = databaseManager.getDataSource();
         try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement("SELECT * FROM transaction where DB_ID >= ? and DB_ID < ? order by height asc, transaction_index asc")) {
@@ -609,7 +623,7 @@ public class TransactionDaoImpl implements TransactionDao {
     }
 
     @Override
-    public synchronized List<TransactionDbInfo> getTransactionsBeforeHeight(int height) {
+    public List<TransactionDbInfo> getTransactionsBeforeHeight(int height) {
         List<TransactionDbInfo> result = new ArrayList<>();
         try (Connection con = databaseManager.getDataSource().getConnection();
              PreparedStatement pstmt = con.prepareStatement("SELECT db_id, id FROM transaction WHERE height < ? ORDER BY db_id")) {
@@ -627,7 +641,7 @@ public class TransactionDaoImpl implements TransactionDao {
 
 
     @Override
-    public synchronized int getTransactionCount(long accountId, byte type, byte subtype) {
+    public int getTransactionCount(long accountId, byte type, byte subtype) {
         StringBuilder sqlQuery = new StringBuilder("SELECT COUNT(*) FROM transaction WHERE (type <> ? OR subtype <> ?) AND (sender_id = ? OR recipient_id = ?) ");
         if (type >= 0) {
             sqlQuery.append("AND type = ? ");
@@ -660,8 +674,7 @@ public class TransactionDaoImpl implements TransactionDao {
 
     @Override
     public List<Transaction> getTransactions(Connection con, PreparedStatement pstmt) {
-        try {
-            ResultSet rs = pstmt.executeQuery();
+        try (ResultSet rs = pstmt.executeQuery()) {
             ArrayList<Transaction> list = new ArrayList<>();
             while (rs.next()) {
                 list.add(loadTransaction(con, rs));
@@ -685,11 +698,11 @@ public class TransactionDaoImpl implements TransactionDao {
     }
 
     @Override
-    public synchronized int getTransactionsCount(List<Long> accounts, byte type, byte subtype,
-                                                 int startTime, int endTime,
-                                                 int fromHeight, int toHeight,
-                                                 String sortOrder,
-                                                 int from, int to) {
+    public int getTransactionsCount(List<Long> accounts, byte type, byte subtype,
+                                    int startTime, int endTime,
+                                    int fromHeight, int toHeight,
+                                    String sortOrder,
+                                    int from, int to) {
         StringBuilder sqlQuery = new StringBuilder("SELECT COUNT(*) FROM transaction tx ");
         sqlQuery.append("WHERE 1=1 ");
 
@@ -702,21 +715,22 @@ public class TransactionDaoImpl implements TransactionDao {
         TransactionalDataSource dataSource = databaseManager.getDataSource();
         try (Connection con = dataSource.getConnection();
              PreparedStatement statement = con.prepareStatement(sqlQuery.toString())) {
-            int i = setSelectTransactionQueryParams(statement, type, subtype, startTime, endTime, fromHeight, toHeight);
-            ResultSet rs = statement.executeQuery();
-            rs.next();
-            return rs.getInt(1);
+            setSelectTransactionQueryParams(statement, type, subtype, startTime, endTime, fromHeight, toHeight);
+            try (ResultSet rs = statement.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
         } catch (SQLException e) {
             throw new RuntimeException(e.toString(), e);
         }
     }
 
     @Override
-    public synchronized List<TxReceipt> getTransactions(List<Long> accounts, byte type, byte subtype,
-                                                        int startTime, int endTime,
-                                                        int fromHeight, int toHeight,
-                                                        String sortOrder,
-                                                        int from, int to) {
+    public List<TxReceipt> getTransactions(List<Long> accounts, byte type, byte subtype,
+                                           int startTime, int endTime,
+                                           int fromHeight, int toHeight,
+                                           String sortOrder,
+                                           int from, int to) {
         List<TxReceipt> result = new ArrayList<>();
         StringBuilder sqlQuery = new StringBuilder("SELECT version, type, subtype, id, sender_id, recipient_id, " +
             "signature, timestamp, amount, fee, height, block_id, block_timestamp, transaction_index, " +
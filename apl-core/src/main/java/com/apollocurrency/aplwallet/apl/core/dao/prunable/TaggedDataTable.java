@@ -33,6 +33,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * We will not store files in transaction attachment, alternatively we will store it only in tagged_data table
@@ -99,6 +100,11 @@ public class TaggedDataTable extends PrunableDbTable<TaggedData> implements Sear
         return " ORDER BY block_timestamp DESC, height DESC, db_id DESC ";
     }
 
+    @Override
+    public Set<String> getTrimDependencies() {
+        return Set.of("data_tag");
+    }
+
     @Override
     public void prune(int time) {
         if (blockchainConfig.isEnablePruning()) {
@@ -12,6 +12,7 @@ import com.apollocurrency.aplwallet.apl.core.app.observer.events.TrimEvent;
 import com.apollocurrency.aplwallet.apl.core.dao.TransactionalDataSource;
 import com.apollocurrency.aplwallet.apl.core.dao.state.keyfactory.DbKey;
 import com.apollocurrency.aplwallet.apl.core.dao.state.keyfactory.KeyFactory;
+import com.apollocurrency.aplwallet.apl.core.db.DbUtils;
 import com.apollocurrency.aplwallet.apl.core.entity.state.derived.DerivedEntity;
 import com.apollocurrency.aplwallet.apl.core.service.appdata.DatabaseManager;
 import com.apollocurrency.aplwallet.apl.core.service.fulltext.FullTextConfig;
@@ -208,8 +209,6 @@ public abstract class BasicDbTable<T extends DerivedEntity> extends DerivedDbTab
             pstmtSelect.setInt(1, height);
             long startDeleteTime, deleted = 0L, deleteStm = 0L, startSelectTime = System.currentTimeMillis();
             try (ResultSet rs = pstmtSelect.executeQuery();
-                 PreparedStatement pstmtDeleteById =
-                     con.prepareStatement("DELETE FROM " + table + " WHERE db_id = ?");
                  PreparedStatement selectDbIdStatement =
                      con.prepareStatement("SELECT db_id, height " + getDeletedColumnIfSupported() + " FROM " + table + " " + keyFactory.getPKClause())) {
                 log.trace("Select 1. {} time: {} ms", table, System.currentTimeMillis() - startSelectTime);
@@ -227,12 +226,8 @@ public abstract class BasicDbTable<T extends DerivedEntity> extends DerivedDbTab
                     deleteOnTrimDataEvent.select(new AnnotationLiteral<TrimEvent>() {
                     }).fireAsync(new DeleteOnTrimData(true, Collections.emptySet(), table));
                     if (keysToDelete.size() > 0) {
-                        for (Long id : keysToDelete) {
-                            deleted += deleteByDbId(pstmtDeleteById, id);
-                            if (deleted % ShardConstants.DEFAULT_COMMIT_BATCH_SIZE == 0) {
-                                dataSource.commit(false);
-                            }
-                        }
+                        deleted = DbUtils.deleteByDbIds(con, table, keysToDelete, ShardConstants.DEFAULT_COMMIT_BATCH_SIZE,
+                            processed -> dataSource.commit(false));
                         log.debug("Delete for table {} took {} ms", table, System.currentTimeMillis() - startDeleteTime);
                     }
                     dataSource.commit(false);
@@ -296,9 +291,4 @@ public abstract class BasicDbTable<T extends DerivedEntity> extends DerivedDbTab
         }
         return outputKeys;
     }
-
-    private int deleteByDbId(PreparedStatement pstmtDeleteByDbId, long dbId) throws SQLException {
-        pstmtDeleteByDbId.setLong(1, dbId);
-        return pstmtDeleteByDbId.executeUpdate();
-    }
 }
@@ -6,17 +6,14 @@ package com.apollocurrency.aplwallet.apl.core.dao.state.derived;
 
 import com.apollocurrency.aplwallet.apl.core.dao.state.keyfactory.DbKey;
 import com.apollocurrency.aplwallet.apl.core.entity.state.derived.DerivedEntity;
-import com.google.common.cache.Cache;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.Map;
-
 @Slf4j
 public class CachedTable<T extends DerivedEntity> extends DbTableWrapper<T> {
 
-    private final Cache<DbKey, T> cache;
+    private final HeightIndexedCache<T> cache;
 
-    public CachedTable(Cache<DbKey, T> cache, EntityDbTableInterface<T> table) {
+    public CachedTable(HeightIndexedCache<T> cache, EntityDbTableInterface<T> table) {
         super(table);
         this.cache = cache;
         log.info("--cache-- init PUBLIC KEY CACHE={}", cache.stats());
@@ -26,7 +23,7 @@ public class CachedTable<T extends DerivedEntity> extends DbTableWrapper<T> {
     public void insert(T entity) {
         super.insert(entity);
         log.trace("--cache-- put  dbKey={} height={}", entity.getDbKey(), entity.getHeight());
-        cache.put(entity.getDbKey(), entity);
+        cache.put(entity);
     }
 
     @Override
@@ -44,15 +41,8 @@ public class CachedTable<T extends DerivedEntity> extends DbTableWrapper<T> {
     @Override
     public int rollback(final int height) {
         int rc = super.rollback(height);
-        final Map<DbKey, T> map = cache.asMap();
-
-        //todo implement quick search APL-1725
-        map.values().forEach(v -> {
-            if (v.getHeight() > height) {
-                log.trace("--cache-- remove  dbKey={} height={}", v.getDbKey(), v.getHeight());
-                cache.invalidate(v.getDbKey());
-            }
-        });
+        int removed = cache.rollback(height);
+        log.trace("--cache-- rollback to height={}, removed {} entries", height, removed);
         return rc;
     }
 
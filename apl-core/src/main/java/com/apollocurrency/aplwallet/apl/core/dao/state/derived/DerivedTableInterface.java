@@ -8,6 +8,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Set;
 
 import com.apollocurrency.aplwallet.apl.core.entity.state.derived.DerivedEntity;
 
@@ -47,6 +48,14 @@ public interface DerivedTableInterface<T extends DerivedEntity> {
 
     void prune(int time);
 
+    /**
+     * @return names of the other tables, which are read or changed by {@link #trim(int, boolean)} or {@link #prune(int)} of this table,
+     * such tables are never trimmed concurrently with this table
+     */
+    default Set<String> getTrimDependencies() {
+        return Set.of();
+    }
+
     void insert(T t);
 
     /**
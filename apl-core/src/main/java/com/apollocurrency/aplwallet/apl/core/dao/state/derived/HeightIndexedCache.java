@@ -0,0 +1,135 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.dao.state.derived;
+
+import com.apollocurrency.aplwallet.apl.core.dao.state.keyfactory.DbKey;
+import com.apollocurrency.aplwallet.apl.core.entity.state.derived.DerivedEntity;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Cache of the derived entities with the secondary height index, which allows to find entities
+ * for the rollback without full cache scan.
+ * <p>Index contains buckets of keys for each height of the cached entities. Guava cache does not notify about
+ * evicted entries, so index may contain keys of the entries, which are not in the cache anymore or which were updated at another height.
+ * Such keys are harmless for the rollback and are removed from the index, when it becomes twice larger than the cache.</p>
+ * <p>Should be shared by all tables, which use the same cache. Cache reads are not synchronized,
+ * index updates are synchronized on this object.</p>
+ *
+ * @param <T> derived entity type
+ */
+@Slf4j
+public class HeightIndexedCache<T extends DerivedEntity> {
+    private static final int MIN_INDEX_SIZE_TO_COMPACT = 1024;
+
+    private final Cache<DbKey, T> cache;
+    private final NavigableMap<Integer, Set<DbKey>> heightIndex = new TreeMap<>();
+    private int indexSize;
+
+    public HeightIndexedCache(Cache<DbKey, T> cache) {
+        this.cache = cache;
+    }
+
+    public T getIfPresent(DbKey dbKey) {
+        return cache.getIfPresent(dbKey);
+    }
+
+    public void put(T entity) {
+        put(entity.getDbKey(), entity);
+    }
+
+    public void put(DbKey dbKey, T entity) {
+        cache.put(dbKey, entity);
+        synchronized (this) {
+            if (heightIndex.computeIfAbsent(entity.getHeight(), height -> new HashSet<>()).add(dbKey)
+                && ++indexSize > Math.max(MIN_INDEX_SIZE_TO_COMPACT, cache.size() * 2)) {
+                compact();
+            }
+        }
+    }
+
+    public void invalidate(DbKey dbKey) {
+        cache.invalidate(dbKey);
+    }
+
+    public synchronized void invalidateAll() {
+        cache.invalidateAll();
+        heightIndex.clear();
+        indexSize = 0;
+    }
+
+    /**
+     * Remove from the cache all entities with height greater than the given height
+     *
+     * @param height height of the rollback
+     * @return number of the removed entities
+     */
+    public synchronized int rollback(int height) {
+        int removed = 0;
+        NavigableMap<Integer, Set<DbKey>> rolledBack = heightIndex.tailMap(height, false);
+        Iterator<Set<DbKey>> buckets = rolledBack.values().iterator();
+        while (buckets.hasNext()) {
+            Set<DbKey> keys = buckets.next();
+            for (DbKey dbKey : keys) {
+                T entity = cachedValue(dbKey);
+                if (entity != null && entity.getHeight() > height) {
+                    log.trace("--cache-- remove  dbKey={} height={}", dbKey, entity.getHeight());
+                    cache.invalidate(dbKey);
+                    removed++;
+                }
+            }
+            indexSize -= keys.size();
+            buckets.remove();
+        }
+        return removed;
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Remove keys of the evicted and updated entities from the index
+     */
+    private void compact() {
+        int removed = 0;
+        Iterator<Map.Entry<Integer, Set<DbKey>>> buckets = heightIndex.entrySet().iterator();
+        while (buckets.hasNext()) {
+            Map.Entry<Integer, Set<DbKey>> bucket = buckets.next();
+            Iterator<DbKey> keys = bucket.getValue().iterator();
+            while (keys.hasNext()) {
+                T entity = cachedValue(keys.next());
+                if (entity == null || entity.getHeight() != bucket.getKey()) {
+                    keys.remove();
+                    removed++;
+                }
+            }
+            if (bucket.getValue().isEmpty()) {
+                buckets.remove();
+            }
+        }
+        indexSize -= removed;
+        log.debug("--cache-- compacted height index, removed {} keys, cache size={}", removed, cache.size());
+    }
+
+    /**
+     * Lookup through the map view does not affect cache statistics
+     */
+    private T cachedValue(DbKey dbKey) {
+        return cache.asMap().get(dbKey);
+    }
+}
@@ -22,7 +22,6 @@ package com.apollocurrency.aplwallet.apl.core.dao.state.order;
 
 import com.apollocurrency.aplwallet.apl.core.dao.state.keyfactory.DbKey;
 import com.apollocurrency.aplwallet.apl.core.dao.state.keyfactory.LongKeyFactory;
-import com.apollocurrency.aplwallet.apl.core.db.DbIterator;
 import com.apollocurrency.aplwallet.apl.core.entity.state.order.AskOrder;
 import com.apollocurrency.aplwallet.apl.core.service.appdata.DatabaseManager;
 import com.apollocurrency.aplwallet.apl.core.service.state.DerivedTablesRegistry;
@@ -31,11 +30,10 @@ import com.apollocurrency.aplwallet.apl.core.shard.observer.DeleteOnTrimData;
 import javax.enterprise.event.Event;
 import javax.inject.Inject;
 import javax.inject.Singleton;
-import javax.sql.DataSource;
 import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Comparator;
 
 /**
  * @author silaev-firstbridge on 4/8/2020
@@ -56,7 +54,8 @@ public class AskOrderTable extends OrderTable<AskOrder> {
     public AskOrderTable(DerivedTablesRegistry derivedDbTablesRegistry,
                          DatabaseManager databaseManager,
                          Event<DeleteOnTrimData> deleteOnTrimDataEvent) {
-        super("ask_order", askOrderDbKeyFactory, derivedDbTablesRegistry, databaseManager, deleteOnTrimDataEvent);
+        super("ask_order", askOrderDbKeyFactory, derivedDbTablesRegistry, databaseManager, deleteOnTrimDataEvent,
+            Comparator.comparingLong(AskOrder::getPriceATM));
     }
 
     @Override
@@ -67,17 +66,4 @@ public class AskOrderTable extends OrderTable<AskOrder> {
     public AskOrder getAskOrder(long orderId) {
         return get(askOrderDbKeyFactory.newKey(orderId));
     }
-
-    public AskOrder getNextOrder(DataSource dataSource, long assetId) {
-        try (Connection con = dataSource.getConnection();
-             PreparedStatement pstmt = con.prepareStatement("SELECT * FROM ask_order WHERE asset_id = ? "
-                 + "AND latest = TRUE ORDER BY price ASC, creation_height ASC, transaction_height ASC, transaction_index ASC LIMIT 1")) {
-            pstmt.setLong(1, assetId);
-            try (DbIterator<AskOrder> askOrders = getManyBy(con, pstmt, true)) {
-                return askOrders.hasNext() ? askOrders.next() : null;
-            }
-        } catch (SQLException e) {
-            throw new RuntimeException(e.toString(), e);
-        }
-    }
 }
@@ -0,0 +1,107 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.dao.state.order;
+
+import com.apollocurrency.aplwallet.apl.core.entity.state.order.Order;
+import com.apollocurrency.aplwallet.apl.core.service.fulltext.TransactionCallback;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.LongFunction;
+
+/**
+ * In-memory orders of the assets sorted by the price-time priority, same as in the ORDER BY clause of the
+ * order table queries: by price, then by creation height, transaction height and transaction index.
+ * <p>Orders of the asset are loaded, when the asset is requested for the first time, and then are kept in sync with the table
+ * by {@link #put(Order)} and {@link #remove(Order)}. Book is cleared on the table rollback and on the rollback of the
+ * database transaction, which changed the table, and then is reloaded on demand.</p>
+ * <p>Synchronized, but intended for use under the blockchain write lock only</p>
+ *
+ * @param <T> order type
+ */
+@Slf4j
+public class OrderBook<T extends Order> implements TransactionCallback {
+    private final Comparator<T> priority;
+    private final Map<Long, TreeSet<T>> ordersByAsset = new HashMap<>();
+    private final Map<Long, T> ordersById = new HashMap<>();
+
+    /**
+     * @param priceComparator order of the prices, ascending for the asks and descending for the bids
+     */
+    public OrderBook(Comparator<T> priceComparator) {
+        this.priority = priceComparator
+            .thenComparingInt(Order::getCreationHeight)
+            .thenComparingInt(Order::getTransactionHeight)
+            .thenComparingInt(Order::getTransactionIndex)
+            .thenComparingLong(Order::getId);
+    }
+
+    /**
+     * @param assetId asset id
+     * @param loader  loads all actual orders of the asset from the table, when they are not loaded yet
+     * @return order of the asset with the highest priority or null, when there are no orders
+     */
+    public synchronized T getFirst(long assetId, LongFunction<List<T>> loader) {
+        TreeSet<T> orders = ordersByAsset.get(assetId);
+        if (orders == null) {
+            orders = new TreeSet<>(priority);
+            for (T order : loader.apply(assetId)) {
+                orders.add(order);
+                ordersById.put(order.getId(), order);
+            }
+            ordersByAsset.put(assetId, orders);
+            log.trace("Loaded {} orders of the asset {}", orders.size(), assetId);
+        }
+        return orders.isEmpty() ? null : orders.first();
+    }
+
+    /**
+     * Add new or replace existing order, when orders of the asset are loaded
+     */
+    public synchronized void put(T order) {
+        TreeSet<T> orders = ordersByAsset.get(order.getAssetId());
+        if (orders == null) {
+            return;
+        }
+        T existing = ordersById.put(order.getId(), order);
+        if (existing != null) {
+            orders.remove(existing);
+        }
+        orders.add(order);
+    }
+
+    public synchronized void remove(T order) {
+        T existing = ordersById.remove(order.getId());
+        if (existing != null) {
+            TreeSet<T> orders = ordersByAsset.get(existing.getAssetId());
+            if (orders != null) {
+                orders.remove(existing);
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        ordersByAsset.clear();
+        ordersById.clear();
+    }
+
+    @Override
+    public void commit() {
+    }
+
+    @Override
+    public void rollback() {
+        log.debug("Database transaction is rolled back, clear order book");
+        clear();
+    }
+
+    public synchronized int size() {
+        return ordersById.size();
+    }
+}
@@ -24,6 +24,7 @@ import javax.enterprise.event.Event;
 
 import com.apollocurrency.aplwallet.apl.core.dao.state.derived.VersionedDeletableEntityDbTable;
 import com.apollocurrency.aplwallet.apl.core.dao.state.keyfactory.LongKeyFactory;
+import com.apollocurrency.aplwallet.apl.core.db.DbIterator;
 import com.apollocurrency.aplwallet.apl.core.entity.state.order.Order;
 import com.apollocurrency.aplwallet.apl.core.service.appdata.DatabaseManager;
 import com.apollocurrency.aplwallet.apl.core.service.state.DerivedTablesRegistry;
@@ -33,21 +34,82 @@ import com.apollocurrency.aplwallet.apl.util.annotation.DatabaseSpecificDml;
 import com.apollocurrency.aplwallet.apl.util.annotation.DmlMarker;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 
 /**
+ * Order table with the in-memory {@link OrderBook}, which serves the order matching without sorted queries to the table.
+ * Book is updated on insert and delete, and is cleared on rollback, truncate and rollback of the database transaction.
+ *
  * @author silaev-firstbridge on 4/8/2020
  */
 @Slf4j
 public abstract class OrderTable<T extends Order> extends VersionedDeletableEntityDbTable<T> {
+    private final OrderBook<T> orderBook;
 
     OrderTable(String tableName, LongKeyFactory<T> longKeyFactory,
                DerivedTablesRegistry derivedDbTablesRegistry,
                DatabaseManager databaseManager,
-               Event<DeleteOnTrimData> deleteOnTrimDataEvent) {
+               Event<DeleteOnTrimData> deleteOnTrimDataEvent,
+               Comparator<T> priceComparator) {
         super(tableName, longKeyFactory, null, derivedDbTablesRegistry, databaseManager, null, deleteOnTrimDataEvent);
+        this.orderBook = new OrderBook<>(priceComparator);
+    }
+
+    /**
+     * @param dataSource data source to load orders of the asset, when they are not in the order book yet
+     * @param assetId    asset id
+     * @return order of the asset with the highest price-time priority or null, when asset has no orders
+     */
+    public T getNextOrder(DataSource dataSource, long assetId) {
+        return orderBook.getFirst(assetId, id -> getAssetOrders(dataSource, id));
+    }
+
+    @Override
+    public void insert(T order) {
+        super.insert(order);
+        databaseManager.getDataSource().registerCallback(orderBook);
+        orderBook.put(order);
+    }
+
+    @Override
+    public boolean deleteAtHeight(T order, int height) {
+        boolean deleted = super.deleteAtHeight(order, height);
+        databaseManager.getDataSource().registerCallback(orderBook);
+        orderBook.remove(order);
+        return deleted;
+    }
+
+    @Override
+    public int rollback(int height) {
+        int rc = super.rollback(height);
+        orderBook.clear();
+        return rc;
+    }
+
+    @Override
+    public void truncate() {
+        super.truncate();
+        orderBook.clear();
+    }
+
+    private List<T> getAssetOrders(DataSource dataSource, long assetId) {
+        List<T> orders = new ArrayList<>();
+        try (Connection con = dataSource.getConnection();
+             PreparedStatement pstmt = con.prepareStatement("SELECT * FROM " + table + " WHERE asset_id = ? AND latest = TRUE")) {
+            pstmt.setLong(1, assetId);
+            try (DbIterator<T> iterator = getManyBy(con, pstmt, false)) {
+                iterator.forEachRemaining(orders::add);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e.toString(), e);
+        }
+        return orders;
     }
 
     @Override
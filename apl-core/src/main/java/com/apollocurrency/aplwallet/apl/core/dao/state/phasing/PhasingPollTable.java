@@ -32,6 +32,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 @Slf4j
 @Singleton
@@ -255,6 +256,11 @@ public class PhasingPollTable extends EntityDbTable<PhasingPoll> {
         }
     }
 
+    @Override
+    public Set<String> getTrimDependencies() {
+        return Set.of("phasing_poll_voter", "phasing_vote", "phasing_poll_linked_transaction");
+    }
+
     @Override
     public void trim(int height, boolean isSharding) {
         super.trim(height, isSharding);
@@ -27,6 +27,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Set;
 
 @Slf4j
 @Singleton
@@ -69,6 +70,11 @@ public class VoteTable extends EntityDbTable<Vote> {
         return new Vote(rs, dbKey);
     }
 
+    @Override
+    public Set<String> getTrimDependencies() {
+        return Set.of("poll");
+    }
+
     @Override
     public void trim(int height, boolean isSharding) {
         log.trace("Vote trim: NO_Sharding, height = {}", height);
@@ -8,7 +8,7 @@ import com.apollocurrency.aplwallet.apl.core.app.runnable.TaskDispatchManager;
 import com.apollocurrency.aplwallet.apl.core.cache.PublicKeyCacheConfig;
 import com.apollocurrency.aplwallet.apl.core.dao.state.derived.CachedTable;
 import com.apollocurrency.aplwallet.apl.core.dao.state.derived.EntityDbTableInterface;
-import com.apollocurrency.aplwallet.apl.core.dao.state.keyfactory.DbKey;
+import com.apollocurrency.aplwallet.apl.core.dao.state.derived.HeightIndexedCache;
 import com.apollocurrency.aplwallet.apl.core.entity.state.account.PublicKey;
 import com.apollocurrency.aplwallet.apl.core.service.appdata.DatabaseManager;
 import com.apollocurrency.aplwallet.apl.core.service.state.DerivedTablesRegistry;
@@ -17,7 +17,6 @@ import com.apollocurrency.aplwallet.apl.util.cache.InMemoryCacheManager;
 import com.apollocurrency.aplwallet.apl.util.injectable.PropertiesHolder;
 import com.apollocurrency.aplwallet.apl.util.task.Task;
 import com.apollocurrency.aplwallet.apl.util.task.TaskDispatcher;
-import com.google.common.cache.Cache;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
@@ -40,7 +39,7 @@ public class PublicKeyTableProducer {
     private final EntityDbTableInterface<PublicKey> genesisPublicKeyTable;
     @Getter
     private final boolean cacheEnabled;
-    private Cache<DbKey, PublicKey> publicKeyCache;
+    private HeightIndexedCache<PublicKey> publicKeyCache;
 
     @Inject
     public PublicKeyTableProducer(PropertiesHolder propertiesHolder,
@@ -63,7 +62,7 @@ public class PublicKeyTableProducer {
         //todo warm up the cache APL-1726
         if (isCacheEnabled()) {
             log.info("'{}' is TURNED ON...", PublicKeyCacheConfig.PUBLIC_KEY_CACHE_NAME);
-            publicKeyCache = cacheManager.acquireCache(PublicKeyCacheConfig.PUBLIC_KEY_CACHE_NAME);
+            publicKeyCache = new HeightIndexedCache<>(cacheManager.acquireCache(PublicKeyCacheConfig.PUBLIC_KEY_CACHE_NAME));
             log.debug("--cache-- init PUBLIC KEY CACHE={}", publicKeyCache);
             TaskDispatcher taskDispatcher = taskManager.newScheduledDispatcher("PublicKeyProducer-periodics");
             taskDispatcher.schedule(Task.builder()
@@ -77,6 +76,15 @@ public class PublicKeyTableProducer {
         }
     }
 
+    /**
+     * Remove all public keys from the cache together with their height index
+     */
+    public void invalidateCache() {
+        if (isCacheEnabled()) {
+            publicKeyCache.invalidateAll();
+        }
+    }
+
     @Produces
     @Named("publicKeyTable")
     public EntityDbTableInterface<PublicKey> getPublicKeyTable() {
@@ -28,6 +28,8 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.LongConsumer;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
@@ -187,4 +189,53 @@ public final class DbUtils {
         return index;
     }
 
+    /**
+     * Delete rows of the table by db_id using 'DELETE ... WHERE db_id IN (...)' statements, each one deletes up to batchSize rows.
+     * Db ids are deleted in the ascending order to keep each statement inside the narrow range of the primary key index
+     *
+     * @param con        connection
+     * @param table      table name
+     * @param dbIds      db ids of the rows to delete
+     * @param batchSize  max number of db ids in one statement
+     * @param afterBatch action to perform after each statement with the number of processed db ids, e.g. intermediate commit
+     * @return number of deleted rows
+     * @throws SQLException when statement execution failed
+     */
+    public static long deleteByDbIds(Connection con, String table, Collection<Long> dbIds, int batchSize, LongConsumer afterBatch) throws SQLException {
+        long[] sortedDbIds = dbIds.stream().mapToLong(Long::longValue).sorted().toArray();
+        long deleted = 0;
+        int fullBatches = sortedDbIds.length / batchSize;
+        if (fullBatches > 0) {
+            try (PreparedStatement pstmt = con.prepareStatement(deleteByDbIdsSql(table, batchSize))) {
+                for (int i = 0; i < fullBatches; i++) {
+                    deleted += deleteByDbIds(pstmt, sortedDbIds, i * batchSize, batchSize);
+                    afterBatch.accept((long) (i + 1) * batchSize);
+                }
+            }
+        }
+        int remaining = sortedDbIds.length - fullBatches * batchSize;
+        if (remaining > 0) {
+            try (PreparedStatement pstmt = con.prepareStatement(deleteByDbIdsSql(table, remaining))) {
+                deleted += deleteByDbIds(pstmt, sortedDbIds, fullBatches * batchSize, remaining);
+                afterBatch.accept(sortedDbIds.length);
+            }
+        }
+        return deleted;
+    }
+
+    private static int deleteByDbIds(PreparedStatement pstmt, long[] dbIds, int from, int size) throws SQLException {
+        for (int i = 0; i < size; i++) {
+            pstmt.setLong(i + 1, dbIds[from + i]);
+        }
+        return pstmt.executeUpdate();
+    }
+
+    private static String deleteByDbIdsSql(String table, int size) {
+        StringBuilder sql = new StringBuilder("DELETE FROM ").append(table).append(" WHERE db_id IN (?");
+        for (int i = 1; i < size; i++) {
+            sql.append(", ?");
+        }
+        return sql.append(")").toString();
+    }
+
 }
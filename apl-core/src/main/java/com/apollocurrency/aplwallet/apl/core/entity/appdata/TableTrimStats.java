@@ -0,0 +1,28 @@
+/*
+ *  Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.entity.appdata;
+
+import lombok.Value;
+
+/**
+ * Timings of the derived table trim (including prune) since the node start
+ */
+@Value
+public class TableTrimStats {
+    String tableName;
+    int trimCount;
+    int lastHeight;
+    long lastTime;
+    long maxTime;
+    long totalTime;
+
+    public static TableTrimStats first(String tableName, int height, long time) {
+        return new TableTrimStats(tableName, 1, height, time, time, time);
+    }
+
+    public TableTrimStats next(int height, long time) {
+        return new TableTrimStats(tableName, trimCount + 1, height, time, Math.max(maxTime, time), totalTime + time);
+    }
+}
@@ -278,7 +278,7 @@ public final class BlockImpl implements Block {
                 throw new IllegalStateException("Block is not signed yet");
             }
 //            assuming that calculation of id will work only for generated blocks
-            byte[] hash = Crypto.sha256().digest(bytes());
+            byte[] hash = Crypto.digestSha256(bytes());
             BigInteger bigInteger = new BigInteger(1, new byte[]{hash[7], hash[6], hash[5], hash[4], hash[3], hash[2], hash[1], hash[0]});
             id = bigInteger.longValue();
             stringId = bigInteger.toString();
@@ -45,7 +45,6 @@ import lombok.extern.slf4j.Slf4j;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -297,11 +296,11 @@ public class TransactionImpl implements Transaction {
             if (signature == null) {
                 throw new IllegalStateException("Transaction is not signed yet");
             }
-            byte[] data = getUnsignedBytes();
-            byte[] signatureHash = Crypto.sha256().digest(signature.bytes());
-            MessageDigest digest = Crypto.sha256();
-            digest.update(data);
-            fullHash = digest.digest(signatureHash);
+            byte[] signatureHash = Crypto.digestSha256(signature.bytes());
+            // unsigned bytes of v2 are the prefix of the transaction bytes, hash them in place
+            ByteBuffer unsignedBytes = version < 2 ? ByteBuffer.wrap(getUnsignedBytes())
+                : ByteBuffer.wrap(bytes(), 0, txV2HeaderSize() + appendagesSize);
+            fullHash = Crypto.digestSha256(unsignedBytes, ByteBuffer.wrap(signatureHash));
             BigInteger bigInteger = new BigInteger(1, new byte[]{fullHash[7], fullHash[6], fullHash[5], fullHash[4], fullHash[3], fullHash[2], fullHash[1], fullHash[0]});
             id = bigInteger.longValue();
             stringId = bigInteger.toString();
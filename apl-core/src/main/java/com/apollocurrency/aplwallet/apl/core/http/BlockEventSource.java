@@ -6,41 +6,195 @@ package com.apollocurrency.aplwallet.apl.core.http;
 
 import org.slf4j.Logger;
 
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
-public class BlockEventSource implements org.eclipse.jetty.servlets.EventSource {
+/**
+ * Server-sent events stream of the account updates, which is written by the non-blocking servlet output.
+ * <p>Events are queued into the bounded buffer and are written, when the output is ready, so that the slow client
+ * never blocks the dispatching thread. Event is rejected, when the client does not keep up and the buffer is full.</p>
+ */
+public class BlockEventSource implements WriteListener, AsyncListener {
     public static final Logger LOG = getLogger(BlockEventSource.class);
-    private Emitter emitter;
+    /**
+     * Max number of the events waiting for the client to read them
+     */
+    static final int MAX_PENDING_EVENTS = 16;
+    static final long HEARTBEAT_PERIOD_MS = 10_000;
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final byte[] DATA_FIELD = "data: ".getBytes(StandardCharsets.UTF_8);
+
+    private final BlockEventSourceDispatcher dispatcher;
+    private final long accountId;
+    private final Queue<byte[]> pendingEvents = new ArrayDeque<>();
+    private AsyncContext asyncContext;
+    private ServletOutputStream output;
+    private ScheduledFuture<?> heartBeat;
+    private boolean flushRequired;
     private volatile boolean shutdown = false;
-    private ThreadPoolExecutor threadPoolExecutor;
-    private long accountId;
 
-    public BlockEventSource(ThreadPoolExecutor threadPoolExecutor, long accountId) {
-        this.threadPoolExecutor = threadPoolExecutor;
+    public BlockEventSource(BlockEventSourceDispatcher dispatcher, long accountId) {
+        this.dispatcher = dispatcher;
         this.accountId = accountId;
     }
 
+    /**
+     * Switch the response output to the non-blocking mode and subscribe to the account updates
+     *
+     * @param asyncContext started async context of the event stream request
+     * @param scheduler    scheduler of the heartbeats, which detect closed connections
+     */
+    public synchronized void open(AsyncContext asyncContext, ScheduledExecutorService scheduler) throws IOException {
+        this.asyncContext = asyncContext;
+        asyncContext.addListener(this);
+        output = asyncContext.getResponse().getOutputStream();
+        output.setWriteListener(this);
+        heartBeat = scheduler.scheduleWithFixedDelay(this::heartBeat, HEARTBEAT_PERIOD_MS, HEARTBEAT_PERIOD_MS, TimeUnit.MILLISECONDS);
+        dispatcher.subscribe(this);
+    }
+
+    /**
+     * Queue the event for sending without blocking of the calling thread
+     *
+     * @return false, when the event was rejected, since the event source is closed or the client does not keep up
+     */
+    public boolean emitEvent(String dataToSend) {
+        return offer(encode(dataToSend));
+    }
+
+    void heartBeat() {
+        synchronized (this) {
+            if (!pendingEvents.isEmpty()) {
+                return;
+            }
+        }
+        offer(CRLF);
+    }
+
+    /**
+     * Complete the event stream and unsubscribe from the account updates
+     */
+    public void close() {
+        if (markClosed()) {
+            try {
+                asyncContext.complete();
+            } catch (IllegalStateException e) {
+                LOG.trace("Event source is already completed: {}", e.toString());
+            }
+        }
+    }
+
     @Override
-    public void onOpen(Emitter emitter) throws IOException {
-        this.emitter = emitter;
-        threadPoolExecutor.execute(new BlockEventSourceProcessor(this, accountId));
+    public synchronized void onWritePossible() {
+        write();
     }
 
-    public void emitEvent(String dataToSend) throws IOException {
-        this.emitter.data(dataToSend);
+    @Override
+    public void onError(Throwable t) {
+        LOG.debug("Unable to send sse event, close subscription: {}", t.toString());
+        close();
     }
 
     @Override
-    public void onClose() {
+    public void onComplete(AsyncEvent event) {
         LOG.trace("Close event source");
-        shutdown = true;
+        markClosed();
+    }
 
+    @Override
+    public void onTimeout(AsyncEvent event) {
+        close();
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+        close();
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
     }
 
     public boolean isShutdown() {
         return shutdown;
     }
+
+    public long getAccountId() {
+        return accountId;
+    }
+
+    private synchronized boolean offer(byte[] event) {
+        if (shutdown || pendingEvents.size() >= MAX_PENDING_EVENTS) {
+            return false;
+        }
+        pendingEvents.add(event);
+        write();
+        return !shutdown;
+    }
+
+    /**
+     * Write pending events until the output becomes not ready, the container calls {@link #onWritePossible()},
+     * when the output is ready again
+     */
+    private void write() {
+        if (shutdown) {
+            return;
+        }
+        try {
+            while (output.isReady()) {
+                byte[] event = pendingEvents.poll();
+                if (event != null) {
+                    output.write(event);
+                    flushRequired = true;
+                } else if (flushRequired) {
+                    flushRequired = false;
+                    output.flush();
+                } else {
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            LOG.debug("Unable to send sse event, close subscription: {}", e.toString());
+            close();
+        }
+    }
+
+    private boolean markClosed() {
+        synchronized (this) {
+            if (shutdown) {
+                return false;
+            }
+            shutdown = true;
+            pendingEvents.clear();
+            if (heartBeat != null) {
+                heartBeat.cancel(false);
+            }
+        }
+        dispatcher.unsubscribe(this);
+        return true;
+    }
+
+    private static byte[] encode(String data) {
+        ByteArrayOutputStream event = new ByteArrayOutputStream(data.length() + DATA_FIELD.length + 4);
+        for (String line : data.split("\r\n|\r|\n")) {
+            event.writeBytes(DATA_FIELD);
+            event.writeBytes(line.getBytes(StandardCharsets.UTF_8));
+            event.writeBytes(CRLF);
+        }
+        event.writeBytes(CRLF);
+        return event.toByteArray();
+    }
 }
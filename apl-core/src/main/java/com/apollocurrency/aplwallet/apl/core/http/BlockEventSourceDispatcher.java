@@ -0,0 +1,308 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.http;
+
+import com.apollocurrency.aplwallet.apl.core.app.observer.events.AccountEvent;
+import com.apollocurrency.aplwallet.apl.core.app.observer.events.AccountEventType;
+import com.apollocurrency.aplwallet.apl.core.app.observer.events.BlockEvent;
+import com.apollocurrency.aplwallet.apl.core.app.observer.events.BlockEventType;
+import com.apollocurrency.aplwallet.apl.core.db.DbIterator;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Block;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Transaction;
+import com.apollocurrency.aplwallet.apl.core.entity.state.account.Account;
+import com.apollocurrency.aplwallet.apl.core.entity.state.account.AccountAsset;
+import com.apollocurrency.aplwallet.apl.core.entity.state.account.AccountCurrency;
+import com.apollocurrency.aplwallet.apl.core.entity.state.account.AccountInfo;
+import com.apollocurrency.aplwallet.apl.core.entity.state.dgs.DGSPurchase;
+import com.apollocurrency.aplwallet.apl.core.service.appdata.DatabaseManager;
+import com.apollocurrency.aplwallet.apl.core.service.blockchain.Blockchain;
+import com.apollocurrency.aplwallet.apl.core.service.fulltext.TransactionCallback;
+import com.apollocurrency.aplwallet.apl.core.service.state.AliasService;
+import com.apollocurrency.aplwallet.apl.core.service.state.DGSService;
+import com.apollocurrency.aplwallet.apl.core.service.state.account.AccountAssetService;
+import com.apollocurrency.aplwallet.apl.core.service.state.account.AccountCurrencyService;
+import com.apollocurrency.aplwallet.apl.core.service.state.account.AccountInfoService;
+import com.apollocurrency.aplwallet.apl.core.service.state.account.AccountService;
+import com.apollocurrency.aplwallet.apl.crypto.Convert;
+import com.apollocurrency.aplwallet.apl.util.task.NamedThreadFactory;
+import com.apollocurrency.aplwallet.apl.util.task.Tasks;
+import lombok.extern.slf4j.Slf4j;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sends account updates to the subscribers of the /blocks server-sent events.
+ * <p>Accounts touched by the block (generator, senders and recipients of the block transactions and accounts, which
+ * balances were changed) are collected, while the block is applied, and are dispatched on the single thread
+ * after the block is committed. Account snapshot is computed only for the touched accounts, which have subscribers,
+ * and is sent to all subscribers of the account. Accounts of the several blocks pushed in a row are dispatched once.</p>
+ * <p>Snapshot is only queued to the subscriber, which writes it by the non-blocking output, so that the slow subscriber
+ * never delays the others. Subscriber, which does not keep up with the queued snapshots, is closed and may reconnect
+ * to receive the actual snapshot.</p>
+ * <p>Accounts of the popped off blocks are dispatched in the same way after the pop off transaction is committed,
+ * so that subscribers receive the rolled back state.</p>
+ */
+@Slf4j
+@Singleton
+public class BlockEventSourceDispatcher {
+    private final Blockchain blockchain;
+    private final DatabaseManager databaseManager;
+    private final AliasService aliasService;
+    private final DGSService dgsService;
+    private final AccountService accountService;
+    private final AccountInfoService accountInfoService;
+    private final AccountAssetService accountAssetService;
+    private final AccountCurrencyService accountCurrencyService;
+    private final Executor executor;
+
+    private final Map<Long, Set<BlockEventSource>> subscriptions = new ConcurrentHashMap<>();
+    private final Set<Long> touchedAccounts = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean dispatchScheduled = new AtomicBoolean();
+    private final TransactionCallback popOffCallback = new TransactionCallback() {
+        @Override
+        public void commit() {
+            scheduleDispatch();
+        }
+
+        @Override
+        public void rollback() {
+            // touched accounts will be dispatched with the next pushed block
+        }
+    };
+
+    @Inject
+    public BlockEventSourceDispatcher(Blockchain blockchain, DatabaseManager databaseManager, AliasService aliasService,
+                                      DGSService dgsService, AccountService accountService, AccountInfoService accountInfoService,
+                                      AccountAssetService accountAssetService, AccountCurrencyService accountCurrencyService) {
+        this(blockchain, databaseManager, aliasService, dgsService, accountService, accountInfoService, accountAssetService, accountCurrencyService,
+            Executors.newSingleThreadExecutor(new NamedThreadFactory("BlockEventSourceDispatcher", true)));
+    }
+
+    BlockEventSourceDispatcher(Blockchain blockchain, DatabaseManager databaseManager, AliasService aliasService,
+                               DGSService dgsService, AccountService accountService, AccountInfoService accountInfoService,
+                               AccountAssetService accountAssetService, AccountCurrencyService accountCurrencyService,
+                               Executor executor) {
+        this.blockchain = blockchain;
+        this.databaseManager = databaseManager;
+        this.aliasService = aliasService;
+        this.dgsService = dgsService;
+        this.accountService = accountService;
+        this.accountInfoService = accountInfoService;
+        this.accountAssetService = accountAssetService;
+        this.accountCurrencyService = accountCurrencyService;
+        this.executor = executor;
+    }
+
+    /**
+     * Register event source and send it the current account snapshot
+     *
+     * @param eventSource opened event source
+     */
+    public void subscribe(BlockEventSource eventSource) {
+        long accountId = eventSource.getAccountId();
+        subscriptions.computeIfAbsent(accountId, id -> ConcurrentHashMap.newKeySet()).add(eventSource);
+        execute(() -> {
+            if (!eventSource.isShutdown()) {
+                send(eventSource, getMessage(accountId));
+            }
+        });
+    }
+
+    public void unsubscribe(BlockEventSource eventSource) {
+        subscriptions.computeIfPresent(eventSource.getAccountId(), (id, eventSources) -> {
+            eventSources.remove(eventSource);
+            return eventSources.isEmpty() ? null : eventSources;
+        });
+    }
+
+    public int getSubscribedAccountCount() {
+        return subscriptions.size();
+    }
+
+    public void onBlockApplied(@Observes @BlockEvent(BlockEventType.AFTER_BLOCK_APPLY) Block block) {
+        touchBlockAccounts(block);
+    }
+
+    public void onAccountBalance(@Observes @AccountEvent(AccountEventType.BALANCE) Account account) {
+        touch(account.getId());
+    }
+
+    public void onAccountAssetBalance(@Observes @AccountEvent(AccountEventType.ASSET_BALANCE) AccountAsset accountAsset) {
+        touch(accountAsset.getAccountId());
+    }
+
+    public void onAccountCurrencyBalance(@Observes @AccountEvent(AccountEventType.CURRENCY_BALANCE) AccountCurrency accountCurrency) {
+        touch(accountCurrency.getAccountId());
+    }
+
+    /**
+     * Block is committed, dispatch accounts touched by it, when previous dispatch is finished
+     */
+    public void onBlockPushed(@Observes @BlockEvent(BlockEventType.BLOCK_PUSHED) Block block) {
+        scheduleDispatch();
+    }
+
+    /**
+     * Block is popped off before the derived tables are rolled back, dispatch accounts touched by it, when the
+     * pop off transaction is committed
+     */
+    public void onBlockPopped(@Observes @BlockEvent(BlockEventType.BLOCK_POPPED) Block block) {
+        touchBlockAccounts(block);
+        if (!touchedAccounts.isEmpty()) {
+            databaseManager.getDataSource().registerCallback(popOffCallback);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscriptions.clear();
+        if (executor instanceof ExecutorService) {
+            Tasks.shutdownExecutor("BlockEventSourceDispatcher", (ExecutorService) executor, 5);
+        }
+    }
+
+    void dispatch() {
+        dispatchScheduled.set(false);
+        List<Long> accounts = new ArrayList<>(touchedAccounts);
+        touchedAccounts.removeAll(accounts);
+        for (Long accountId : accounts) {
+            Set<BlockEventSource> eventSources = subscriptions.get(accountId);
+            if (eventSources == null || eventSources.isEmpty()) {
+                continue;
+            }
+            String message;
+            try {
+                message = getMessage(accountId);
+            } catch (RuntimeException e) {
+                log.error("Unable to prepare sse event for account " + Long.toUnsignedString(accountId), e);
+                continue;
+            }
+            eventSources.forEach(eventSource -> send(eventSource, message));
+        }
+        log.trace("Dispatched sse events for {} touched accounts", accounts.size());
+    }
+
+    String getMessage(long accountId) {
+        JSONObject jsonObject = getBlockchainData(accountId);
+        jsonObject.put("block", JSONData.block(blockchain.getLastBlock(), false, false));
+        return jsonObject.toJSONString();
+    }
+
+    private void scheduleDispatch() {
+        if (!touchedAccounts.isEmpty() && dispatchScheduled.compareAndSet(false, true)) {
+            execute(this::dispatch);
+        }
+    }
+
+    private void touchBlockAccounts(Block block) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        touch(block.getGeneratorId());
+        for (Transaction transaction : blockchain.getOrLoadTransactions(block)) {
+            touch(transaction.getSenderId());
+            touch(transaction.getRecipientId());
+        }
+    }
+
+    private void touch(long accountId) {
+        if (accountId != 0 && subscriptions.containsKey(accountId)) {
+            touchedAccounts.add(accountId);
+        }
+    }
+
+    private void execute(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            log.debug("Unable to dispatch sse event: {}", e.toString());
+        }
+    }
+
+    private void send(BlockEventSource eventSource, String message) {
+        if (!eventSource.emitEvent(message)) {
+            log.debug("Sse subscriber of the account {} is closed or does not keep up, close subscription",
+                Long.toUnsignedString(eventSource.getAccountId()));
+            eventSource.close();
+            unsubscribe(eventSource);
+        }
+    }
+
+    private JSONObject getBlockchainData(long accountId) {
+        JSONArray transactionsArray = new JSONArray();
+        List<Transaction> list = blockchain.getTransactions(accountId,
+            0, (byte) -1, (byte) -1, 0, false,
+            false, false, 0, 9, false,
+            false, false);
+        for (Transaction transaction : list) {
+            transactionsArray.add(JSONData.transaction(false, transaction));
+        }
+
+        JSONArray purchasesJSON = new JSONArray();
+        try (DbIterator<DGSPurchase> purchases = dgsService.getPendingSellerPurchases(accountId, 0, 9)) {
+            while (purchases.hasNext()) {
+                purchasesJSON.add(JSONData.purchase(dgsService, purchases.next()));
+            }
+        }
+        int sellerPurchaseCount = dgsService.getSellerPurchaseCount(accountId, false, false);
+        int aliasCount = aliasService.getAccountAliasCount(accountId);
+        JSONArray assetJson = new JSONArray();
+        List<AccountAsset> accountAssets = accountAssetService.getAssetsByAccount(accountId, -1, 0, 2);
+        accountAssets.forEach(accountAsset -> assetJson.add(JSONData.accountAsset(accountAsset, false, true)));
+
+        JSONArray currencyJSON = new JSONArray();
+        List<AccountCurrency> accountCurrencies = accountCurrencyService.getCurrenciesByAccount(accountId, -1, 0, 2);
+        accountCurrencies.forEach(accountCurrency -> currencyJSON.add(JSONData.accountCurrency(accountCurrency, false, true)));
+
+        int messageCount = blockchain.getTransactionCount(accountId, (byte) 1, (byte) 0);
+        int currencyCount = accountCurrencyService.getCountByAccount(accountId, -1);
+        int assetCount = accountAssetService.getCountByAccount(accountId, -1);
+        JSONObject accountJson = putAccount(accountId);
+        JSONObject jsonObject = new JSONObject();
+        jsonObject.put("transactions", transactionsArray);
+        jsonObject.put("purchases", purchasesJSON);
+        jsonObject.put("purchaseCount", sellerPurchaseCount);
+        jsonObject.put("currencyCount", currencyCount);
+        jsonObject.put("assetCount", assetCount);
+        jsonObject.put("aliasCount", aliasCount);
+        jsonObject.put("assets", assetJson);
+        jsonObject.put("currencies", currencyJSON);
+        jsonObject.put("messageCount", messageCount);
+        jsonObject.put("account", accountJson);
+        return jsonObject;
+    }
+
+    private JSONObject putAccount(long accountId) {
+        Account account = accountService.getAccount(accountId);
+        JSONObject response = JSONData.accountBalance(account, false);
+        JSONData.putAccount(response, "account", account.getId());
+
+        byte[] publicKey = accountService.getPublicKeyByteArray(account.getId());
+        if (publicKey != null) {
+            response.put("publicKey", Convert.toHexString(publicKey));
+        }
+        AccountInfo accountInfo = accountInfoService.getAccountInfo(account);
+        if (accountInfo != null) {
+            response.put("name", Convert.nullToEmpty(accountInfo.getName()));
+            response.put("description", Convert.nullToEmpty(accountInfo.getDescription()));
+        }
+        return response;
+    }
+}
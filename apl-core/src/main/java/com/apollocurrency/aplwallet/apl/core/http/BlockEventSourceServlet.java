@@ -4,28 +4,66 @@
 
 package com.apollocurrency.aplwallet.apl.core.http;
 
-import org.eclipse.jetty.servlets.EventSource;
+import com.apollocurrency.aplwallet.apl.util.task.NamedThreadFactory;
 import org.slf4j.Logger;
 
+import javax.enterprise.inject.spi.CDI;
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
-import java.util.concurrent.ThreadPoolExecutor;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
-public class BlockEventSourceServlet extends org.eclipse.jetty.servlets.EventSourceServlet {
+/**
+ * Server-sent events endpoint of the account updates. Unlike the Jetty EventSourceServlet, which writes events
+ * by the blocking output, event stream is written by the non-blocking output of the {@link BlockEventSource}
+ */
+public class BlockEventSourceServlet extends HttpServlet {
     public static final Logger LOG = getLogger(BlockEventSourceServlet.class);
+    private static final String EVENT_STREAM = "text/event-stream";
+    private final BlockEventSourceDispatcher dispatcher = CDI.current().select(BlockEventSourceDispatcher.class).get();
+    private ScheduledExecutorService heartBeatScheduler;
+
+    @Override
+    public void init() throws ServletException {
+        heartBeatScheduler = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("BlockEventSourceHeartBeat", true));
+    }
 
     @Override
-    protected EventSource newEventSource(HttpServletRequest request) {
+    public void destroy() {
+        heartBeatScheduler.shutdownNow();
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        boolean eventStreamAccepted = Collections.list(request.getHeaders("Accept")).stream()
+            .anyMatch(accept -> accept.contains(EVENT_STREAM));
+        if (!eventStreamAccepted) {
+            super.doGet(request, response);
+            return;
+        }
         long accountId;
         try {
             accountId = HttpParameterParserUtil.getAccountId(request, true);
-
         } catch (ParameterException e) {
-            return null;
-
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            return;
         }
-        return new BlockEventSource((ThreadPoolExecutor) request
-            .getServletContext().getAttribute("executor"), accountId);
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentType(EVENT_STREAM);
+        response.addHeader("Connection", "close");
+        response.flushBuffer();
+
+        AsyncContext asyncContext = request.startAsync();
+        asyncContext.setTimeout(0);
+        new BlockEventSource(dispatcher, accountId).open(asyncContext, heartBeatScheduler);
     }
 }
@@ -694,6 +694,8 @@ public final class JSONData {
         json.put("weight", peer.getWeight());
         json.put("downloadedVolume", peer.getDownloadedVolume());
         json.put("uploadedVolume", peer.getUploadedVolume());
+        json.put("outboundQueueSize", peer.getOutboundQueueSize());
+        json.put("droppedOutboundMessages", peer.getDroppedOutboundMessages());
         json.put("application", peer.getApplication());
         json.put("version", peer.getVersion());
         json.put("platform", peer.getPlatform());
@@ -0,0 +1,318 @@
+/*
+ *  Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.peer;
+
+import com.apollocurrency.aplwallet.apl.core.app.AplException;
+import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
+import com.apollocurrency.aplwallet.apl.core.config.Property;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Block;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.BlockImpl;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Transaction;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.TransactionImpl;
+import com.apollocurrency.aplwallet.apl.core.service.blockchain.Blockchain;
+import com.apollocurrency.aplwallet.apl.core.transaction.TransactionBuilder;
+import com.apollocurrency.aplwallet.apl.core.transaction.TransactionSerializer;
+import lombok.extern.slf4j.Slf4j;
+import org.json.simple.JSONObject;
+import org.json.simple.JSONValue;
+import org.json.simple.parser.ParseException;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary encoding of the blocks and transactions for the heavy p2p endpoints (getNextBlocks, processBlock,
+ * processTransactions, getUnconfirmedTransactions). Used only for the peers, which provide {@link Peer.Service#BINARY_P2P},
+ * JSON encoding is still used for all other peers.
+ * <p>Transactions are written using their signed bytes, the same bytes are used for the signature verification
+ * and full hash calculation, prunable parts of the transaction, which are not included into the bytes,
+ * are appended in JSON format. Encoded data is transferred as is in the attachment of the regular p2p JSON message
+ * (see {@link WebSocketPayload}), so that request dispatching and error handling are the same for both encodings.</p>
+ * <p>Codec only decodes the data, signatures of the decoded blocks and transactions are verified by the same validation
+ * pipeline as for the blocks and transactions received in JSON.</p>
+ */
+@Slf4j
+@Singleton
+public class BinaryP2PCodec {
+    static final byte FORMAT_VERSION = 1;
+
+    private final TransactionBuilder transactionBuilder;
+    private final TransactionSerializer transactionSerializer;
+    private final Blockchain blockchain;
+    private final BlockchainConfig blockchainConfig;
+    private final boolean enabled;
+
+    @Inject
+    public BinaryP2PCodec(TransactionBuilder transactionBuilder, TransactionSerializer transactionSerializer,
+                          Blockchain blockchain, BlockchainConfig blockchainConfig,
+                          @Property(name = "apl.p2p.binaryEncoding", defaultValue = "true") boolean enabled) {
+        this.transactionBuilder = transactionBuilder;
+        this.transactionSerializer = transactionSerializer;
+        this.blockchain = blockchain;
+        this.blockchainConfig = blockchainConfig;
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return true when binary encoding is enabled for this node and will be advertised to other peers as {@link Peer.Service#BINARY_P2P}
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return true when binary encoding may be used for the requests to the given peer
+     */
+    public boolean isSupportedBy(Peer peer) {
+        return enabled && peer.providesService(Peer.Service.BINARY_P2P);
+    }
+
+    public byte[] encodeBlocks(List<? extends Block> blocks) {
+        return encode(out -> {
+            out.writeInt(blocks.size());
+            for (Block block : blocks) {
+                writeBlock(out, block);
+            }
+        });
+    }
+
+    public byte[] encodeBlock(Block block) {
+        return encode(out -> writeBlock(out, block));
+    }
+
+    /**
+     * Encode single block without format version, encoded blocks may be cached and combined
+     * into the getNextBlocks response by {@link #encodeEncodedBlocks(List)}
+     */
+    public byte[] encodeBlockBytes(Block block) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeBlock(out, block);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Combine blocks encoded by {@link #encodeBlockBytes(Block)}, result is the same as for {@link #encodeBlocks(List)}
+     */
+    public byte[] encodeEncodedBlocks(List<byte[]> encodedBlocks) {
+        return encode(out -> {
+            out.writeInt(encodedBlocks.size());
+            for (byte[] encodedBlock : encodedBlocks) {
+                out.write(encodedBlock);
+            }
+        });
+    }
+
+    public byte[] encodeTransactions(List<? extends Transaction> transactions) {
+        return encode(out -> writeTransactions(out, transactions));
+    }
+
+    /**
+     * Decode blocks without signature verification
+     *
+     * @param maxBlocks max number of blocks, which is allowed to be decoded
+     * @throws AplException.NotValidException when data is malformed or too many blocks were sent
+     */
+    public List<BlockImpl> decodeBlocks(byte[] data, int maxBlocks) throws AplException.NotValidException {
+        ByteBuffer buffer = decode(data);
+        try {
+            int size = readSize(buffer);
+            if (size > maxBlocks) {
+                throw new AplException.NotValidException("Too many blocks: " + size + ", max allowed " + maxBlocks);
+            }
+            List<BlockImpl> blocks = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                blocks.add(readBlock(buffer));
+            }
+            checkFullyRead(buffer);
+            return blocks;
+        } catch (BufferUnderflowException e) {
+            throw new AplException.NotValidException("Binary blocks data is too short", e);
+        }
+    }
+
+    /**
+     * Decode block without signature verification
+     *
+     * @throws AplException.NotValidException when data is malformed
+     */
+    public BlockImpl decodeBlock(byte[] data) throws AplException.NotValidException {
+        ByteBuffer buffer = decode(data);
+        try {
+            BlockImpl block = readBlock(buffer);
+            checkFullyRead(buffer);
+            return block;
+        } catch (BufferUnderflowException e) {
+            throw new AplException.NotValidException("Binary block data is too short", e);
+        }
+    }
+
+    /**
+     * Decode transactions without signature verification, which should be done by the
+     * transaction processor as for the transactions received in JSON
+     *
+     * @throws AplException.NotValidException when data is malformed
+     */
+    public List<Transaction> decodeTransactions(byte[] data) throws AplException.NotValidException {
+        ByteBuffer buffer = decode(data);
+        try {
+            List<Transaction> transactions = readTransactions(buffer);
+            checkFullyRead(buffer);
+            return transactions;
+        } catch (BufferUnderflowException e) {
+            throw new AplException.NotValidException("Binary transactions data is too short", e);
+        }
+    }
+
+    private void writeBlock(DataOutputStream out, Block block) throws IOException {
+        out.writeInt(block.getVersion());
+        out.writeInt(block.getTimestamp());
+        out.writeLong(block.getPreviousBlockId());
+        out.writeLong(block.getTotalAmountATM());
+        out.writeLong(block.getTotalFeeATM());
+        out.writeInt(block.getPayloadLength());
+        writeBytes(out, block.getPayloadHash());
+        writeBytes(out, block.getGeneratorPublicKey());
+        writeBytes(out, block.getGenerationSignature());
+        writeBytes(out, block.getPreviousBlockHash());
+        writeBytes(out, block.getBlockSignature());
+        out.writeInt(block.getTimeout());
+        writeTransactions(out, blockchain.getOrLoadTransactions(block));
+    }
+
+    private BlockImpl readBlock(ByteBuffer buffer) throws AplException.NotValidException {
+        int version = buffer.getInt();
+        int timestamp = buffer.getInt();
+        long previousBlockId = buffer.getLong();
+        long totalAmountATM = buffer.getLong();
+        long totalFeeATM = buffer.getLong();
+        int payloadLength = buffer.getInt();
+        byte[] payloadHash = readBytes(buffer);
+        byte[] generatorPublicKey = readBytes(buffer);
+        byte[] generationSignature = readBytes(buffer);
+        byte[] previousBlockHash = readBytes(buffer);
+        byte[] blockSignature = readBytes(buffer);
+        int timeout = buffer.getInt();
+        if (payloadHash == null || generatorPublicKey == null || generationSignature == null || blockSignature == null) {
+            throw new AplException.NotValidException("Block hashes, generator public key and signatures are required");
+        }
+        if (!requireTimeout(version)) {
+            timeout = 0;
+        }
+        List<Transaction> transactions = readTransactions(buffer);
+        return new BlockImpl(version, timestamp, previousBlockId, totalAmountATM, totalFeeATM,
+            payloadLength, payloadHash, generatorPublicKey, generationSignature, blockSignature, previousBlockHash, timeout,
+            transactions, blockchainConfig.getCurrentConfig().getInitialBaseTarget());
+    }
+
+    private void writeTransactions(DataOutputStream out, List<? extends Transaction> transactions) throws IOException {
+        out.writeInt(transactions.size());
+        for (Transaction transaction : transactions) {
+            writeBytes(out, transaction.bytes());
+            JSONObject prunableJSON = transactionSerializer.getPrunableAttachmentJSON(transaction);
+            writeBytes(out, prunableJSON == null ? null : prunableJSON.toJSONString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private List<Transaction> readTransactions(ByteBuffer buffer) throws AplException.NotValidException {
+        int size = readSize(buffer);
+        List<Transaction> transactions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            byte[] bytes = readBytes(buffer);
+            if (bytes == null) {
+                throw new AplException.NotValidException("Transaction bytes are missing");
+            }
+            byte[] prunableBytes = readBytes(buffer);
+            JSONObject prunableJSON = prunableBytes == null ? null : parsePrunableJSON(prunableBytes);
+            TransactionImpl transaction = transactionBuilder.newTransactionBuilder(bytes, prunableJSON).build();
+            transactions.add(transaction);
+        }
+        return transactions;
+    }
+
+    private JSONObject parsePrunableJSON(byte[] bytes) throws AplException.NotValidException {
+        try {
+            return (JSONObject) JSONValue.parseWithException(new String(bytes, StandardCharsets.UTF_8));
+        } catch (ParseException | ClassCastException e) {
+            throw new AplException.NotValidException("Unable to parse prunable attachment JSON", e);
+        }
+    }
+
+    private byte[] encode(BinaryWriter writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            writer.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private ByteBuffer decode(byte[] data) throws AplException.NotValidException {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        if (!buffer.hasRemaining() || buffer.get() != FORMAT_VERSION) {
+            throw new AplException.NotValidException("Unsupported binary format version");
+        }
+        return buffer;
+    }
+
+    private void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        if (bytes == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private byte[] readBytes(ByteBuffer buffer) throws AplException.NotValidException {
+        int length = buffer.getInt();
+        if (length == -1) {
+            return null;
+        }
+        if (length < 0 || length > buffer.remaining()) {
+            throw new AplException.NotValidException("Invalid length of the byte array: " + length);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private int readSize(ByteBuffer buffer) throws AplException.NotValidException {
+        int size = buffer.getInt();
+        if (size < 0 || size > buffer.remaining()) {
+            throw new AplException.NotValidException("Invalid number of elements: " + size);
+        }
+        return size;
+    }
+
+    private void checkFullyRead(ByteBuffer buffer) throws AplException.NotValidException {
+        if (buffer.hasRemaining()) {
+            throw new AplException.NotValidException("Binary data is too long, " + buffer.remaining() + " extra bytes");
+        }
+    }
+
+    private boolean requireTimeout(int version) {
+        return Block.ADAPTIVE_BLOCK_VERSION == version || Block.INSTANT_BLOCK_VERSION == version;
+    }
+
+    @FunctionalInterface
+    private interface BinaryWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+}
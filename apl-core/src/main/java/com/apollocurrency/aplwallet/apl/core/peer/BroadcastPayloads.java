@@ -0,0 +1,67 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.core.peer;
+
+import com.apollocurrency.aplwallet.api.p2p.request.BaseP2PRequest;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Variants of the request broadcast to the peers: JSON request for all peers, binary request for the peers, which provide
+ * {@link Peer.Service#BINARY_P2P}, and inventory request for the peers, which support transaction inventory.
+ * <p>Each variant is encoded once, when it is required by the first peer, and its payload is shared by all peers.
+ * Payloads are kept by the request identity, because variants of the same request are equal by the request type.</p>
+ */
+class BroadcastPayloads {
+    private final BaseP2PRequest request;
+    private final BaseP2PRequest binaryRequest;
+    private final BaseP2PRequest inventoryRequest;
+    private final Predicate<Peer> inventorySupported;
+    private final Function<BaseP2PRequest, WebSocketPayload> encoder;
+    private final Map<BaseP2PRequest, WebSocketPayload> payloads = new IdentityHashMap<>();
+
+    /**
+     * @param request            request for all peers
+     * @param binaryRequest      request for the peers, which provide {@link Peer.Service#BINARY_P2P}, may be null
+     * @param inventoryRequest   request for the peers, which support transaction inventory, may be null
+     * @param inventorySupported check whether peer supports transaction inventory
+     * @param encoder            encoder of the request, which returns null, when request can not be encoded
+     */
+    BroadcastPayloads(BaseP2PRequest request, BaseP2PRequest binaryRequest, BaseP2PRequest inventoryRequest,
+                      Predicate<Peer> inventorySupported, Function<BaseP2PRequest, WebSocketPayload> encoder) {
+        this.request = request;
+        this.binaryRequest = binaryRequest;
+        this.inventoryRequest = inventoryRequest;
+        this.inventorySupported = inventorySupported;
+        this.encoder = encoder;
+    }
+
+    /**
+     * @return variant of the request for the peer
+     */
+    BaseP2PRequest getRequest(Peer peer) {
+        if (inventoryRequest != null && inventorySupported.test(peer)) {
+            return inventoryRequest;
+        }
+        if (binaryRequest != null && peer.providesService(Peer.Service.BINARY_P2P)) {
+            return binaryRequest;
+        }
+        return request;
+    }
+
+    /**
+     * @return encoded variant of the request for the peer or null, when it can not be encoded
+     */
+    WebSocketPayload getPayload(Peer peer) {
+        BaseP2PRequest peerRequest = getRequest(peer);
+        if (!payloads.containsKey(peerRequest)) {
+            payloads.put(peerRequest, encoder.apply(peerRequest));
+        }
+        return payloads.get(peerRequest);
+    }
+}
@@ -29,6 +29,8 @@ import org.json.simple.JSONStreamAware;
 
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 public interface Peer extends Comparable<Peer> {
 
@@ -86,6 +88,16 @@ public interface Peer extends Comparable<Peer> {
 
     long getUploadedVolume();
 
+    /**
+     * @return number of asynchronous messages waiting to be sent to the peer
+     */
+    int getOutboundQueueSize();
+
+    /**
+     * @return number of asynchronous announcements dropped because the peer does not keep up with them
+     */
+    long getDroppedOutboundMessages();
+
     int getLastUpdated();
 
     int getLastConnectAttempt();
@@ -120,7 +132,24 @@ public interface Peer extends Comparable<Peer> {
 
     PeerTrustLevel getTrustLevel();
 
-    void sendAsync(BaseP2PRequest request);
+    /**
+     * Announce the encoded request without waiting for the response, the same payload may be sent to many peers.
+     * Announcement may be dropped, when the peer does not keep up, or replaced by the newer one with the same merge key
+     *
+     * @param mergeKey key of the announcement, which supersedes the not sent announcement with the same key, null to not merge
+     */
+    void sendAsync(WebSocketPayload payload, String mergeKey);
+
+    /**
+     * Send request without blocking of the calling thread. Response is parsed by the given executor,
+     * not by the network thread, which received it.
+     *
+     * @param parserExecutor executor for the response parsing
+     * @return future, which will be completed with the parsed response, with null when no response was received
+     * (timeout, send failure or error response), or exceptionally with the {@link PeerNotConnectedException}
+     * when peer is not connected
+     */
+    <T> CompletableFuture<T> sendAsync(BaseP2PRequest request, JsonReqRespParser<T> parser, Executor parserExecutor);
 
     long getServices();
 
@@ -139,7 +168,9 @@ public interface Peer extends Comparable<Peer> {
         PRUNABLE(2),                    // Stores expired prunable messages
         API(4),                         // Provides open API access over http
         API_SSL(8),                     // Provides open API access over https
-        CORS(16);                       // API CORS enabled
+        CORS(16),                       // API CORS enabled
+        BINARY_P2P(32),                 // Supports binary encoding of blocks and transactions for p2p requests
+        TX_INVENTORY(64);               // Announces new transactions by full hashes and serves them on request
 
         private final long code;        // Service code - must be a power of 2
 
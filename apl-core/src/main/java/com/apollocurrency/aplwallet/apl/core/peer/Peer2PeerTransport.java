@@ -3,7 +3,8 @@
  */
 package com.apollocurrency.aplwallet.apl.core.peer;
 
-import com.apollocurrency.aplwallet.apl.util.ConcurrentSelfCleaningHashMap;
+import com.apollocurrency.aplwallet.apl.util.ExpiringConcurrentMap;
+import com.apollocurrency.aplwallet.apl.util.HashedTimerWheel;
 import com.apollocurrency.aplwallet.apl.util.StringUtils;
 import com.google.common.util.concurrent.TimeLimiter;
 import lombok.Getter;
@@ -14,6 +15,8 @@ import java.io.IOException;
 import java.net.SocketTimeoutException;
 import java.net.URI;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -25,9 +28,17 @@ public class Peer2PeerTransport {
 
     private final Peer peer;
     /**
-     * map requests to responses
+     * timeouts of the requests of all peers
      */
-    private static final ConcurrentSelfCleaningHashMap<Long, ResponseWaiter> requestMap = new ConcurrentSelfCleaningHashMap<>(60_000, 60_000, ResponseWaiter::isOld);
+    private static final HashedTimerWheel requestTimeouts = new HashedTimerWheel("P2PRequestTimeouts", 100, 512);
+    /**
+     * map requests to responses, waiters of the requests without response are completed with the timeout
+     */
+    private static final ExpiringConcurrentMap<Long, ResponseWaiter> requestMap = new ExpiringConcurrentMap<>(requestTimeouts,
+        ResponseWaiter.WSW_TTL_MS, TimeUnit.MILLISECONDS, (requestId, waiter) -> {
+        log.trace("Timeout exceeded while waiting response ID: {}", requestId);
+        waiter.expire();
+    });
     private final Random rnd = new Random();
     private final PeerServlet peerServlet;
     private final Object volumeMonitor = new Object();
@@ -96,44 +107,64 @@ public class Peer2PeerTransport {
         // PeersService.notifyListeners(getPeer(), PeersService.Event.UPLOADED_VOLUME);
     }
 
-    public void onIncomingMessage(String message, PeerWebSocket ws, Long rqId) {
+    public void onIncomingMessage(String message, byte[] attachment, PeerWebSocket ws, Long rqId) {
+        PeerMessage peerMessage = new PeerMessage(message, attachment);
         if (rqId == null) {
             log.debug("Protocol error, requestId=null from {}, message:\n{}\n", which(), message);
         } else {
-            ResponseWaiter wsrw = requestMap.getValue(rqId);
+            ResponseWaiter wsrw = requestMap.get(rqId);
             if (wsrw != null) { //this is response we are waiting for
-                wsrw.setResponse(message);
+                wsrw.setResponse(peerMessage);
             } else {
                 //most likely ge've got request from remote and should process it
                 //but it also can be error response without requestId
                 log.trace("Receive new request {} - transport {}", rqId, number);
-                peerServlet.doPostWebSocket(this, rqId, message);
+                peerServlet.doPostWebSocket(this, rqId, peerMessage);
             }
         }
         lastActivity = System.currentTimeMillis();
-        updateDownloadedVolume(message.length());
+        updateDownloadedVolume(peerMessage.getLength());
     }
 
     public Long sendRequest(String message) {
-        Long requestId = sendRequestNoResponseWaiter(message);
+        Long requestId = nextRequestId();
+        boolean sendOK = send(message, requestId);
+        return registerWaiter(sendOK ? requestId : null);
+    }
+
+    /**
+     * Send the request, which is already encoded and may be shared with other transports
+     *
+     * @return request id or null, when request was not sent
+     */
+    public Long sendRequest(WebSocketPayload payload) {
+        Long requestId = nextRequestId();
+        boolean sendOK = send(payload, requestId);
+        return registerWaiter(sendOK ? requestId : null);
+    }
+
+    private Long registerWaiter(Long requestId) {
         if (requestId != null) {
-            requestMap.putValue(requestId, new ResponseWaiter());
+            requestMap.put(requestId, new ResponseWaiter());
         }
         return requestId;
     }
 
-    private Long sendRequestNoResponseWaiter(String message) {
-        Long requestId = nextRequestId();
-        boolean sendOK = send(message, requestId);
-        if (sendOK) {
-            return requestId;
-        } else {
+    public PeerMessage sendAndWaitResponse(String request) {
+        if (StringUtils.isBlank(request)) {
             return null;
         }
+        WebSocketPayload payload = encode(request, null);
+        return payload == null ? null : sendAndWaitResponse(payload);
     }
 
-    public String sendAndWaitResponse(String request) {
-        String res = null;
+    /**
+     * Send the encoded request and wait for the response during {@link PeersService#readTimeout}
+     *
+     * @return response message or null, when request was not sent or response was not received
+     */
+    public PeerMessage sendAndWaitResponse(WebSocketPayload request) {
+        PeerMessage res = null;
         Long rqId;
         boolean sendOK = true;
         rqId = sendRequest(request);
@@ -147,9 +178,34 @@ public class Peer2PeerTransport {
         return res;
     }
 
-    public String getResponse(Long rqId) {
-        String res = null;
-        ResponseWaiter wsrw = requestMap.getValue(rqId);
+    /**
+     * Send request without blocking of the calling thread.
+     * <p>Returned future is completed by the thread, which received the response (websocket thread),
+     * so that heavy response processing should be done using async stages with a separate executor.</p>
+     *
+     * @param request encoded request message
+     * @return future, which will be completed with the response message, or exceptionally with the
+     * {@link PeerNotConnectedException} when request was not sent and with the {@link SocketTimeoutException} when response
+     * was not received during {@link PeersService#readTimeout}
+     */
+    public CompletableFuture<PeerMessage> sendRequestAsync(WebSocketPayload request) {
+        Long requestId = nextRequestId();
+        ResponseWaiter waiter = new ResponseWaiter();
+        // register waiter before sending to not miss the fast response, waiter expires with the timeout after the read timeout
+        requestMap.put(requestId, waiter, PeersService.readTimeout, TimeUnit.MILLISECONDS);
+        if (!send(request, requestId)) {
+            requestMap.remove(requestId);
+            log.debug("Exception while sending to websocket of {}", which());
+            return CompletableFuture.failedFuture(new PeerNotConnectedException("Unable to send request to " + which()));
+        }
+        CompletableFuture<PeerMessage> response = waiter.getFuture();
+        response.whenComplete((message, error) -> requestMap.remove(requestId));
+        return response;
+    }
+
+    public PeerMessage getResponse(Long rqId) {
+        PeerMessage res = null;
+        ResponseWaiter wsrw = requestMap.get(rqId);
         if (wsrw != null) {
             try {
                 res = wsrw.get(PeersService.readTimeout);
@@ -173,7 +229,7 @@ public class Peer2PeerTransport {
         peer.deactivate("Websocket close event");
     }
 
-    private boolean sendToWebSocket(final String wsRequest, PeerWebSocket ws, Long requestId) {
+    private boolean sendToWebSocket(final WebSocketPayload wsRequest, PeerWebSocket ws, Long requestId) {
         boolean sendOK = false;
         try {
             if (ws == null) {
@@ -189,11 +245,37 @@ public class Peer2PeerTransport {
     }
 
     public boolean send(String message, Long requestId) {
-        boolean sendOK = false;
+        return send(message, null, requestId);
+    }
+
+    /**
+     * @param message    message string
+     * @param attachment binary attachment of the message, may be null
+     * @param requestId  id of the request or response
+     */
+    public boolean send(String message, byte[] attachment, Long requestId) {
         if (StringUtils.isBlank(message )) {
             //we have nothing to send
-            return sendOK;
+            return false;
         }
+        WebSocketPayload payload = encode(message, attachment);
+        if (payload == null) {
+            return false;
+        }
+        return send(payload, requestId);
+    }
+
+    private WebSocketPayload encode(String message, byte[] attachment) {
+        try {
+            return WebSocketPayload.encode(message, attachment);
+        } catch (IOException e) {
+            log.debug("Can't encode message to " + getHostWithPort(), e);
+            return null;
+        }
+    }
+
+    public boolean send(WebSocketPayload message, Long requestId) {
+        boolean sendOK = false;
         log.trace("Send request {} - transport {}", requestId, number);
         if (isInbound()) {
             sendOK = sendToWebSocket(message, inboundWebSocket, requestId);
@@ -238,7 +320,7 @@ public class Peer2PeerTransport {
                 p.deactivate(msg);
             }
         } else {
-            updateUploadedVolume(message.length());
+            updateUploadedVolume(message.getMessageLength());
         }
         return sendOK;
     }
@@ -38,8 +38,6 @@ import com.apollocurrency.aplwallet.apl.crypto.Convert;
 import com.apollocurrency.aplwallet.apl.util.Constants;
 import com.apollocurrency.aplwallet.apl.util.StringUtils;
 import com.apollocurrency.aplwallet.apl.util.Version;
-import com.apollocurrency.aplwallet.apl.util.task.NamedThreadFactory;
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsonorg.JsonOrgModule;
 import com.google.common.util.concurrent.TimeLimiter;
@@ -63,13 +61,13 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
@@ -108,7 +106,7 @@ public final class PeerImpl implements Peer {
     private TimeService timeService;
     @Getter
     private volatile int failedConnectAttempts = 0;
-    private volatile ThreadPoolExecutor asyncExecutor;
+    private final PeerOutboundScheduler.PeerQueue outboundQueue;
 
     PeerImpl(PeerAddress addrByFact,
              PeerAddress announcedAddress,
@@ -143,10 +141,7 @@ public final class PeerImpl implements Peer {
         this.p2pTransport = new Peer2PeerTransport(this, peerServlet, timeLimiter);
         state = PeerState.NON_CONNECTED; // set this peer its' initial state
         this.accountService = accountService;
-    }
-
-    private void initAsyncExecutor() {
-        this.asyncExecutor = new TimeTraceDecoratedThreadPoolExecutor(1, Runtime.getRuntime().availableProcessors() / 2, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<>(1000), new NamedThreadFactory(getHost() + "-AsyncExecutor"));
+        this.outboundQueue = peers.getOutboundScheduler().newQueue(host);
     }
 
     @Override
@@ -175,14 +170,8 @@ public final class PeerImpl implements Peer {
         try {
             if (newState != PeerState.CONNECTED) {
                 p2pTransport.disconnect();
-                if (asyncExecutor != null) {
-                    asyncExecutor.shutdownNow();
-                }
+                outboundQueue.clear();
                 // limiter.runWithTimeout(p2pTransport::disconnect, 1000, TimeUnit.MILLISECONDS);
-            }  else {
-                if (asyncExecutor == null || asyncExecutor.isShutdown() || asyncExecutor.isTerminated() || asyncExecutor.isTerminating()) {
-                    initAsyncExecutor();
-                }
             }
         } finally {
             //we have to change state anyway
@@ -210,6 +199,16 @@ public final class PeerImpl implements Peer {
         return p2pTransport.getUploadedVolume();
     }
 
+    @Override
+    public int getOutboundQueueSize() {
+        return outboundQueue.size();
+    }
+
+    @Override
+    public long getDroppedOutboundMessages() {
+        return outboundQueue.getDropped();
+    }
+
     @Override
     public Version getVersion() {
         return version;
@@ -523,26 +522,51 @@ public final class PeerImpl implements Peer {
     @Override
     public <R> R send(BaseP2PRequest request, JsonReqRespParser<R> parser) throws PeerNotConnectedException {
         checkConnectedStatus();
-        try {
-            JSONObject response = sendJSON(mapper.writeValueAsString(request));
+        WebSocketPayload payload = encodeRequest(request);
+        if (payload == null) {
+            return null;
+        }
+        JSONObject response = sendJSON(payload);
 
-            if (response == null) {
-                LOG.debug("Response is null.");
-                return null;
-            }
-            if (parser == null) {
-                return null;
-            }
-            return parser.parse(response);
-        } catch (JsonProcessingException e) {
-            LOG.debug("Can not deserialize request");
+        if (response == null) {
+            LOG.debug("Response is null.");
             return null;
         }
+        if (parser == null) {
+            return null;
+        }
+        return parser.parse(response);
+    }
+
+    @Override
+    public <R> CompletableFuture<R> sendAsync(BaseP2PRequest request, JsonReqRespParser<R> parser, Executor parserExecutor) {
+        try {
+            checkConnectedStatus();
+        } catch (PeerNotConnectedException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        WebSocketPayload payload = encodeRequest(request);
+        if (payload == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return p2pTransport.sendRequestAsync(payload)
+            .exceptionally(error -> {
+                // send failure (peer is already deactivated by the transport) or timeout
+                LOG.trace("No response from {}: {}", getHostWithPort(), error.toString());
+                return null;
+            })
+            .thenApplyAsync(resp -> {
+                JSONObject response = parseResponse(resp);
+                if (response == null || parser == null) {
+                    return null;
+                }
+                return parser.parse(response);
+            }, parserExecutor);
     }
 
     @Override
-    public void sendAsync(BaseP2PRequest request) {
-        asyncExecutor.submit(() -> {
+    public void sendAsync(WebSocketPayload payload, String mergeKey) {
+        announce(mergeKey, () -> {
             try {
                 checkConnectedStatus();
             } catch (PeerNotConnectedException e) {
@@ -550,12 +574,20 @@ public final class PeerImpl implements Peer {
                 return;
             }
             try {
-                sendJSONAsync(mapper.writeValueAsString(request));
-            } catch (JsonProcessingException e) {
-                LOG.debug("Can not deserialize request");
+                if (p2pTransport.sendRequest(payload) == null) {
+                    LOG.trace("Null response from: {}", getHostWithPort());
+                }
+            } catch (RuntimeException e) {
+                LOG.debug("Exception while sending request to '{}'", getHostWithPort(), e);
+                deactivate("Exception while sending request: " + e.getMessage());
             }
         });
+    }
 
+    private void announce(String mergeKey, Runnable task) {
+        if (!outboundQueue.announce(mergeKey, task)) {
+            LOG.trace("Oldest announcement to {} was dropped, outbound queue is full", getHostWithPort());
+        }
     }
 
     private void checkConnectedStatus() throws PeerNotConnectedException {
@@ -594,16 +626,53 @@ public final class PeerImpl implements Peer {
         return wsWriter.toString();
     }
 
+    /**
+     * @return request with its attachment encoded for sending or null, when request can not be serialized
+     */
+    private WebSocketPayload encodeRequest(BaseP2PRequest request) {
+        try {
+            return WebSocketPayload.encode(mapper.writeValueAsString(request), request.getAttachment());
+        } catch (IOException e) {
+            LOG.debug("Can not serialize request", e);
+            return null;
+        }
+    }
+
     private JSONObject sendJSON(String rq) {
-        JSONObject response = null;
+        return sendAndParseResponse(() -> p2pTransport.sendAndWaitResponse(rq));
+    }
 
+    private JSONObject sendJSON(WebSocketPayload rq) {
+        return sendAndParseResponse(() -> p2pTransport.sendAndWaitResponse(rq));
+    }
+
+    private JSONObject sendAndParseResponse(Supplier<PeerMessage> sender) {
+        PeerMessage resp;
+        try {
+            resp = sender.get();
+        } catch (RuntimeException e) {
+            LOG.debug("Exception while sending request to '{}'", getHostWithPort(), e);
+            deactivate("Exception while sending request: " + e.getMessage());
+            return null;
+        }
+        return parseResponse(resp);
+    }
+
+    private JSONObject parseResponse(PeerMessage resp) {
+        JSONObject response = null;
         try {
-            String resp = p2pTransport.sendAndWaitResponse(rq);
             if (resp == null) {
                 LOG.trace("Null response from: {}", getHostWithPort());
                 return response;
             }
-            response = (JSONObject) JSONValue.parseWithException(resp);
+            response = (JSONObject) JSONValue.parseWithException(resp.getMessage());
+            if (response != null) {
+                // attachment is never sent inside the JSON
+                response.remove(WebSocketPayload.ATTACHMENT);
+                if (resp.getAttachment() != null) {
+                    response.put(WebSocketPayload.ATTACHMENT, resp.getAttachment());
+                }
+            }
             //
             // Check for an error response
             //
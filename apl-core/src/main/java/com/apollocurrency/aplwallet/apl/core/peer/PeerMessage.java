@@ -0,0 +1,28 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.core.peer;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Message received from the peer websocket: JSON string and the binary attachment, see {@link WebSocketPayload}
+ */
+@Getter
+@AllArgsConstructor
+public class PeerMessage {
+    private final String message;
+    /**
+     * Binary attachment of the message or null
+     */
+    private final byte[] attachment;
+
+    /**
+     * @return length of the message string and its attachment, which is accounted as the downloaded volume
+     */
+    public int getLength() {
+        return message.length() + (attachment == null ? 0 : attachment.length);
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.core.peer;
+
+import com.apollocurrency.aplwallet.apl.util.task.NamedThreadFactory;
+import com.apollocurrency.aplwallet.apl.util.task.Tasks;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outbound dispatcher of the asynchronous peer messages, shared by all peers instead of the thread pool per peer.
+ * <p>Each peer has its own small bounded {@link PeerQueue}, messages of one peer are sent one by one in the order of submission.
+ * Peers with queued messages take turns on the shared threads: after sending one message the peer goes to the end
+ * of the line, so that one slow or flooded peer can not delay messages of the other peers.</p>
+ * <p>Queued messages are announcements (blocks and transactions), responses are sent by the thread, which processes the request.
+ * When the peer queue is full, the oldest queued announcement is dropped to make room for the new one. An announcement with
+ * a merge key replaces the queued announcement with the same key (e.g. the newer block replaces the stale one) keeping its place
+ * in the queue.</p>
+ */
+@Slf4j
+public class PeerOutboundScheduler {
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+
+    /**
+     * @param threads number of threads sending messages of all peers
+     * @param queueCapacity max number of messages waiting to be sent to one peer
+     */
+    public PeerOutboundScheduler(int threads, int queueCapacity) {
+        if (threads <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Threads and queue capacity should be positive, got threads=" + threads + ", queueCapacity=" + queueCapacity);
+        }
+        this.queueCapacity = queueCapacity;
+        // work queue holds at most one turn per peer, so it is bounded by the number of peers
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+            new NamedThreadFactory("PeerOutbound", true));
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public PeerQueue newQueue(String peerName) {
+        return new PeerQueue(peerName);
+    }
+
+    /**
+     * @return number of peers, which wait for their turn to send the message
+     */
+    public int getWaitingPeers() {
+        return executor.getQueue().size();
+    }
+
+    public void shutdown() {
+        Tasks.shutdownExecutor("PeerOutboundScheduler", executor, 2);
+    }
+
+    private static final class Message {
+        private final String mergeKey;
+        private Runnable task;
+
+        Message(String mergeKey, Runnable task) {
+            this.mergeKey = mergeKey;
+            this.task = task;
+        }
+    }
+
+    /**
+     * Bounded queue of the messages of one peer
+     */
+    public final class PeerQueue {
+        private final String peerName;
+        private final Deque<Message> messages = new ArrayDeque<>();
+        private boolean scheduled;
+        private volatile int size;
+        private volatile long dropped;
+
+        private PeerQueue(String peerName) {
+            this.peerName = peerName;
+        }
+
+        /**
+         * Queue the announcement, the oldest queued announcement is dropped, when the peer does not keep up with the messages
+         *
+         * @param mergeKey key of the announcement, which replaces the queued announcement with the same key, null to not merge
+         * @return false, when the oldest announcement was dropped to make room for the given one
+         * @throws RejectedExecutionException when the scheduler is shut down
+         */
+        public boolean announce(String mergeKey, Runnable task) {
+            return enqueue(new Message(mergeKey, Objects.requireNonNull(task)));
+        }
+
+        /**
+         * Drop all queued messages, e.g. when the peer is disconnected. The message, which is being sent, is not interrupted
+         */
+        public synchronized void clear() {
+            messages.clear();
+            size = 0;
+        }
+
+        /**
+         * @return number of queued messages
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @return number of messages dropped because of the full queue
+         */
+        public long getDropped() {
+            return dropped;
+        }
+
+        private synchronized boolean enqueue(Message message) {
+            if (message.mergeKey != null) {
+                for (Message queued : messages) {
+                    if (message.mergeKey.equals(queued.mergeKey)) {
+                        log.trace("Replace stale '{}' announcement to {}", message.mergeKey, peerName);
+                        queued.task = message.task;
+                        return true;
+                    }
+                }
+            }
+            boolean full = messages.size() >= queueCapacity;
+            if (full) {
+                messages.pollFirst();
+                dropped++;
+                log.debug("Outbound queue of {} is full, drop the oldest announcement", peerName);
+            }
+            messages.addLast(message);
+            size = messages.size();
+            if (!scheduled) {
+                try {
+                    executor.execute(this::sendNext);
+                } catch (RejectedExecutionException e) {
+                    clear();
+                    throw e;
+                }
+                scheduled = true;
+            }
+            return !full;
+        }
+
+        private void sendNext() {
+            Runnable task;
+            synchronized (this) {
+                Message message = messages.pollFirst();
+                size = messages.size();
+                if (message == null) {
+                    scheduled = false;
+                    return;
+                }
+                task = message.task;
+            }
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.debug("Unable to send message to " + peerName, e);
+            } finally {
+                nextTurn();
+            }
+        }
+
+        private synchronized void nextTurn() {
+            if (messages.isEmpty()) {
+                scheduled = false;
+                return;
+            }
+            try {
+                // go to the end of the line to let the other peers send their messages
+                executor.execute(this::sendNext);
+            } catch (RejectedExecutionException e) {
+                log.debug("Outbound scheduler is shut down, drop {} messages to {}", messages.size(), peerName);
+                clear();
+                scheduled = false;
+            }
+        }
+    }
+}
@@ -24,11 +24,13 @@ import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
 import com.apollocurrency.aplwallet.apl.core.dao.appdata.ShardDao;
 import com.apollocurrency.aplwallet.apl.core.files.DownloadableFilesManager;
 import com.apollocurrency.aplwallet.apl.core.peer.endpoint.AddPeers;
+import com.apollocurrency.aplwallet.apl.core.peer.endpoint.AnnounceTransactions;
 import com.apollocurrency.aplwallet.apl.core.peer.endpoint.Errors;
 import com.apollocurrency.aplwallet.apl.core.peer.endpoint.GetCumulativeDifficulty;
 import com.apollocurrency.aplwallet.apl.core.peer.endpoint.GetFileChunk;
 import com.apollocurrency.aplwallet.apl.core.peer.endpoint.GetFileDownloadInfo;
 import com.apollocurrency.aplwallet.apl.core.peer.endpoint.GetInfo;
+import com.apollocurrency.aplwallet.apl.core.peer.endpoint.GetMemPoolTransactions;
 import com.apollocurrency.aplwallet.apl.core.peer.endpoint.GetMilestoneBlockIds;
 import com.apollocurrency.aplwallet.apl.core.peer.endpoint.GetNextBlockIds;
 import com.apollocurrency.aplwallet.apl.core.peer.endpoint.GetNextBlocks;
@@ -148,6 +150,12 @@ public final class PeerServlet extends WebSocketServlet {
             case "processTransactions":
                 res = CDI.current().select(ProcessTransactions.class).get();
                 break;
+            case "announceTransactions":
+                res = CDI.current().select(AnnounceTransactions.class).get();
+                break;
+            case "getMemPoolTransactions":
+                res = CDI.current().select(GetMemPoolTransactions.class).get();
+                break;
             case "getFileDownloadInfo":
                 res = CDI.current().select(GetFileDownloadInfo.class).get();
                 break;
@@ -185,7 +193,7 @@ public final class PeerServlet extends WebSocketServlet {
         }
     }
 
-    void doPostWebSocket(Peer2PeerTransport transport, Long requestId, String request) {
+    void doPostWebSocket(Peer2PeerTransport transport, Long requestId, PeerMessage request) {
         threadPool.execute(() -> doPostWS(transport, requestId, request));
     }
 
@@ -194,9 +202,9 @@ public final class PeerServlet extends WebSocketServlet {
      *
      * @param transport WebSocket for the connection
      * @param requestId Request identifier
-     * @param request   Request message
+     * @param request   Request message with its attachment
      */
-    private void doPostWS(Peer2PeerTransport transport, Long requestId, String request) {
+    private void doPostWS(Peer2PeerTransport transport, Long requestId, PeerMessage request) {
 
         lookupComponents();
         JSONStreamAware jsonResponse;
@@ -205,7 +213,7 @@ public final class PeerServlet extends WebSocketServlet {
         //
 
         PeerImpl peer = (PeerImpl) transport.getPeer();
-        if (JSON.emptyJSONString.equalsIgnoreCase(request)) {
+        if (JSON.emptyJSONString.equalsIgnoreCase(request.getMessage())) {
             return;
         }
         if (peer == null) {
@@ -221,10 +229,14 @@ public final class PeerServlet extends WebSocketServlet {
                 jsonResponse = PeerResponses.getBlackisted(peer.getBlacklistingCause());
             } else {
                 log.trace("Process request: " + requestId);
-                jsonResponse = process(peer, new StringReader(request));
+                jsonResponse = process(peer, new StringReader(request.getMessage()), request.getAttachment());
             }
         }
         // Return the response
+        byte[] attachment = null;
+        if (jsonResponse instanceof JSONObject) {
+            attachment = (byte[]) ((JSONObject) jsonResponse).remove(WebSocketPayload.ATTACHMENT);
+        }
         try {
             StringWriter writer = new StringWriter(1000);
             try {
@@ -233,7 +245,7 @@ public final class PeerServlet extends WebSocketServlet {
                 log.debug("Almost impossible error: Can not write to StringWriter", ex);
             }
             String response = writer.toString();
-            transport.send(response, requestId);
+            transport.send(response, attachment, requestId);
             //check if we returned error and should close inbound socket
             if (peer != null) {
                 peer.processError(response);
@@ -249,15 +261,21 @@ public final class PeerServlet extends WebSocketServlet {
      *
      * @param peer        Peer
      * @param inputReader Input reader
+     * @param attachment  binary attachment of the request or null
      * @return JSON response
      */
-    private JSONStreamAware process(Peer peer, Reader inputReader) {
+    private JSONStreamAware process(Peer peer, Reader inputReader, byte[] attachment) {
         lookupComponents();
         //
         // Process the request
         //
         try (CountingInputReader cr = new CountingInputReader(inputReader, PeersService.MAX_REQUEST_SIZE)) {
             JSONObject request = (JSONObject) JSONValue.parseWithException(cr);
+            // attachment is never sent inside the JSON
+            request.remove(WebSocketPayload.ATTACHMENT);
+            if (attachment != null) {
+                request.put(WebSocketPayload.ATTACHMENT, attachment);
+            }
             //we have to process errors here because of http requests
             if (peer.processError(request)) {
                 return null;
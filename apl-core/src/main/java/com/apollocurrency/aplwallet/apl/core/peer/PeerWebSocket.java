@@ -13,17 +13,16 @@ import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.WebSocketAdapter;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.EOFException;
 import java.io.IOException;
 import java.lang.ref.SoftReference;
 import java.net.ProtocolException;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
 
 /**
  * @author alukin@gmail.com
@@ -38,7 +37,19 @@ public class PeerWebSocket extends WebSocketAdapter {
     /**
      * Compressed message flag
      */
-    private static final int FLAG_COMPRESSED = 1;
+    static final int FLAG_COMPRESSED = 1;
+    /**
+     * Message with the binary attachment flag, see {@link WebSocketPayload}
+     */
+    static final int FLAG_ATTACHMENT = 2;
+    /**
+     * Version, request id, flags and uncompressed length of the message
+     */
+    private static final int HEADER_SIZE = 20;
+    /**
+     * Min body size of the shared payload, which is sent without copying as the fragmented message
+     */
+    static final int MIN_FRAGMENTED_BODY_SIZE = 64 * 1024;
     protected final TimeLimiter limiter;
     /**
      * we use reference here to avoid memory leaks
@@ -135,10 +146,21 @@ public class PeerWebSocket extends WebSocketAdapter {
                     }
                 }
             }
-            String message = new String(msgBytes, StandardCharsets.UTF_8);
+            String message;
+            byte[] attachment = null;
+            if ((flags & FLAG_ATTACHMENT) != 0) {
+                int messageLength = msgBytes.length < Integer.BYTES ? -1 : ByteBuffer.wrap(msgBytes).getInt();
+                if (messageLength < 0 || messageLength > msgBytes.length - Integer.BYTES) {
+                    throw new ProtocolException("Invalid length of the message with attachment: " + messageLength);
+                }
+                message = new String(msgBytes, Integer.BYTES, messageLength, StandardCharsets.UTF_8);
+                attachment = Arrays.copyOfRange(msgBytes, Integer.BYTES + messageLength, msgBytes.length);
+            } else {
+                message = new String(msgBytes, StandardCharsets.UTF_8);
+            }
             Peer2PeerTransport p = peerReference.get();
             if (p != null) {
-                p.onIncomingMessage(message, this, rqId);
+                p.onIncomingMessage(message, attachment, this, rqId);
             } else {
                 log.warn("Peer reference is null on websocket incoming message, closing websocket:\n {}", message);
                 close();
@@ -160,45 +182,63 @@ public class PeerWebSocket extends WebSocketAdapter {
      * @throws IOException
      */
     public boolean send(String message, Long requestId) throws IOException {
-        boolean sendOk = true;
         if (StringUtils.isBlank(message.trim())) {
             log.warn("Empty request from us to {}", which());
             return false;
         }
+        if (log.isTraceEnabled()) {
+            log.trace("Send {} - [{} ...] to PeerWebSocket={} -- trace {}", requestId, message, which(), ThreadUtils.lastNStacktrace(10));
+        }
+        return send(WebSocketPayload.encode(message), requestId);
+    }
+
+    /**
+     * Sends encoded websocket message, payload is not modified and may be sent concurrently to other peers.
+     * Message is sent as the single frame with the header of the peer and the copied body. Header and the large shared
+     * body are sent as two fragments of the same binary message without copying the body, receiver gets them as the
+     * whole message. Session, which failed in the middle of the fragmented message, is closed, since the next message
+     * can not be sent after the incomplete one.
+     * Must be synchronized because it is used from multiple threads
+     *
+     * @param payload   encoded message
+     * @param requestId if it is not null, it means it is request otherwise it is
+     *                  response
+     * @return requestId
+     * @throws IOException
+     */
+    public boolean send(WebSocketPayload payload, Long requestId) throws IOException {
+        boolean sendOk = true;
         Session s = getSession();
         if (s != null) {
-            if (log.isTraceEnabled()) {
-                log.trace("Send {} - [{} ...] to PeerWebSocket={} from {} -- trace {}", requestId, message, this.getTransport().getPeer().getAnnouncedAddress(), getSession().getLocalAddress().toString(), ThreadUtils.lastNStacktrace(10));
-                //log.trace("Send {} PeerWebSocket={} jettySession={}", message.substring(32), this, sessionToString(getSession()));
-            }
-            byte[] requestBytes = message.getBytes(StandardCharsets.UTF_8);
-            int requestLength = requestBytes.length;
-            int flags = 0;
-            if (PeersService.isGzipEnabled && requestLength >= PeersService.MIN_COMPRESS_SIZE) {
-                flags |= FLAG_COMPRESSED;
-                ByteArrayOutputStream outStream = new ByteArrayOutputStream(requestLength);
-                try (GZIPOutputStream gzipStream = new GZIPOutputStream(outStream)) {
-                    gzipStream.write(requestBytes);
-                }
-                requestBytes = outStream.toByteArray();
+            if (payload.getBodySize() + HEADER_SIZE > PeersService.MAX_MESSAGE_SIZE) {
+                throw new ProtocolException("POST request length exceeds max message size");
             }
-            ByteBuffer buf = ByteBuffer.allocate(requestBytes.length + 20);
-            buf.putInt(version)
+            // header is specific for the peer, body is shared
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(version)
                 .putLong(requestId)
-                .putInt(flags)
-                .putInt(requestLength)
-                .put(requestBytes)
+                .putInt(payload.getFlags())
+                .putInt(payload.getLength())
                 .flip();
-            if (buf.limit() > PeersService.MAX_MESSAGE_SIZE) {
-                throw new ProtocolException("POST request length exceeds max message size");
+            ByteBuffer body = payload.getBody();
+            boolean fragmented = payload.isShared() && payload.getBodySize() >= MIN_FRAGMENTED_BODY_SIZE;
+            Runnable sender;
+            if (fragmented) {
+                sender = () -> sendBytes(header, body);
+            } else {
+                ByteBuffer frame = ByteBuffer.allocate(HEADER_SIZE + payload.getBodySize());
+                frame.put(header).put(body).flip();
+                sender = () -> sendBytes(frame);
             }
             //synchronizing here
             synchronized (this) {
                 if (getSession() == null) { // check again to prevent NPE after synchronization
                     throw new AplException.AplIOException("Websocket session is null for " + which());
                 }
+                boolean sent = false;
                 try {
-                    limiter.runWithTimeout(() -> sendBytes(buf), 5000, TimeUnit.MILLISECONDS);
+                    limiter.runWithTimeout(sender, 5000, TimeUnit.MILLISECONDS);
+                    sent = true;
                 } catch (IllegalStateException e) {
                     log.error("Can't send to {}, cause {}", s.getRemoteAddress(), e.getMessage());
                     throw new IOException("Websocket session for " + which(), e);
@@ -210,6 +250,11 @@ public class PeerWebSocket extends WebSocketAdapter {
                     throw new AplException.AplIOException(e.getMessage());
                 } catch (TimeoutException e) {
                     throw new AplException.AplIOException("Can't send to " + s.getRemote() + ", time limit is reached.");
+                } finally {
+                    if (fragmented && !sent) {
+                        log.debug("Fragmented message to {} is incomplete, close session", which());
+                        close();
+                    }
                 }
             }
         } else {
@@ -218,9 +263,19 @@ public class PeerWebSocket extends WebSocketAdapter {
         return sendOk;
     }
 
-    private void sendBytes(ByteBuffer data) {
+    private void sendBytes(ByteBuffer frame) {
+        try {
+            getSession().getRemote().sendBytes(frame);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void sendBytes(ByteBuffer header, ByteBuffer body) {
         try {
-            getSession().getRemote().sendBytes(data);
+            RemoteEndpoint remote = getSession().getRemote();
+            remote.sendPartialBytes(header, false);
+            remote.sendPartialBytes(body, true);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -21,6 +21,7 @@ package com.apollocurrency.aplwallet.apl.core.peer;
 
 import com.apollocurrency.aplwallet.api.dto.TransactionDTO;
 import com.apollocurrency.aplwallet.api.p2p.PeerInfo;
+import com.apollocurrency.aplwallet.api.p2p.request.AnnounceTransactionsRequest;
 import com.apollocurrency.aplwallet.api.p2p.request.BaseP2PRequest;
 import com.apollocurrency.aplwallet.api.p2p.request.ProcessBlockRequest;
 import com.apollocurrency.aplwallet.api.p2p.request.ProcessTransactionsRequest;
@@ -64,12 +65,14 @@ import org.slf4j.LoggerFactory;
 import javax.enterprise.inject.spi.CDI;
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
@@ -144,6 +147,8 @@ public class PeersService {
      */
     private final ConcurrentMap<String, Peer> inboundPeers = new ConcurrentHashMap<>();
     private final ThreadPoolExecutor sendingService;
+    @Getter
+    private final PeerOutboundScheduler outboundScheduler;
     private final TimeLimiterService timeLimiterService;
     private final PropertiesHolder propertiesHolder;
     private final Blockchain blockchain;
@@ -159,9 +164,12 @@ public class PeersService {
     private JSONStreamAware myPeerInfoRequest;
     private volatile JSONStreamAware myPeerInfoResponse;
     private BlockchainProcessor blockchainProcessor;
+    private BinaryP2PCodec binaryP2PCodec;
+    private TransactionInventory transactionInventory;
     private volatile TimeService timeService;
     private final TransactionConverter transactionConverter;
     private final BlockConverter blockConverter;
+    private final ObjectMapper requestMapper = new ObjectMapper().registerModule(new JsonOrgModule());
 //    private final ExecutorService txSendingDispatcher;
 
     @Inject
@@ -190,6 +198,9 @@ public class PeersService {
 //        this.txSendingDispatcher = new ThreadPoolExecutor(5, asyncTxSendingPoolSize, 10_000, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(asyncTxSendingPoolSize), new NamedThreadFactory("P2PTxSendingPool", true));
 
         this.sendingService = new TimeTraceDecoratedThreadPoolExecutor(10, asyncTxSendingPoolSize, 10_000, TimeUnit.MILLISECONDS, new LinkedBlockingDeque<>(1000), new NamedThreadFactory("PeersSendingService"));
+        int outboundThreads = propertiesHolder.getIntProperty("apl.peerOutboundThreads", 8);
+        int outboundQueueSize = propertiesHolder.getIntProperty("apl.peerOutboundQueueSize", 64);
+        this.outboundScheduler = new PeerOutboundScheduler(Math.max(outboundThreads, 1), Math.max(outboundQueueSize, 1));
     isLightClient = propertiesHolder.isLightClient();
     }
 
@@ -198,6 +209,16 @@ public class PeersService {
         return blockchainProcessor;
     }
 
+    private BinaryP2PCodec lookupBinaryP2PCodec() {
+        if (binaryP2PCodec == null) binaryP2PCodec = CDI.current().select(BinaryP2PCodec.class).get();
+        return binaryP2PCodec;
+    }
+
+    private TransactionInventory lookupTransactionInventory() {
+        if (transactionInventory == null) transactionInventory = CDI.current().select(TransactionInventory.class).get();
+        return transactionInventory;
+    }
+
     public void init() {
 
         useProxy = System.getProperty("socksProxyHost") != null || System.getProperty("http.proxyHost") != null;
@@ -407,6 +428,12 @@ public class PeersService {
                 servicesList.add(Peer.Service.CORS);
             }
         }
+        if (lookupBinaryP2PCodec().isEnabled()) {
+            servicesList.add(Peer.Service.BINARY_P2P);
+        }
+        if (lookupTransactionInventory().isEnabled()) {
+            servicesList.add(Peer.Service.TX_INVENTORY);
+        }
 
         long services = 0;
         for (Peer.Service service : servicesList) {
@@ -436,6 +463,7 @@ public class PeersService {
                 dispatcher.shutdown();
             }
             Tasks.shutdownExecutor("sendingService", sendingService, 2);
+            outboundScheduler.shutdown();
         } catch (Exception ex) {
             LOG.error(ex.getMessage(), ex);
         }
@@ -729,13 +757,31 @@ public class PeersService {
     }
 
     public void sendToSomePeers(Block block) {
-        ProcessBlockRequest request = new ProcessBlockRequest(blockConverter.convert(block), blockchainConfig.getChain().getChainId());
+        UUID chainId = blockchainConfig.getChain().getChainId();
+        ProcessBlockRequest request = new ProcessBlockRequest(blockConverter.convert(block), chainId);
+        ProcessBlockRequest binaryRequest = null;
+        if (lookupBinaryP2PCodec().isEnabled()) {
+            binaryRequest = new ProcessBlockRequest(lookupBinaryP2PCodec().encodeBlock(block), request.getPreviousBlock(),
+                request.getTimestamp(), request.getTimeout(), chainId);
+        }
         LOG.debug("Send to some peers the block: {} at height: {}, trace - {}", block.getId(), block.getHeight(), ThreadUtils.lastNStacktrace(8));
-        sendToSomePeersAsync(request);
+        sendToSomePeersAsync(request, binaryRequest);
     }
 
     public void sendToSomePeers(List<? extends Transaction> transactions) {
         log.debug("Send transactions to peers, {} - {}", transactions.stream().map(Transaction::getId).map(String::valueOf).collect(Collectors.joining(",")), ThreadUtils.lastNStacktrace(10));
+        if (!lookupTransactionInventory().isEnabled()) {
+            sendTransactionsToSomePeers(transactions, false);
+            return;
+        }
+        // announced transactions are requested from the mempool, send whole transactions, which are not there, to all peers
+        Map<Boolean, List<Transaction>> servable = transactions.stream()
+            .collect(Collectors.partitioningBy(lookupTransactionInventory()::canServe));
+        sendTransactionsToSomePeers(servable.get(true), true);
+        sendTransactionsToSomePeers(servable.get(false), false);
+    }
+
+    private void sendTransactionsToSomePeers(List<? extends Transaction> transactions, boolean announce) {
         int nextBatchStart = 0;
         while (nextBatchStart < transactions.size()) {
             List<TransactionDTO> transactionsData = new ArrayList<>();
@@ -743,8 +789,17 @@ public class PeersService {
                 transactionsData.add(transactionConverter.convert(transactions.get(i)));
             }
             BaseP2PRequest request = new ProcessTransactionsRequest(transactionsData, blockchainConfig.getChain().getChainId());
+            List<? extends Transaction> batch = transactions.subList(nextBatchStart, Math.min(nextBatchStart + sendTransactionsBatchSize, transactions.size()));
+            BaseP2PRequest binaryRequest = null;
+            if (lookupBinaryP2PCodec().isEnabled()) {
+                binaryRequest = new ProcessTransactionsRequest(lookupBinaryP2PCodec().encodeTransactions(batch), blockchainConfig.getChain().getChainId());
+            }
+            BaseP2PRequest inventoryRequest = null;
+            if (announce) {
+                inventoryRequest = new AnnounceTransactionsRequest(TransactionInventory.encodeTransactionFullHashes(batch), blockchainConfig.getChain().getChainId());
+            }
             try {
-                sendToSomePeersAsync(request);
+                sendToSomePeersAsync(request, binaryRequest, inventoryRequest);
             } catch (RejectedExecutionException e) {
                 log.debug("Unable to send async batch, skip it");
             }
@@ -760,9 +815,31 @@ public class PeersService {
         }
     }
     public void sendToSomePeersAsync(BaseP2PRequest request) {
+        sendToSomePeersAsync(request, null);
+    }
+
+    /**
+     * Send request to some connected peers, peers which provide {@link Peer.Service#BINARY_P2P}
+     * will receive binaryRequest instead, when it is not null
+     */
+    public void sendToSomePeersAsync(BaseP2PRequest request, BaseP2PRequest binaryRequest) {
+        sendToSomePeersAsync(request, binaryRequest, null);
+    }
+
+    /**
+     * Send request to some connected peers, peers which provide {@link Peer.Service#TX_INVENTORY} will receive
+     * inventoryRequest instead, when it is not null, other peers which provide {@link Peer.Service#BINARY_P2P}
+     * will receive binaryRequest instead, when it is not null
+     */
+    public void sendToSomePeersAsync(BaseP2PRequest request, BaseP2PRequest binaryRequest, BaseP2PRequest inventoryRequest) {
         sendingService.submit(() -> {
             long time = System.nanoTime();
             checkP2PUp();
+            // encode request only once for all peers and share its payload
+            // newer block announcement supersedes the stale one, which is not sent yet
+            String mergeKey = request instanceof ProcessBlockRequest ? request.requestType : null;
+            BroadcastPayloads payloads = new BroadcastPayloads(request, binaryRequest, inventoryRequest,
+                lookupTransactionInventory()::isSupportedBy, this::encodePayload);
             Set<Peer> peers = new HashSet<>(getPeers(PeerState.CONNECTED));
             int counterOfPeersToSend = Math.min(peers.size(), sendToPeersLimit);
             for (final Peer peer : peers) {
@@ -774,12 +851,16 @@ public class PeersService {
                     && peer.getBlockchainState() != BlockchainState.LIGHT_CLIENT
                 ) {
                     counterOfPeersToSend--;
+                    WebSocketPayload peerPayload = payloads.getPayload(peer);
+                    if (peerPayload == null) {
+                        continue;
+                    }
                     try {
-                        peer.sendAsync(request);
+                        peer.sendAsync(peerPayload, mergeKey);
                     } catch (RejectedExecutionException e) {
                         try {
                             log.debug("Failed to send to peer {} asynchronously, will send synchronously", peer.getHost());
-                            peer.send(request);
+                            peer.send(payloads.getRequest(peer));
                         } catch (PeerNotConnectedException peerNotConnectedException) {
                             log.debug("Peer not connected, failed to send request {}", peerNotConnectedException.getMessage());
                         }
@@ -790,6 +871,15 @@ public class PeersService {
         });
     }
 
+    private WebSocketPayload encodePayload(BaseP2PRequest request) {
+        try {
+            return WebSocketPayload.encodeShared(requestMapper.writeValueAsString(request), request.getAttachment());
+        } catch (IOException e) {
+            log.debug("Unable to encode request {}, skip sending", request.requestType, e);
+            return null;
+        }
+    }
+
 
 
     private void sendToSomePeers(BaseP2PRequest request) {
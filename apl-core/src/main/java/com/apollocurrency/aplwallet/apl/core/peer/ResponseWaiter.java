@@ -6,8 +6,10 @@ package com.apollocurrency.aplwallet.apl.core.peer;
 import lombok.extern.slf4j.Slf4j;
 
 import java.net.SocketTimeoutException;
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 
 /**
@@ -20,14 +22,10 @@ public class ResponseWaiter {
      */
     public static final long WSW_TTL_MS = 60000; //1 minute
     /**
-     * Request latch
+     * Response message future, completed by the incoming message or by the timeout
      */
-    private final CountDownLatch latch = new CountDownLatch(1);
+    private final CompletableFuture<PeerMessage> response = new CompletableFuture<>();
     private final long createTime = System.currentTimeMillis();
-    /**
-     * Response message
-     */
-    private volatile String response;
 
     /**
      * Wait for the response
@@ -37,28 +35,45 @@ public class ResponseWaiter {
      * @param timeoutMs Wait timeout
      * @return Response message
      */
-    public String get(long timeoutMs) throws SocketTimeoutException {
+    public PeerMessage get(long timeoutMs) throws SocketTimeoutException {
         try {
-            if (!latch.await(timeoutMs, TimeUnit.MILLISECONDS)) {
-                throw new SocketTimeoutException("WebSocket response wait timeout (" + timeoutMs + "ms) exceeded");
+            return response.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            throw new SocketTimeoutException("WebSocket response wait timeout (" + timeoutMs + "ms) exceeded");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof SocketTimeoutException) {
+                throw (SocketTimeoutException) ex.getCause();
             }
+            log.debug("Response waiting failed", ex);
         } catch (InterruptedException ex) {
             log.debug("Interrupted exception while waiting for response", ex);
             //we can not just swallow this exception
             //but we have to return result below
             Thread.currentThread().interrupt();
         }
+        return null;
+    }
+
+    /**
+     * @return future, which will be completed with the response message
+     * or exceptionally with the {@link SocketTimeoutException} on timeout
+     */
+    public CompletableFuture<PeerMessage> getFuture() {
         return response;
     }
 
-    public void setResponse(String response) {
-        this.response = response;
-        latch.countDown();
+    public void setResponse(PeerMessage response) {
+        this.response.complete(response);
+    }
+
+    public void timeout(long timeoutMs) {
+        response.completeExceptionally(new SocketTimeoutException("WebSocket response wait timeout (" + timeoutMs + "ms) exceeded"));
     }
 
-    public boolean isOld() {
-        long now = System.currentTimeMillis();
-        boolean res = (now - createTime) > WSW_TTL_MS;
-        return res;
+    /**
+     * Complete waiter with the timeout, when response was not received during the time to live of the request
+     */
+    public void expire() {
+        timeout(System.currentTimeMillis() - createTime);
     }
 }
@@ -0,0 +1,241 @@
+/*
+ *  Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.peer;
+
+import com.apollocurrency.aplwallet.apl.core.app.observer.events.BlockEvent;
+import com.apollocurrency.aplwallet.apl.core.app.observer.events.BlockEventType;
+import com.apollocurrency.aplwallet.apl.core.config.Property;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Block;
+import com.apollocurrency.aplwallet.apl.core.service.blockchain.Blockchain;
+import com.apollocurrency.aplwallet.apl.core.service.blockchain.BlockSerializer;
+import com.apollocurrency.aplwallet.apl.core.shard.DbHotSwapConfig;
+import com.apollocurrency.aplwallet.apl.util.JSON;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Bounded cache of the blocks in their wire form (JSON and binary), used to serve getNextBlocks and getNextBlockIds
+ * requests of the syncing peers without database and serialization work.
+ * <p>Blocks are added, when they are served for the first time, least recently served blocks are evicted,
+ * when cache is full. Cache contains only blocks of the current chain: blocks at and above the height
+ * of the popped off block are removed, whole cache is cleared on rescan and database switch.
+ * Blocks loaded from the database, while blocks were popped off, are not cached, since they may be already orphaned.</p>
+ */
+@Slf4j
+@Singleton
+public class SerializedBlockCache {
+    private final Blockchain blockchain;
+    private final BlockSerializer blockSerializer;
+    private final BinaryP2PCodec binaryP2PCodec;
+    private final int maxSize;
+
+    private final Map<Long, SerializedBlock> blocksById;
+    private final NavigableMap<Integer, SerializedBlock> blocksByHeight = new TreeMap<>();
+    /**
+     * Incremented, when blocks are removed from the cache by pop off or clear
+     */
+    private long generation;
+
+    @Inject
+    public SerializedBlockCache(Blockchain blockchain, BlockSerializer blockSerializer, BinaryP2PCodec binaryP2PCodec,
+                                @Property(name = "apl.p2p.serializedBlockCacheSize", defaultValue = "720") int maxSize) {
+        this.blockchain = blockchain;
+        this.blockSerializer = blockSerializer;
+        this.binaryP2PCodec = binaryP2PCodec;
+        this.maxSize = maxSize;
+        this.blocksById = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, SerializedBlock> eldest) {
+                if (size() > SerializedBlockCache.this.maxSize) {
+                    blocksByHeight.remove(eldest.getValue().height, eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Get blocks following the given block, as {@link Blockchain#getBlocksAfter(long, List)} does.
+     * Blocks are taken from the cache, missing blocks are loaded from the blockchain and cached.
+     *
+     * @param blockId     id of the block, after which blocks should be returned
+     * @param blockIdList ids of the requested blocks in the chain order
+     * @return serialized blocks, which ids match the beginning of the blockIdList
+     */
+    public List<SerializedBlock> getBlocksAfter(long blockId, List<Long> blockIdList) {
+        if (maxSize <= 0) {
+            return serialize(blockchain.getBlocksAfter(blockId, blockIdList));
+        }
+        List<SerializedBlock> result = new ArrayList<>(blockIdList.size());
+        long previousBlockId = blockId;
+        long loadGeneration;
+        synchronized (this) {
+            loadGeneration = generation;
+            for (Long id : blockIdList) {
+                SerializedBlock serializedBlock = blocksById.get(id);
+                if (serializedBlock == null || serializedBlock.previousBlockId != previousBlockId) {
+                    break;
+                }
+                result.add(serializedBlock);
+                previousBlockId = id;
+            }
+        }
+        if (result.size() < blockIdList.size()) {
+            List<? extends Block> loaded = blockchain.getBlocksAfter(previousBlockId, blockIdList.subList(result.size(), blockIdList.size()));
+            List<SerializedBlock> serialized = serialize(loaded);
+            synchronized (this) {
+                if (loadGeneration == generation) {
+                    int height = blockchain.getHeight();
+                    // popped off block is not the last block already, but its deletion may be not committed yet
+                    serialized.stream()
+                        .filter(serializedBlock -> serializedBlock.height <= height)
+                        .forEach(this::put);
+                } else {
+                    log.trace("Blocks were popped off while loading {} blocks after {}, do not cache them", serialized.size(), previousBlockId);
+                }
+            }
+            result.addAll(serialized);
+        }
+        return result;
+    }
+
+    /**
+     * Get ids of the blocks following the given block from the cache
+     *
+     * @param blockId id of the block, after which ids should be returned
+     * @param limit   max number of ids to return
+     * @return ids of the following blocks or null, when the given block or one of the following blocks are not cached
+     */
+    public synchronized List<Long> getBlockIdsAfter(long blockId, int limit) {
+        SerializedBlock block = blocksById.get(blockId);
+        if (block == null) {
+            return null;
+        }
+        int toHeight = Math.min(block.height + limit, blockchain.getHeight());
+        List<Long> result = new ArrayList<>(Math.max(0, toHeight - block.height));
+        for (int height = block.height + 1; height <= toHeight; height++) {
+            SerializedBlock next = blocksByHeight.get(height);
+            if (next == null || next.previousBlockId != block.id) {
+                return null;
+            }
+            result.add(next.id);
+            block = next;
+        }
+        return result;
+    }
+
+    public synchronized int size() {
+        return blocksById.size();
+    }
+
+    public synchronized void clear() {
+        generation++;
+        blocksById.clear();
+        blocksByHeight.clear();
+    }
+
+    public void onBlockPopped(@Observes @BlockEvent(BlockEventType.BLOCK_POPPED) Block block) {
+        synchronized (this) {
+            generation++;
+            NavigableMap<Integer, SerializedBlock> removed = blocksByHeight.tailMap(block.getHeight(), true);
+            log.trace("Remove {} serialized blocks from height {}", removed.size(), block.getHeight());
+            removed.values().forEach(serializedBlock -> blocksById.remove(serializedBlock.id));
+            removed.clear();
+        }
+    }
+
+    public void onRescanBegan(@Observes @BlockEvent(BlockEventType.RESCAN_BEGIN) Block block) {
+        clear();
+    }
+
+    public void onDbHotSwapBegin(@Observes DbHotSwapConfig dbHotSwapConfig) {
+        clear();
+    }
+
+    private void put(SerializedBlock serializedBlock) {
+        SerializedBlock replaced = blocksByHeight.put(serializedBlock.height, serializedBlock);
+        if (replaced != null && replaced.id != serializedBlock.id) {
+            blocksById.remove(replaced.id);
+        }
+        blocksById.put(serializedBlock.id, serializedBlock);
+    }
+
+    private List<SerializedBlock> serialize(List<? extends Block> blocks) {
+        if (blocks.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<SerializedBlock> result = new ArrayList<>(blocks.size());
+        blocks.forEach(block -> result.add(new SerializedBlock(block)));
+        return result;
+    }
+
+    /**
+     * Block in the wire form, each form is created on the first use. Block itself is
+     * referenced only until both forms are created.
+     */
+    public class SerializedBlock {
+        private final long id;
+        private final long previousBlockId;
+        private final int height;
+        private Block block;
+        private String json;
+        private byte[] binary;
+
+        SerializedBlock(Block block) {
+            this.id = block.getId();
+            this.previousBlockId = block.getPreviousBlockId();
+            this.height = block.getHeight();
+            this.block = block;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        /**
+         * @return block JSON as it is sent by getNextBlocks
+         */
+        public synchronized String getJson() {
+            if (json == null) {
+                json = JSON.toJSONString(blockSerializer.getJSONObject(block));
+                releaseBlock();
+            }
+            return json;
+        }
+
+        /**
+         * @return block encoded by {@link BinaryP2PCodec#encodeBlockBytes(Block)}
+         */
+        public synchronized byte[] getBinary() {
+            if (binary == null) {
+                binary = binaryP2PCodec.encodeBlockBytes(block);
+                releaseBlock();
+            }
+            return binary;
+        }
+
+        private void releaseBlock() {
+            if (json != null && binary != null) {
+                // both forms are created, block is not needed anymore
+                block = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.core.peer;
+
+import com.apollocurrency.aplwallet.apl.core.app.AplException;
+import com.apollocurrency.aplwallet.apl.core.config.Property;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Transaction;
+import com.apollocurrency.aplwallet.apl.core.service.blockchain.Blockchain;
+import com.apollocurrency.aplwallet.apl.core.service.blockchain.MemPool;
+import com.apollocurrency.aplwallet.apl.crypto.Convert;
+import com.apollocurrency.aplwallet.apl.util.ExpiringConcurrentMap;
+import com.apollocurrency.aplwallet.apl.util.HashedTimerWheel;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inventory based relay of the unconfirmed transactions for the peers, which provide {@link Peer.Service#TX_INVENTORY}:
+ * new transactions are announced by their full hashes (announceTransactions) and the receiver requests
+ * only the transactions, which are missing in its mempool and blockchain (getMemPoolTransactions), so that
+ * transaction is downloaded once instead of receiving it from each neighbour. Other peers still receive
+ * the processTransactions request with the whole transactions. Announced transactions are requested from the mempool
+ * of the announcing peer, so transactions, which are not in the mempool of this node (e.g. broadcasted or rebroadcasted
+ * transactions), are sent whole to all peers.
+ * <p>Transaction requested from one peer is not requested from other announcing peers until the response is received
+ * or the request expires. Other peers, which announce the requested transaction meanwhile, are kept as alternate announcers,
+ * so that the transaction, which is still missing after the response, is requested from the next of them.</p>
+ */
+@Slf4j
+@Singleton
+public class TransactionInventory {
+    public static final int MAX_FULL_HASHES = 1000;
+    private static final int FULL_HASH_SIZE = 32;
+    private static final long REQUEST_TTL_SECONDS = 30;
+    private static final int MAX_ALTERNATE_ANNOUNCERS = 4;
+
+    private final MemPool memPool;
+    private final Blockchain blockchain;
+    private final boolean enabled;
+    private final HashedTimerWheel timerWheel = new HashedTimerWheel("TxInventoryRequests", 500, 64);
+    private final ExpiringConcurrentMap<Long, Claim> requested = new ExpiringConcurrentMap<>(timerWheel, REQUEST_TTL_SECONDS, TimeUnit.SECONDS);
+
+    @Inject
+    public TransactionInventory(MemPool memPool, Blockchain blockchain,
+                                @Property(name = "apl.p2p.transactionInventory", defaultValue = "true") boolean enabled) {
+        this.memPool = memPool;
+        this.blockchain = blockchain;
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return true when the inventory relay is enabled for this node and will be advertised to other peers as {@link Peer.Service#TX_INVENTORY}
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return true when transactions may be announced to the given peer instead of sending them
+     */
+    public boolean isSupportedBy(Peer peer) {
+        return enabled && peer.providesService(Peer.Service.TX_INVENTORY);
+    }
+
+    /**
+     * Select announced transactions, which are not known to this node and are not requested from other peers,
+     * and mark them as requested from the given peer. Peer is kept as the alternate announcer of the transactions,
+     * which are already requested from other peers. Selected transactions should be released by {@link #release(Peer, List)}
+     * after the request
+     *
+     * @param peer       announcing peer
+     * @param fullHashes full hashes of the announced transactions
+     * @return full hashes of the transactions to request
+     */
+    public List<byte[]> claimMissing(Peer peer, List<byte[]> fullHashes) {
+        List<byte[]> missing = new ArrayList<>();
+        for (byte[] fullHash : fullHashes) {
+            if (isKnown(fullHash)) {
+                continue;
+            }
+            long id = Convert.fullHashToId(fullHash);
+            Claim claim = new Claim(peer, new ArrayDeque<>());
+            Claim current = requested.putIfAbsent(id, claim);
+            // claim, which is released concurrently, does not accept alternates, try to claim the transaction again
+            if (current == null || (!current.addAlternate(peer) && requested.putIfAbsent(id, claim) == null)) {
+                missing.add(fullHash);
+            }
+        }
+        log.trace("Announced {} txs, missing {}", fullHashes.size(), missing.size());
+        return missing;
+    }
+
+    /**
+     * Release transactions requested from the peer and claim the transactions, which are still missing, for their
+     * next alternate announcers
+     *
+     * @param peer       peer, which the transactions were requested from
+     * @param fullHashes full hashes of the requested transactions
+     * @return full hashes of the still missing transactions to request by the next announcers
+     */
+    public Map<Peer, List<byte[]>> release(Peer peer, List<byte[]> fullHashes) {
+        Map<Peer, List<byte[]>> next = new HashMap<>();
+        for (byte[] fullHash : fullHashes) {
+            long id = Convert.fullHashToId(fullHash);
+            Claim claim = requested.get(id);
+            // claim of the expired request may belong to other peer
+            if (claim == null || claim.peer != peer || !requested.remove(id, claim)) {
+                continue;
+            }
+            Deque<Peer> alternates = claim.close();
+            if (alternates.isEmpty() || isKnown(fullHash)) {
+                continue;
+            }
+            Peer alternate;
+            while ((alternate = alternates.pollFirst()) != null) {
+                if (!alternate.isBlacklisted() && alternate.getState() == PeerState.CONNECTED) {
+                    break;
+                }
+            }
+            if (alternate != null && requested.putIfAbsent(id, new Claim(alternate, alternates)) == null) {
+                next.computeIfAbsent(alternate, p -> new ArrayList<>()).add(fullHash);
+            }
+        }
+        if (!next.isEmpty()) {
+            log.trace("Request {} still missing txs from {} alternate announcers", next.values().stream().mapToInt(List::size).sum(), next.size());
+        }
+        return next;
+    }
+
+    /**
+     * @return true when each transaction has the requested full hash and no transaction is repeated
+     */
+    public static boolean isRequested(List<byte[]> fullHashes, List<? extends Transaction> transactions) {
+        Map<Long, byte[]> notReceived = new HashMap<>();
+        for (byte[] fullHash : fullHashes) {
+            notReceived.put(Convert.fullHashToId(fullHash), fullHash);
+        }
+        for (Transaction transaction : transactions) {
+            byte[] fullHash = notReceived.remove(transaction.getId());
+            if (fullHash == null || !Arrays.equals(fullHash, transaction.getFullHash())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true when transaction is in the mempool and may be announced to the peers, which will request it by
+     * getMemPoolTransactions
+     */
+    public boolean canServe(Transaction transaction) {
+        Transaction unconfirmed = memPool.getUnconfirmedTransaction(transaction.getId());
+        return unconfirmed != null && Arrays.equals(unconfirmed.getFullHash(), transaction.getFullHash());
+    }
+
+    /**
+     * @return unconfirmed transactions of the mempool with the given full hashes, unknown transactions are skipped
+     */
+    public List<Transaction> getMemPoolTransactions(List<byte[]> fullHashes) {
+        List<Transaction> transactions = new ArrayList<>();
+        for (byte[] fullHash : fullHashes) {
+            Transaction transaction = memPool.getUnconfirmedTransaction(Convert.fullHashToId(fullHash));
+            if (transaction != null && Arrays.equals(transaction.getFullHash(), fullHash)) {
+                transactions.add(transaction);
+            }
+        }
+        return transactions;
+    }
+
+    public static String encodeFullHashes(List<byte[]> fullHashes) {
+        ByteBuffer buffer = ByteBuffer.allocate(fullHashes.size() * FULL_HASH_SIZE);
+        fullHashes.forEach(buffer::put);
+        return Base64.getEncoder().encodeToString(buffer.array());
+    }
+
+    public static String encodeTransactionFullHashes(List<? extends Transaction> transactions) {
+        ByteBuffer buffer = ByteBuffer.allocate(transactions.size() * FULL_HASH_SIZE);
+        transactions.forEach(transaction -> buffer.put(transaction.getFullHash()));
+        return Base64.getEncoder().encodeToString(buffer.array());
+    }
+
+    /**
+     * @throws AplException.NotValidException when data is malformed or has more than {@link #MAX_FULL_HASHES} full hashes
+     */
+    public static List<byte[]> decodeFullHashes(String data) throws AplException.NotValidException {
+        if (data == null) {
+            throw new AplException.NotValidException("Full hashes are missing");
+        }
+        byte[] bytes;
+        try {
+            bytes = Base64.getDecoder().decode(data);
+        } catch (IllegalArgumentException e) {
+            throw new AplException.NotValidException("Full hashes are not valid Base64: " + e.getMessage());
+        }
+        if (bytes.length % FULL_HASH_SIZE != 0) {
+            throw new AplException.NotValidException("Full hashes length " + bytes.length + " is not a multiple of " + FULL_HASH_SIZE);
+        }
+        int size = bytes.length / FULL_HASH_SIZE;
+        if (size > MAX_FULL_HASHES) {
+            throw new AplException.NotValidException("Too many full hashes: " + size + ", max allowed " + MAX_FULL_HASHES);
+        }
+        List<byte[]> fullHashes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            fullHashes.add(Arrays.copyOfRange(bytes, i * FULL_HASH_SIZE, (i + 1) * FULL_HASH_SIZE));
+        }
+        return fullHashes;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timerWheel.stop();
+    }
+
+    private boolean isKnown(byte[] fullHash) {
+        return memPool.hasUnconfirmedTransaction(Convert.fullHashToId(fullHash)) || blockchain.hasTransactionByFullHash(fullHash);
+    }
+
+    /**
+     * Peer, which the transaction is requested from, and other peers, which announced the transaction
+     */
+    private static final class Claim {
+        private final Peer peer;
+        private final Deque<Peer> alternates;
+        private boolean closed;
+
+        private Claim(Peer peer, Deque<Peer> alternates) {
+            this.peer = peer;
+            this.alternates = alternates;
+        }
+
+        /**
+         * @return false, when the claim is released and does not accept alternates
+         */
+        synchronized boolean addAlternate(Peer alternate) {
+            if (closed) {
+                return false;
+            }
+            if (alternate != peer && alternates.size() < MAX_ALTERNATE_ANNOUNCERS && !alternates.contains(alternate)) {
+                alternates.addLast(alternate);
+            }
+            return true;
+        }
+
+        synchronized Deque<Peer> close() {
+            closed = true;
+            return alternates;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.core.peer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Immutable body of the {@link PeerWebSocket} message: UTF-8 bytes of the message, which are compressed, when gzip is enabled
+ * and message is big enough.
+ * <p>Message may have the binary attachment, which is written as is after the message bytes prefixed by their length,
+ * attachment is available for the request handlers and response parsers as the {@link #ATTACHMENT} value
+ * of the message JSON object.</p>
+ * <p>Message is encoded once and the same payload may be sent to many peers concurrently, only the frame header with the
+ * request id and the negotiated version is written for each peer. Such payload should be encoded as shared, see
+ * {@link #encodeShared(String, byte[])}, so that its large body is sent without copying.</p>
+ */
+public final class WebSocketPayload {
+    /**
+     * Key of the binary attachment in the JSON object of the received request or response, and in the JSON object of the
+     * response, which should be sent with the attachment. Attachment is never serialized into the JSON.
+     */
+    public static final String ATTACHMENT = "attachment";
+
+    private final int messageLength;
+    private final int length;
+    private final int flags;
+    private final ByteBuffer body;
+    private final boolean shared;
+
+    private WebSocketPayload(int messageLength, int length, int flags, byte[] body, boolean shared) {
+        this.messageLength = messageLength;
+        this.length = length;
+        this.flags = flags;
+        this.body = ByteBuffer.wrap(body).asReadOnlyBuffer();
+        this.shared = shared;
+    }
+
+    public static WebSocketPayload encode(String message) throws IOException {
+        return encode(message, null);
+    }
+
+    /**
+     * @param message    message string
+     * @param attachment binary attachment of the message, may be null
+     */
+    public static WebSocketPayload encode(String message, byte[] attachment) throws IOException {
+        return encode(message, attachment, false);
+    }
+
+    /**
+     * Encode the payload, which will be sent to many peers
+     *
+     * @param message    message string
+     * @param attachment binary attachment of the message, may be null
+     */
+    public static WebSocketPayload encodeShared(String message, byte[] attachment) throws IOException {
+        return encode(message, attachment, true);
+    }
+
+    private static WebSocketPayload encode(String message, byte[] attachment, boolean shared) throws IOException {
+        byte[] messageBytes = message.getBytes(StandardCharsets.UTF_8);
+        int flags = 0;
+        byte[] body = messageBytes;
+        int messageLength = message.length();
+        if (attachment != null) {
+            flags |= PeerWebSocket.FLAG_ATTACHMENT;
+            ByteArrayOutputStream outStream = new ByteArrayOutputStream(Integer.BYTES + messageBytes.length + attachment.length);
+            try (DataOutputStream out = new DataOutputStream(outStream)) {
+                out.writeInt(messageBytes.length);
+                out.write(messageBytes);
+                out.write(attachment);
+            }
+            body = outStream.toByteArray();
+            messageLength += attachment.length;
+        }
+        int length = body.length;
+        if (PeersService.isGzipEnabled && length >= PeersService.MIN_COMPRESS_SIZE) {
+            flags |= PeerWebSocket.FLAG_COMPRESSED;
+            ByteArrayOutputStream outStream = new ByteArrayOutputStream(length);
+            try (GZIPOutputStream gzipStream = new GZIPOutputStream(outStream)) {
+                gzipStream.write(body);
+            }
+            body = outStream.toByteArray();
+        }
+        return new WebSocketPayload(messageLength, length, flags, body, shared);
+    }
+
+    /**
+     * @return length of the original message string and its attachment, which is accounted as the uploaded volume
+     */
+    public int getMessageLength() {
+        return messageLength;
+    }
+
+    /**
+     * @return length of the uncompressed message bytes together with the attachment
+     */
+    int getLength() {
+        return length;
+    }
+
+    int getFlags() {
+        return flags;
+    }
+
+    /**
+     * @return new read-only view of the body, which does not share position with other views
+     */
+    ByteBuffer getBody() {
+        return body.duplicate();
+    }
+
+    int getBodySize() {
+        return body.remaining();
+    }
+
+    /**
+     * @return true, when the payload is sent to many peers
+     */
+    boolean isShared() {
+        return shared;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.core.peer.endpoint;
+
+import com.apollocurrency.aplwallet.api.p2p.request.GetMemPoolTransactionsRequest;
+import com.apollocurrency.aplwallet.api.p2p.respons.GetUnconfirmedTransactionsResponse;
+import com.apollocurrency.aplwallet.apl.core.app.AplException;
+import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Transaction;
+import com.apollocurrency.aplwallet.apl.core.peer.Peer;
+import com.apollocurrency.aplwallet.apl.core.peer.TransactionInventory;
+import com.apollocurrency.aplwallet.apl.core.peer.parser.GetUnconfirmedTransactionsResponseParser;
+import com.apollocurrency.aplwallet.apl.core.rest.converter.TransactionDTOConverter;
+import com.apollocurrency.aplwallet.apl.util.JSON;
+import lombok.extern.slf4j.Slf4j;
+import org.json.simple.JSONObject;
+import org.json.simple.JSONStreamAware;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Process the announcement of the new transactions: request from the announcing peer only the transactions,
+ * which this node does not have, and process them as the peer transactions. Transactions, which are still missing
+ * after the response, are requested from the next peer, which announced them. Peer, which responds with the
+ * transactions, which were not requested, is blacklisted
+ */
+@Slf4j
+@Singleton
+public final class AnnounceTransactions extends PeerRequestHandler {
+    private final GetUnconfirmedTransactionsResponseParser responseParser = new GetUnconfirmedTransactionsResponseParser();
+    private final TransactionDTOConverter dtoConverter;
+    private final BlockchainConfig blockchainConfig;
+
+    @Inject
+    public AnnounceTransactions(TransactionDTOConverter dtoConverter, BlockchainConfig blockchainConfig) {
+        this.dtoConverter = dtoConverter;
+        this.blockchainConfig = blockchainConfig;
+    }
+
+    @Override
+    public JSONStreamAware processRequest(JSONObject request, Peer peer) {
+        TransactionInventory inventory = lookupTransactionInventory();
+        if (!inventory.isEnabled()) {
+            return PeerResponses.UNSUPPORTED_REQUEST_TYPE;
+        }
+        if (lookupBlockchainProcessor().isDownloading()) {
+            // unconfirmed transactions are not processed while downloading, they will be requested later
+            return JSON.emptyJSON;
+        }
+        List<byte[]> missing;
+        try {
+            missing = inventory.claimMissing(peer, TransactionInventory.decodeFullHashes((String) request.get("fullHashes")));
+        } catch (AplException.NotValidException | RuntimeException e) {
+            peer.blacklist(e);
+            return PeerResponses.error(e);
+        }
+        if (!missing.isEmpty()) {
+            requestTransactions(peer, inventory, missing);
+        }
+        return JSON.emptyJSON;
+    }
+
+    private void requestTransactions(Peer peer, TransactionInventory inventory, List<byte[]> fullHashes) {
+        GetMemPoolTransactionsRequest request = new GetMemPoolTransactionsRequest(TransactionInventory.encodeFullHashes(fullHashes),
+            blockchainConfig.getChain().getChainId());
+        request.setBinary(lookupBinaryP2PCodec().isSupportedBy(peer));
+        // response is parsed and processed on the bounded peers pool instead of the network thread, which completes the request
+        peer.sendAsync(request, responseParser, lookupPeersService().peersExecutorService)
+            .whenCompleteAsync((response, error) -> {
+                try {
+                    if (response != null) {
+                        processTransactions(peer, fullHashes, response);
+                    }
+                } finally {
+                    inventory.release(peer, fullHashes)
+                        .forEach((nextPeer, nextHashes) -> requestTransactions(nextPeer, inventory, nextHashes));
+                }
+            }, lookupPeersService().peersExecutorService);
+    }
+
+    private void processTransactions(Peer peer, List<byte[]> fullHashes, GetUnconfirmedTransactionsResponse response) {
+        try {
+            List<Transaction> transactions;
+            if (response.unconfirmedTransactionsBinary != null) {
+                transactions = lookupBinaryP2PCodec().decodeTransactions(response.unconfirmedTransactionsBinary);
+            } else if (response.unconfirmedTransactions != null) {
+                transactions = response.unconfirmedTransactions
+                    .stream()
+                    .map(dtoConverter::convert)
+                    .collect(Collectors.toList());
+            } else {
+                return;
+            }
+            if (!TransactionInventory.isRequested(fullHashes, transactions)) {
+                peer.blacklist("Not requested transactions in the response of " + transactions.size() + " txs");
+                return;
+            }
+            log.trace("Will process {} requested txs from {}", transactions.size(), peer.getAnnouncedAddress());
+            lookupTransactionProcessor().processPeerTransactions(transactions);
+        } catch (AplException.NotValidException | RuntimeException e) {
+            peer.blacklist(e);
+        }
+    }
+
+    @Override
+    public boolean rejectWhileDownloading() {
+        return false;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.core.peer.endpoint;
+
+import com.apollocurrency.aplwallet.apl.core.app.AplException;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Transaction;
+import com.apollocurrency.aplwallet.apl.core.peer.Peer;
+import com.apollocurrency.aplwallet.apl.core.peer.TransactionInventory;
+import com.apollocurrency.aplwallet.apl.core.peer.WebSocketPayload;
+import com.apollocurrency.aplwallet.apl.core.transaction.TransactionSerializer;
+import lombok.extern.slf4j.Slf4j;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.JSONStreamAware;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.List;
+
+/**
+ * Get the announced unconfirmed transactions by their full hashes, response has the same format as the
+ * getUnconfirmedTransactions response
+ */
+@Slf4j
+@Singleton
+public final class GetMemPoolTransactions extends PeerRequestHandler {
+    private final TransactionSerializer transactionSerializer;
+
+    @Inject
+    public GetMemPoolTransactions(TransactionSerializer transactionSerializer) {
+        this.transactionSerializer = transactionSerializer;
+    }
+
+    @Override
+    public JSONStreamAware processRequest(JSONObject request, Peer peer) {
+        TransactionInventory inventory = lookupTransactionInventory();
+        if (!inventory.isEnabled()) {
+            return PeerResponses.UNSUPPORTED_REQUEST_TYPE;
+        }
+        List<Transaction> transactions;
+        try {
+            transactions = inventory.getMemPoolTransactions(TransactionInventory.decodeFullHashes((String) request.get("fullHashes")));
+        } catch (AplException.NotValidException | RuntimeException e) {
+            peer.blacklist(e);
+            return PeerResponses.error(e);
+        }
+        log.trace("Return {} requested txs to peer {}", transactions.size(), peer.getHost());
+        JSONObject response = new JSONObject();
+        if (Boolean.TRUE.equals(request.get("binary"))) {
+            response.put(WebSocketPayload.ATTACHMENT, lookupBinaryP2PCodec().encodeTransactions(transactions));
+            return response;
+        }
+        JSONArray transactionsData = new JSONArray();
+        for (Transaction transaction : transactions) {
+            transactionsData.add(transactionSerializer.toJson(transaction));
+        }
+        response.put("unconfirmedTransactions", transactionsData);
+        return response;
+    }
+
+    @Override
+    public boolean rejectWhileDownloading() {
+        return false;
+    }
+}
@@ -47,7 +47,11 @@ public class GetNextBlockIds extends PeerRequestHandler {
         if (limit > 1440) {
             return GetNextBlocks.TOO_MANY_BLOCKS_REQUESTED;
         }
-        List<Long> ids = lookupBlockchain().getBlockIdsAfter(blockId, limit > 0 ? limit : 1440);
+        int idsLimit = limit > 0 ? limit : 1440;
+        List<Long> ids = lookupSerializedBlockCache().getBlockIdsAfter(blockId, idsLimit);
+        if (ids == null) {
+            ids = lookupBlockchain().getBlockIdsAfter(blockId, idsLimit);
+        }
         ids.forEach(id -> nextBlockIds.add(Long.toUnsignedString(id)));
         response.put("nextBlockIds", nextBlockIds);
 
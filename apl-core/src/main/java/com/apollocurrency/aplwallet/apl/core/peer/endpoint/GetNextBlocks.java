@@ -20,12 +20,11 @@
 
 package com.apollocurrency.aplwallet.apl.core.peer.endpoint;
 
-import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Block;
 import com.apollocurrency.aplwallet.apl.core.peer.Peer;
-import com.apollocurrency.aplwallet.apl.core.service.blockchain.Blockchain;
+import com.apollocurrency.aplwallet.apl.core.peer.SerializedBlockCache;
+import com.apollocurrency.aplwallet.apl.core.peer.WebSocketPayload;
 import com.apollocurrency.aplwallet.apl.crypto.Convert;
 import com.apollocurrency.aplwallet.apl.util.JSON;
-import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.JSONStreamAware;
 
@@ -56,12 +55,8 @@ public class GetNextBlocks extends PeerRequestHandler {
     @Override
     public JSONStreamAware processRequest(JSONObject request, Peer peer) {
 
-        JSONObject response = new JSONObject();
-        JSONArray nextBlocksArray = new JSONArray();
-        List<? extends Block> blocks;
         long blockId = Convert.parseUnsignedLong((String) request.get("blockId"));
         List<String> stringList = (List<String>) request.get("blockIds");
-        Blockchain blockchain = lookupBlockchain();
         if (stringList == null) {
             return NO_BLOCK_ID_LIST;
         }
@@ -70,11 +65,22 @@ public class GetNextBlocks extends PeerRequestHandler {
         }
         List<Long> idList = new ArrayList<>();
         stringList.forEach(stringId -> idList.add(Convert.parseUnsignedLong(stringId)));
-        blocks = blockchain.getBlocksAfter(blockId, idList);
-        blocks.forEach(block -> nextBlocksArray.add(lookupBlockSerializer().getJSONObject(block)));
-        response.put("nextBlocks", nextBlocksArray);
-
-        return response;
+        List<SerializedBlockCache.SerializedBlock> blocks = lookupSerializedBlockCache().getBlocksAfter(blockId, idList);
+        if (Boolean.TRUE.equals(request.get("binary"))) {
+            JSONObject response = new JSONObject();
+            List<byte[]> encodedBlocks = new ArrayList<>(blocks.size());
+            blocks.forEach(block -> encodedBlocks.add(block.getBinary()));
+            response.put(WebSocketPayload.ATTACHMENT, lookupBinaryP2PCodec().encodeEncodedBlocks(encodedBlocks));
+            return response;
+        }
+        List<String> blocksJson = new ArrayList<>(blocks.size());
+        blocks.forEach(block -> blocksJson.add(block.getJson()));
+        // cached blocks are already in JSON, write them as is instead of building the JSONArray of parsed objects
+        return out -> {
+            out.write("{\"nextBlocks\":[");
+            out.write(String.join(",", blocksJson));
+            out.write("]}");
+        };
     }
 
     @Override
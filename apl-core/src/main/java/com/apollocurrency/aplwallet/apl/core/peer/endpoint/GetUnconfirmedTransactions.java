@@ -23,6 +23,7 @@ package com.apollocurrency.aplwallet.apl.core.peer.endpoint;
 import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Transaction;
 import com.apollocurrency.aplwallet.apl.core.entity.blockchain.UnconfirmedTransaction;
 import com.apollocurrency.aplwallet.apl.core.peer.Peer;
+import com.apollocurrency.aplwallet.apl.core.peer.WebSocketPayload;
 import com.apollocurrency.aplwallet.apl.core.transaction.TransactionSerializer;
 import com.apollocurrency.aplwallet.apl.util.JSON;
 import lombok.extern.slf4j.Slf4j;
@@ -32,6 +33,7 @@ import org.json.simple.JSONStreamAware;
 
 import javax.enterprise.inject.spi.CDI;
 import javax.inject.Singleton;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 @Slf4j
@@ -53,6 +55,18 @@ public final class GetUnconfirmedTransactions extends PeerRequestHandler {
 
         Set<UnconfirmedTransaction> transactionSet = lookupMemPool().getCachedUnconfirmedTransactions(exclude);
         log.trace("Return {} txs to peer {}", transactionSet.size(), peer.getHost());
+        if (Boolean.TRUE.equals(request.get("binary"))) {
+            List<Transaction> transactions = new ArrayList<>();
+            for (Transaction transaction : transactionSet) {
+                if (transactions.size() >= 200) {
+                    break;
+                }
+                transactions.add(transaction);
+            }
+            JSONObject response = new JSONObject();
+            response.put(WebSocketPayload.ATTACHMENT, lookupBinaryP2PCodec().encodeTransactions(transactions));
+            return response;
+        }
         JSONArray transactionsData = new JSONArray();
         for (Transaction transaction : transactionSet) {
             if (transactionsData.size() >= 200) {
@@ -19,8 +19,11 @@
  */
 package com.apollocurrency.aplwallet.apl.core.peer.endpoint;
 
+import com.apollocurrency.aplwallet.apl.core.peer.BinaryP2PCodec;
 import com.apollocurrency.aplwallet.apl.core.peer.Peer;
 import com.apollocurrency.aplwallet.apl.core.peer.PeersService;
+import com.apollocurrency.aplwallet.apl.core.peer.SerializedBlockCache;
+import com.apollocurrency.aplwallet.apl.core.peer.TransactionInventory;
 import com.apollocurrency.aplwallet.apl.core.service.blockchain.BlockSerializer;
 import com.apollocurrency.aplwallet.apl.core.service.blockchain.Blockchain;
 import com.apollocurrency.aplwallet.apl.core.service.blockchain.BlockchainProcessor;
@@ -53,8 +56,13 @@ public abstract class PeerRequestHandler {
     private PeersService peers;
     @Inject
     private BlockSerializer blockSerializer;
+    @Inject
+    private BinaryP2PCodec binaryP2PCodec;
+    @Inject
+    private SerializedBlockCache serializedBlockCache;
 
     private MemPool memPool;
+    private TransactionInventory transactionInventory;
 
     public PeerRequestHandler() {
         mapper.registerModule(new JsonOrgModule());
@@ -84,6 +92,13 @@ public abstract class PeerRequestHandler {
         return memPool;
     }
 
+    protected TransactionInventory lookupTransactionInventory() {
+        if (transactionInventory == null) {
+            transactionInventory = CDI.current().select(TransactionInventory.class).get();
+        }
+        return transactionInventory;
+    }
+
     protected BlockchainProcessor lookupBlockchainProcessor() {
         if (blockchainProcessor == null) {
             blockchainProcessor = CDI.current().select(BlockchainProcessorImpl.class).get();
@@ -105,4 +120,18 @@ public abstract class PeerRequestHandler {
         return blockSerializer;
     }
 
+    protected SerializedBlockCache lookupSerializedBlockCache() {
+        if (serializedBlockCache == null) {
+            serializedBlockCache = CDI.current().select(SerializedBlockCache.class).get();
+        }
+        return serializedBlockCache;
+    }
+
+    protected BinaryP2PCodec lookupBinaryP2PCodec() {
+        if (binaryP2PCodec == null) {
+            binaryP2PCodec = CDI.current().select(BinaryP2PCodec.class).get();
+        }
+        return binaryP2PCodec;
+    }
+
 }
@@ -24,6 +24,7 @@ package com.apollocurrency.aplwallet.apl.core.peer.endpoint;
 import com.apollocurrency.aplwallet.apl.core.app.AplException;
 import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Block;
 import com.apollocurrency.aplwallet.apl.core.peer.Peer;
+import com.apollocurrency.aplwallet.apl.core.peer.WebSocketPayload;
 import com.apollocurrency.aplwallet.apl.crypto.Convert;
 import com.apollocurrency.aplwallet.apl.util.JSON;
 import lombok.NoArgsConstructor;
@@ -55,8 +56,12 @@ public final class ProcessBlock extends PeerRequestHandler {
             lookupPeersService().peersExecutorService.submit(() -> {
                 try {
                     log.debug("API: need to process better peer block");
+                    byte[] binaryBlock = (byte[]) request.get(WebSocketPayload.ATTACHMENT);
                     Object blockObject = request.get("block");
-                    if (blockObject != null) {
+                    if (binaryBlock != null) {
+                        Block block = lookupBinaryP2PCodec().decodeBlock(binaryBlock);
+                        lookupBlockchainProcessor().processPeerBlock(block);
+                    } else if (blockObject != null) {
                         lookupBlockchainProcessor().processPeerBlock((JSONObject) blockObject);
                     }
                 } catch (AplException | RuntimeException e) {
@@ -24,6 +24,7 @@ import com.apollocurrency.aplwallet.api.p2p.request.ProcessTransactionsRequest;
 import com.apollocurrency.aplwallet.apl.core.app.AplException;
 import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Transaction;
 import com.apollocurrency.aplwallet.apl.core.peer.Peer;
+import com.apollocurrency.aplwallet.apl.core.peer.WebSocketPayload;
 import com.apollocurrency.aplwallet.apl.core.peer.parser.ProcessTransactionsRequestParser;
 import com.apollocurrency.aplwallet.apl.core.rest.converter.TransactionDTOConverter;
 import com.apollocurrency.aplwallet.apl.util.JSON;
@@ -51,14 +52,20 @@ public final class ProcessTransactions extends PeerRequestHandler {
     public JSONStreamAware processRequest(JSONObject request, Peer peer) {
 
         try {
-            long startTime = System.currentTimeMillis();
-            log.trace("---start json conversion {}", startTime);
-            ProcessTransactionsRequest transactionsRequest = responseParser.parse(request);
-            log.trace("---end json conversion in {} ms, tx count={}", System.currentTimeMillis() - startTime, transactionsRequest.transactions.size());
-            List<Transaction> transactions = transactionsRequest.transactions
-                .stream()
-                .map(dtoConverter::convert)
-                .collect(Collectors.toList());
+            List<Transaction> transactions;
+            byte[] binaryTransactions = (byte[]) request.get(WebSocketPayload.ATTACHMENT);
+            if (binaryTransactions != null) {
+                transactions = lookupBinaryP2PCodec().decodeTransactions(binaryTransactions);
+            } else {
+                long startTime = System.currentTimeMillis();
+                log.trace("---start json conversion {}", startTime);
+                ProcessTransactionsRequest transactionsRequest = responseParser.parse(request);
+                log.trace("---end json conversion in {} ms", System.currentTimeMillis() - startTime);
+                transactions = transactionsRequest.transactions
+                    .stream()
+                    .map(dtoConverter::convert)
+                    .collect(Collectors.toList());
+            }
 
             log.trace("Will process {} peer transactions from {}", transactions.size(), peer.getAnnouncedAddress());
             lookupTransactionProcessor().processPeerTransactions(transactions);
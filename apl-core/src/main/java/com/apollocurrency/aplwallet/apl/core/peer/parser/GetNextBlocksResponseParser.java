@@ -7,6 +7,9 @@ package com.apollocurrency.aplwallet.apl.core.peer.parser;
 import com.apollocurrency.aplwallet.apl.core.app.AplException;
 import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
 import com.apollocurrency.aplwallet.apl.core.entity.blockchain.BlockImpl;
+import com.apollocurrency.aplwallet.apl.core.peer.BinaryP2PCodec;
+import com.apollocurrency.aplwallet.apl.core.peer.Peer;
+import com.apollocurrency.aplwallet.apl.core.peer.WebSocketPayload;
 import com.apollocurrency.aplwallet.apl.core.peer.respons.GetNextBlocksResponse;
 import com.apollocurrency.aplwallet.apl.core.service.blockchain.BlockParser;
 import lombok.extern.slf4j.Slf4j;
@@ -22,17 +25,30 @@ import java.util.List;
 public class GetNextBlocksResponseParser implements JsonReqRespParser<GetNextBlocksResponse> {
     private final BlockParser blockParser;
     private final BlockchainConfig blockchainConfig;
+    private final BinaryP2PCodec binaryP2PCodec;
 
     private final static int MAX_BLOCKS = 36;
 
     @Inject
-    public GetNextBlocksResponseParser(BlockParser blockParser, BlockchainConfig blockchainConfig) {
+    public GetNextBlocksResponseParser(BlockParser blockParser, BlockchainConfig blockchainConfig, BinaryP2PCodec binaryP2PCodec) {
         this.blockParser = blockParser;
         this.blockchainConfig = blockchainConfig;
+        this.binaryP2PCodec = binaryP2PCodec;
+    }
+
+    /**
+     * @return true when blocks may be requested from the given peer in the binary format
+     */
+    public boolean isBinarySupportedBy(Peer peer) {
+        return binaryP2PCodec.isSupportedBy(peer);
     }
 
     @Override
     public GetNextBlocksResponse parse(JSONObject json) {
+        byte[] nextBlocksBinary = (byte[]) json.get(WebSocketPayload.ATTACHMENT);
+        if (nextBlocksBinary != null) {
+            return parseBinary(nextBlocksBinary);
+        }
         List<BlockImpl> blockList = new ArrayList();
         //
         // Get the list of blocks.  We will stop parsing blocks if we encounter
@@ -66,4 +82,16 @@ public class GetNextBlocksResponseParser implements JsonReqRespParser<GetNextBlo
         return new GetNextBlocksResponse(blockList);
     }
 
+    private GetNextBlocksResponse parseBinary(byte[] nextBlocksBinary) {
+        try {
+            return new GetNextBlocksResponse(binaryP2PCodec.decodeBlocks(nextBlocksBinary, MAX_BLOCKS));
+        } catch (AplException.NotValidException | RuntimeException e) {
+            log.debug("Failed to parse binary block(s): " + e.toString(), e);
+            GetNextBlocksResponse nextBlocksResponse = new GetNextBlocksResponse(new ArrayList<>());
+            nextBlocksResponse.setErrorCode(1);
+            nextBlocksResponse.setCause("Failed to parse block(s): " + e.toString());
+            return nextBlocksResponse;
+        }
+    }
+
 }
@@ -26,6 +26,8 @@ public class PeerConverter implements Converter<Peer, PeerDTO> {
         dto.setWeight(peer.getWeight());
         dto.setDownloadedVolume(peer.getDownloadedVolume());
         dto.setUploadedVolume(peer.getUploadedVolume());
+        dto.setOutboundQueueSize(peer.getOutboundQueueSize());
+        dto.setDroppedOutboundMessages(peer.getDroppedOutboundMessages());
         dto.setApplication(peer.getApplication());
         dto.setVersion(peer.getVersion() == null ? null : peer.getVersion().toString());
         dto.setPlatform(peer.getPlatform());
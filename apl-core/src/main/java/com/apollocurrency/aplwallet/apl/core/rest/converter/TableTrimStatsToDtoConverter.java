@@ -0,0 +1,16 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.core.rest.converter;
+
+import com.apollocurrency.aplwallet.api.dto.TableTrimStatsDTO;
+import com.apollocurrency.aplwallet.apl.core.entity.appdata.TableTrimStats;
+
+public class TableTrimStatsToDtoConverter implements Converter<TableTrimStats, TableTrimStatsDTO> {
+    @Override
+    public TableTrimStatsDTO apply(TableTrimStats stats) {
+        return new TableTrimStatsDTO(stats.getTableName(), stats.getTrimCount(), stats.getLastHeight(),
+            stats.getLastTime(), stats.getMaxTime(), stats.getTotalTime());
+    }
+}
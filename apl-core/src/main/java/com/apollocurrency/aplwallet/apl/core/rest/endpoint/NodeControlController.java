@@ -5,12 +5,16 @@ package com.apollocurrency.aplwallet.apl.core.rest.endpoint;
 
 import com.apollocurrency.aplwallet.api.dto.CacheStatsDTO;
 import com.apollocurrency.aplwallet.api.dto.RunningThreadsInfo;
+import com.apollocurrency.aplwallet.api.dto.TableTrimStatsDTO;
 import com.apollocurrency.aplwallet.api.response.CacheStatsResponse;
 import com.apollocurrency.aplwallet.api.response.NodeHealthResponse;
 import com.apollocurrency.aplwallet.api.response.NodeStatusResponse;
+import com.apollocurrency.aplwallet.api.response.TrimStatsResponse;
+import com.apollocurrency.aplwallet.apl.core.entity.appdata.TableTrimStats;
 import com.apollocurrency.aplwallet.apl.core.rest.converter.Converter;
 import com.apollocurrency.aplwallet.apl.core.rest.service.BackendControlService;
 import com.apollocurrency.aplwallet.apl.core.rest.utils.ResponseBuilder;
+import com.apollocurrency.aplwallet.apl.core.service.appdata.TrimService;
 import com.apollocurrency.aplwallet.apl.util.cache.InMemoryCacheManager;
 import com.google.common.cache.CacheStats;
 import io.swagger.v3.oas.annotations.Operation;
@@ -46,6 +50,8 @@ public class NodeControlController {
     private BackendControlService bcService;
     private InMemoryCacheManager cacheManager;
     private Converter<CacheStats, CacheStatsDTO> statsConverter;
+    private TrimService trimService;
+    private Converter<TableTrimStats, TableTrimStatsDTO> trimStatsConverter;
 
     /**
      * Empty constructor required by RestEasy
@@ -55,10 +61,13 @@ public class NodeControlController {
     }
 
     @Inject
-    public NodeControlController(BackendControlService bcService, InMemoryCacheManager cacheManager, Converter<CacheStats, CacheStatsDTO> statsConverter) {
+    public NodeControlController(BackendControlService bcService, InMemoryCacheManager cacheManager, Converter<CacheStats, CacheStatsDTO> statsConverter,
+                                 TrimService trimService, Converter<TableTrimStats, TableTrimStatsDTO> trimStatsConverter) {
         this.bcService = bcService;
         this.cacheManager = cacheManager;
         this.statsConverter = statsConverter;
+        this.trimService = trimService;
+        this.trimStatsConverter = trimStatsConverter;
     }
 
     @Path("/status")
@@ -189,4 +198,24 @@ public class NodeControlController {
         return response.bind(new CacheStatsResponse(result)).build();
     }
 
+    @Path("/trim")
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(summary = "Returns the timings of the derived tables trim.",
+        description = "Returns the timings of the derived tables trim since the node start."
+            + " Trim time of each table includes the pruning time of that table.",
+        tags = {"status"},
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Successful execution",
+                content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = TrimStatsResponse.class)))
+        }
+    )
+    @PermitAll
+    public Response getTrimStats() {
+        ResponseBuilder response = ResponseBuilder.startTiming();
+        List<TableTrimStatsDTO> result = trimStatsConverter.convert(trimService.getTrimStats());
+        return response.bind(new TrimStatsResponse(result)).build();
+    }
+
 }
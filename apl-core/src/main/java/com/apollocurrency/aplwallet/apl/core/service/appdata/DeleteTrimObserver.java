@@ -5,6 +5,7 @@ package com.apollocurrency.aplwallet.apl.core.service.appdata;
 
 import com.apollocurrency.aplwallet.apl.core.app.observer.events.TrimEvent;
 import com.apollocurrency.aplwallet.apl.core.dao.TransactionalDataSource;
+import com.apollocurrency.aplwallet.apl.core.db.DbUtils;
 import com.apollocurrency.aplwallet.apl.core.shard.observer.DeleteOnTrimData;
 import com.apollocurrency.aplwallet.apl.util.injectable.PropertiesHolder;
 import com.apollocurrency.aplwallet.apl.util.task.NamedThreadFactory;
@@ -16,8 +17,6 @@ import javax.enterprise.event.ObservesAsync;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
 import java.util.Objects;
 import java.util.Queue;
 import java.util.concurrent.Callable;
@@ -39,6 +38,8 @@ public class DeleteTrimObserver {
     protected final PropertiesHolder propertiesHolder;
     private volatile boolean trimDerivedTablesEnabled = true;
     private final int COMMIT_BATCH_SIZE;
+    // max number of db ids in one 'DELETE ... WHERE db_id IN (...)' statement
+    private static final int MAX_DELETE_BATCH_SIZE = 500;
     private final ScheduledExecutorService executorService =
         Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("apl-delete-on-trim"));
 
@@ -125,24 +126,16 @@ public class DeleteTrimObserver {
             if (!inTransaction) {
                 dataSource.begin();
             }
-            try (Connection con = dataSource.getConnection();
-                 PreparedStatement pstmtDeleteById =
-                     con.prepareStatement("DELETE FROM " + deleteOnTrimData.getTableName() + " WHERE db_id = ?");
-            ) {
-                long index = 0;
-                for (Long id : deleteOnTrimData.getDbIdSet()) {
-                    deleted += deleteByDbId(pstmtDeleteById, id);
-//                    addDeleteToBatch(pstmtDeleteById, id);
-                    index++;
-                    if (index % COMMIT_BATCH_SIZE == 0) {
-//                        int[] result = pstmtDeleteById.executeBatch();
-                        dataSource.commit(false);
-//                        deleted += Arrays.stream(result).asLongStream().sum();
-                    }
-                }
-//                int[] result = pstmtDeleteById.executeBatch();
+            try (Connection con = dataSource.getConnection()) {
+                long[] committed = {0};
+                deleted = DbUtils.deleteByDbIds(con, deleteOnTrimData.getTableName(), deleteOnTrimData.getDbIdSet(),
+                    Math.min(COMMIT_BATCH_SIZE, MAX_DELETE_BATCH_SIZE), processed -> {
+                        if (processed - committed[0] >= COMMIT_BATCH_SIZE) {
+                            dataSource.commit(false);
+                            committed[0] = processed;
+                        }
+                    });
                 dataSource.commit(!inTransaction);
-//                deleted += Arrays.stream(result).asLongStream().sum();
             } catch (Exception e) {
                 log.error("Batch delete error on table {}", deleteOnTrimData.getTableName(), e);
             }
@@ -152,16 +145,6 @@ public class DeleteTrimObserver {
         return deleted;
     }
 
-    private void addDeleteToBatch(PreparedStatement pstmtDeleteByDbId, long dbId) throws SQLException {
-        pstmtDeleteByDbId.setLong(1, dbId);
-        pstmtDeleteByDbId.addBatch(); // <-- batching
-    }
-
-    private int deleteByDbId(PreparedStatement pstmtDeleteByDbId, long dbId) throws SQLException {
-        pstmtDeleteByDbId.setLong(1, dbId);
-        return pstmtDeleteByDbId.executeUpdate();
-    }
-
     /**
      * For unit tests mostly
      * @return internal queue with data
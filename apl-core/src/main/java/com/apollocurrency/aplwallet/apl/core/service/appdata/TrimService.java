@@ -11,18 +11,33 @@ import com.apollocurrency.aplwallet.apl.core.dao.TransactionalDataSource;
 import com.apollocurrency.aplwallet.apl.core.dao.appdata.TrimDao;
 import com.apollocurrency.aplwallet.apl.core.dao.appdata.cdi.Transactional;
 import com.apollocurrency.aplwallet.apl.core.dao.state.derived.DerivedTableInterface;
+import com.apollocurrency.aplwallet.apl.core.entity.appdata.TableTrimStats;
 import com.apollocurrency.aplwallet.apl.core.entity.appdata.TrimEntry;
 import com.apollocurrency.aplwallet.apl.core.service.state.DerivedTablesRegistry;
 import com.apollocurrency.aplwallet.apl.util.Constants;
 import com.apollocurrency.aplwallet.apl.util.ThreadUtils;
+import com.apollocurrency.aplwallet.apl.util.task.NamedThreadFactory;
+import com.apollocurrency.aplwallet.apl.util.task.Tasks;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.PreDestroy;
 import javax.enterprise.event.Event;
 import javax.enterprise.util.AnnotationLiteral;
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.locks.ReentrantLock;
 
 import static com.apollocurrency.aplwallet.apl.util.Constants.DEFAULT_PRUNABLE_UPDATE_PERIOD;
@@ -38,6 +53,8 @@ public class TrimService {
     private final TrimDao trimDao;
     private final TimeService timeService;
     private final ReentrantLock lock = new ReentrantLock();
+    private final ExecutorService trimExecutor;
+    private final Map<String, TableTrimStats> trimStats = Collections.synchronizedMap(new LinkedHashMap<>());
 
     private final Event<TrimConfig> trimConfigEvent;
 
@@ -48,7 +65,8 @@ public class TrimService {
                        TimeService timeService,
                        Event<TrimConfig> trimConfigEvent,
                        TrimDao trimDao,
-                       @Property(value = "apl.maxRollback", defaultValue = "720") int maxRollback
+                       @Property(value = "apl.maxRollback", defaultValue = "720") int maxRollback,
+                       @Property(value = "apl.trimThreads", defaultValue = "1") int trimThreads
     ) {
         this.maxRollback = maxRollback;
         this.trimDao = Objects.requireNonNull(trimDao, "trimDao is NULL");
@@ -57,6 +75,23 @@ public class TrimService {
         this.timeService = Objects.requireNonNull(timeService, "EpochTime should not be null");
         this.trimFrequency = Constants.DEFAULT_TRIM_FREQUENCY;
         this.trimConfigEvent = Objects.requireNonNull(trimConfigEvent, "TrimConfig event should not be null");
+        this.trimExecutor = trimThreads > 1
+            ? Executors.newFixedThreadPool(trimThreads, new NamedThreadFactory("apl-trim-derived-tables"))
+            : null;
+    }
+
+    public TrimService(DatabaseManager databaseManager,
+                       DerivedTablesRegistry derivedDbTablesRegistry,
+                       TimeService timeService,
+                       Event<TrimConfig> trimConfigEvent,
+                       TrimDao trimDao,
+                       int maxRollback) {
+        this(databaseManager, derivedDbTablesRegistry, timeService, trimConfigEvent, trimDao, maxRollback, 1);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        Tasks.shutdownExecutor("apl-trim-derived-tables", trimExecutor, 5);
     }
 
     public int getLastTrimHeight() {
@@ -189,21 +224,124 @@ public class TrimService {
         int epochTime = timeService.getEpochTime();
         int pruningTime = epochTime - epochTime % DEFAULT_PRUNABLE_UPDATE_PERIOD;
 
-        for (DerivedTableInterface table : dbTablesRegistry.getDerivedTables()) {
-            long startTime = System.currentTimeMillis();
-            table.prune(pruningTime);
-            table.trim(height, isSharding);
-            dataSource.commit(false);
-            long duration = System.currentTimeMillis() - startTime;
-            // do not log trim duration here, instead go to the logback config and enable trace logs for BasicDbTable class
-            log.trace("Trim of {} took {} ms", table.getName(), duration);
-            onlyTrimTime += duration;
+        Collection<DerivedTableInterface> tables = dbTablesRegistry.getDerivedTables();
+        if (trimExecutor != null) {
+            onlyTrimTime = trimConcurrently(groupTablesForTrim(tables), height, pruningTime, isSharding, dataSource);
+        } else {
+            for (DerivedTableInterface table : tables) {
+                onlyTrimTime += trimTable(table, height, pruningTime, isSharding, dataSource);
+            }
         }
         log.info("Trim time onlyTrim/full: {} / {} ms, pruning='{}' on height='{}'",
             onlyTrimTime, System.currentTimeMillis() - start, pruningTime, height);
         return pruningTime;
     }
 
+    /**
+     * @return timings of the trim of each derived table since the node start
+     */
+    public List<TableTrimStats> getTrimStats() {
+        synchronized (trimStats) {
+            return new ArrayList<>(trimStats.values());
+        }
+    }
+
+    private long trimTable(DerivedTableInterface table, int height, int pruningTime, boolean isSharding, TransactionalDataSource dataSource) {
+        long startTime = System.currentTimeMillis();
+        table.prune(pruningTime);
+        table.trim(height, isSharding);
+        dataSource.commit(false);
+        long duration = System.currentTimeMillis() - startTime;
+        // do not log trim duration here, instead go to the logback config and enable trace logs for BasicDbTable class
+        log.trace("Trim of {} took {} ms", table.getName(), duration);
+        trimStats.compute(table.getName(), (name, stats) -> stats == null
+            ? TableTrimStats.first(name, height, duration)
+            : stats.next(height, duration));
+        return duration;
+    }
+
+    /**
+     * Trim groups of tables concurrently, each group is trimmed by the separate thread in its own database transaction
+     *
+     * @return sum of the trim durations of all tables
+     */
+    private long trimConcurrently(List<List<DerivedTableInterface>> groups, int height, int pruningTime, boolean isSharding,
+                                  TransactionalDataSource dataSource) {
+        List<Future<Long>> futures = new ArrayList<>(groups.size());
+        for (List<DerivedTableInterface> group : groups) {
+            futures.add(trimExecutor.submit(() -> trimGroup(group, height, pruningTime, isSharding, dataSource)));
+        }
+        long onlyTrimTime = 0;
+        RuntimeException error = null;
+        for (Future<Long> future : futures) {
+            try {
+                onlyTrimTime += future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for the derived tables trim", e);
+            } catch (ExecutionException e) {
+                if (error == null) {
+                    error = new RuntimeException(e.getCause().toString(), e.getCause());
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+        return onlyTrimTime;
+    }
+
+    private long trimGroup(List<DerivedTableInterface> group, int height, int pruningTime, boolean isSharding,
+                           TransactionalDataSource dataSource) {
+        dataSource.begin();
+        try {
+            long duration = 0;
+            for (DerivedTableInterface table : group) {
+                duration += trimTable(table, height, pruningTime, isSharding, dataSource);
+            }
+            dataSource.commit();
+            return duration;
+        } catch (Exception e) {
+            log.warn("Trim of the {} failed", group, e);
+            dataSource.rollback();
+            throw e;
+        }
+    }
+
+    /**
+     * Split tables into groups, which can be trimmed concurrently. Table and its trim dependencies are always put into the same group,
+     * tables of the group keep the registration order.
+     *
+     * @param tables derived tables in the registration order
+     * @return groups of the tables
+     */
+    static List<List<DerivedTableInterface>> groupTablesForTrim(Collection<DerivedTableInterface> tables) {
+        Map<String, String> parents = new HashMap<>();
+        for (DerivedTableInterface table : tables) {
+            String root = findGroupRoot(parents, table.getName());
+            for (String dependency : table.getTrimDependencies()) {
+                String dependencyRoot = findGroupRoot(parents, dependency);
+                if (!dependencyRoot.equals(root)) {
+                    parents.put(dependencyRoot, root);
+                }
+            }
+        }
+        Map<String, List<DerivedTableInterface>> groups = new LinkedHashMap<>();
+        for (DerivedTableInterface table : tables) {
+            groups.computeIfAbsent(findGroupRoot(parents, table.getName()), root -> new ArrayList<>()).add(table);
+        }
+        return new ArrayList<>(groups.values());
+    }
+
+    private static String findGroupRoot(Map<String, String> parents, String name) {
+        String root = name;
+        String parent;
+        while (!(parent = parents.getOrDefault(root, root)).equals(root)) {
+            root = parent;
+        }
+        return root;
+    }
+
     public void updateTrimConfig(boolean enableTrim, boolean clearQueue) {
         log.debug("Send event to {} trim thread", enableTrim ? "enable" : "disable");
         trimConfigEvent.select(new AnnotationLiteral<TrimConfigUpdated>() {
@@ -27,7 +27,6 @@ import javax.enterprise.inject.spi.CDI;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.math.BigInteger;
-import java.security.MessageDigest;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
@@ -268,9 +267,7 @@ public class GeneratorServiceImpl implements GeneratorService {
 
     @Override
     public BigInteger getHit(byte[] publicKey, Block block) {
-        MessageDigest digest = Crypto.sha256();
-        digest.update(block.getGenerationSignature());
-        byte[] generationSignatureHash = digest.digest(publicKey);
+        byte[] generationSignatureHash = Crypto.digestSha256(block.getGenerationSignature(), publicKey);
         return new BigInteger(1,
             new byte[]{generationSignatureHash[7], generationSignatureHash[6],
                 generationSignatureHash[5], generationSignatureHash[4], generationSignatureHash[3],
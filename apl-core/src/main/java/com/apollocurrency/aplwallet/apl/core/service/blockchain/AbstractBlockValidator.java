@@ -17,7 +17,6 @@ import org.slf4j.Logger;
 
 import javax.inject.Inject;
 import java.math.BigInteger;
-import java.security.MessageDigest;
 import java.util.Arrays;
 import java.util.Objects;
 
@@ -123,14 +122,12 @@ public abstract class AbstractBlockValidator implements BlockValidator {
                 return false;
             }
 
-            MessageDigest digest = Crypto.sha256();
-            digest.update(previousBlock.getGenerationSignature());
             byte[] generatorPublicKey = block.getGeneratorPublicKey();
             if (generatorPublicKey == null) {
                 generatorPublicKey = accountService.getPublicKeyByteArray(block.getGeneratorId());
                 block.setGeneratorPublicKey(generatorPublicKey);
             }
-            byte[] generationSignatureHash = digest.digest(block.getGeneratorPublicKey());
+            byte[] generationSignatureHash = Crypto.digestSha256(previousBlock.getGenerationSignature(), block.getGeneratorPublicKey());
             if (!Arrays.equals(block.getGenerationSignature(), generationSignatureHash)) {
                 LOG.warn("Account: {} Effective ballance: {},  gen. signature: {}, calculated: {}, blockchain.height: {}, verification failed",
                     account, effectiveBalance, block.getGenerationSignature(), generationSignatureHash, blockchain.getHeight());
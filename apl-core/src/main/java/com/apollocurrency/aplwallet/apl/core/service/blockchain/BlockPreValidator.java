@@ -0,0 +1,222 @@
+/*
+ *  Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.service.blockchain;
+
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Block;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Transaction;
+import com.apollocurrency.aplwallet.apl.core.transaction.messages.Appendix;
+import com.apollocurrency.aplwallet.apl.core.transaction.messages.Prunable;
+import com.apollocurrency.aplwallet.apl.crypto.Crypto;
+import com.apollocurrency.aplwallet.apl.util.task.NamedThreadFactory;
+import com.apollocurrency.aplwallet.apl.util.task.Tasks;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation stage of the block acceptance, which may be done ahead of time.
+ * <p>Verifies signatures of the block and its transactions (using {@link BlockSignatureVerifier}), transaction totals,
+ * payload length and payload hash of the block. Totals, payload and block signature do not depend on the blockchain state.
+ * Transaction signature credential is resolved from the sender account state (parent public key of the child account),
+ * which may be changed by the block applied concurrently, so that the verification result is bound to the credential
+ * and is checked again under the lock by {@link com.apollocurrency.aplwallet.apl.core.transaction.TransactionValidator#checkSignature}:
+ * signature is verified again, when the credential was changed.
+ * During blockchain download the next block may be pre-validated by {@link #submit(Block)} on the separate thread,
+ * while the previous block is applied under the {@link GlobalSync} write lock.
+ * Mostly state-dependent checks remain on the critical path of the {@link BlockchainProcessor#pushBlock(Block)}.</p>
+ * <p>Validation result is not thrown immediately, it is checked by the block processor after the state-dependent block checks,
+ * so the order of the block rejection reasons is the same as for the sequential validation.</p>
+ */
+@Slf4j
+@Singleton
+public class BlockPreValidator {
+    private static final int MAX_PENDING_BLOCKS = 16;
+
+    private final BlockSignatureVerifier blockSignatureVerifier;
+    private final Blockchain blockchain;
+    private final ExecutorService executor;
+    private final Map<Long, PendingValidation> pendingValidations = new ConcurrentHashMap<>();
+
+    @Inject
+    public BlockPreValidator(BlockSignatureVerifier blockSignatureVerifier, Blockchain blockchain) {
+        this.blockSignatureVerifier = blockSignatureVerifier;
+        this.blockchain = blockchain;
+        // single thread is enough, since transaction signatures are verified in parallel by the BlockSignatureVerifier pool
+        this.executor = new ThreadPoolExecutor(1, 1,
+            60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(MAX_PENDING_BLOCKS),
+            new NamedThreadFactory("BlockPreValidator", true));
+    }
+
+    /**
+     * Start validation of the block, which is going to be pushed soon. Should be called without holding the global write lock.
+     *
+     * @param block block to validate, transactions should be already present in the block
+     */
+    public void submit(Block block) {
+        discardPendingWhenFull();
+        pendingValidations.computeIfAbsent(block.getId(), id -> {
+            try {
+                return new PendingValidation(block, CompletableFuture.supplyAsync(() -> validate(block), executor));
+            } catch (RejectedExecutionException e) {
+                log.debug("Unable to pre-validate block {}: {}", block.getStringId(), e.toString());
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Validate the block before acquiring the global lock: wait for the validation of the block, submitted earlier, or validate
+     * it in the current thread. Result is kept for the subsequent {@link #await(Block)} call, so that
+     * {@link BlockchainProcessor#pushBlock(Block)} will not verify signatures under the lock.
+     *
+     * @param block block, which is going to be pushed
+     */
+    public void prepare(Block block) {
+        PendingValidation pending = pendingValidations.get(block.getId());
+        if (pending != null && pending.block == block) {
+            try {
+                pending.result.join();
+            } catch (CompletionException e) {
+                // will be validated again by the await
+            }
+            return;
+        }
+        CompletableFuture<Result> result = new CompletableFuture<>();
+        try {
+            result.complete(validate(block));
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+        discardPendingWhenFull();
+        pendingValidations.put(block.getId(), new PendingValidation(block, result));
+    }
+
+    /**
+     * Wait for the validation result of the block, submitted earlier, or validate block in the current thread,
+     * when it was not submitted. May be called with the global write lock held (i.e. by the block download),
+     * in this case the block should be validated by {@link #prepare(Block)} before acquiring the lock.
+     *
+     * @param block block to validate
+     * @return result of the stateless block validation
+     */
+    public Result await(Block block) {
+        PendingValidation pending = pendingValidations.remove(block.getId());
+        if (pending != null && pending.block == block) {
+            try {
+                return pending.result.join();
+            } catch (CompletionException e) {
+                log.debug("Pre-validation of the block {} failed: {}, validate it again", block.getStringId(), e.getCause().toString());
+            }
+        }
+        return validate(block);
+    }
+
+    /**
+     * Perform stateless block validation in the current thread
+     *
+     * @param block block to validate
+     * @return result of the stateless block validation
+     */
+    public Result validate(Block block) {
+        long startTime = System.currentTimeMillis();
+        blockSignatureVerifier.verify(block);
+        long payloadLength = 0;
+        long calculatedTotalAmount = 0;
+        long calculatedTotalFee = 0;
+        boolean hasPrunedTransactions = false;
+        List<Transaction> transactions = blockchain.getOrLoadTransactions(block);
+        byte[][] transactionBytes = new byte[transactions.size()][];
+        for (int i = 0; i < transactions.size(); i++) {
+            Transaction transaction = transactions.get(i);
+            if (!hasPrunedTransactions) {
+                for (Appendix appendage : transaction.getAppendages()) {
+                    if ((appendage instanceof Prunable) && !((Prunable) appendage).hasPrunableData()) {
+                        hasPrunedTransactions = true;
+                        break;
+                    }
+                }
+            }
+            calculatedTotalAmount += transaction.getAmountATM();
+            calculatedTotalFee += transaction.getFeeATM();
+            payloadLength += transaction.getFullSize();
+            transactionBytes[i] = transaction.bytes();
+        }
+        Result result;
+        if (calculatedTotalAmount != block.getTotalAmountATM() || calculatedTotalFee != block.getTotalFeeATM()) {
+            result = Result.failed("Total amount or fee don't match transaction totals");
+        } else if (!Arrays.equals(Crypto.digestSha256(transactionBytes), block.getPayloadHash())) {
+            result = Result.failed("Payload hash doesn't match");
+        } else if (hasPrunedTransactions ? payloadLength > block.getPayloadLength() : payloadLength != block.getPayloadLength()) {
+            result = Result.failed("Transaction payload length " + payloadLength + " does not match block payload length "
+                + block.getPayloadLength());
+        } else {
+            result = Result.VALID;
+        }
+        log.trace("Pre-validated block {}, tx count: {}, valid: {} in {} ms", block.getStringId(), transactions.size(),
+            result.isValid(), System.currentTimeMillis() - startTime);
+        return result;
+    }
+
+    private void discardPendingWhenFull() {
+        // results of the blocks, which were not pushed, are never awaited
+        if (pendingValidations.size() >= MAX_PENDING_BLOCKS) {
+            log.debug("Too many blocks are pre-validated, discard pending results");
+            pendingValidations.clear();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pendingValidations.clear();
+        Tasks.shutdownExecutor("BlockPreValidator", executor, 5);
+    }
+
+    public static class Result {
+        static final Result VALID = new Result(null);
+
+        /**
+         * Reason of the block rejection or null, when block is valid
+         */
+        @Getter
+        private final String error;
+
+        private Result(String error) {
+            this.error = error;
+        }
+
+        static Result failed(String error) {
+            return new Result(error);
+        }
+
+        public boolean isValid() {
+            return error == null;
+        }
+    }
+
+    private static class PendingValidation {
+        private final Block block;
+        private final CompletableFuture<Result> result;
+
+        PendingValidation(Block block, CompletableFuture<Result> result) {
+            this.block = block;
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ *  Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.service.blockchain;
+
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Block;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Transaction;
+import com.apollocurrency.aplwallet.apl.core.transaction.TransactionValidator;
+import com.apollocurrency.aplwallet.apl.util.injectable.PropertiesHolder;
+import com.apollocurrency.aplwallet.apl.util.task.NamedThreadFactory;
+import com.apollocurrency.aplwallet.apl.util.task.Tasks;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stateless signature verification stage of the block acceptance.
+ * <p>Verifies block generator signature and signatures of all block transactions (including multi-signatures)
+ * on a bounded thread pool before the {@link GlobalSync} write lock is acquired. Verification results are cached inside
+ * the block and transaction signature objects, so that the sequential
+ * {@link TransactionValidator#verifySignature(Transaction)} call under the write lock only performs stateful
+ * public key checks ({@code setOrVerifyPublicKey}).</p>
+ * <p>Verification result of this stage is not authoritative: invalid signatures are not rejected here,
+ * they will be rejected by the sequential validation.</p>
+ */
+@Slf4j
+@Singleton
+public class BlockSignatureVerifier {
+    private static final int DEFAULT_MIN_TRANSACTIONS_FOR_PARALLEL_VERIFICATION = 4;
+    private static final int QUEUE_CAPACITY = 1000;
+
+    private final TransactionValidator transactionValidator;
+    private final ExecutorService executor;
+    private final int parallelism;
+    private final int minTransactionsForParallelVerification;
+
+    public BlockSignatureVerifier(TransactionValidator transactionValidator, int parallelism, int minTransactionsForParallelVerification) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism should be positive, got " + parallelism);
+        }
+        this.transactionValidator = transactionValidator;
+        this.parallelism = parallelism;
+        this.minTransactionsForParallelVerification = minTransactionsForParallelVerification;
+        this.executor = new ThreadPoolExecutor(parallelism, parallelism,
+            60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(QUEUE_CAPACITY),
+            new NamedThreadFactory("BlockSignatureVerifier", true),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @Inject
+    public BlockSignatureVerifier(TransactionValidator transactionValidator, PropertiesHolder propertiesHolder) {
+        this(transactionValidator,
+            propertiesHolder.getIntProperty("apl.signatureVerificationThreads", Runtime.getRuntime().availableProcessors()),
+            propertiesHolder.getIntProperty("apl.signatureVerificationParallelThreshold", DEFAULT_MIN_TRANSACTIONS_FOR_PARALLEL_VERIFICATION));
+    }
+
+    /**
+     * Verify signatures of the block and its transactions in parallel.
+     * Should be called without holding the global write lock.
+     *
+     * @param block block to verify, transactions should be already present in the block
+     * @return number of transactions with invalid signatures
+     */
+    public int verify(Block block) {
+        long startTime = System.currentTimeMillis();
+        List<Transaction> transactions = block.getTransactions() == null ? Collections.emptyList() : block.getTransactions();
+        List<CompletableFuture<Void>> futures = new ArrayList<>(parallelism + 1);
+        AtomicInteger failed = new AtomicInteger();
+        if (block.getGeneratorPublicKey() != null) {
+            futures.add(CompletableFuture.runAsync(() -> verifyBlockSignature(block), executor));
+        }
+        if (transactions.size() < minTransactionsForParallelVerification) {
+            verifyRange(transactions, 0, transactions.size(), failed);
+        } else {
+            int chunkSize = (transactions.size() + parallelism - 1) / parallelism;
+            for (int from = 0; from < transactions.size(); from += chunkSize) {
+                int to = Math.min(from + chunkSize, transactions.size());
+                int fromIndex = from;
+                futures.add(CompletableFuture.runAsync(() -> verifyRange(transactions, fromIndex, to, failed), executor));
+            }
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        log.trace("Verified signatures of the block {} at height {}, tx count: {}, failed: {} in {} ms", block.getStringId(),
+            block.getHeight(), transactions.size(), failed.get(), System.currentTimeMillis() - startTime);
+        return failed.get();
+    }
+
+    private void verifyBlockSignature(Block block) {
+        try {
+            block.checkSignature();
+        } catch (RuntimeException e) {
+            // block validator will reject the block with proper error
+            log.debug("Unable to verify signature of the block {}: {}", block.getStringId(), e.toString());
+        }
+    }
+
+    private void verifyRange(List<Transaction> transactions, int from, int to, AtomicInteger failed) {
+        for (int i = from; i < to; i++) {
+            Transaction transaction = transactions.get(i);
+            try {
+                if (!transactionValidator.verifySignatureOnly(transaction)) {
+                    failed.incrementAndGet();
+                }
+            } catch (RuntimeException e) {
+                // sequential validation will reject the transaction with proper error
+                log.debug("Unable to verify signature of the transaction {}: {}", transaction.getStringId(), e.toString());
+                failed.incrementAndGet();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        Tasks.shutdownExecutor("BlockSignatureVerifier", executor, 5);
+    }
+}
@@ -42,14 +42,17 @@ import com.apollocurrency.aplwallet.apl.core.service.appdata.TimeService;
 import com.apollocurrency.aplwallet.apl.core.service.state.account.PublicKeyDao;
 import com.apollocurrency.aplwallet.apl.core.shard.BlockIndexService;
 import com.apollocurrency.aplwallet.apl.core.shard.ShardManagement;
+import com.apollocurrency.aplwallet.apl.core.shard.ShardQueryExecutor;
 import com.apollocurrency.aplwallet.apl.core.transaction.PrunableTransaction;
 import com.apollocurrency.aplwallet.apl.core.transaction.messages.PrunableLoadingService;
 import com.apollocurrency.aplwallet.apl.core.utils.CollectionUtil;
 import com.apollocurrency.aplwallet.apl.crypto.Convert;
 import com.apollocurrency.aplwallet.apl.util.injectable.PropertiesHolder;
+import com.google.common.hash.BloomFilter;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.sql.Connection;
@@ -59,7 +62,6 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
@@ -72,6 +74,7 @@ public class BlockchainImpl implements Blockchain {
      * Specify offset from current height to retrieve block generators [currentHeight - offset; currentHeight] for further tracking generator hitTime
      */
     private static final int MAX_BLOCK_GENERATOR_OFFSET = 10_000;
+    private static final int TRANSACTION_ID_PAGE_SIZE = 10_000;
     private final BlockDao blockDao;
     private final TransactionDao transactionDao;
     private final BlockchainConfig blockchainConfig;
@@ -87,6 +90,8 @@ public class BlockchainImpl implements Blockchain {
 
     private final AtomicReference<Block> lastBlock;
     private final AtomicReference<Block> shardInitialBlock;
+    private final TransactionIdFilter transactionIdFilter;
+    private final ShardQueryExecutor shardQueryExecutor;
 
     @Inject
     public BlockchainImpl(BlockDao blockDao, TransactionDao transactionDao, BlockchainConfig blockchainConfig, TimeService timeService,
@@ -106,6 +111,9 @@ public class BlockchainImpl implements Blockchain {
         this.publicKeyDao = publicKeyDao;
         this.lastBlock = new AtomicReference<>();
         this.shardInitialBlock = new AtomicReference<>();
+        this.transactionIdFilter = new TransactionIdFilter(propertiesHolder.getBooleanProperty("apl.enableTransactionIdFilter", false),
+            propertiesHolder.getIntProperty("apl.transactionIdFilterCapacity", 1_000_000));
+        this.shardQueryExecutor = new ShardQueryExecutor(propertiesHolder.getIntProperty("apl.shardQueryThreads", 4));
     }
 
     @Override
@@ -125,6 +133,51 @@ public class BlockchainImpl implements Blockchain {
         this.shardInitialBlock.set(findFirstBlock());
         ((ShardManagement) this.databaseManager).initFullShards(
             shardDao.getAllCompletedShards().stream().map(Shard::getShardId).collect(Collectors.toList()));
+        loadTransactionIdFilter();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        shardQueryExecutor.shutdown();
+    }
+
+    private List<TransactionalDataSource> getFullShardDataSources() {
+        List<TransactionalDataSource> dataSources = new ArrayList<>();
+        ((ShardManagement) databaseManager).getAllFullDataSourcesIterator().forEachRemaining(dataSources::add);
+        return dataSources;
+    }
+
+    /**
+     * Fill the filter of the confirmed transaction ids from the main db and the shard index,
+     * should be called when blocks are not pushed
+     */
+    private void loadTransactionIdFilter() {
+        if (!transactionIdFilter.isEnabled()) {
+            return;
+        }
+        transactionIdFilter.unload();
+        long startTime = System.currentTimeMillis();
+        try {
+            TransactionalDataSource dataSource = databaseManager.getDataSource();
+            BloomFilter<Long> filter = transactionIdFilter.newFilter(transactionDao.getTransactionCount() + transactionIndexDao.countTransactionIndex());
+            transactionDao.forEachTransactionId(dataSource, filter::put);
+            long fromId = Long.MIN_VALUE;
+            List<Long> ids;
+            do {
+                ids = transactionIndexDao.getTransactionIds(fromId, TRANSACTION_ID_PAGE_SIZE);
+                ids.forEach(filter::put);
+                long lastId = ids.isEmpty() ? Long.MAX_VALUE : ids.get(ids.size() - 1);
+                if (lastId == Long.MAX_VALUE) {
+                    break;
+                }
+                fromId = lastId + 1;
+            } while (ids.size() == TRANSACTION_ID_PAGE_SIZE);
+            transactionIdFilter.install(filter);
+            log.info("Loaded filter of {} confirmed transaction ids in {} ms", filter.approximateElementCount(),
+                System.currentTimeMillis() - startTime);
+        } catch (RuntimeException e) {
+            log.warn("Unable to load filter of the confirmed transaction ids, transactions will be looked up in the db", e);
+        }
     }
 
     @Override
@@ -259,38 +312,28 @@ public class BlockchainImpl implements Blockchain {
     @Override
     public List<Block> getBlocksByAccountFromShards(long accountId, int from, int to, int timestamp) {
         long start = System.currentTimeMillis();
-        int totalToFetch = to - from;
+        int limit = to == Integer.MAX_VALUE ? Integer.MAX_VALUE : to - from + 1;
         log.trace("start getBlocksByAccountStream, accountId = {}, timestamp={}, from={}, to={}, in total={}",
-            accountId, timestamp, from, to, totalToFetch);
-        List<Block> finalResult = new ArrayList<>(totalToFetch);
-        DbIterator<Block> iterator = blockDao.getBlocksByAccount(null, accountId, from, to, timestamp); // fetch from main db
-        finalResult.addAll(CollectionUtil.toList(iterator));
+            accountId, timestamp, from, to, limit);
+        List<Block> result = CollectionUtil.toList(blockDao.getBlocksByAccount(null, accountId, from, to, timestamp)); // fetch from main db
         log.trace("getBlocksByAccountStream from main db, accountId = {}, timestamp={}, from={}, to={} in {} ms",
             accountId, timestamp, from, to, System.currentTimeMillis() - start);
-        if (finalResult.size() >= totalToFetch) {
-            return finalResult;
-        }
-        int nextTo = to - finalResult.size(); // decrease upper limit
-        Iterator<TransactionalDataSource> fullDataSources = ((ShardManagement) databaseManager).getAllFullDataSourcesIterator();
-        // loop shards
-        while (fullDataSources.hasNext()) {
-            long startShard = System.currentTimeMillis();
-            TransactionalDataSource dataSource = fullDataSources.next();
-            iterator = blockDao.getBlocksByAccount(dataSource, accountId, from, nextTo, timestamp);
-            List<Block> fetchedFromShard = CollectionUtil.toList(iterator);
-            log.trace("getBlocksByAccountStream, accountId = {} from shard db[{}] = fetched [{}] in {} ms", accountId, dataSource.getDbIdentity(),
-                fetchedFromShard.size(), (System.currentTimeMillis() - startShard) );
-            nextTo -= fetchedFromShard.size(); // decrease upper limit
-            finalResult.addAll(fetchedFromShard);
-            if (finalResult.size() >= totalToFetch + 1) {
-                log.trace("getBlocksByAccountStream STOP loop from shard={}, accountId = {}, timestamp={}, from={}, nextTo={} in {} ms",
-                    dataSource.getDbIdentity(), accountId, timestamp, from, nextTo, System.currentTimeMillis() - startShard);
-                break;
+        if (result.size() < limit) {
+            int shardFrom = 0;
+            if (result.isEmpty()) {
+                // page starts after the main db blocks, skip them
+                shardFrom = Math.max(from - blockDao.getBlockCount(null, accountId, timestamp), 0);
             }
+            int shardLimit = limit == Integer.MAX_VALUE ? Integer.MAX_VALUE : limit - result.size();
+            // count blocks of all shards concurrently and fetch only shards, which have blocks of the page
+            result.addAll(shardQueryExecutor.fetchPage("getBlocksByAccount", getFullShardDataSources(), shardFrom, shardLimit,
+                dataSource -> blockDao.getBlockCount(dataSource, accountId, timestamp),
+                (dataSource, pageFrom, pageTo) -> CollectionUtil.toList(blockDao.getBlocksByAccount(dataSource, accountId,
+                    pageFrom, pageTo, timestamp))));
         }
         log.trace("DONE getBlocksByAccountStream[{}], accountId = {}, timestamp={}, from={}, to={} in {} ms",
-            finalResult.size(), accountId, timestamp, from, to, System.currentTimeMillis() - start);
-        return loadBlockData(finalResult);
+            result.size(), accountId, timestamp, from, to, System.currentTimeMillis() - start);
+        return loadBlockData(result);
     }
 
     @Transactional(readOnly = true)
@@ -314,7 +357,10 @@ public class BlockchainImpl implements Blockchain {
     @Override
     public void saveBlock(Connection con, Block block) {
         blockDao.saveBlock(con, block);
-        transactionDao.saveTransactions(con, this.getOrLoadTransactions(block));
+        List<Transaction> transactions = this.getOrLoadTransactions(block);
+        transactionDao.saveTransactions(con, transactions);
+        // ids of the rolled back transactions may stay in the filter, it is allowed
+        transactions.forEach(transaction -> transactionIdFilter.add(transaction.getId()));
     }
 
     public List<Transaction> getOrLoadTransactions(Block parentBlock) {
@@ -355,18 +401,10 @@ public class BlockchainImpl implements Blockchain {
     public int getBlockCount(long accountId) {
         long start = System.currentTimeMillis();
         log.trace("start getBlockCount, accountId = {}", accountId);
-        int totalCount = blockDao.getBlockCount(null, accountId); // fetch count from main db
-        log.trace("getBlockCount, accountId = {} from main db = {} in {} ms", accountId, totalCount, (System.currentTimeMillis() - start) );
-        Iterator<TransactionalDataSource> fullDataSources = ((ShardManagement) databaseManager).getAllFullDataSourcesIterator();
-        // loop shards
-        while (fullDataSources.hasNext()) {
-            long startShard = System.currentTimeMillis();
-            TransactionalDataSource dataSource = fullDataSources.next();
-            int blockCountInShard = blockDao.getBlockCount(dataSource, accountId);
-            totalCount += blockCountInShard; // fetch more count values from shard db
-            log.trace("getBlockCount, accountId = {} from shard db[{}] = {} in {} ms", accountId, dataSource.getDbIdentity(),
-                blockCountInShard, (System.currentTimeMillis() - startShard) );
-        }
+        List<TransactionalDataSource> dataSources = new ArrayList<>();
+        dataSources.add(databaseManager.getDataSource());
+        dataSources.addAll(getFullShardDataSources());
+        int totalCount = (int) shardQueryExecutor.sum("getBlockCount", dataSources, dataSource -> blockDao.getBlockCount(dataSource, accountId));
         log.trace("DONE, accountId = {} from all dbs = {} in {} ms", accountId, totalCount, (System.currentTimeMillis() - start) );
         return totalCount;
     }
@@ -543,6 +581,7 @@ public class BlockchainImpl implements Blockchain {
         shardDao.hardDeleteAllShards();
         transactionIndexDao.hardDeleteAllTransactionIndex();
         blockIndexService.hardDeleteAllBlockIndex();
+        transactionIdFilter.clear();
         log.debug("finished deleteAll()");
     }
 
@@ -580,6 +619,9 @@ public class BlockchainImpl implements Blockchain {
     @Override
     @Transactional(readOnly = true)
     public boolean hasTransaction(long transactionId) {
+        if (!transactionIdFilter.mightContain(transactionId)) {
+            return false;
+        }
         return transactionDao.hasTransaction(transactionId, databaseManager.getDataSource()) ||
             transactionIndexDao.countByTransactionId(transactionId) == 1;
     }
@@ -587,6 +629,9 @@ public class BlockchainImpl implements Blockchain {
     @Override
     @Transactional(readOnly = true)
     public boolean hasTransaction(long transactionId, int height) {
+        if (!transactionIdFilter.mightContain(transactionId)) {
+            return false;
+        }
         boolean hasTransaction = transactionDao.hasTransaction(transactionId, height, databaseManager.getDataSource());
         if (!hasTransaction) {
             Integer transactionHeight = transactionIndexDao.getTransactionHeightByTransactionId(transactionId);
@@ -620,6 +665,9 @@ public class BlockchainImpl implements Blockchain {
     @Override
     @Transactional(readOnly = true)
     public boolean hasTransactionByFullHash(byte[] fullHash, int height) {
+        if (!transactionIdFilter.mightContain(Convert.fullHashToId(fullHash))) {
+            return false;
+        }
         return transactionDao.hasTransactionByFullHash(fullHash, height, databaseManager.getDataSource()) || hasShardTransactionByFullHash(fullHash, height);
     }
 
@@ -689,58 +737,35 @@ public class BlockchainImpl implements Blockchain {
             accountId, numberOfConfirmations, type, subtype,
             blockTimestamp, withMessage, phasedOnly, nonPhasedOnly,
             from, to, includeExpiredPrunable, executedOnly, includePrivate, height, prunableExpiration);
-        int foundCount = transactionDao.getTransactionCountByFilter(currentDataSource,
-            accountId, numberOfConfirmations, type, subtype,
-            blockTimestamp, withMessage, phasedOnly, nonPhasedOnly,
-            includeExpiredPrunable, executedOnly, includePrivate, height, prunableExpiration);
-        log.trace("getTx() 2. fetched from mainDb, fetch=[{}] / foundCount={}, initLimit={}, accountId={}, type={}, subtype={}",
-            transactions.size(), foundCount, limit, accountId, type, subtype);
+        log.trace("getTx() 2. fetched from mainDb, fetch=[{}], initLimit={}, accountId={}, type={}, subtype={}",
+            transactions.size(), limit, accountId, type, subtype);
 
         // check if all Txs are fetched from main db, continue inside shard dbs otherwise
         if (transactions.size() < limit) {
-            // not all requested Tx were fetched from main, loop over shards
-            if (transactions.size() > 0) {
-                to -= (transactions.size() + from); // decrease limit by really fetched records
-                from = 0; // set to zero for shard db
-            } else {
-                from -= foundCount;
-                to -= foundCount;
-            }
-            // loop over all shard in descent order and fetch left Tx number
-            Iterator<TransactionalDataSource> fullDataSources = ((ShardManagement) databaseManager).getAllFullDataSourcesIterator();
-            while (fullDataSources.hasNext()) {
-                TransactionalDataSource dataSource = fullDataSources.next();
-                // count Tx records before fetch Tx records
-                foundCount = transactionDao.getTransactionCountByFilter(dataSource,
+            int shardFrom = 0;
+            if (transactions.isEmpty()) {
+                // page starts after the main db records, skip them
+                int foundCount = transactionDao.getTransactionCountByFilter(currentDataSource,
                     accountId, numberOfConfirmations, type, subtype,
                     blockTimestamp, withMessage, phasedOnly, nonPhasedOnly,
                     includeExpiredPrunable, executedOnly, includePrivate, height, prunableExpiration);
-                log.trace("countTx 3. DS={}, from={} to={}, foundCount={} (skip='{}')\naccountId={}, type={}, subtype={}",
-                    dataSource.getDbIdentity(), from, to, foundCount, (foundCount <= 0),
-                    accountId, type, subtype);
-                if (foundCount == 0) {
-                    continue; // skip shard without any suitable records
-                }
-                // because count is > 0 then try to fetch Tx records from shard db
-                List<Transaction> fetchedTxs = transactionDao.getTransactions(
+                shardFrom = Math.max(from - foundCount, 0);
+            }
+            int shardLimit = limit == Integer.MAX_VALUE ? Integer.MAX_VALUE : limit - transactions.size();
+            log.trace("getTx() 3. fetch from shards, from={}, limit={}, accountId={}, type={}, subtype={}",
+                shardFrom, shardLimit, accountId, type, subtype);
+            // count Tx records of all shards concurrently and fetch only shards, which have records of the page
+            List<Transaction> fetchedTxs = shardQueryExecutor.fetchPage("getTransactions", getFullShardDataSources(), shardFrom, shardLimit,
+                dataSource -> transactionDao.getTransactionCountByFilter(dataSource,
+                    accountId, numberOfConfirmations, type, subtype,
+                    blockTimestamp, withMessage, phasedOnly, nonPhasedOnly,
+                    includeExpiredPrunable, executedOnly, includePrivate, height, prunableExpiration),
+                (dataSource, pageFrom, pageTo) -> transactionDao.getTransactions(
                     dataSource,
                     accountId, numberOfConfirmations, type, subtype,
                     blockTimestamp, withMessage, phasedOnly, nonPhasedOnly,
-                    from, to, includeExpiredPrunable, executedOnly, includePrivate, height, prunableExpiration);
-                log.trace("getTx() 4. DS={} fetched [{}] (foundCount={}) from={}, to={}", dataSource.getDbIdentity(),
-                    fetchedTxs.size(), foundCount, from, to);
-                if (fetchedTxs.isEmpty()) {
-                    to -= foundCount;
-                    from -= foundCount;
-                } else {
-                    to -= (fetchedTxs.size() + from);
-                    from = 0;
-                }
-                transactions.addAll(fetchedTxs);
-                if (transactions.size() >= limit) { // by default, size of fetched transactions should be equal to initialLimit, but when error occurred this check allow to avoid fetching all txs
-                    break;
-                }
-            }
+                    pageFrom, pageTo, includeExpiredPrunable, executedOnly, includePrivate, height, prunableExpiration));
+            transactions.addAll(fetchedTxs);
         }
         log.trace("Tx number Requested / Loaded : [{}] / [{}] = in {} ms", limit, transactions.size(), System.currentTimeMillis() - start);
         return transactions;
@@ -55,6 +55,12 @@ public interface BlockchainProcessor {
 
     void processPeerBlock(JSONObject request) throws AplException;
 
+    /**
+     * Same as {@link #processPeerBlock(JSONObject)}, but for the already decoded block, signatures of the block
+     * and its transactions are verified by the block validation before the push
+     */
+    void processPeerBlock(Block block) throws AplException;
+
     void fullReset();
 
     SortedSet<UnconfirmedTransaction> getUnconfirmedTransactions(Block previousBlock, int blockTimestamp, int limit);
@@ -74,7 +74,6 @@ import com.apollocurrency.aplwallet.apl.core.transaction.TransactionSerializer;
 import com.apollocurrency.aplwallet.apl.core.transaction.TransactionTypes;
 import com.apollocurrency.aplwallet.apl.core.transaction.TransactionValidator;
 import com.apollocurrency.aplwallet.apl.core.transaction.messages.AbstractAppendix;
-import com.apollocurrency.aplwallet.apl.core.transaction.messages.Appendix;
 import com.apollocurrency.aplwallet.apl.core.transaction.messages.MessagingPhasingVoteCasting;
 import com.apollocurrency.aplwallet.apl.core.transaction.messages.PhasingAppendixV2;
 import com.apollocurrency.aplwallet.apl.core.transaction.messages.Prunable;
@@ -103,7 +102,6 @@ import javax.enterprise.util.AnnotationLiteral;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.nio.file.Path;
-import java.security.MessageDigest;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -115,6 +113,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -185,6 +184,7 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
     private final BlockSerializer blockSerializer;
     private final ConsensusManager consensusManager;
     private final MemPool memPool;
+    private final BlockPreValidator blockPreValidator;
 
     /**
      * Three blocks are used for internal calculations on assigning previous block
@@ -219,7 +219,8 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
                                    GetNextBlocksResponseParser getNextBlocksResponseParser,
                                    BlockSerializer blockSerializer,
                                    ConsensusManager consensusManager,
-                                   MemPool memPool) {
+                                   MemPool memPool,
+                                   BlockPreValidator blockPreValidator) {
         this.propertiesHolder = Objects.requireNonNull(propertiesHolder);
         this.blockchainConfig = blockchainConfig;
         this.validator = validator;
@@ -263,6 +264,7 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
         this.getNextBlocksResponseParser = getNextBlocksResponseParser;
         this.blockSerializer = blockSerializer;
         this.consensusManager = consensusManager;
+        this.blockPreValidator = blockPreValidator;
 
         configureBackgroundTasks();
     }
@@ -332,7 +334,7 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
                     blockchainConfig, blockchain, peersService,
                     globalSync, timeService, prunableRestorationService,
                     networkService, propertiesHolder, transactionProcessor, getNextBlocksResponseParser,
-                    blockSerializer)
+                    blockSerializer, blockPreValidator)
                 )
                 .build();
 
@@ -386,21 +388,41 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
 
     @Override
     public void processPeerBlock(JSONObject request) throws AplException {
+        long peerBlockPreviousBlockId = Convert.parseUnsignedLong((String) request.get("previousBlock"));
+        log.trace("Timeout: peerBlock{}", request.get("timeout"));
+        log.trace("Timestamp: peerBlock{}", request.get("timestamp"));
+        processPeerBlock(peerBlockPreviousBlockId,
+            () -> blockParser.parseBlock(request, blockchainConfig.getCurrentConfig().getInitialBaseTarget()));
+    }
+
+    @Override
+    public void processPeerBlock(Block block) throws AplException {
+        log.trace("Timeout: peerBlock{}", block.getTimeout());
+        log.trace("Timestamp: peerBlock{}", block.getTimestamp());
+        processPeerBlock(block.getPreviousBlockId(), () -> block);
+    }
+
+    private void processPeerBlock(long peerBlockPreviousBlockId, PeerBlockSupplier peerBlockSupplier) throws AplException {
+        Block currentLastBlock = blockchain.getLastBlock();
+        if (peerBlockPreviousBlockId == currentLastBlock.getId() || peerBlockPreviousBlockId == currentLastBlock.getPreviousBlockId()) {
+            // verify signatures of the block, which is likely to be pushed, before acquiring the lock
+            Block peerBlock = peerBlockSupplier.get();
+            blockPreValidator.prepare(peerBlock);
+            peerBlockSupplier = () -> peerBlock;
+        }
         globalSync.updateLock();
         try {
             Block lastBlock = blockchain.getLastBlock();
-            long peerBlockPreviousBlockId = Convert.parseUnsignedLong((String) request.get("previousBlock"));
-            log.trace("Timeout: peerBlock{},ourBlock{}", request.get("timeout"), lastBlock.getTimeout());
-            log.trace("Timestamp: peerBlock{},ourBlock{}", request.get("timestamp"), lastBlock.getTimestamp());
+            log.trace("Timeout: ourBlock{}", lastBlock.getTimeout());
+            log.trace("Timestamp: ourBlock{}", lastBlock.getTimestamp());
             log.trace("PrevId: peerBlock{},ourBlock{}", peerBlockPreviousBlockId, lastBlock.getPreviousBlockId());
             // peer block is the next block in our blockchain
-            long baseTarget = blockchainConfig.getCurrentConfig().getInitialBaseTarget();
             if (peerBlockPreviousBlockId == lastBlock.getId()) {
                 log.debug("push peer last block");
-                Block block = blockParser.parseBlock(request, baseTarget);
+                Block block = peerBlockSupplier.get();
                 pushBlock(block);
             } else if (peerBlockPreviousBlockId == lastBlock.getPreviousBlockId()) { //peer block is a candidate to replace our last block
-                Block block = blockParser.parseBlock(request, baseTarget);
+                Block block = peerBlockSupplier.get();
                 //try to replace our last block by peer block only when timestamp of peer block is less than timestamp of our block or when
                 // timestamps are equal but timeout of peer block is greater, so that peer block is better.
                 if (((block.getTimestamp() < lastBlock.getTimestamp()
@@ -591,8 +613,13 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
         int curTime = timeService.getEpochTime();
         log.trace("push new block, prev_id = '{}', cutTime={}", block.getPreviousBlockId(), curTime);
         long startTime = System.currentTimeMillis();
+        // signatures and payload validation stage, should be done before the lock acquiring,
+        // may be already done in parallel with the previous block processing; transaction signatures are checked
+        // again under the lock, when the credential of the sender was changed
+        BlockPreValidator.Result preValidationResult = blockPreValidator.await(block);
+        long preValidationTime = System.currentTimeMillis() - startTime;
         globalSync.writeLock();
-        long lockAquireTime = System.currentTimeMillis() - startTime;
+        long lockAquireTime = System.currentTimeMillis() - startTime - preValidationTime;
         try {
             Block previousLastBlock = null;
             TransactionalDataSource dataSource = databaseManager.getDataSource();
@@ -627,6 +654,7 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
                 List<Transaction> invalidPhasedTransactions = new ArrayList<>();
                 validatePhasedTransactions(block, previousLastBlock, validPhasedTransactions, invalidPhasedTransactions, duplicates);
                 validateTransactions(block, previousLastBlock, curTime, duplicates, previousLastBlock.getHeight() >= Constants.LAST_CHECKSUM_BLOCK);
+                checkPreValidationResult(block, preValidationResult);
 
                 HeightConfig config = blockchainConfig.getCurrentConfig();
                 Shard lastShard = shardDao.getLastShard();
@@ -677,8 +705,14 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
         log.trace("fire block on = {}, id = '{}', '{}'", block.getHeight(), Long.toUnsignedString(block.getId()), BlockEventType.BLOCK_PUSHED.name());
         blockEvent.select(literal(BlockEventType.BLOCK_PUSHED)).fire(block); // send sync event to TrimObserver component
         blockEvent.select(literal(BlockEventType.BLOCK_PUSHED)).fireAsync(block); // send async event to other components
-        log.debug("Push block at height {} tx cnt: {} took {} ms (lock acquiring: {} ms)",
-            block.getHeight(), block.getTransactions().size(), System.currentTimeMillis() - startTime, lockAquireTime);
+        log.debug("Push block at height {} tx cnt: {} took {} ms (pre-validation: {} ms, lock acquiring: {} ms)",
+            block.getHeight(), block.getTransactions().size(), System.currentTimeMillis() - startTime, preValidationTime, lockAquireTime);
+    }
+
+    private void checkPreValidationResult(Block block, BlockPreValidator.Result result) throws BlockNotAcceptedException {
+        if (!result.isValid()) {
+            throw new BlockNotAcceptedException(result.getError(), blockSerializer.getJSONObject(block));
+        }
     }
 
     private void fillInBlockArray(Block previousLastBlock, Shard lastShard, int currentHeight) {
@@ -756,11 +790,6 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
 
     private void validateTransactions(Block block, Block previousLastBlock, int curTime, Map<TransactionTypes.TransactionTypeSpec, Map<String, Integer>> duplicates,
                                       boolean fullValidation) throws BlockNotAcceptedException {
-        long payloadLength = 0;
-        long calculatedTotalAmount = 0;
-        long calculatedTotalFee = 0;
-        MessageDigest digest = Crypto.sha256();
-        boolean hasPrunedTransactions = false;
         for (Transaction transaction : blockchain.getOrLoadTransactions(block)) {
             if (transaction.getTimestamp() > curTime + Constants.MAX_TIMEDRIFT) {
                 throw new BlockOutOfOrderException("Invalid transaction timestamp: " + transaction.getTimestamp()
@@ -810,31 +839,6 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
                 throw new TransactionNotAcceptedException(
                     "Transaction is a duplicate", transaction, blockSerializer.getJSONObject(block));
             }
-            if (!hasPrunedTransactions) {
-                for (Appendix appendage : transaction.getAppendages()) {
-                    if ((appendage instanceof Prunable) && !((Prunable) appendage).hasPrunableData()) {
-                        hasPrunedTransactions = true;
-                        break;
-                    }
-                }
-            }
-            calculatedTotalAmount += transaction.getAmountATM();
-            calculatedTotalFee += transaction.getFeeATM();
-            payloadLength += transaction.getFullSize();
-            digest.update(transaction.bytes());
-        }
-        if (calculatedTotalAmount != block.getTotalAmountATM() || calculatedTotalFee != block.getTotalFeeATM()) {
-            throw new BlockNotAcceptedException(
-                "Total amount or fee don't match transaction totals", blockSerializer.getJSONObject(block));
-        }
-        if (!Arrays.equals(digest.digest(), block.getPayloadHash())) {
-            throw new BlockNotAcceptedException(
-                "Payload hash doesn't match", blockSerializer.getJSONObject(block));
-        }
-        if (hasPrunedTransactions ? payloadLength > block.getPayloadLength() : payloadLength != block.getPayloadLength()) {
-            throw new BlockNotAcceptedException(
-                "Transaction payload length " + payloadLength + " does not match block payload length "
-                + block.getPayloadLength(), blockSerializer.getJSONObject(block));
         }
     }
 
@@ -1148,11 +1152,9 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
     public SortedSet<UnconfirmedTransaction> selectUnconfirmedTransactions(
         Map<TransactionTypes.TransactionTypeSpec, Map<String, Integer>> duplicates, Block previousBlock, int blockTimestamp, int limit) {
 
+        // candidates are pulled from the mempool priority index lazily, only as many as required to fill the block
+        Iterator<UnconfirmedTransaction> priorityIterator = memPool.getProcessedInPriorityOrder();
         List<UnconfirmedTransaction> orderedUnconfirmedTransactions = new ArrayList<>();
-        memPool.getAllProcessedStream()
-            .filter(transaction -> referencedTransactionService.hasAllReferencedTransactions(
-                transaction.getTransaction(), previousBlock.getHeight() + 1))
-            .forEach(orderedUnconfirmedTransactions::add);
         SortedSet<UnconfirmedTransaction> sortedTransactions = new TreeSet<>(transactionArrivalComparator);
         int payloadLength = 0;
         int maxPayloadLength = blockchainConfig.getCurrentConfig().getMaxPayloadLength();
@@ -1161,7 +1163,9 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
             txSelectLoop:
             while (payloadLength <= maxPayloadLength && sortedTransactions.size() <= blockchainConfig.getCurrentConfig().getMaxNumberOfTransactions()) {
                 int prevNumberOfNewTransactions = sortedTransactions.size();
-                for (UnconfirmedTransaction unconfirmedTransaction : orderedUnconfirmedTransactions) {
+                for (int i = 0; i < orderedUnconfirmedTransactions.size()
+                    || pullNextCandidate(priorityIterator, orderedUnconfirmedTransactions, previousBlock.getHeight() + 1); i++) {
+                    UnconfirmedTransaction unconfirmedTransaction = orderedUnconfirmedTransactions.get(i);
                     int transactionLength = unconfirmedTransaction.getTransaction().getFullSize();
                     if (sortedTransactions.contains(unconfirmedTransaction) || payloadLength + transactionLength > maxPayloadLength) {
                         continue;
@@ -1207,6 +1211,17 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
         return sortedTransactions;
     }
 
+    private boolean pullNextCandidate(Iterator<UnconfirmedTransaction> priorityIterator, List<UnconfirmedTransaction> candidates, int height) {
+        while (priorityIterator.hasNext()) {
+            UnconfirmedTransaction next = priorityIterator.next();
+            if (referencedTransactionService.hasAllReferencedTransactions(next.getTransaction(), height)) {
+                candidates.add(next);
+                return true;
+            }
+        }
+        return false;
+    }
+
     public SortedSet<UnconfirmedTransaction> getUnconfirmedTransactions(Block previousBlock, int blockTimestamp, int limit) {
         //TODo What is duplicates list for?
         Map<TransactionTypes.TransactionTypeSpec, Map<String, Integer>> duplicates = new HashMap<>();
@@ -1233,24 +1248,23 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
         Block previousBlock = blockchain.getLastBlock();
         SortedSet<UnconfirmedTransaction> sortedTransactions = getUnconfirmedTransactions(previousBlock, blockTimestamp, Integer.MAX_VALUE);
         List<Transaction> blockTransactions = new ArrayList<>();
-        MessageDigest digest = Crypto.sha256();
+        byte[][] transactionBytes = new byte[sortedTransactions.size()][];
         long totalAmountATM = 0;
         long totalFeeATM = 0;
         int payloadLength = 0;
         for (UnconfirmedTransaction unconfirmedTransaction : sortedTransactions) {
             Transaction transaction = unconfirmedTransaction.getTransaction();
+            transactionBytes[blockTransactions.size()] = transaction.bytes();
             blockTransactions.add(transaction);
-            digest.update(transaction.getCopyTxBytes());
             totalAmountATM += transaction.getAmountATM();
             totalFeeATM += transaction.getFeeATM();
             payloadLength += transaction.getFullSize();
         }
-        byte[] payloadHash = digest.digest();
-        digest.update(previousBlock.getGenerationSignature());
+        byte[] payloadHash = Crypto.digestSha256(transactionBytes);
         final byte[] publicKey = Crypto.getPublicKey(keySeed);
-        byte[] generationSignature = digest.digest(publicKey);
+        byte[] generationSignature = Crypto.digestSha256(previousBlock.getGenerationSignature(), publicKey);
 //        blockchain.getOrLoadTransactions(previousBlock); // load transactions
-        byte[] previousBlockHash = Crypto.sha256().digest(((BlockImpl) previousBlock).bytes());
+        byte[] previousBlockHash = Crypto.digestSha256(((BlockImpl) previousBlock).bytes());
         long baseTarget = blockchainConfig.getCurrentConfig().getInitialBaseTarget();
         Block block = new BlockImpl(blockVersion, blockTimestamp, previousBlock.getId(), totalAmountATM, totalFeeATM, payloadLength,
             payloadHash, publicKey, generationSignature, previousBlockHash, timeout, blockTransactions, keySeed, baseTarget);
@@ -1369,6 +1383,7 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
                     aplAppStatus.durableTaskUpdate(scanTaskId, "Rollback finished for table \'" + table.toString() + "\' to height " + height, percentsPerTable);
                 }
                 dataSource.commit(false);
+                memPool.resetProcessedState(); // unconfirmed transaction table may be truncated bypassing the mempool
                 aplAppStatus.durableTaskUpdate(scanTaskId, 20.0, "Rolled back " + derivedTables.size() + " derived tables");
                 Block currentBlock = blockchain.getBlockAtHeight(height);
                 log.debug("scan currentBlock={} at height={}", currentBlock, height);
@@ -1429,6 +1444,7 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
                                             throw new AplException.NotValidException("Block JSON cannot be parsed back to the same block");
                                         }
                                         validateTransactions(currentBlock, blockchain.getLastBlock(), curTime, duplicates, true);
+                                        checkPreValidationResult(currentBlock, blockPreValidator.validate(currentBlock));
                                         for (Transaction transaction : blockchain.getOrLoadTransactions(currentBlock)) {
                                             byte[] transactionBytes = transaction.bytes();
                                             if (!Arrays.equals(transactionBytes, transactionBuilder.newTransactionBuilder(transactionBytes).build().bytes())) {
@@ -1543,4 +1559,9 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
         globalSync.updateUnlock();
     }
 
+    @FunctionalInterface
+    private interface PeerBlockSupplier {
+        Block get() throws AplException;
+    }
+
 }
\ No newline at end of file
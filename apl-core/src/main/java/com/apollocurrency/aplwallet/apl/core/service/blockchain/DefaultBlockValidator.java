@@ -34,7 +34,7 @@ public class DefaultBlockValidator extends AbstractBlockValidator {
     @Override
     void validatePreviousHash(Block block, Block previousBlock) throws BlockchainProcessor.BlockNotAcceptedException {
         blockchain.getOrLoadTransactions(previousBlock);
-        if (!Arrays.equals(Crypto.sha256().digest(((BlockImpl) previousBlock).bytes()),
+        if (!Arrays.equals(Crypto.digestSha256(((BlockImpl) previousBlock).bytes()),
             block.getPreviousBlockHash())) {
             if (log.isTraceEnabled()) {
                 log.trace("Previous block={} height={}", previousBlock.getStringId(), previousBlock.getHeight());
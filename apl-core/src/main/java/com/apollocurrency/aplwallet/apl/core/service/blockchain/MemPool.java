@@ -7,9 +7,12 @@ package com.apollocurrency.aplwallet.apl.core.service.blockchain;
 import com.apollocurrency.aplwallet.apl.core.app.AplException;
 import com.apollocurrency.aplwallet.apl.core.config.Property;
 import com.apollocurrency.aplwallet.apl.core.converter.rest.IteratorToStreamConverter;
+import com.apollocurrency.aplwallet.apl.core.dao.TransactionalDataSource;
 import com.apollocurrency.aplwallet.apl.core.dao.appdata.MemPoolUnconfirmedTransactionTable;
 import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Transaction;
 import com.apollocurrency.aplwallet.apl.core.entity.blockchain.UnconfirmedTransaction;
+import com.apollocurrency.aplwallet.apl.core.service.appdata.DatabaseManager;
+import com.apollocurrency.aplwallet.apl.core.service.fulltext.TransactionCallback;
 import com.apollocurrency.aplwallet.apl.core.transaction.TransactionValidator;
 import com.apollocurrency.aplwallet.apl.core.utils.CollectionUtil;
 import lombok.extern.slf4j.Slf4j;
@@ -33,6 +36,8 @@ public class MemPool {
     private final MemPoolInMemoryState memoryState;
     private final GlobalSync globalSync;
     private final TransactionValidator validator;
+    private final DatabaseManager databaseManager;
+    private final TransactionCallback resetOnRollback = new ResetProcessedStateOnRollback();
     private final boolean enableRebroadcasting;
     private final int maxUnconfirmedTransactions;
 
@@ -41,6 +46,7 @@ public class MemPool {
                    MemPoolInMemoryState memoryState,
                    GlobalSync globalSync,
                    TransactionValidator validator,
+                   DatabaseManager databaseManager,
                    @Property(name = "apl.maxUnconfirmedTransactions", defaultValue = "" + Integer.MAX_VALUE) int maxUnconfirmedTransactions,
                    @Property(name = "apl.enableTransactionRebroadcasting") boolean enableRebroadcasting) {
         this.table = table;
@@ -49,6 +55,7 @@ public class MemPool {
         this.memoryState = memoryState;
         this.globalSync = globalSync;
         this.validator = validator;
+        this.databaseManager = databaseManager;
     }
 
     public Transaction getUnconfirmedTransaction(long id) {
@@ -98,7 +105,9 @@ public class MemPool {
         boolean canSaveTxs = allProcessedCount() < maxUnconfirmedTransactions;
         if (canSaveTxs) {
             table.insert(tx);
+            resetProcessedStateOnRollback();
             memoryState.putInCache(tx);
+            memoryState.addProcessed(tx);
         }
         return canSaveTxs;
     }
@@ -110,7 +119,45 @@ public class MemPool {
     }
 
     public int allProcessedCount() {
-        return table.getCount();
+        initProcessedState();
+        return memoryState.processedCount();
+    }
+
+    /**
+     * @return processed transactions in the block generation order without loading them from the database
+     */
+    public Iterator<UnconfirmedTransaction> getProcessedInPriorityOrder() {
+        initProcessedState();
+        return memoryState.processedTransactionsIterator();
+    }
+
+    /**
+     * Processed transactions are counted in memory, database is used only to restore the counters after restart
+     * or after the rollback/truncate of the unconfirmed transaction table
+     */
+    private void initProcessedState() {
+        if (!memoryState.isProcessedStateInitialized()) {
+            memoryState.initializeProcessedState(getAllProcessedStream());
+        }
+    }
+
+    /**
+     * Drop in-memory processed state to restore it from the unconfirmed transaction table on the next access, should be
+     * called when the table was changed bypassing the mempool
+     */
+    public void resetProcessedState() {
+        memoryState.resetProcessedState();
+    }
+
+    /**
+     * In-memory processed state is changed immediately, so that it will be restored from the database, when the
+     * changes of the unconfirmed transaction table are rolled back
+     */
+    private void resetProcessedStateOnRollback() {
+        TransactionalDataSource dataSource = databaseManager.getDataSource();
+        if (dataSource.isInTransaction()) {
+            dataSource.registerCallback(resetOnRollback);
+        }
     }
 
     public void removeBroadcastedTransaction(Transaction transaction) {
@@ -176,8 +223,11 @@ public class MemPool {
     }
 
     public boolean removeProcessedTransaction(long id) {
+        initProcessedState();
         boolean deleted = table.deleteById(id);
+        resetProcessedStateOnRollback();
         memoryState.removeFromCache(id);
+        memoryState.removeProcessed(id);
         return deleted;
     }
 
@@ -226,4 +276,15 @@ public class MemPool {
     public double pendingBroadcastQueueLoad() {
         return memoryState.pendingBroadcastQueueLoadFactor();
     }
+
+    private class ResetProcessedStateOnRollback implements TransactionCallback {
+        @Override
+        public void commit() {
+        }
+
+        @Override
+        public void rollback() {
+            memoryState.resetProcessedState();
+        }
+    }
 }
@@ -21,9 +21,11 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -41,6 +43,14 @@ public class MemPoolInMemoryState {
             .thenComparingLong(UnconfirmedTransaction::getId); // Sort by transaction ID ASC
 
     private final Map<Long, UnconfirmedTransaction> transactionCache = new ConcurrentHashMap<>();
+    /**
+     * Authoritative set of the transactions saved in the unconfirmed transaction table
+     */
+    private final Map<Long, ProcessedTransaction> processedTransactions = new ConcurrentHashMap<>();
+    /**
+     * Processed transactions in the block generation order: transaction height ASC, fee per byte DESC, arrival timestamp ASC, id ASC
+     */
+    private final NavigableSet<ProcessedTransaction> processedTransactionsIndex = new ConcurrentSkipListSet<>();
     private final Map<Transaction, Transaction> txToBroadcastWhenConfirmed = new ConcurrentHashMap<>();
     private final Set<Transaction> broadcastedTransactions = Collections.newSetFromMap(new ConcurrentHashMap<>());
     private final PriorityBlockingQueue<TxWithArrivalTimestamp> broadcastPendingTransactions;
@@ -48,6 +58,8 @@ public class MemPoolInMemoryState {
 
     @Getter
     private volatile boolean cacheInitialized;
+    @Getter
+    private volatile boolean processedStateInitialized;
     private final int maxPendingBroadcastQueueSize;
     private final int maxCachedTransactions;
 
@@ -117,6 +129,67 @@ public class MemPoolInMemoryState {
         cacheInitialized = true;
     }
 
+    /**
+     * Restore processed transaction counters from the unconfirmed transaction table, should be done only once on startup
+     * before any processed transaction will be added or removed
+     * @param unconfirmedTransactionStream stream of all transactions saved in the unconfirmed transaction table
+     */
+    public void initializeProcessedState(Stream<UnconfirmedTransaction> unconfirmedTransactionStream) {
+        synchronized (processedTransactions) {
+            if (processedStateInitialized) {
+                return;
+            }
+            unconfirmedTransactionStream.forEach(this::addProcessed);
+            processedStateInitialized = true;
+        }
+    }
+
+    public void addProcessed(UnconfirmedTransaction unconfirmedTransaction) {
+        synchronized (processedTransactions) {
+            ProcessedTransaction processed = new ProcessedTransaction(unconfirmedTransaction);
+            if (processedTransactions.putIfAbsent(processed.id, processed) == null) {
+                processedTransactionsIndex.add(processed);
+            }
+        }
+    }
+
+    public void removeProcessed(long id) {
+        synchronized (processedTransactions) {
+            ProcessedTransaction removed = processedTransactions.remove(id);
+            if (removed != null) {
+                processedTransactionsIndex.remove(removed);
+            }
+        }
+    }
+
+    public int processedCount() {
+        return processedTransactions.size();
+    }
+
+    /**
+     * Drop processed transactions and cached transactions to restore them from the unconfirmed transaction table
+     * on the next access
+     */
+    public void resetProcessedState() {
+        synchronized (processedTransactions) {
+            processedTransactions.clear();
+            processedTransactionsIndex.clear();
+            processedStateInitialized = false;
+        }
+        synchronized (this) {
+            transactionCache.clear();
+            cacheInitialized = false;
+        }
+    }
+
+    /**
+     * @return weakly consistent iterator over the processed transactions in the block generation order,
+     * transactions added or removed during the iteration may be not reflected
+     */
+    public Iterator<UnconfirmedTransaction> processedTransactionsIterator() {
+        return processedTransactionsIndex.stream().map(ProcessedTransaction::getTransaction).iterator();
+    }
+
     public Set<UnconfirmedTransaction> getFromCache(List<String> exclude) {
         TreeSet<UnconfirmedTransaction> sortedUnconfirmedTransactions = new TreeSet<>(cachedUnconfirmedTransactionComparator);
         transactionCache.values().forEach(transaction -> {
@@ -129,6 +202,10 @@ public class MemPoolInMemoryState {
 
     public void clear() {
         transactionCache.clear();
+        synchronized (processedTransactions) {
+            processedTransactions.clear();
+            processedTransactionsIndex.clear();
+        }
         txToBroadcastWhenConfirmed.clear();
         broadcastedTransactions.clear();
         broadcastPendingTransactions.clear();
@@ -188,6 +265,38 @@ public class MemPoolInMemoryState {
         return processLaterQueue.size();
     }
 
+    /**
+     * Processed transaction with its sort key captured on addition, since transaction height is changed,
+     * when the transaction is included into the generated or pushed block
+     */
+    private static final class ProcessedTransaction implements Comparable<ProcessedTransaction> {
+        private static final Comparator<ProcessedTransaction> ORDER =
+            comparingInt((ProcessedTransaction e) -> e.height)
+                .thenComparing(comparingLong((ProcessedTransaction e) -> e.feePerByte).reversed())
+                .thenComparingLong(e -> e.arrivalTimestamp)
+                .thenComparingLong(e -> e.id);
+
+        private final int height;
+        private final long feePerByte;
+        private final long arrivalTimestamp;
+        private final long id;
+        @Getter
+        private final UnconfirmedTransaction transaction;
+
+        private ProcessedTransaction(UnconfirmedTransaction transaction) {
+            this.height = transaction.getHeight();
+            this.feePerByte = transaction.getFeePerByte();
+            this.arrivalTimestamp = transaction.getArrivalTimestamp();
+            this.id = transaction.getId();
+            this.transaction = transaction;
+        }
+
+        @Override
+        public int compareTo(ProcessedTransaction o) {
+            return ORDER.compare(this, o);
+        }
+    }
+
     @Data
     private static class TxWithArrivalTimestamp {
         private final long arrivalTime = System.currentTimeMillis();
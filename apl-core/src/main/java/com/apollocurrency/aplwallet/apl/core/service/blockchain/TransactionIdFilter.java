@@ -0,0 +1,86 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.core.service.blockchain;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+/**
+ * Probabilistic set of the confirmed transaction ids stored in the main db and in the shard index, which allows to skip
+ * db lookups of the transactions, which are definitely not in the blockchain.
+ * <p>Ids are never removed, also for the transactions of the popped off blocks, so the filter has no false negatives
+ * and positive answer should be confirmed by the db. Filter, which is disabled or not loaded yet,
+ * answers positively for any id.</p>
+ * <p>Filter should be loaded, when blocks are not pushed, otherwise ids of the concurrently saved transactions may be lost</p>
+ */
+class TransactionIdFilter {
+    private static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+
+    private final boolean enabled;
+    private final long minCapacity;
+    private volatile BloomFilter<Long> filter;
+
+    /**
+     * @param enabled     whether filter should be used
+     * @param minCapacity minimal number of ids, for which filter is sized
+     */
+    TransactionIdFilter(boolean enabled, long minCapacity) {
+        this.enabled = enabled;
+        this.minCapacity = Math.max(minCapacity, 1);
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Create the new filter, which fits twice the given number of ids without the growth of the false positives rate
+     *
+     * @return new empty filter, which should be filled and then installed using {@link #install(BloomFilter)}
+     */
+    BloomFilter<Long> newFilter(long expectedIds) {
+        return BloomFilter.create(Funnels.longFunnel(), Math.max(minCapacity, expectedIds * 2), FALSE_POSITIVE_PROBABILITY);
+    }
+
+    void install(BloomFilter<Long> filter) {
+        if (enabled) {
+            this.filter = filter;
+        }
+    }
+
+    /**
+     * Replace the filter by the empty one, when all transactions were deleted
+     */
+    void clear() {
+        install(newFilter(0));
+    }
+
+    /**
+     * Unload the filter, so that all lookups go to the db
+     */
+    void unload() {
+        filter = null;
+    }
+
+    void add(long transactionId) {
+        BloomFilter<Long> current = filter;
+        if (current != null) {
+            current.put(transactionId);
+        }
+    }
+
+    /**
+     * @return false, when transaction is definitely not confirmed, true when transaction may be confirmed or filter is not loaded
+     */
+    boolean mightContain(long transactionId) {
+        BloomFilter<Long> current = filter;
+        return current == null || current.mightContain(transactionId);
+    }
+
+    long approximateSize() {
+        BloomFilter<Long> current = filter;
+        return current == null ? 0 : current.approximateElementCount();
+    }
+}
@@ -40,6 +40,23 @@ public interface FullTextSearchEngine {
      */
     void commitIndex() throws SQLException;
 
+    /**
+     * Make index updates visible for search without the commit to the disk. Search may be refreshed asynchronously
+     *
+     * @throws SQLException when index refresh error occurred
+     */
+    void refreshIndex() throws SQLException;
+
+    /**
+     * Get the greatest db_id of the table row, which is stored in the index by the last commit to the disk.
+     * All rows with lower or equal db_id are present in the index.
+     *
+     * @param schema name of db schema, where table is located
+     * @param table  table name
+     * @return the greatest committed db_id or -1, when there are no committed rows of the table
+     */
+    long getCommittedDbId(String schema, String table);
+
     /**
      * Clear index data and restart engine
      *
@@ -107,6 +107,7 @@ public class FullTextSearchServiceImpl implements FullTextSearchService {
             }
             if (triggersExist && alreadyInitialized) {
                 log.info("Fulltext support is already initialized");
+                indexUncommittedRows(conn);
                 return;
             }
             //
@@ -210,6 +211,28 @@ public class FullTextSearchServiceImpl implements FullTextSearchService {
     }
 
     public void reindex(Connection conn, String tableName, String schemaName) throws SQLException {
+        reindex(conn, tableName, schemaName, -1);
+    }
+
+    /**
+     * Index rows, which were inserted after the last commit of the index to the disk and may be lost on the crash.
+     * Rows deleted after the last commit may remain in the index, but they are not returned by the search,
+     * which is joined with the table by db_id.
+     */
+    private void indexUncommittedRows(Connection conn) throws SQLException {
+        try (Statement qstmt = conn.createStatement();
+             ResultSet rs = qstmt.executeQuery("SELECT * FROM FTL.INDEXES")) {
+            while (rs.next()) {
+                String schema = rs.getString("SCHEMA");
+                String table = rs.getString("TABLE");
+                long fromDbId = ftl.getCommittedDbId(schema, table);
+                log.debug("Index {}.{} rows with db_id > {}", schema, table, fromDbId);
+                reindex(conn, table, schema, fromDbId);
+            }
+        }
+    }
+
+    private void reindex(Connection conn, String tableName, String schemaName, long fromDbId) throws SQLException {
         //
         // Build the SELECT statement for just the indexed columns
         //
@@ -224,6 +247,9 @@ public class FullTextSearchServiceImpl implements FullTextSearchService {
             sb.append(", ").append(tableData.getColumnNames().get(index));
         }
         sb.append(" FROM ").append(tableName);
+        if (fromDbId >= 0) {
+            sb.append(" WHERE DB_ID > ").append(fromDbId);
+        }
         Object[] row = new Object[tableData.getColumnNames().size()];
         //
         // Index each row in the table
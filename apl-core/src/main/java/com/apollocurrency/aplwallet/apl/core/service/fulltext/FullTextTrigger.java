@@ -97,7 +97,7 @@ public class FullTextTrigger implements Trigger, TransactionCallback {
         if (!dataSource.isInTransaction()) {
             try {
                 lookupFullTextSearchEngine().commitRow(oldRow, newRow, tableData);
-                ftl.commitIndex();
+                ftl.refreshIndex();
             } catch (SQLException exc) {
                 log.error("Unable to update the Lucene index", exc);
             }
@@ -155,10 +155,10 @@ public class FullTextTrigger implements Trigger, TransactionCallback {
                 }
             }
             //
-            // Commit the index updates
+            // Make the index updates searchable, durable commit is performed by the engine in background
             //
             if (commit) {
-                lookupFullTextSearchEngine().commitIndex();
+                lookupFullTextSearchEngine().refreshIndex();
             }
         } catch (SQLException exc) {
             log.error("Unable to update the Lucene index", exc);
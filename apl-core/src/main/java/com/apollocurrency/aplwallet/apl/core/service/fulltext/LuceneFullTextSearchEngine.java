@@ -4,10 +4,13 @@
 
 package com.apollocurrency.aplwallet.apl.core.service.fulltext;
 
+import com.apollocurrency.aplwallet.apl.core.config.Property;
 import com.apollocurrency.aplwallet.apl.util.NtpTime;
 import com.apollocurrency.aplwallet.apl.util.ReadWriteUpdateLock;
 import com.apollocurrency.aplwallet.apl.util.annotation.DatabaseSpecificDml;
 import com.apollocurrency.aplwallet.apl.util.annotation.DmlMarker;
+import com.apollocurrency.aplwallet.apl.util.task.NamedThreadFactory;
+import com.apollocurrency.aplwallet.apl.util.task.Tasks;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.document.DateTools;
@@ -15,7 +18,6 @@ import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
-import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.Term;
@@ -24,6 +26,8 @@ import org.apache.lucene.queryparser.classic.QueryParser;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherFactory;
+import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
@@ -40,26 +44,50 @@ import java.nio.file.Path;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
+/**
+ * Lucene index with near-real-time search.
+ * <p>Index updates are made visible for search by the reopen of the searcher from the index writer without the commit to the disk.
+ * Reopen is performed by the background thread each {@code apl.fullTextSearchRefreshInterval} ms, when there are new updates, and the
+ * durable commit is performed each {@code apl.fullTextSearchCommitInterval} seconds, so that the disk sync is not performed on the database
+ * transaction commit. When the refresh interval is 0, searcher is reopened synchronously on each {@link #refreshIndex()}.</p>
+ * <p>Each durable commit stores the greatest indexed db_id of each table, so that only rows inserted after the last durable commit
+ * should be indexed again after the crash, see {@link #getCommittedDbId(String, String)}</p>
+ */
 @Singleton
 @DatabaseSpecificDml(DmlMarker.FULL_TEXT_SEARCH)
 public class LuceneFullTextSearchEngine implements FullTextSearchEngine {
     private static final Logger LOG = LoggerFactory.getLogger(LuceneFullTextSearchEngine.class);
+    private static final String COMMITTED_DB_ID_PREFIX = "dbId.";
     /**
-     * Lucene index reader (thread-safe)
+     * Lucene near-real-time searcher manager (thread-safe)
      */
-    private static DirectoryReader indexReader;
+    private SearcherManager searcherManager;
     /**
-     * Lucene index searcher (thread-safe)
+     * Lucene index writer (thread-safe)
      */
-    private static IndexSearcher indexSearcher;
+    private IndexWriter indexWriter;
     /**
-     * Lucene index writer (thread-safe)
+     * Greatest indexed db_id of each table, stored into the index on commit
+     */
+    private final Map<String, Long> indexedDbIds = new ConcurrentHashMap<>();
+    /**
+     * Greatest db_id of each table stored by the last durable commit
      */
-    private static IndexWriter indexWriter;
+    private volatile Map<String, Long> committedDbIds = Map.of();
+    private volatile boolean refreshRequired;
+    private volatile boolean commitRequired;
+    private final Object commitLock = new Object();
+    private ScheduledExecutorService indexScheduler;
     /**
      * Index lock
      */
@@ -70,12 +98,25 @@ public class LuceneFullTextSearchEngine implements FullTextSearchEngine {
     private final Analyzer analyzer = new StandardAnalyzer();
     private NtpTime ntpTime;
     private Path indexDirPath;
+    private final int refreshInterval;
+    private final int commitInterval;
 
+    public LuceneFullTextSearchEngine(NtpTime ntpTime, Path indexPath) {
+        this(ntpTime, indexPath, 0, 0);
+    }
 
+    /**
+     * @param refreshInterval interval in ms between searcher reopens, 0 to reopen searcher synchronously on each refresh
+     * @param commitInterval  interval in seconds between durable commits, 0 to commit only by the {@link #commitIndex()}
+     */
     @Inject
-    public LuceneFullTextSearchEngine(NtpTime ntpTime, @Named("indexDirPath") Path indexPath) {
+    public LuceneFullTextSearchEngine(NtpTime ntpTime, @Named("indexDirPath") Path indexPath,
+                                      @Property(value = "apl.fullTextSearchRefreshInterval", defaultValue = "1000") int refreshInterval,
+                                      @Property(value = "apl.fullTextSearchCommitInterval", defaultValue = "60") int commitInterval) {
         this.ntpTime = ntpTime;
         this.indexDirPath = indexPath;
+        this.refreshInterval = refreshInterval;
+        this.commitInterval = commitInterval;
         if (!Files.exists(indexPath)) {
             try {
                 Files.createDirectories(indexPath);
@@ -95,8 +136,9 @@ public class LuceneFullTextSearchEngine implements FullTextSearchEngine {
             List<String> columnNames = tableData.getColumnNames();
             List<Integer> indexColumns = tableData.getIndexColumns();
             int dbColumn = tableData.getDbIdColumnPosition();
-            String tableName = tableData.getSchema().toUpperCase() + "." + tableData.getTable().toUpperCase();
-            String query = tableName + ";" + columnNames.get(dbColumn) + ";" + (long) row[dbColumn];
+            String tableName = tableName(tableData.getSchema(), tableData.getTable());
+            long dbId = (long) row[dbColumn];
+            String query = rowQuery(tableName, columnNames.get(dbColumn), dbId);
             Document document = new Document();
             document.add(new StringField("_QUERY", query, Field.Store.YES));
             long now = ntpTime.getTime();
@@ -110,6 +152,8 @@ public class LuceneFullTextSearchEngine implements FullTextSearchEngine {
             }
             document.add(new TextField("_DATA", sj.toString(), Field.Store.NO));
             indexWriter.updateDocument(new Term("_QUERY", query), document);
+            indexedDbIds.merge(tableName, dbId, Math::max);
+            commitRequired = true;
         } catch (IOException exc) {
             LOG.error("Unable to index row", exc);
             throw new SQLException("Unable to index row", exc);
@@ -135,11 +179,12 @@ public class LuceneFullTextSearchEngine implements FullTextSearchEngine {
     }
 
     private void deleteRow(Object[] row, TableData tableData) throws SQLException {
-        String query =
-            tableData.getTable() + ";" + tableData.getColumnNames().get(tableData.getDbIdColumnPosition()) + ";" + (long) row[tableData.getDbIdColumnPosition()];
+        String query = rowQuery(tableName(tableData.getSchema(), tableData.getTable()),
+            tableData.getColumnNames().get(tableData.getDbIdColumnPosition()), (long) row[tableData.getDbIdColumnPosition()]);
         indexLock.readLock().lock();
         try {
             indexWriter.deleteDocuments(new Term("_QUERY", query));
+            commitRequired = true;
         } catch (IOException exc) {
             LOG.error("Unable to delete indexed row", exc);
             throw new SQLException("Unable to delete indexed row", exc);
@@ -153,6 +198,21 @@ public class LuceneFullTextSearchEngine implements FullTextSearchEngine {
      */
     @Override
     public void init() throws IOException {
+        openIndex();
+        synchronized (this) {
+            if (indexScheduler == null && (refreshInterval > 0 || commitInterval > 0)) {
+                indexScheduler = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("apl-fulltext-index"));
+                if (refreshInterval > 0) {
+                    indexScheduler.scheduleWithFixedDelay(this::refreshSearcher, refreshInterval, refreshInterval, TimeUnit.MILLISECONDS);
+                }
+                if (commitInterval > 0) {
+                    indexScheduler.scheduleWithFixedDelay(this::commitChanges, commitInterval, commitInterval, TimeUnit.SECONDS);
+                }
+            }
+        }
+    }
+
+    private void openIndex() throws IOException {
         boolean obtainedUpdateLock = false;
         if (!indexLock.writeLock().hasLock()) {
             indexLock.updateLock().lock();
@@ -166,12 +226,23 @@ public class LuceneFullTextSearchEngine implements FullTextSearchEngine {
                 config.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
                 Directory indexDir = FSDirectory.open(indexDirPath);
                 indexWriter = new IndexWriter(indexDir, config);
+                Map<String, Long> dbIds = new HashMap<>();
+                Iterable<Map.Entry<String, String>> commitData = indexWriter.getLiveCommitData();
+                if (commitData != null) {
+                    for (Map.Entry<String, String> entry : commitData) {
+                        if (entry.getKey().startsWith(COMMITTED_DB_ID_PREFIX)) {
+                            dbIds.put(entry.getKey().substring(COMMITTED_DB_ID_PREFIX.length()), Long.parseLong(entry.getValue()));
+                        }
+                    }
+                }
+                indexedDbIds.clear();
+                indexedDbIds.putAll(dbIds);
+                committedDbIds = Map.copyOf(dbIds);
                 Document document = new Document();
                 document.add(new StringField("_QUERY", "_CONTROL_DOCUMENT_", Field.Store.YES));
                 indexWriter.updateDocument(new Term("_QUERY", "_CONTROL_DOCUMENT_"), document);
-                indexWriter.commit();
-                indexReader = DirectoryReader.open(indexDir);
-                indexSearcher = new IndexSearcher(indexReader);
+                commit();
+                searcherManager = new SearcherManager(indexWriter, new SearcherFactory());
             } finally {
                 indexLock.writeLock().unlock();
             }
@@ -191,20 +262,93 @@ public class LuceneFullTextSearchEngine implements FullTextSearchEngine {
      */
     @Override
     public void commitIndex() throws SQLException {
-        indexLock.writeLock().lock();
+        indexLock.readLock().lock();
         try {
-            indexWriter.commit();
-            DirectoryReader newReader = DirectoryReader.openIfChanged(indexReader);
-            if (newReader != null) {
-                indexReader.close();
-                indexReader = newReader;
-                indexSearcher = new IndexSearcher(indexReader);
-            }
+            commit();
+            refreshRequired = false;
+            searcherManager.maybeRefreshBlocking();
         } catch (IOException exc) {
             LOG.error("Unable to commit Lucene index updates", exc);
             throw new SQLException("Unable to commit Lucene index updates", exc);
         } finally {
-            indexLock.writeLock().unlock();
+            indexLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void refreshIndex() throws SQLException {
+        if (refreshInterval > 0) {
+            refreshRequired = true;
+            return;
+        }
+        indexLock.readLock().lock();
+        try {
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException exc) {
+            LOG.error("Unable to refresh Lucene index searcher", exc);
+            throw new SQLException("Unable to refresh Lucene index searcher", exc);
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getCommittedDbId(String schema, String table) {
+        return committedDbIds.getOrDefault(tableName(schema, table), -1L);
+    }
+
+    /**
+     * Commit index updates to the disk with the greatest indexed db_id of each table. Db ids are collected before the commit, so that
+     * stored db ids can only be lower than db ids of the committed rows, which will lead to the excess reindex after the crash only
+     */
+    private void commit() throws IOException {
+        synchronized (commitLock) {
+            commitRequired = false;
+            Map<String, Long> dbIds = Map.copyOf(indexedDbIds);
+            Map<String, String> commitData = new HashMap<>();
+            dbIds.forEach((table, dbId) -> commitData.put(COMMITTED_DB_ID_PREFIX + table, String.valueOf(dbId)));
+            indexWriter.setLiveCommitData(commitData.entrySet());
+            indexWriter.commit();
+            committedDbIds = dbIds;
+        }
+    }
+
+    private void refreshSearcher() {
+        if (!refreshRequired) {
+            return;
+        }
+        indexLock.readLock().lock();
+        try {
+            if (searcherManager != null) {
+                refreshRequired = false;
+                searcherManager.maybeRefresh();
+            }
+        } catch (Throwable e) {
+            LOG.error("Unable to refresh Lucene index searcher", e);
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    private void commitChanges() {
+        if (!commitRequired) {
+            return;
+        }
+        indexLock.readLock().lock();
+        try {
+            if (indexWriter != null) {
+                commit();
+            }
+        } catch (Throwable e) {
+            LOG.error("Unable to commit Lucene index updates", e);
+        } finally {
+            indexLock.readLock().unlock();
         }
     }
 
@@ -221,14 +365,14 @@ public class LuceneFullTextSearchEngine implements FullTextSearchEngine {
                 //
                 // Delete the index files
                 //
-                shutdown();
+                closeIndex();
                 try (Stream<Path> stream = Files.list(indexDirPath)) {
                     Path[] paths = stream.toArray(Path[]::new);
                     for (Path path : paths) {
                         Files.delete(path);
                     }
                 }
-                init();
+                openIndex();
                 LOG.info("Lucene search index deleted");
             } catch (IOException exc) {
                 LOG.error("Unable to remove Lucene index files", exc);
@@ -262,8 +406,10 @@ public class LuceneFullTextSearchEngine implements FullTextSearchEngine {
         // The _DATA field contains the indexed row data (this is the default search field)
         // The _MODIFIED field contains the row modification time (YYYYMMDDhhmmss) in GMT
         //
+        IndexSearcher indexSearcher = null;
         indexLock.readLock().lock();
         try {
+            indexSearcher = searcherManager.acquire();
             QueryParser parser = new QueryParser("_DATA", analyzer);
             parser.setDateResolution("_MODIFIED", DateTools.Resolution.SECOND);
             parser.setDefaultOperator(QueryParser.Operator.AND);
@@ -289,6 +435,13 @@ public class LuceneFullTextSearchEngine implements FullTextSearchEngine {
             LOG.error("Unable to search Lucene index", exc);
             throw new SQLException("Unable to search Lucene index", exc);
         } finally {
+            try {
+                if (indexSearcher != null) {
+                    searcherManager.release(indexSearcher);
+                }
+            } catch (IOException exc) {
+                LOG.error("Unable to release Lucene index searcher", exc);
+            }
             indexLock.readLock().unlock();
         }
         return result;
@@ -299,19 +452,39 @@ public class LuceneFullTextSearchEngine implements FullTextSearchEngine {
      */
     @Override
     public void shutdown() {
+        synchronized (this) {
+            Tasks.shutdownExecutor("apl-fulltext-index", indexScheduler, 5);
+            indexScheduler = null;
+        }
+        closeIndex();
+    }
+
+    private void closeIndex() {
         indexLock.writeLock().lock();
         try {
-            commitIndex();
-            if (indexReader != null) {
-                indexReader.close();
+            if (indexWriter != null) {
+                commit();
+            }
+            if (searcherManager != null) {
+                searcherManager.close();
             }
             if (indexWriter != null) {
                 indexWriter.close();
             }
-        } catch (IOException | SQLException exc) {
+        } catch (IOException exc) {
             LOG.error("Unable to remove Lucene index access", exc);
         } finally {
+            searcherManager = null;
+            indexWriter = null;
             indexLock.writeLock().unlock();
         }
     }
+
+    private static String tableName(String schema, String table) {
+        return schema.toUpperCase() + "." + table.toUpperCase();
+    }
+
+    private static String rowQuery(String tableName, String dbIdColumn, long dbId) {
+        return tableName + ";" + dbIdColumn + ";" + dbId;
+    }
 }
@@ -23,7 +23,7 @@ import java.util.List;
 public interface AccountService {
 
     static long getId(byte[] publicKey) {
-        byte[] publicKeyHash = Crypto.sha256().digest(publicKey);
+        byte[] publicKeyHash = Crypto.digestSha256(publicKey);
         return Convert.fullHashToId(publicKeyHash);
     }
 
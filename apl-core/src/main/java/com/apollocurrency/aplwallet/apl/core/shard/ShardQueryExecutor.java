@@ -0,0 +1,160 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.core.shard;
+
+import com.apollocurrency.aplwallet.apl.core.dao.TransactionalDataSource;
+import com.apollocurrency.aplwallet.apl.util.task.NamedThreadFactory;
+import com.apollocurrency.aplwallet.apl.util.task.Tasks;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Scatter-gather executor of the read queries across the shard data sources.
+ * <p>Data sources are queried concurrently in the given order, results are merged in the same order, so that for the data sources
+ * sorted from the newest shard to the oldest one, rows ordered by height descending stay ordered. Queries of the data sources,
+ * which are not required to fill the page, are cancelled, if they are not started yet.
+ * Latency of each query is logged with the data source identity.</p>
+ * <p>Executor without threads queries data sources one by one in the calling thread, skipping not required ones.</p>
+ */
+@Slf4j
+public class ShardQueryExecutor {
+    private final ExecutorService executor;
+
+    /**
+     * @param threads max number of the concurrent queries, 0 to query data sources in the calling thread
+     */
+    public ShardQueryExecutor(int threads) {
+        if (threads > 0) {
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new NamedThreadFactory("apl-shard-query", true));
+            pool.allowCoreThreadTimeOut(true);
+            this.executor = pool;
+        } else {
+            this.executor = null;
+        }
+    }
+
+    /**
+     * Get the page of rows of all data sources using per data source row counts, so that only data sources, which
+     * have rows of the page are queried and each of them is queried only for its part of the page. Rows are counted concurrently,
+     * data source is queried as soon as its row count and row counts of all previous data sources are known
+     *
+     * @param queryName name of the query for logging
+     * @param dataSources data sources in the order of their rows
+     * @param from index of the first row of the page in all data sources
+     * @param limit max number of rows of the page, {@link Integer#MAX_VALUE} for all rows
+     * @param count counter of the data source rows
+     * @param query query of the data source rows between the inclusive from and to indexes
+     * @return rows of the page in the order of data sources
+     */
+    public <T> List<T> fetchPage(String queryName, List<TransactionalDataSource> dataSources, int from, int limit,
+                                 ToIntFunction<TransactionalDataSource> count, PageQuery<T> query) {
+        List<Future<Integer>> counts = submit(queryName + " count", dataSources, count::applyAsInt);
+        List<Future<List<T>>> pages = new ArrayList<>();
+        long skip = Math.max(from, 0);
+        long remaining = limit == Integer.MAX_VALUE ? Long.MAX_VALUE : limit;
+        for (int i = 0; i < counts.size(); i++) {
+            if (remaining <= 0) {
+                cancel(counts, i);
+                break;
+            }
+            int rowCount = await(counts.get(i));
+            if (skip >= rowCount) {
+                skip -= rowCount;
+                continue;
+            }
+            int pageFrom = (int) skip;
+            int pageTo = (int) (pageFrom + Math.min(rowCount - skip, remaining) - 1);
+            remaining -= pageTo - pageFrom + 1;
+            skip = 0;
+            pages.add(submit(queryName, dataSources.get(i), dataSource -> query.fetch(dataSource, pageFrom, pageTo)));
+        }
+        List<T> result = new ArrayList<>();
+        for (Future<List<T>> page : pages) {
+            result.addAll(await(page));
+        }
+        return result;
+    }
+
+    /**
+     * Query all data sources and sum results, e.g. row counts
+     */
+    public long sum(String queryName, List<TransactionalDataSource> dataSources, ToLongFunction<TransactionalDataSource> query) {
+        long sum = 0;
+        for (Future<Long> future : submit(queryName, dataSources, query::applyAsLong)) {
+            sum += await(future);
+        }
+        return sum;
+    }
+
+    public void shutdown() {
+        if (executor != null) {
+            Tasks.shutdownExecutor("ShardQueryExecutor", executor, 5);
+        }
+    }
+
+    private <R> List<Future<R>> submit(String queryName, List<TransactionalDataSource> dataSources, Function<TransactionalDataSource, R> query) {
+        List<Future<R>> futures = new ArrayList<>(dataSources.size());
+        for (TransactionalDataSource dataSource : dataSources) {
+            futures.add(submit(queryName, dataSource, query));
+        }
+        return futures;
+    }
+
+    private <R> Future<R> submit(String queryName, TransactionalDataSource dataSource, Function<TransactionalDataSource, R> query) {
+        RunnableFuture<R> task = new FutureTask<>(() -> {
+            long start = System.currentTimeMillis();
+            R result = query.apply(dataSource);
+            log.debug("{} on {} done in {} ms", queryName, dataSource.getDbIdentity(), System.currentTimeMillis() - start);
+            return result;
+        });
+        if (executor != null) {
+            executor.execute(task);
+        }
+        return task;
+    }
+
+    private <R> R await(Future<R> future) {
+        if (executor == null) {
+            ((RunnableFuture<R>) future).run();
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the shard query", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause().toString(), e.getCause());
+        }
+    }
+
+    private void cancel(List<? extends Future<?>> futures, int fromIndex) {
+        // running queries are not interrupted, interruption may close the db file channels
+        for (int i = fromIndex; i < futures.size(); i++) {
+            futures.get(i).cancel(false);
+        }
+    }
+
+    @FunctionalInterface
+    public interface PageQuery<T> {
+        List<T> fetch(TransactionalDataSource dataSource, int from, int to);
+    }
+}
@@ -56,13 +56,13 @@ public class MultiSigCredential implements Credential {
         if (o == null || getClass() != o.getClass()) return false;
         MultiSigCredential that = (MultiSigCredential) o;
         return threshold == that.threshold &&
-            Arrays.equals(keys, that.keys);
+            Arrays.deepEquals(keys, that.keys);
     }
 
     @Override
     public int hashCode() {
         int result = Objects.hash(threshold);
-        result = 31 * result + Arrays.hashCode(keys);
+        result = 31 * result + Arrays.deepHashCode(keys);
         return result;
     }
 }
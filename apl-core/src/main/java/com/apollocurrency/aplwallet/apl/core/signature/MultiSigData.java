@@ -30,7 +30,7 @@ class MultiSigData implements MultiSig {
     private final byte[] payload;
     private final short count;
     private final Map<KeyId, byte[]> signaturesMap;
-    private boolean verified = false;
+    private volatile Credential verifiedCredential;
 
     public MultiSigData(byte[] publicKey, byte[] signature) {
         this(1, new byte[Parser.PAYLOAD_LENGTH]);
@@ -51,8 +51,8 @@ class MultiSigData implements MultiSig {
         this.signaturesMap = new HashMap<>();
     }
 
-    void setVerified(boolean verified) {
-        this.verified = verified;
+    void setVerified(boolean verified, Credential credential) {
+        this.verifiedCredential = verified ? credential : null;
     }
 
     @Override
@@ -62,7 +62,12 @@ class MultiSigData implements MultiSig {
 
     @Override
     public boolean isVerified() {
-        return verified;
+        return verifiedCredential != null;
+    }
+
+    @Override
+    public boolean isVerifiedWith(Credential credential) {
+        return credential != null && credential.equals(verifiedCredential);
     }
 
     @Override
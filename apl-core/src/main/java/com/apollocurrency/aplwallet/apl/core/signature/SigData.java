@@ -18,19 +18,24 @@ import java.util.Objects;
 @Slf4j
 class SigData implements Signature {
     private final byte[] signature;
-    private boolean verified = false;
+    private volatile Credential verifiedCredential;
 
     public SigData(byte[] signature) {
         this.signature = Objects.requireNonNull(signature);
     }
 
-    void setVerified(boolean verified) {
-        this.verified = verified;
+    void setVerified(boolean verified, Credential credential) {
+        this.verifiedCredential = verified ? credential : null;
     }
 
     @Override
     public boolean isVerified() {
-        return verified;
+        return verifiedCredential != null;
+    }
+
+    @Override
+    public boolean isVerifiedWith(Credential credential) {
+        return credential != null && credential.equals(verifiedCredential);
     }
 
     @Override
@@ -29,4 +29,14 @@ public interface Signature {
      */
     boolean isVerified();
 
+    /**
+     * Return true if signature is already verified with the given credential.
+     * The verification result is not reused for another credential, i.e. when the signer account became a child account
+     * after the signature was verified
+     *
+     * @param credential credential, which is going to be used for the signature verification
+     * @return true if signature was successfully verified with the same credential
+     */
+    boolean isVerifiedWith(Credential credential);
+
 }
@@ -138,7 +138,7 @@ public class SignatureToolFactory {
                     }
                 }
             }
-            multiSigData.setVerified(multiSigCredential.getThreshold() == verifiedPks.size());
+            multiSigData.setVerified(multiSigCredential.getThreshold() == verifiedPks.size(), multiSigCredential);
             if (log.isTraceEnabled()) {
                 log.trace("#MULTI_SIG# verified pk count={} multi-signature: {} isVerified={}",
                     verifiedPks.size(),
@@ -164,7 +164,8 @@ public class SignatureToolFactory {
                     Convert.toHexString(document));
             }
             sigData.setVerified(
-                Crypto.verify(sigData.bytes(), document, signatureCredential.getKey())
+                Crypto.verify(sigData.bytes(), document, signatureCredential.getKey()),
+                signatureCredential
             );
             if (log.isTraceEnabled()) {
                 log.trace("#MULTI_SIG# verify isVerified={} signature={}", sigData.isVerified(), sigData.getHexString());
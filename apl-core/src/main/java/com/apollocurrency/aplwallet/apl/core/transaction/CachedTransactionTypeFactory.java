@@ -7,12 +7,12 @@ package com.apollocurrency.aplwallet.apl.core.transaction;
 import javax.enterprise.inject.Instance;
 import javax.inject.Singleton;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Singleton
 public class CachedTransactionTypeFactory implements TransactionTypeFactory {
-    private Map<TypeSubtype, TransactionType> types = new HashMap<>();
+    private final Map<TypeSubtype, TransactionType> types = new ConcurrentHashMap<>();
 
     public CachedTransactionTypeFactory() {
         }
@@ -21,10 +21,9 @@ public class CachedTransactionTypeFactory implements TransactionTypeFactory {
     private void putIfNotPresent(TransactionType type) {
         TransactionTypes.TransactionTypeSpec spec = type.getSpec();
         TypeSubtype typeSubtype = new TypeSubtype(spec.getType(), spec.getSubtype());
-        if (types.containsKey(typeSubtype)) {
+        if (types.putIfAbsent(typeSubtype, type) != null) {
             throw new IllegalStateException("Duplicate instance for type: " + typeSubtype);
         }
-        types.put(typeSubtype, type);
     }
 
     public void init(Instance<TransactionType> typeInstances) {
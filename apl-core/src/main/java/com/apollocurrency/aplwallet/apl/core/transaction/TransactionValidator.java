@@ -33,6 +33,7 @@ import lombok.extern.slf4j.Slf4j;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.util.Optional;
 
 @Slf4j
 @Singleton
@@ -49,11 +50,13 @@ public class TransactionValidator {
     private final KeyValidator keyValidator;
     private final AppendixValidatorRegistry validatorRegistry;
     private final AntifraudValidator antifraudValidator;
+    private final VerifiedSignatureCache verifiedSignatureCache;
 
     @Inject
     public TransactionValidator(BlockchainConfig blockchainConfig, PhasingPollService phasingPollService,
                                 Blockchain blockchain, FeeCalculator feeCalculator, AccountService accountService,
-                                AccountPublicKeyService accountPublicKeyService, AccountControlPhasingService accountControlPhasingService, TransactionVersionValidator transactionVersionValidator, PrunableLoadingService prunableService, AppendixValidatorRegistry validatorRegistry) {
+                                AccountPublicKeyService accountPublicKeyService, AccountControlPhasingService accountControlPhasingService, TransactionVersionValidator transactionVersionValidator, PrunableLoadingService prunableService, AppendixValidatorRegistry validatorRegistry,
+                                VerifiedSignatureCache verifiedSignatureCache) {
         this.blockchainConfig = blockchainConfig;
         this.phasingPollService = phasingPollService;
         this.blockchain = blockchain;
@@ -66,6 +69,7 @@ public class TransactionValidator {
         this.keyValidator = new PublicKeyValidator(accountPublicKeyService);
         this.validatorRegistry = validatorRegistry;
         this.antifraudValidator = new AntifraudValidator();
+        this.verifiedSignatureCache = verifiedSignatureCache;
     }
 
 
@@ -269,29 +273,14 @@ public class TransactionValidator {
         if (sender == null) {
             log.trace("Sender account not found, senderId={}", transaction.getSenderId());
         }
-        @ParentChildSpecific(ParentMarker.MULTI_SIGNATURE)
-        Credential signatureCredential;
         SignatureVerifier signatureVerifier = SignatureToolFactory.selectValidator(transaction.getVersion()).orElseThrow(UnsupportedTransactionVersion::new);
         if (log.isTraceEnabled()) {
             log.trace("#MULTI_SIG# verify signature validator class={}", signatureVerifier.getClass().getName());
         }
-        if (sender != null && sender.isChild()) {
-            //multi-signature
-            if (transaction.getVersion() < 2) {
-                log.error("Inconsistent transaction fields, the value of the sender property 'parent' doesn't match the transaction version.");
-                return false;
-            }
-            signatureCredential = new MultiSigCredential(2,
-                accountService.getPublicKeyByteArray(sender.getParentId()),
-                transaction.getSenderPublicKey()
-            );
-        } else {
-            //only one signer
-            if (transaction.getVersion() < 2) {
-                signatureCredential = new SignatureCredential(transaction.getSenderPublicKey());
-            } else {
-                signatureCredential = new MultiSigCredential(transaction.getSenderPublicKey());
-            }
+        @ParentChildSpecific(ParentMarker.MULTI_SIGNATURE)
+        Credential signatureCredential = createSignatureCredential(sender, transaction);
+        if (signatureCredential == null) {
+            return false;
         }
         if (log.isTraceEnabled()) {
             log.trace("#MULTI_SIG# verify credential={}", signatureCredential);
@@ -300,7 +289,10 @@ public class TransactionValidator {
             return false;
         }
 
-        if (transaction.getSignature() != null && transaction.getSignature().isVerified()) {
+        // signature may be verified ahead of time for another credential (i.e. before the sender became a child account)
+        if (transaction.getSignature().isVerifiedWith(signatureCredential)
+            || verifiedSignatureCache.isVerified(transaction, signatureCredential)) {
+            transaction.withValidSignature();
             return true;
         } else {
             if (log.isTraceEnabled()) {
@@ -315,11 +307,73 @@ public class TransactionValidator {
             );
             if (verifiedOk) {
                 transaction.withValidSignature();
+                verifiedSignatureCache.verified(transaction, signatureCredential);
             }
             return verifiedOk;
         }
     }
 
+    /**
+     * Perform only the cryptographic part of the {@link #checkSignature(Account, Transaction)} routine:
+     * resolve the signature credential (including multi-signature credential for child accounts) and verify the signature.
+     * Successful result is cached inside the transaction {@link com.apollocurrency.aplwallet.apl.core.signature.Signature}
+     * together with the credential, so that the subsequent {@link #verifySignature(Transaction)} call will perform only the stateful public key checks,
+     * when the credential resolved under the lock is the same, otherwise the signature will be verified again.
+     * <p>Public keys are NOT validated and NOT assigned to accounts here, that is why this method
+     * does not change any state and may be called concurrently for different transactions, even when
+     * the accounts are changed concurrently by the block processing.</p>
+     *
+     * @param transaction transaction to verify
+     * @return true when signature is valid for the resolved credential, otherwise false
+     */
+    public boolean verifySignatureOnly(Transaction transaction) {
+        if (transaction.hasValidSignature()) {
+            return true;
+        }
+        if (transaction.getSignature() == null) {
+            return false;
+        }
+        Optional<SignatureVerifier> signatureVerifier = SignatureToolFactory.selectValidator(transaction.getVersion());
+        if (signatureVerifier.isEmpty()) {
+            return false;
+        }
+        Credential signatureCredential = createSignatureCredential(accountService.getAccount(transaction.getSenderId()), transaction);
+        if (signatureCredential == null) {
+            return false;
+        }
+        if (transaction.getSignature().isVerifiedWith(signatureCredential) || verifiedSignatureCache.isVerified(transaction, signatureCredential)) {
+            return true;
+        }
+        boolean verifiedOk = signatureVerifier.get().verify(transaction.getUnsignedBytes(), transaction.getSignature(), signatureCredential);
+        if (verifiedOk) {
+            verifiedSignatureCache.verified(transaction, signatureCredential);
+        }
+        return verifiedOk;
+    }
+
+    private Credential createSignatureCredential(Account sender, Transaction transaction) {
+        Credential signatureCredential;
+        if (sender != null && sender.isChild()) {
+            //multi-signature
+            if (transaction.getVersion() < 2) {
+                log.error("Inconsistent transaction fields, the value of the sender property 'parent' doesn't match the transaction version.");
+                return null;
+            }
+            signatureCredential = new MultiSigCredential(2,
+                accountService.getPublicKeyByteArray(sender.getParentId()),
+                transaction.getSenderPublicKey()
+            );
+        } else {
+            //only one signer
+            if (transaction.getVersion() < 2) {
+                signatureCredential = new SignatureCredential(transaction.getSenderPublicKey());
+            } else {
+                signatureCredential = new MultiSigCredential(transaction.getSenderPublicKey());
+            }
+        }
+        return signatureCredential;
+    }
+
 
     public boolean verifySignature(Transaction transaction) {
         return checkSignature(transaction) && accountPublicKeyService.setOrVerifyPublicKey(transaction.getSenderId(), transaction.getSenderPublicKey());
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.core.transaction;
+
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Transaction;
+import com.apollocurrency.aplwallet.apl.core.signature.Credential;
+import com.apollocurrency.aplwallet.apl.core.signature.MultiSigCredential;
+import com.apollocurrency.aplwallet.apl.core.signature.SignatureCredential;
+import com.apollocurrency.aplwallet.apl.crypto.Crypto;
+import com.apollocurrency.aplwallet.apl.util.cache.CacheProducer;
+import com.apollocurrency.aplwallet.apl.util.cache.CacheType;
+import com.google.common.cache.Cache;
+import com.google.common.hash.HashCode;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+
+import static com.apollocurrency.aplwallet.apl.core.cache.VerifiedSignatureCacheConfig.VERIFIED_SIGNATURE_CACHE_NAME;
+
+/**
+ * Bounded cache of the transactions, which signatures were successfully verified, keyed by the transaction full hash
+ * and the credential used for the verification.
+ * Full hash covers unsigned transaction bytes (including sender public key) and the signature, so that
+ * a transaction found in the cache does not require the repeated {@link com.apollocurrency.aplwallet.apl.crypto.Crypto#verify}
+ * call, when it is received again as a part of a block after the mempool admission.
+ * Credential depends on the sender account (parent public key of the child account), so that the transaction
+ * verified with another credential is verified again.
+ * <p>Only the cryptographic check result is cached, stateful public key checks should be performed anyway.</p>
+ * <p>Hit/miss statistics are available through the {@link com.apollocurrency.aplwallet.apl.util.cache.InMemoryCacheManager}</p>
+ */
+@Singleton
+public class VerifiedSignatureCache {
+    private final Cache<HashCode, Boolean> cache;
+
+    @Inject
+    public VerifiedSignatureCache(@CacheProducer
+                                  @CacheType(VERIFIED_SIGNATURE_CACHE_NAME)
+                                      Cache<HashCode, Boolean> cache) {
+        this.cache = cache;
+    }
+
+    public boolean isVerified(Transaction transaction, Credential credential) {
+        if (cache == null) {
+            return false;
+        }
+        return cache.getIfPresent(key(transaction, credential)) != null;
+    }
+
+    public void verified(Transaction transaction, Credential credential) {
+        if (cache != null) {
+            cache.put(key(transaction, credential), Boolean.TRUE);
+        }
+    }
+
+    private static HashCode key(Transaction transaction, Credential credential) {
+        MessageDigest digest = Crypto.sha256();
+        digest.update(transaction.getFullHash());
+        if (credential instanceof MultiSigCredential) {
+            MultiSigCredential multiSigCredential = (MultiSigCredential) credential;
+            digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(multiSigCredential.getThreshold()).array());
+            for (byte[] key : multiSigCredential.getKeys()) {
+                digest.update(key);
+            }
+        } else if (credential instanceof SignatureCredential) {
+            digest.update(((SignatureCredential) credential).getKey());
+        } else {
+            throw new IllegalArgumentException("Unsupported credential type: " + credential);
+        }
+        return HashCode.fromBytes(digest.digest());
+    }
+}
@@ -17,6 +17,7 @@ import com.apollocurrency.aplwallet.apl.core.service.state.DerivedTablesRegistry
 import com.apollocurrency.aplwallet.apl.core.shard.observer.DeleteOnTrimData;
 import com.apollocurrency.aplwallet.apl.core.utils.CollectionUtil;
 import com.apollocurrency.aplwallet.apl.exchange.model.ExchangeContract;
+import com.apollocurrency.aplwallet.apl.exchange.model.ExchangeContractStatus;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.enterprise.event.Event;
@@ -26,7 +27,11 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Use DexContractDao for not transactional operations. ( f.e. search)
@@ -45,6 +50,7 @@ public class DexContractTable extends EntityDbTable<ExchangeContract> {
 
     private static final String TABLE_NAME = "dex_contract";
     private ExchangeContractMapper mapper = new ExchangeContractMapper();
+    private final ExpiryIndex overdueIndex = new ExpiryIndex("dex contract");
 
     @Inject
     public DexContractTable(DerivedTablesRegistry derivedDbTablesRegistry,
@@ -141,33 +147,68 @@ public class DexContractTable extends EntityDbTable<ExchangeContract> {
     }
 
     public List<ExchangeContract> getOverdueContractsStep1and2(int deadlineToReply) throws AplException.ExecutiveProcessException {
-        String sql = "SELECT * FROM dex_contract  where latest = true " +
-            "AND status IN (0,1) AND deadline_to_reply < ?";
-
-        return getOverdueContracts(deadlineToReply, sql);
+        return getOverdueContracts(deadlineToReply, ExchangeContractStatus.STEP_2);
     }
 
     public List<ExchangeContract> getOverdueContractsStep1_2_3(int deadlineToReply) throws AplException.ExecutiveProcessException {
-        String sql = "SELECT * FROM dex_contract  where latest = true " +
-            "AND status IN (0,1,2) AND deadline_to_reply < ?";
+        return getOverdueContracts(deadlineToReply, ExchangeContractStatus.STEP_3);
+    }
 
-        return getOverdueContracts(deadlineToReply, sql);
+    @Override
+    public void insert(ExchangeContract contract) {
+        super.insert(contract);
+        databaseManager.getDataSource().registerCallback(overdueIndex);
+        overdueIndex.update(contract.getId(), contract.getContractStatus().ordinal() <= ExchangeContractStatus.STEP_3.ordinal()
+            ? contract.getDeadlineToReply() : null);
     }
 
-    private List<ExchangeContract> getOverdueContracts(int deadlineToReply, String sql) throws AplException.ExecutiveProcessException {
-        try (Connection con = getDatabaseManager().getDataSource().getConnection();
-             PreparedStatement pstmt = con
-                 .prepareStatement(sql)
-        ) {
-            int i = 0;
-            pstmt.setLong(++i, deadlineToReply);
+    @Override
+    public int rollback(int height) {
+        int rc = super.rollback(height);
+        overdueIndex.clear();
+        return rc;
+    }
 
-            DbIterator<ExchangeContract> contracts = getManyBy(con, pstmt, true);
+    @Override
+    public void truncate() {
+        super.truncate();
+        overdueIndex.clear();
+    }
 
-            return CollectionUtil.toList(contracts);
-        } catch (SQLException ex) {
-            throw new AplException.ExecutiveProcessException(ex.getMessage(), ex);
+    /**
+     * @return contracts with status up to the given status, which deadline is less than the given time, in the table order
+     */
+    private List<ExchangeContract> getOverdueContracts(int deadlineToReply, ExchangeContractStatus maxStatus) throws AplException.ExecutiveProcessException {
+        List<Long> ids;
+        try {
+            ids = overdueIndex.getExpired(deadlineToReply, this::getNotFinishedContractDeadlines);
+        } catch (RuntimeException e) {
+            throw new AplException.ExecutiveProcessException(e.getMessage(), e);
+        }
+        List<ExchangeContract> contracts = new ArrayList<>();
+        for (Long id : ids) {
+            ExchangeContract contract = getById(id);
+            if (contract != null && contract.getContractStatus().ordinal() <= maxStatus.ordinal()
+                && contract.getDeadlineToReply() < deadlineToReply) {
+                contracts.add(contract);
+            }
+        }
+        contracts.sort(Comparator.comparingLong(ExchangeContract::getDbId));
+        return contracts;
+    }
+
+    private Map<Long, Integer> getNotFinishedContractDeadlines() {
+        Map<Long, Integer> deadlines = new HashMap<>();
+        try (Connection con = getDatabaseManager().getDataSource().getConnection();
+             PreparedStatement pstmt = con.prepareStatement("SELECT id, deadline_to_reply FROM dex_contract WHERE latest = true AND status IN (0,1,2)");
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                deadlines.put(rs.getLong("id"), rs.getInt("deadline_to_reply"));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e.getMessage(), e);
         }
+        return deadlines;
     }
 
 }
@@ -8,7 +8,6 @@ import com.apollocurrency.aplwallet.apl.core.converter.db.DexOrderMapper;
 import com.apollocurrency.aplwallet.apl.core.dao.state.derived.EntityDbTable;
 import com.apollocurrency.aplwallet.apl.core.dao.state.keyfactory.DbKey;
 import com.apollocurrency.aplwallet.apl.core.db.DbClause;
-import com.apollocurrency.aplwallet.apl.core.db.DbIterator;
 import com.apollocurrency.aplwallet.apl.core.service.appdata.DatabaseManager;
 import com.apollocurrency.aplwallet.apl.core.service.state.DerivedTablesRegistry;
 import com.apollocurrency.aplwallet.apl.core.shard.observer.DeleteOnTrimData;
@@ -26,7 +25,10 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Implemented for backward compatibility with rollback function in the DerivedDbTable.
@@ -40,6 +42,7 @@ public class DexOrderTable extends EntityDbTable<DexOrder> {
     private static final String TABLE_NAME = "dex_offer";
     private static DexOrderKeyFactory keyFactory = new DexOrderKeyFactory();
     private DexOrderMapper dexOrderMapper = new DexOrderMapper();
+    private final ExpiryIndex overdueIndex = new ExpiryIndex("dex order");
 
     @Inject
     public DexOrderTable(DerivedTablesRegistry derivedDbTablesRegistry,
@@ -57,24 +60,40 @@ public class DexOrderTable extends EntityDbTable<DexOrder> {
         return get(keyFactory.newKey(transactionId));
     }
 
+    /**
+     * @param currentTime current epoch time
+     * @return open orders, which finish time is less than the given time, ordered by finish time
+     */
     public List<DexOrder> getOverdueOrders(int currentTime) {
         List<DexOrder> dexOrders = new ArrayList<>();
-        try (Connection con = getDatabaseManager().getDataSource().getConnection();
-             PreparedStatement pstmt = con
-                 .prepareStatement("SELECT * FROM dex_offer AS offer where latest = true " +
-                     "AND offer.status = 0 AND offer.finish_time < ?")
-        ) {
-            int i = 0;
-            pstmt.setLong(++i, currentTime);
+        for (Long id : overdueIndex.getExpired(currentTime, this::getOpenOrderFinishTimes)) {
+            DexOrder order = getByTxId(id);
+            if (order != null && order.getStatus() == OrderStatus.OPEN && order.getFinishTime() < currentTime) {
+                dexOrders.add(order);
+            }
+        }
+        dexOrders.sort(Comparator.comparing(DexOrder::getFinishTime).thenComparingLong(DexOrder::getDbId));
+        return dexOrders;
+    }
 
-            DbIterator<DexOrder> orders = getManyBy(con, pstmt, true);
+    @Override
+    public void insert(DexOrder order) {
+        super.insert(order);
+        databaseManager.getDataSource().registerCallback(overdueIndex);
+        overdueIndex.update(order.getId(), order.getStatus() == OrderStatus.OPEN ? order.getFinishTime() : null);
+    }
 
-            return CollectionUtil.toList(orders);
-        } catch (SQLException ex) {
-            log.error(ex.getMessage(), ex);
-        }
+    @Override
+    public int rollback(int height) {
+        int rc = super.rollback(height);
+        overdueIndex.clear();
+        return rc;
+    }
 
-        return dexOrders;
+    @Override
+    public void truncate() {
+        super.truncate();
+        overdueIndex.clear();
     }
 
     public List<DexOrder> getWaitingPhasingResultOrders() {
@@ -110,6 +129,20 @@ public class DexOrderTable extends EntityDbTable<DexOrder> {
         }
     }
 
+    private Map<Long, Integer> getOpenOrderFinishTimes() {
+        Map<Long, Integer> finishTimes = new HashMap<>();
+        try (Connection con = databaseManager.getDataSource().getConnection();
+             PreparedStatement pstmt = con.prepareStatement("SELECT id, finish_time FROM dex_offer WHERE latest = true AND status = 0");
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                finishTimes.put(rs.getLong("id"), rs.getInt("finish_time"));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        return finishTimes;
+    }
+
     public List<DexOrder> getPendingOrdersWithoutContracts(int height) {
         try (Connection con = databaseManager.getDataSource().getConnection();
              PreparedStatement pstm = con.prepareStatement(
@@ -0,0 +1,106 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.exchange.dao;
+
+import com.apollocurrency.aplwallet.apl.core.service.fulltext.TransactionCallback;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * In-memory index of the entity ids by the expiration time, which allows to find expired entities without the table query
+ * on each block.
+ * <p>Index is loaded from the table on the first lookup and then is kept in sync by {@link #update(long, Integer)} on each entity insert.
+ * It is cleared on the table rollback and truncate and on the rollback of the database transaction, which changed the table,
+ * and then is loaded again on demand.</p>
+ * <p>Synchronized, but intended for use under the blockchain write lock only</p>
+ */
+@Slf4j
+public class ExpiryIndex implements TransactionCallback {
+    private final String name;
+    private final NavigableMap<Integer, Set<Long>> idsByTime = new TreeMap<>();
+    private final Map<Long, Integer> timeById = new HashMap<>();
+    private boolean loaded;
+
+    public ExpiryIndex(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @param time   current time
+     * @param loader loads expiration times of all the entities, which may expire, by entity id, when index is not loaded
+     * @return ids of the entities, which expiration time is less than the given time
+     */
+    public synchronized List<Long> getExpired(int time, Supplier<Map<Long, Integer>> loader) {
+        if (!loaded) {
+            loader.get().forEach(this::put);
+            loaded = true;
+            log.debug("Loaded {} expiry index, size={}", name, timeById.size());
+        }
+        List<Long> ids = new ArrayList<>();
+        idsByTime.headMap(time, false).values().forEach(ids::addAll);
+        return ids;
+    }
+
+    /**
+     * Update expiration time of the entity
+     *
+     * @param id   entity id
+     * @param time new expiration time or null, when entity can not expire anymore
+     */
+    public synchronized void update(long id, Integer time) {
+        if (!loaded) {
+            return;
+        }
+        remove(id);
+        if (time != null) {
+            put(id, time);
+        }
+    }
+
+    public synchronized void clear() {
+        idsByTime.clear();
+        timeById.clear();
+        loaded = false;
+    }
+
+    public synchronized int size() {
+        return timeById.size();
+    }
+
+    @Override
+    public void commit() {
+    }
+
+    @Override
+    public void rollback() {
+        log.debug("Database transaction is rolled back, clear {} expiry index", name);
+        clear();
+    }
+
+    private void put(long id, int time) {
+        timeById.put(id, time);
+        idsByTime.computeIfAbsent(time, t -> new HashSet<>()).add(id);
+    }
+
+    private void remove(long id) {
+        Integer time = timeById.remove(id);
+        if (time != null) {
+            Set<Long> ids = idsByTime.get(time);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                idsByTime.remove(time);
+            }
+        }
+    }
+}
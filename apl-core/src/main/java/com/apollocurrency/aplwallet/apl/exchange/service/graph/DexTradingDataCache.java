@@ -0,0 +1,199 @@
+package com.apollocurrency.aplwallet.apl.exchange.service.graph;
+
+import com.apollocurrency.aplwallet.apl.core.app.observer.events.BlockEvent;
+import com.apollocurrency.aplwallet.apl.core.app.observer.events.BlockEventType;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Block;
+import com.apollocurrency.aplwallet.apl.core.service.appdata.DatabaseManager;
+import com.apollocurrency.aplwallet.apl.core.service.fulltext.TransactionCallback;
+import com.apollocurrency.aplwallet.apl.core.shard.DbHotSwapConfig;
+import com.apollocurrency.aplwallet.apl.core.utils.Convert2;
+import com.apollocurrency.aplwallet.apl.exchange.dao.DexOrderDao;
+import com.apollocurrency.aplwallet.apl.exchange.model.DexCandlestick;
+import com.apollocurrency.aplwallet.apl.exchange.model.DexCurrency;
+import com.apollocurrency.aplwallet.apl.exchange.model.DexOrder;
+import com.apollocurrency.aplwallet.apl.exchange.model.OrderDbIdPaginationDbRequest;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import static com.apollocurrency.aplwallet.apl.exchange.service.graph.CandlestickUtil.BASE_TIME_INTERVAL;
+import static com.apollocurrency.aplwallet.apl.exchange.service.graph.CandlestickUtil.convertOrders;
+
+/**
+ * In-memory candlesticks of the closed buy orders for each paired currency and each {@link TimeFrame}.
+ * <p>Candlesticks of the currency are built by the scan of all closed orders on the first request, then only orders with greater db_id
+ * are read and added on each next request. Orders are aggregated in the db_id order, so candlesticks are the same as candlesticks,
+ * which are built from the orders table on each request.</p>
+ * <p>Candlesticks of the currency are dropped and built again, when the block, which is not lower than the height of the last cached order,
+ * is popped off, and all candlesticks are dropped on the blockchain rescan and database switch. Orders of the popped off block
+ * are deleted by the rollback of the derived tables, which is committed after the block is popped, so candlesticks are dropped
+ * again, when the pop off transaction is committed, to discard orders, which were read by the request in between.</p>
+ */
+@Slf4j
+@Singleton
+public class DexTradingDataCache {
+    private static final int DEFAULT_ORDER_SELECT_LIMIT = 100;
+
+    private final DexOrderDao orderDao;
+    private final DatabaseManager databaseManager;
+    private final int orderSelectLimit;
+    private final Map<DexCurrency, CurrencyCandlesticks> currencies = new EnumMap<>(DexCurrency.class);
+
+    @Inject
+    public DexTradingDataCache(DexOrderDao orderDao, DatabaseManager databaseManager) {
+        this(orderDao, databaseManager, DEFAULT_ORDER_SELECT_LIMIT);
+    }
+
+    public DexTradingDataCache(DexOrderDao orderDao, DatabaseManager databaseManager, int orderSelectLimit) {
+        this.orderDao = orderDao;
+        this.databaseManager = databaseManager;
+        this.orderSelectLimit = orderSelectLimit;
+    }
+
+    /**
+     * Get candlesticks of the orders closed between the given timestamps
+     *
+     * @param fromTimestamp unix timestamp in seconds aligned to the time frame, inclusive
+     * @param toTimestamp   unix timestamp in seconds, inclusive
+     * @param currency      paired currency
+     * @param timeFrame     time frame of the candlesticks
+     * @return candlesticks sorted by timestamp or null, when the last candlestick contains orders closed after toTimestamp
+     * and should be built from the orders table
+     */
+    public List<DexCandlestick> getCandlesticks(int fromTimestamp, int toTimestamp, DexCurrency currency, TimeFrame timeFrame) {
+        CurrencyCandlesticks candlesticks = getCurrencyCandlesticks(currency);
+        synchronized (candlesticks) {
+            candlesticks.refresh();
+            NavigableMap<Integer, DexCandlestick> frameCandlesticks = candlesticks.byTimeFrame.get(timeFrame)
+                .subMap(fromTimestamp, true, toTimestamp, true);
+            if (!frameCandlesticks.isEmpty()) {
+                int lastTimestamp = frameCandlesticks.lastKey();
+                if (candlesticks.lastOrderTime.get(timeFrame).get(lastTimestamp) > toTimestamp) {
+                    return null;
+                }
+            }
+            List<DexCandlestick> result = new ArrayList<>(frameCandlesticks.size());
+            frameCandlesticks.values().forEach(c -> result.add(copy(c)));
+            return result;
+        }
+    }
+
+    public void onBlockPopped(@Observes @BlockEvent(BlockEventType.BLOCK_POPPED) Block block) {
+        int height = block.getHeight();
+        dropFromHeight(height);
+        databaseManager.getDataSource().registerCallback(new TransactionCallback() {
+            @Override
+            public void commit() {
+                dropFromHeight(height);
+            }
+
+            @Override
+            public void rollback() {
+                // orders of the block are not deleted, cached candlesticks are valid
+            }
+        });
+    }
+
+    public void onRescanBegan(@Observes @BlockEvent(BlockEventType.RESCAN_BEGIN) Block block) {
+        clear();
+    }
+
+    public void onDbHotSwapBegin(@Observes DbHotSwapConfig dbHotSwapConfig) {
+        clear();
+    }
+
+    public void clear() {
+        for (CurrencyCandlesticks candlesticks : getAllCurrencyCandlesticks()) {
+            synchronized (candlesticks) {
+                candlesticks.clear();
+            }
+        }
+    }
+
+    private void dropFromHeight(int height) {
+        for (CurrencyCandlesticks candlesticks : getAllCurrencyCandlesticks()) {
+            synchronized (candlesticks) {
+                if (height <= candlesticks.lastOrderHeight) {
+                    log.debug("Drop {} trading data cache, block at height {} popped off", candlesticks.currency, height);
+                    candlesticks.clear();
+                }
+            }
+        }
+    }
+
+    private synchronized CurrencyCandlesticks getCurrencyCandlesticks(DexCurrency currency) {
+        return currencies.computeIfAbsent(currency, CurrencyCandlesticks::new);
+    }
+
+    private synchronized List<CurrencyCandlesticks> getAllCurrencyCandlesticks() {
+        return new ArrayList<>(currencies.values());
+    }
+
+    private static DexCandlestick copy(DexCandlestick c) {
+        return new DexCandlestick(c.getCoin(), c.getMin(), c.getMax(), c.getOpen(), c.getClose(), c.getFromVolume(), c.getToVolume(),
+            c.getTimestamp(), c.getOpenOrderTimestamp(), c.getCloseOrderTimestamp());
+    }
+
+    private class CurrencyCandlesticks {
+        private final DexCurrency currency;
+        private final Map<TimeFrame, NavigableMap<Integer, DexCandlestick>> byTimeFrame = new EnumMap<>(TimeFrame.class);
+        // unix finish time of the latest order of each candlestick
+        private final Map<TimeFrame, Map<Integer, Integer>> lastOrderTime = new EnumMap<>(TimeFrame.class);
+        private long lastDbId;
+        private int lastOrderHeight = -1;
+
+        CurrencyCandlesticks(DexCurrency currency) {
+            this.currency = currency;
+            clear();
+        }
+
+        void clear() {
+            for (TimeFrame timeFrame : TimeFrame.values()) {
+                byTimeFrame.put(timeFrame, new TreeMap<>());
+                lastOrderTime.put(timeFrame, new HashMap<>());
+            }
+            lastDbId = 0;
+            lastOrderHeight = -1;
+        }
+
+        /**
+         * Add orders closed after the last refresh
+         */
+        void refresh() {
+            List<DexOrder> orders;
+            do {
+                orders = orderDao.getOrdersFromDbIdBetweenTimestamps(OrderDbIdPaginationDbRequest.builder()
+                    .limit(orderSelectLimit)
+                    .coin(currency)
+                    .fromTime(0)
+                    .toTime(Integer.MAX_VALUE)
+                    .fromDbId(lastDbId)
+                    .build());
+                for (TimeFrame timeFrame : TimeFrame.values()) {
+                    convertOrders(orders, byTimeFrame.get(timeFrame), timeFrame, t -> null);
+                    Map<Integer, Integer> frameLastOrderTime = lastOrderTime.get(timeFrame);
+                    int interval = timeFrame.muliplier * BASE_TIME_INTERVAL;
+                    for (DexOrder order : orders) {
+                        int unixFinishTime = (int) (Convert2.fromEpochTime(order.getFinishTime()) / 1000);
+                        frameLastOrderTime.merge(unixFinishTime - unixFinishTime % interval, unixFinishTime, Math::max);
+                    }
+                }
+                for (DexOrder order : orders) {
+                    lastOrderHeight = Math.max(lastOrderHeight, order.getHeight());
+                }
+                if (!orders.isEmpty()) {
+                    lastDbId = orders.get(orders.size() - 1).getDbId();
+                }
+            } while (orders.size() == orderSelectLimit);
+        }
+    }
+}
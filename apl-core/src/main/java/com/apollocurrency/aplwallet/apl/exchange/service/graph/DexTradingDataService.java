@@ -31,9 +31,10 @@ public class DexTradingDataService {
     private static final int DEFAULT_ORDER_SELECT_LIMIT = 100;
 
     private boolean enableTradingViewGraphDataFeeder; // not yet implemented
-    private boolean enableTradingDataCache; // not yet implemented
+    private boolean enableTradingDataCache;
     private DexCandlestickDao candlestickDao;
     private DexOrderDao orderDao;
+    private DexTradingDataCache tradingDataCache;
     private int orderSelectLimit;
 
 
@@ -41,19 +42,30 @@ public class DexTradingDataService {
     public DexTradingDataService(@Property("apl.dex.graph.enableDataFeeder") boolean enableTradingViewGraphDataFeeder,
                                  @Property("apl.dex.graph.enableDataCache") boolean enableTradingDataCache,
                                  DexCandlestickDao candlestickDao,
-                                 DexOrderDao orderDao) {
-        this(enableTradingViewGraphDataFeeder, enableTradingDataCache, candlestickDao, orderDao, DEFAULT_ORDER_SELECT_LIMIT);
+                                 DexOrderDao orderDao,
+                                 DexTradingDataCache tradingDataCache) {
+        this(enableTradingViewGraphDataFeeder, enableTradingDataCache, candlestickDao, orderDao, tradingDataCache, DEFAULT_ORDER_SELECT_LIMIT);
+    }
+
+    public DexTradingDataService(boolean enableTradingViewGraphDataFeeder,
+                                 boolean enableTradingDataCache,
+                                 DexCandlestickDao candlestickDao,
+                                 DexOrderDao orderDao,
+                                 int orderSelectLimit) {
+        this(enableTradingViewGraphDataFeeder, enableTradingDataCache, candlestickDao, orderDao, null, orderSelectLimit);
     }
 
     public DexTradingDataService(boolean enableTradingViewGraphDataFeeder,
                                  boolean enableTradingDataCache,
                                  DexCandlestickDao candlestickDao,
                                  DexOrderDao orderDao,
+                                 DexTradingDataCache tradingDataCache,
                                  int orderSelectLimit) {
         this.enableTradingViewGraphDataFeeder = enableTradingViewGraphDataFeeder;
-        this.enableTradingDataCache = enableTradingDataCache;
+        this.enableTradingDataCache = enableTradingDataCache && tradingDataCache != null;
         this.candlestickDao = Objects.requireNonNull(candlestickDao);
         this.orderDao = Objects.requireNonNull(orderDao);
+        this.tradingDataCache = tradingDataCache;
         this.orderSelectLimit = orderSelectLimit;
     }
 
@@ -113,6 +125,12 @@ public class DexTradingDataService {
     }
 
     private List<DexCandlestick> getOrderCandlesticks(int fromTimestamp, int toTimestamp, DexCurrency currency, TimeFrame timeFrame) {
+        if (enableTradingDataCache) {
+            List<DexCandlestick> candlesticks = tradingDataCache.getCandlesticks(fromTimestamp, toTimestamp, currency, timeFrame);
+            if (candlesticks != null) {
+                return candlesticks;
+            }
+        }
         int fromEpochTime = Convert2.toEpochTime((long) fromTimestamp * 1000);
         int toEpochTime = Convert2.toEpochTime((long) toTimestamp * 1000);
         long fromDbId = 0;
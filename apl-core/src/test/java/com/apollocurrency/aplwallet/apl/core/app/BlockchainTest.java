@@ -362,6 +362,15 @@ class BlockchainTest {
         assertEquals(List.of(btd.BLOCK_13, btd.BLOCK_12, btd.SHARD_2_BLOCK_3, btd.SHARD_2_BLOCK_2), blocks);
     }
 
+    @Test
+    void testGetAccountBlocksAsStreamPage() {
+        long accountId = btd.BLOCK_12.getGeneratorId();
+
+        assertEquals(List.of(btd.BLOCK_12, btd.SHARD_2_BLOCK_3), blockchain.getBlocksByAccountFromShards(accountId, 1, 2, 0));
+        assertEquals(List.of(btd.SHARD_2_BLOCK_2), blockchain.getBlocksByAccountFromShards(accountId, 3, 10, 0));
+        assertEquals(List.of(), blockchain.getBlocksByAccountFromShards(accountId, 4, 10, 0));
+    }
+
     @Test
     void testFindLastBlock() {
         Block lastBlock = blockchain.findLastBlock();
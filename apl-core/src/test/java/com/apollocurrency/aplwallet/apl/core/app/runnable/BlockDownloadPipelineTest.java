@@ -0,0 +1,180 @@
+/*
+ * Copyright © 2020-2021 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.app.runnable;
+
+import com.apollocurrency.aplwallet.apl.core.app.GetNextBlocksTask;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.BlockImpl;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.PeerBlock;
+import com.apollocurrency.aplwallet.apl.core.peer.Peer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+class BlockDownloadPipelineTest {
+    private static final int SEGMENT_SIZE = 3;
+
+    ExecutorService networkService = Executors.newFixedThreadPool(8);
+    List<Long> chainBlockIds = LongStream.rangeClosed(100, 110).boxed().collect(Collectors.toList());
+    Peer feederPeer = mock(Peer.class);
+    Peer otherPeer = mock(Peer.class);
+
+    @AfterEach
+    void tearDown() {
+        networkService.shutdownNow();
+    }
+
+    @Test
+    void testBlocksReturnedInChainOrderWhenSegmentsCompleteOutOfOrder() throws InterruptedException {
+        BlockDownloadPipeline pipeline = pipeline(10_000, (peer, start, stop) -> {
+            if (start == 0) {
+                sleep(200);
+            }
+            return blocks(start, stop);
+        });
+
+        List<PeerBlock> downloaded = downloadAll(pipeline);
+
+        assertEquals(chainBlockIds.subList(1, chainBlockIds.size()), ids(downloaded));
+    }
+
+    @Test
+    void testFailedSegmentIsRequestedFromAnotherPeer() throws InterruptedException {
+        BlockDownloadPipeline pipeline = pipeline(10_000, (peer, start, stop) -> peer == feederPeer ? null : blocks(start, stop));
+
+        List<PeerBlock> downloaded = downloadAll(pipeline);
+
+        assertEquals(chainBlockIds.subList(1, chainBlockIds.size()), ids(downloaded));
+        downloaded.forEach(peerBlock -> assertSame(otherPeer, peerBlock.getPeer()));
+    }
+
+    @Test
+    void testPartialSegmentIsCompletedByAnotherRequest() throws InterruptedException {
+        BlockDownloadPipeline pipeline = pipeline(10_000, (peer, start, stop) -> blocks(start, Math.min(stop, start + 1)));
+
+        List<PeerBlock> downloaded = downloadAll(pipeline);
+
+        assertEquals(chainBlockIds.subList(1, chainBlockIds.size()), ids(downloaded));
+    }
+
+    @Test
+    void testDownloadStopsBeforeSegmentWhichCannotBeDownloaded() throws InterruptedException {
+        BlockDownloadPipeline pipeline = pipeline(10_000, (peer, start, stop) -> start == 3 ? null : blocks(start, stop));
+
+        List<PeerBlock> downloaded = downloadAll(pipeline);
+
+        assertEquals(chainBlockIds.subList(1, 4), ids(downloaded));
+        assertNull(pipeline.next());
+    }
+
+    @Test
+    void testStragglerSegmentIsDuplicatedToAnotherPeer() throws InterruptedException {
+        BlockDownloadPipeline pipeline = pipeline(50, (peer, start, stop) -> {
+            if (peer == feederPeer) {
+                sleep(5_000);
+            }
+            return blocks(start, stop);
+        });
+
+        long startTime = System.currentTimeMillis();
+        PeerBlock first = pipeline.next();
+
+        assertEquals(101L, first.getBlock().getId());
+        assertSame(otherPeer, first.getPeer());
+        assertEquals(true, System.currentTimeMillis() - startTime < 5_000);
+        pipeline.cancel();
+    }
+
+    @Test
+    void testDuplicateReturningDownloadedBlocksIsNotFailure() throws InterruptedException {
+        // feeder returns only the first block of the segment, after the duplicate request to the other peer
+        // already downloaded two blocks; the last block of the segment is available only from the feeder
+        Responder responder = (peer, start, stop) -> {
+            if (peer == otherPeer) {
+                return start == 0 ? blocks(0, 2) : null;
+            }
+            if (start == 0) {
+                sleep(300);
+                return blocks(0, 1);
+            }
+            return blocks(start, stop);
+        };
+        BlockDownloadPipeline pipeline = new BlockDownloadPipeline(chainBlockIds.subList(0, 4), SEGMENT_SIZE, feederPeer,
+            List.of(feederPeer, otherPeer), networkService, 2, 50, (start, stop) -> new FakeGetNextBlocksTask(start, stop, responder));
+
+        List<PeerBlock> downloaded = downloadAll(pipeline);
+
+        assertEquals(chainBlockIds.subList(1, 4), ids(downloaded));
+        assertSame(feederPeer, downloaded.get(2).getPeer());
+    }
+
+    private BlockDownloadPipeline pipeline(long stragglerTimeout, Responder responder) {
+        return new BlockDownloadPipeline(chainBlockIds, SEGMENT_SIZE, feederPeer, List.of(feederPeer, otherPeer), networkService,
+            2, stragglerTimeout, (start, stop) -> new FakeGetNextBlocksTask(start, stop, responder));
+    }
+
+    private List<PeerBlock> downloadAll(BlockDownloadPipeline pipeline) throws InterruptedException {
+        List<PeerBlock> downloaded = new ArrayList<>();
+        PeerBlock peerBlock;
+        while ((peerBlock = pipeline.next()) != null) {
+            downloaded.add(peerBlock);
+        }
+        return downloaded;
+    }
+
+    private List<Long> ids(List<PeerBlock> peerBlocks) {
+        return peerBlocks.stream().map(peerBlock -> peerBlock.getBlock().getId()).collect(Collectors.toList());
+    }
+
+    private List<BlockImpl> blocks(int start, int stop) {
+        List<BlockImpl> blocks = new ArrayList<>();
+        for (int i = start + 1; i <= stop; i++) {
+            BlockImpl block = mock(BlockImpl.class);
+            doReturn(chainBlockIds.get(i)).when(block).getId();
+            blocks.add(block);
+        }
+        return blocks;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Responder {
+        List<BlockImpl> respond(Peer peer, int start, int stop);
+    }
+
+    private class FakeGetNextBlocksTask extends GetNextBlocksTask {
+        private final Responder responder;
+
+        FakeGetNextBlocksTask(int start, int stop, Responder responder) {
+            super(chainBlockIds, start, stop, 0, null, null);
+            this.responder = responder;
+        }
+
+        @Override
+        public CompletableFuture<List<BlockImpl>> sendAsync(Executor parserExecutor) {
+            return CompletableFuture.supplyAsync(() -> responder.respond(getPeer(), getStart(), getStop()), parserExecutor);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.core.dao.state.derived;
+
+import com.apollocurrency.aplwallet.apl.core.dao.state.keyfactory.LongKey;
+import com.apollocurrency.aplwallet.apl.core.entity.state.account.PublicKey;
+import com.google.common.cache.CacheBuilder;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class HeightIndexedCacheTest {
+    HeightIndexedCache<PublicKey> cache = new HeightIndexedCache<>(CacheBuilder.newBuilder().maximumSize(10_000).build());
+
+    @Test
+    void testRollbackRemovesOnlyEntitiesAboveHeight() {
+        PublicKey key1 = publicKey(1, 10);
+        PublicKey key2 = publicKey(2, 20);
+        PublicKey key3 = publicKey(3, 30);
+        cache.put(key1);
+        cache.put(key2);
+        cache.put(key3);
+
+        int removed = cache.rollback(20);
+
+        assertEquals(1, removed);
+        assertSame(key1, cache.getIfPresent(new LongKey(1)));
+        assertSame(key2, cache.getIfPresent(new LongKey(2)));
+        assertNull(cache.getIfPresent(new LongKey(3)));
+    }
+
+    @Test
+    void testRollbackOfEntityUpdatedAtNewHeight() {
+        cache.put(publicKey(1, 10));
+        PublicKey updated = publicKey(1, 30);
+        cache.put(updated);
+
+        assertEquals(0, cache.rollback(30));
+        assertSame(updated, cache.getIfPresent(new LongKey(1)));
+
+        assertEquals(1, cache.rollback(15));
+        assertNull(cache.getIfPresent(new LongKey(1)));
+    }
+
+    @Test
+    void testRollbackAfterIndexCompaction() {
+        for (int i = 0; i < 5_000; i++) {
+            cache.put(publicKey(i % 100, i));
+        }
+
+        assertEquals(100, cache.size());
+        assertEquals(50, cache.rollback(4_949));
+        assertEquals(50, cache.size());
+        assertEquals(0, cache.rollback(4_949));
+    }
+
+    @Test
+    void testInvalidateAll() {
+        cache.put(publicKey(1, 10));
+
+        cache.invalidateAll();
+
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.rollback(0));
+    }
+
+    private PublicKey publicKey(long accountId, int height) {
+        PublicKey publicKey = new PublicKey(accountId, new byte[32], height);
+        publicKey.setDbKey(new LongKey(accountId));
+        return publicKey;
+    }
+}
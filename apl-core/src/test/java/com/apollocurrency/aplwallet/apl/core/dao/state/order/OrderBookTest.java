@@ -0,0 +1,113 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.core.dao.state.order;
+
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Transaction;
+import com.apollocurrency.aplwallet.apl.core.entity.state.order.AskOrder;
+import com.apollocurrency.aplwallet.apl.core.entity.state.order.BidOrder;
+import com.apollocurrency.aplwallet.apl.core.transaction.messages.ColoredCoinsAskOrderPlacement;
+import com.apollocurrency.aplwallet.apl.core.transaction.messages.ColoredCoinsBidOrderPlacement;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+class OrderBookTest {
+    private static final long ASSET_ID = 100L;
+
+    OrderBook<AskOrder> askBook = new OrderBook<>(Comparator.comparingLong(AskOrder::getPriceATM));
+    OrderBook<BidOrder> bidBook = new OrderBook<>(Comparator.comparingLong(BidOrder::getPriceATM).reversed());
+
+    @Test
+    void testPriceTimePriority() {
+        AskOrder cheapLate = askOrder(1, 10, 20);
+        AskOrder cheapEarly = askOrder(2, 10, 10);
+        AskOrder expensive = askOrder(3, 11, 5);
+        BidOrder low = bidOrder(4, 10, 5);
+        BidOrder high = bidOrder(5, 12, 30);
+
+        assertSame(cheapEarly, askBook.getFirst(ASSET_ID, id -> List.of(expensive, cheapLate, cheapEarly)));
+        assertSame(high, bidBook.getFirst(ASSET_ID, id -> List.of(low, high)));
+    }
+
+    @Test
+    void testOrdersAreLoadedOnce() {
+        AtomicInteger loads = new AtomicInteger();
+        AskOrder order = askOrder(1, 10, 10);
+
+        askBook.getFirst(ASSET_ID, id -> {
+            loads.incrementAndGet();
+            return List.of(order);
+        });
+        askBook.getFirst(ASSET_ID, id -> {
+            loads.incrementAndGet();
+            return List.of();
+        });
+
+        assertEquals(1, loads.get());
+        assertNull(askBook.getFirst(ASSET_ID + 1, id -> List.of()));
+    }
+
+    @Test
+    void testPutAndRemove() {
+        AskOrder first = askOrder(1, 10, 10);
+        AskOrder second = askOrder(2, 11, 10);
+        askBook.getFirst(ASSET_ID, id -> List.of(first, second));
+
+        AskOrder updatedFirst = askOrder(1, 10, 10);
+        askBook.put(updatedFirst);
+        assertSame(updatedFirst, askBook.getFirst(ASSET_ID, id -> List.of()));
+        assertEquals(2, askBook.size());
+
+        askBook.remove(askOrder(1, 10, 10));
+        assertSame(second, askBook.getFirst(ASSET_ID, id -> List.of()));
+
+        AskOrder cheaper = askOrder(3, 9, 12);
+        askBook.put(cheaper);
+        assertSame(cheaper, askBook.getFirst(ASSET_ID, id -> List.of()));
+    }
+
+    @Test
+    void testPutIgnoresNotLoadedAsset() {
+        askBook.put(askOrder(1, 10, 10));
+
+        assertEquals(0, askBook.size());
+    }
+
+    @Test
+    void testBookIsReloadedAfterTransactionRollback() {
+        AskOrder order = askOrder(1, 10, 10);
+        askBook.getFirst(ASSET_ID, id -> List.of(order));
+
+        askBook.rollback();
+
+        assertEquals(0, askBook.size());
+        assertNull(askBook.getFirst(ASSET_ID, id -> List.of()));
+    }
+
+    static AskOrder askOrder(long id, long price, int height) {
+        return new AskOrder(transaction(id, height), new ColoredCoinsAskOrderPlacement(ASSET_ID, 100, price), height);
+    }
+
+    static BidOrder bidOrder(long id, long price, int height) {
+        return new BidOrder(transaction(id, height), new ColoredCoinsBidOrderPlacement(ASSET_ID, 100, price), height);
+    }
+
+    private static Transaction transaction(long id, int height) {
+        Transaction transaction = mock(Transaction.class);
+        doReturn(id).when(transaction).getId();
+        doReturn(id * 10).when(transaction).getSenderId();
+        doReturn(height).when(transaction).getHeight();
+        doReturn((short) 0).when(transaction).getIndex();
+        return transaction;
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.core.http;
+
+import com.apollocurrency.aplwallet.apl.core.dao.TransactionalDataSource;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Block;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Transaction;
+import com.apollocurrency.aplwallet.apl.core.entity.state.account.Account;
+import com.apollocurrency.aplwallet.apl.core.service.appdata.DatabaseManager;
+import com.apollocurrency.aplwallet.apl.core.service.blockchain.Blockchain;
+import com.apollocurrency.aplwallet.apl.core.service.fulltext.TransactionCallback;
+import com.apollocurrency.aplwallet.apl.core.service.state.AliasService;
+import com.apollocurrency.aplwallet.apl.core.service.state.DGSService;
+import com.apollocurrency.aplwallet.apl.core.service.state.account.AccountAssetService;
+import com.apollocurrency.aplwallet.apl.core.service.state.account.AccountCurrencyService;
+import com.apollocurrency.aplwallet.apl.core.service.state.account.AccountInfoService;
+import com.apollocurrency.aplwallet.apl.core.service.state.account.AccountService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BlockEventSourceDispatcherTest {
+    @Mock
+    Blockchain blockchain;
+    @Mock
+    Block block;
+    @Mock
+    DatabaseManager databaseManager;
+    @Mock
+    TransactionalDataSource dataSource;
+
+    BlockEventSourceDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = spy(new BlockEventSourceDispatcher(blockchain, databaseManager, mock(AliasService.class), mock(DGSService.class),
+            mock(AccountService.class), mock(AccountInfoService.class), mock(AccountAssetService.class),
+            mock(AccountCurrencyService.class), Runnable::run));
+        doReturn("snapshot-1").when(dispatcher).getMessage(1L);
+        doReturn("snapshot-2").when(dispatcher).getMessage(2L);
+        doReturn("snapshot-3").when(dispatcher).getMessage(3L);
+        Transaction transaction = mock(Transaction.class);
+        doReturn(1L).when(transaction).getSenderId();
+        doReturn(0L).when(transaction).getRecipientId();
+        doReturn(List.of(transaction)).when(blockchain).getOrLoadTransactions(block);
+        doReturn(4L).when(block).getGeneratorId();
+        doReturn(dataSource).when(databaseManager).getDataSource();
+    }
+
+    @Test
+    void testSnapshotIsSentOnOpen() throws IOException {
+        ServletOutputStream output = open(new BlockEventSource(dispatcher, 1L));
+
+        verify(output).write(event("snapshot-1"));
+    }
+
+    @Test
+    void testOnlyTouchedAccountsAreDispatched() throws IOException {
+        ServletOutputStream firstOutput = open(1L);
+        ServletOutputStream secondOutput = open(1L);
+        ServletOutputStream untouchedOutput = open(2L);
+        ServletOutputStream balanceOutput = open(3L);
+        Account account = mock(Account.class);
+        doReturn(3L).when(account).getId();
+
+        dispatcher.onBlockApplied(block);
+        dispatcher.onAccountBalance(account);
+        dispatcher.onBlockPushed(block);
+
+        verify(firstOutput).write(event("snapshot-1"));
+        verify(secondOutput).write(event("snapshot-1"));
+        verify(balanceOutput).write(event("snapshot-3"));
+        verify(untouchedOutput, never()).write(any(byte[].class));
+        // once for each subscriber on open and once shared between subscribers of the touched account
+        verify(dispatcher, times(3)).getMessage(1L);
+        verify(dispatcher, never()).getMessage(4L);
+    }
+
+    @Test
+    void testPoppedBlockAccountsAreDispatchedAfterCommit() throws IOException {
+        ServletOutputStream output = open(1L);
+        ServletOutputStream untouchedOutput = open(2L);
+
+        dispatcher.onBlockPopped(block);
+
+        verify(output, never()).write(any(byte[].class));
+        ArgumentCaptor<TransactionCallback> callback = ArgumentCaptor.forClass(TransactionCallback.class);
+        verify(dataSource).registerCallback(callback.capture());
+        callback.getValue().commit();
+        verify(output).write(event("snapshot-1"));
+        verify(untouchedOutput, never()).write(any(byte[].class));
+    }
+
+    @Test
+    void testClosedEventSourceIsUnsubscribed() throws IOException {
+        BlockEventSource eventSource = new BlockEventSource(dispatcher, 1L);
+        open(eventSource);
+        assertEquals(1, dispatcher.getSubscribedAccountCount());
+
+        eventSource.onComplete(null);
+        dispatcher.onBlockApplied(block);
+        dispatcher.onBlockPushed(block);
+
+        assertEquals(0, dispatcher.getSubscribedAccountCount());
+        verify(dispatcher, times(1)).getMessage(anyLong());
+    }
+
+    @Test
+    void testFailedEventSourceIsUnsubscribed() throws IOException {
+        BlockEventSource eventSource = new BlockEventSource(dispatcher, 1L);
+        ServletOutputStream output = mock(ServletOutputStream.class);
+        doReturn(true).when(output).isReady();
+        doThrow(new IOException("Closed")).when(output).write(any(byte[].class));
+
+        AsyncContext asyncContext = open(eventSource, output);
+
+        assertEquals(0, dispatcher.getSubscribedAccountCount());
+        assertTrue(eventSource.isShutdown());
+        verify(asyncContext).complete();
+    }
+
+    @Test
+    void testSlowEventSourceIsClosedWithoutBlockingOthers() throws IOException {
+        BlockEventSource slowEventSource = new BlockEventSource(dispatcher, 1L);
+        ServletOutputStream slowOutput = mock(ServletOutputStream.class);
+        AsyncContext slowAsyncContext = open(slowEventSource, slowOutput);
+        ServletOutputStream output = open(1L);
+
+        for (int i = 0; i < BlockEventSource.MAX_PENDING_EVENTS; i++) {
+            dispatcher.onBlockApplied(block);
+            dispatcher.onBlockPushed(block);
+        }
+
+        verify(slowOutput, never()).write(any(byte[].class));
+        verify(output, times(BlockEventSource.MAX_PENDING_EVENTS)).write(event("snapshot-1"));
+        assertTrue(slowEventSource.isShutdown());
+        verify(slowAsyncContext).complete();
+        assertEquals(1, dispatcher.getSubscribedAccountCount());
+    }
+
+    @Test
+    void testPendingEventsAreWrittenWhenOutputIsReady() throws IOException {
+        BlockEventSource eventSource = new BlockEventSource(dispatcher, 1L);
+        ServletOutputStream output = mock(ServletOutputStream.class);
+        open(eventSource, output);
+
+        doReturn(true, true, true, false).when(output).isReady();
+        eventSource.onWritePossible();
+
+        verify(output).write(event("snapshot-1"));
+        verify(output).flush();
+    }
+
+    private ServletOutputStream open(long accountId) throws IOException {
+        ServletOutputStream output = open(new BlockEventSource(dispatcher, accountId));
+        clearInvocations(output);
+        return output;
+    }
+
+    private ServletOutputStream open(BlockEventSource eventSource) throws IOException {
+        ServletOutputStream output = mock(ServletOutputStream.class);
+        doReturn(true).when(output).isReady();
+        open(eventSource, output);
+        return output;
+    }
+
+    private AsyncContext open(BlockEventSource eventSource, ServletOutputStream output) throws IOException {
+        AsyncContext asyncContext = mock(AsyncContext.class);
+        ServletResponse response = mock(ServletResponse.class);
+        doReturn(response).when(asyncContext).getResponse();
+        doReturn(output).when(response).getOutputStream();
+        eventSource.open(asyncContext, mock(ScheduledExecutorService.class));
+        return asyncContext;
+    }
+
+    private static byte[] event(String data) {
+        return ("data: " + data + "\r\n\r\n").getBytes(StandardCharsets.UTF_8);
+    }
+}
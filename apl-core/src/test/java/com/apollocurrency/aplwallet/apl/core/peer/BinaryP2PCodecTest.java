@@ -0,0 +1,138 @@
+/*
+ *  Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.peer;
+
+import com.apollocurrency.aplwallet.apl.core.app.AplException;
+import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
+import com.apollocurrency.aplwallet.apl.core.chainid.HeightConfig;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Block;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.BlockImpl;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Transaction;
+import com.apollocurrency.aplwallet.apl.core.service.blockchain.Blockchain;
+import com.apollocurrency.aplwallet.apl.core.service.state.account.AccountService;
+import com.apollocurrency.aplwallet.apl.core.transaction.CachedTransactionTypeFactory;
+import com.apollocurrency.aplwallet.apl.core.transaction.TransactionBuilder;
+import com.apollocurrency.aplwallet.apl.core.transaction.TransactionSerializer;
+import com.apollocurrency.aplwallet.apl.core.transaction.types.payment.OrdinaryPaymentTransactionType;
+import com.apollocurrency.aplwallet.apl.crypto.Crypto;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+class BinaryP2PCodecTest {
+    private static final String TX_JSON = "{" +
+        "\"senderPublicKey\":\"7364efd4df79887bd79771e00aabf711d5ce3208520a93f04c25d9a695e63a06\"," +
+        "\"signature\":\"ec159f1a6900248e431bf5eb0f33aced48c94a37cd1af4632cc123e167297d03cf2c6273426b54f3738a20f3a35efd3554c4b210e46aaa42296fd085c390b969\"," +
+        "\"type\":0,\"version\":1," +
+        "\"amountATM\":4000000000," +
+        "\"ecBlockId\":\"18338875302302929178\"," +
+        "\"attachment\":{\"version.OrdinaryPayment\":0}," +
+        "\"subtype\":0," +
+        "\"recipient\":\"7176168619783413675\"," +
+        "\"feeATM\":400000000," +
+        "\"ecBlockHeight\":0," +
+        "\"id\":\"12814669673005965607\"," +
+        "\"deadline\":1440," +
+        "\"timestamp\":78881629" +
+        "}";
+
+    BlockchainConfig blockchainConfig = mock(BlockchainConfig.class);
+    Blockchain blockchain = mock(Blockchain.class);
+    TransactionSerializer transactionSerializer = mock(TransactionSerializer.class);
+    TransactionBuilder transactionBuilder;
+    BinaryP2PCodec codec;
+    Transaction transaction;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        transactionBuilder = new TransactionBuilder(new CachedTransactionTypeFactory(
+            List.of(new OrdinaryPaymentTransactionType(blockchainConfig, mock(AccountService.class)))));
+        transaction = transactionBuilder.newTransactionBuilder((JSONObject) new JSONParser().parse(TX_JSON)).build();
+        HeightConfig heightConfig = mock(HeightConfig.class);
+        doReturn(heightConfig).when(blockchainConfig).getCurrentConfig();
+        doReturn(1000L).when(heightConfig).getInitialBaseTarget();
+        codec = new BinaryP2PCodec(transactionBuilder, transactionSerializer, blockchain, blockchainConfig, true);
+    }
+
+    @Test
+    void testTransactionsRoundTrip() throws AplException.NotValidException {
+        byte[] encoded = codec.encodeTransactions(List.of(transaction, transaction));
+
+        List<Transaction> decoded = codec.decodeTransactions(encoded);
+
+        assertEquals(2, decoded.size());
+        assertEquals(transaction.getId(), decoded.get(0).getId());
+        assertArrayEquals(transaction.getFullHash(), decoded.get(1).getFullHash());
+        assertArrayEquals(transaction.bytes(), decoded.get(0).bytes());
+    }
+
+    @Test
+    void testSignedBlockRoundTrip() throws AplException.NotValidException {
+        BlockImpl block = signedBlock();
+        doReturn(List.of(transaction)).when(blockchain).getOrLoadTransactions(block);
+
+        List<BlockImpl> decoded = codec.decodeBlocks(codec.encodeBlocks(List.of(block)), 36);
+
+        assertEquals(1, decoded.size());
+        assertEquals(block.getId(), decoded.get(0).getId());
+        assertArrayEquals(block.getBlockSignature(), decoded.get(0).getBlockSignature());
+        assertEquals(transaction.getId(), decoded.get(0).getTransactions().get(0).getId());
+    }
+
+    @Test
+    void testBlockWithWrongSignatureIsDecodedForValidation() throws AplException.NotValidException {
+        BlockImpl block = signedBlock();
+        byte[] wrongSignature = block.getBlockSignature().clone();
+        wrongSignature[0] ^= 1;
+        BlockImpl tamperedBlock = new BlockImpl(block.getVersion(), block.getTimestamp(), block.getPreviousBlockId(), block.getTotalAmountATM(),
+            block.getTotalFeeATM(), block.getPayloadLength(), block.getPayloadHash(), block.getGeneratorPublicKey(), block.getGenerationSignature(),
+            wrongSignature, block.getPreviousBlockHash(), block.getTimeout(), List.of(transaction), 1000L);
+        doReturn(List.of(transaction)).when(blockchain).getOrLoadTransactions(tamperedBlock);
+
+        byte[] encoded = codec.encodeBlock(tamperedBlock);
+
+        BlockImpl decoded = codec.decodeBlock(encoded);
+
+        assertArrayEquals(wrongSignature, decoded.getBlockSignature());
+        assertFalse(decoded.checkSignature());
+    }
+
+    @Test
+    void testTooManyBlocksAreRejected() {
+        BlockImpl block = signedBlock();
+        doReturn(List.of(transaction)).when(blockchain).getOrLoadTransactions(block);
+
+        byte[] encoded = codec.encodeBlocks(List.of(block, block));
+
+        assertThrows(AplException.NotValidException.class, () -> codec.decodeBlocks(encoded, 1));
+    }
+
+    @Test
+    void testMalformedDataIsRejected() {
+        byte[] encoded = codec.encodeTransactions(List.of(transaction));
+        byte[] truncated = Arrays.copyOf(encoded, encoded.length - 10);
+
+        assertThrows(AplException.NotValidException.class, () -> codec.decodeTransactions(truncated));
+        assertThrows(AplException.NotValidException.class, () -> codec.decodeTransactions(new byte[0]));
+    }
+
+    private BlockImpl signedBlock() {
+        byte[] keySeed = Crypto.getKeySeed("binary codec test secret");
+        return new BlockImpl(Block.ADAPTIVE_BLOCK_VERSION, 78881700, 1L, transaction.getAmountATM(), transaction.getFeeATM(),
+            transaction.getFullSize(), new byte[32], Crypto.getPublicKey(keySeed), new byte[32], new byte[32], 5,
+            List.of(transaction), keySeed, 1000L);
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.core.peer;
+
+import com.apollocurrency.aplwallet.api.dto.BlockDTO;
+import com.apollocurrency.aplwallet.api.p2p.request.BaseP2PRequest;
+import com.apollocurrency.aplwallet.api.p2p.request.ProcessBlockRequest;
+import com.apollocurrency.aplwallet.api.p2p.request.ProcessTransactionsRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+class BroadcastPayloadsTest {
+    private final UUID chainId = UUID.randomUUID();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final List<BaseP2PRequest> encoded = new ArrayList<>();
+    private final Peer binaryPeer = peer(true);
+    private final Peer jsonPeer = peer(false);
+
+    @Test
+    void testBlockVariantsAreSentToBinaryAndJsonPeers() {
+        BlockDTO blockDTO = new BlockDTO();
+        blockDTO.setPreviousBlock("1");
+        blockDTO.setTimestamp(0);
+        blockDTO.setTimeout(0);
+        ProcessBlockRequest request = new ProcessBlockRequest(blockDTO, chainId);
+        ProcessBlockRequest binaryRequest = new ProcessBlockRequest(new byte[]{1, 2, 3}, "1", 0, 0, chainId);
+        BroadcastPayloads payloads = new BroadcastPayloads(request, binaryRequest, null, peer -> false, this::encode);
+
+        WebSocketPayload binaryPayload = payloads.getPayload(binaryPeer);
+        WebSocketPayload jsonPayload = payloads.getPayload(jsonPeer);
+
+        assertArrayEquals(new byte[]{1, 2, 3}, attachment(binaryPayload));
+        assertNull(attachment(jsonPayload));
+        assertTrue(message(jsonPayload).contains("\"block\""));
+        assertSame(payloads.getPayload(binaryPeer), payloads.getPayload(binaryPeer));
+        assertEquals(2, encoded.size());
+    }
+
+    @Test
+    void testTransactionVariantsAreSentToBinaryAndJsonPeers() {
+        ProcessTransactionsRequest request = new ProcessTransactionsRequest(List.of(), chainId);
+        ProcessTransactionsRequest binaryRequest = new ProcessTransactionsRequest(new byte[]{1, 2, 3}, chainId);
+        Peer inventoryPeer = peer(true);
+        BaseP2PRequest inventoryRequest = new BaseP2PRequest("announceTransactions", chainId);
+        BroadcastPayloads payloads = new BroadcastPayloads(request, binaryRequest, inventoryRequest, peer -> peer == inventoryPeer,
+            this::encode);
+
+        assertSame(request, payloads.getRequest(jsonPeer));
+        assertSame(binaryRequest, payloads.getRequest(binaryPeer));
+        assertSame(inventoryRequest, payloads.getRequest(inventoryPeer));
+        assertNull(attachment(payloads.getPayload(jsonPeer)));
+        assertArrayEquals(new byte[]{1, 2, 3}, attachment(payloads.getPayload(binaryPeer)));
+        assertFalse(message(payloads.getPayload(binaryPeer)).contains("attachment"));
+        assertTrue(message(payloads.getPayload(inventoryPeer)).contains("announceTransactions"));
+    }
+
+    @Test
+    void testRequestIsNotEncodedAgainAfterFailure() {
+        BaseP2PRequest request = new BaseP2PRequest("processBlock", chainId);
+        BroadcastPayloads payloads = new BroadcastPayloads(request, null, null, peer -> false, r -> {
+            encoded.add(r);
+            return null;
+        });
+
+        assertNull(payloads.getPayload(jsonPeer));
+        assertNull(payloads.getPayload(binaryPeer));
+        assertEquals(1, encoded.size());
+    }
+
+    private WebSocketPayload encode(BaseP2PRequest request) {
+        encoded.add(request);
+        try {
+            return WebSocketPayload.encode(mapper.writeValueAsString(request), request.getAttachment());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String message(WebSocketPayload payload) {
+        ByteBuffer body = payload.getBody();
+        if ((payload.getFlags() & PeerWebSocket.FLAG_ATTACHMENT) != 0) {
+            int length = body.getInt();
+            body.limit(body.position() + length);
+        }
+        byte[] bytes = new byte[body.remaining()];
+        body.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] attachment(WebSocketPayload payload) {
+        if ((payload.getFlags() & PeerWebSocket.FLAG_ATTACHMENT) == 0) {
+            return null;
+        }
+        ByteBuffer body = payload.getBody();
+        int length = body.getInt();
+        body.position(body.position() + length);
+        byte[] bytes = new byte[body.remaining()];
+        body.get(bytes);
+        return bytes;
+    }
+
+    private static Peer peer(boolean binary) {
+        Peer peer = mock(Peer.class);
+        doReturn(binary).when(peer).providesService(Peer.Service.BINARY_P2P);
+        return peer;
+    }
+}
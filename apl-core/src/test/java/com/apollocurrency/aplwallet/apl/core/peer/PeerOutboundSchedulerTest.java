@@ -0,0 +1,142 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.core.peer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PeerOutboundSchedulerTest {
+    private final List<String> sent = new CopyOnWriteArrayList<>();
+    private final CountDownLatch blocked = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private PeerOutboundScheduler scheduler;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        scheduler.shutdown();
+    }
+
+    @Test
+    void testPeersTakeTurns() throws InterruptedException {
+        scheduler = new PeerOutboundScheduler(1, 10);
+        PeerOutboundScheduler.PeerQueue blocker = scheduler.newQueue("blocker");
+        PeerOutboundScheduler.PeerQueue peer1 = scheduler.newQueue("peer1");
+        PeerOutboundScheduler.PeerQueue peer2 = scheduler.newQueue("peer2");
+        blocker.announce(null, this::block);
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+        peer1.announce(null, send("1-1"));
+        peer1.announce(null, send("1-2"));
+        peer1.announce(null, send("1-3"));
+        peer2.announce(null, send("2-1"));
+        peer2.announce(null, send("2-2"));
+        assertEquals(3, peer1.size());
+
+        CountDownLatch done = new CountDownLatch(1);
+        peer1.announce(null, done::countDown);
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("1-1", "2-1", "1-2", "2-2", "1-3"), sent);
+        assertEquals(0, peer1.size());
+    }
+
+    @Test
+    void testFullQueueDropsOldestAnnouncement() throws InterruptedException {
+        scheduler = new PeerOutboundScheduler(1, 3);
+        PeerOutboundScheduler.PeerQueue peer = scheduler.newQueue("peer");
+        peer.announce(null, this::block);
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+        assertTrue(peer.announce(null, send("tx-1")));
+        assertTrue(peer.announce(null, send("tx-2")));
+        assertTrue(peer.announce(null, send("tx-3")));
+        assertEquals(0, peer.getDropped());
+        assertFalse(peer.announce(null, send("tx-4")));
+        assertFalse(peer.announce(null, send("tx-5")));
+        assertEquals(2, peer.getDropped());
+        assertEquals(3, peer.size());
+
+        awaitSent(peer);
+        assertEquals(List.of("tx-3", "tx-4", "tx-5"), sent);
+    }
+
+    @Test
+    void testShutDownSchedulerRejectsAnnouncement() {
+        scheduler = new PeerOutboundScheduler(1, 3);
+        PeerOutboundScheduler.PeerQueue peer = scheduler.newQueue("peer");
+        scheduler.shutdown();
+
+        assertThrows(RejectedExecutionException.class, () -> peer.announce(null, send("tx-1")));
+        assertEquals(0, peer.size());
+    }
+
+    @Test
+    void testAnnouncementReplacesStaleOneWithTheSameKey() throws InterruptedException {
+        scheduler = new PeerOutboundScheduler(1, 10);
+        PeerOutboundScheduler.PeerQueue peer = scheduler.newQueue("peer");
+        peer.announce(null, this::block);
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+        assertTrue(peer.announce("block", send("block-1")));
+        assertTrue(peer.announce(null, send("tx-1")));
+        assertTrue(peer.announce("block", send("block-2")));
+        assertEquals(2, peer.size());
+
+        awaitSent(peer);
+        assertEquals(List.of("block-2", "tx-1"), sent);
+        assertEquals(0, peer.getDropped());
+    }
+
+    @Test
+    void testClear() throws InterruptedException {
+        scheduler = new PeerOutboundScheduler(1, 10);
+        PeerOutboundScheduler.PeerQueue peer = scheduler.newQueue("peer");
+        peer.announce(null, this::block);
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        peer.announce(null, send("tx-1"));
+
+        peer.clear();
+
+        assertEquals(0, peer.size());
+        awaitSent(peer);
+        assertEquals(List.of(), sent);
+    }
+
+    private void awaitSent(PeerOutboundScheduler.PeerQueue peer) throws InterruptedException {
+        release.countDown();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (peer.size() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        CountDownLatch done = new CountDownLatch(1);
+        peer.announce(null, done::countDown);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    private Runnable send(String message) {
+        return () -> sent.add(message);
+    }
+
+    private void block() {
+        blocked.countDown();
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
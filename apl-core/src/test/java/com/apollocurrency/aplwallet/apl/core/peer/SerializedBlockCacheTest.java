@@ -0,0 +1,162 @@
+/*
+ *  Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.peer;
+
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Block;
+import com.apollocurrency.aplwallet.apl.core.service.blockchain.BlockSerializer;
+import com.apollocurrency.aplwallet.apl.core.service.blockchain.Blockchain;
+import org.json.simple.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class SerializedBlockCacheTest {
+    Blockchain blockchain = mock(Blockchain.class);
+    BlockSerializer blockSerializer = mock(BlockSerializer.class);
+    BinaryP2PCodec binaryP2PCodec = mock(BinaryP2PCodec.class);
+    SerializedBlockCache cache;
+    Block block1;
+    Block block2;
+    Block block3;
+
+    @BeforeEach
+    void setUp() {
+        cache = new SerializedBlockCache(blockchain, blockSerializer, binaryP2PCodec, 10);
+        block1 = block(1, 0, 1);
+        block2 = block(2, 1, 2);
+        block3 = block(3, 2, 3);
+        doReturn(3).when(blockchain).getHeight();
+        doReturn(List.of(block1, block2, block3)).when(blockchain).getBlocksAfter(0L, List.of(1L, 2L, 3L));
+    }
+
+    @Test
+    void testBlocksAreServedFromCacheAfterFirstRequest() {
+        cache.getBlocksAfter(0, List.of(1L, 2L, 3L)).forEach(SerializedBlockCache.SerializedBlock::getJson);
+
+        List<SerializedBlockCache.SerializedBlock> blocks = cache.getBlocksAfter(0, List.of(1L, 2L, 3L));
+
+        assertEquals(List.of(1L, 2L, 3L), ids(blocks));
+        assertEquals("{\"id\":2}", blocks.get(1).getJson());
+        verify(blockchain, times(1)).getBlocksAfter(anyLong(), anyList());
+        verify(blockSerializer, times(1)).getJSONObject(block2);
+    }
+
+    @Test
+    void testMissingBlocksAreLoadedAfterLastCachedBlock() {
+        cache.getBlocksAfter(0, List.of(1L, 2L, 3L));
+        Block block4 = block(4, 3, 4);
+        doReturn(List.of(block4)).when(blockchain).getBlocksAfter(3L, List.of(4L));
+
+        List<SerializedBlockCache.SerializedBlock> blocks = cache.getBlocksAfter(1, List.of(2L, 3L, 4L));
+
+        assertEquals(List.of(2L, 3L, 4L), ids(blocks));
+        verify(blockchain).getBlocksAfter(3L, List.of(4L));
+    }
+
+    @Test
+    void testBinaryFormIsCreatedOnce() {
+        doReturn(new byte[]{1, 2}).when(binaryP2PCodec).encodeBlockBytes(any(Block.class));
+        SerializedBlockCache.SerializedBlock serializedBlock = cache.getBlocksAfter(0, List.of(1L, 2L, 3L)).get(0);
+
+        serializedBlock.getBinary();
+        serializedBlock.getBinary();
+
+        verify(binaryP2PCodec, times(1)).encodeBlockBytes(block1);
+    }
+
+    @Test
+    void testGetBlockIdsAfter() {
+        cache.getBlocksAfter(0, List.of(1L, 2L, 3L));
+
+        assertEquals(List.of(2L, 3L), cache.getBlockIdsAfter(1, 10));
+        assertEquals(List.of(2L), cache.getBlockIdsAfter(1, 1));
+        assertNull(cache.getBlockIdsAfter(0, 10));
+    }
+
+    @Test
+    void testPoppedOffBlocksAreRemoved() {
+        cache.getBlocksAfter(0, List.of(1L, 2L, 3L));
+
+        cache.onBlockPopped(block2);
+
+        assertEquals(1, cache.size());
+        assertNull(cache.getBlockIdsAfter(1, 10));
+        doReturn(List.of()).when(blockchain).getBlocksAfter(1L, List.of(2L, 3L));
+        assertEquals(List.of(1L), ids(cache.getBlocksAfter(0, List.of(1L, 2L, 3L))));
+    }
+
+    @Test
+    void testBlocksLoadedDuringPopOffAreNotCached() {
+        doAnswer(invocation -> {
+            cache.onBlockPopped(block3);
+            return List.of(block1, block2, block3);
+        }).when(blockchain).getBlocksAfter(0L, List.of(1L, 2L, 3L));
+
+        assertEquals(List.of(1L, 2L, 3L), ids(cache.getBlocksAfter(0, List.of(1L, 2L, 3L))));
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testBlocksAboveLastBlockAreNotCached() {
+        doReturn(2).when(blockchain).getHeight();
+
+        cache.getBlocksAfter(0, List.of(1L, 2L, 3L));
+
+        assertEquals(2, cache.size());
+        assertEquals(List.of(2L), cache.getBlockIdsAfter(1, 10));
+    }
+
+    @Test
+    void testLeastRecentlyServedBlocksAreEvicted() {
+        cache = new SerializedBlockCache(blockchain, blockSerializer, binaryP2PCodec, 2);
+
+        cache.getBlocksAfter(0, List.of(1L, 2L, 3L));
+
+        assertEquals(2, cache.size());
+        assertEquals(List.of(3L), cache.getBlockIdsAfter(2, 10));
+    }
+
+    @Test
+    void testDisabledCache() {
+        cache = new SerializedBlockCache(blockchain, blockSerializer, binaryP2PCodec, 0);
+
+        cache.getBlocksAfter(0, List.of(1L, 2L, 3L));
+        cache.getBlocksAfter(0, List.of(1L, 2L, 3L));
+
+        assertEquals(0, cache.size());
+        verify(blockchain, times(2)).getBlocksAfter(0L, List.of(1L, 2L, 3L));
+        verify(blockSerializer, never()).getJSONObject(any(Block.class));
+    }
+
+    private List<Long> ids(List<SerializedBlockCache.SerializedBlock> blocks) {
+        return blocks.stream().map(SerializedBlockCache.SerializedBlock::getId).collect(Collectors.toList());
+    }
+
+    private Block block(long id, long previousBlockId, int height) {
+        Block block = mock(Block.class);
+        doReturn(id).when(block).getId();
+        doReturn(previousBlockId).when(block).getPreviousBlockId();
+        doReturn(height).when(block).getHeight();
+        JSONObject json = new JSONObject();
+        json.put("id", id);
+        doReturn(json).when(blockSerializer).getJSONObject(block);
+        return block;
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.core.peer;
+
+import com.apollocurrency.aplwallet.apl.core.app.AplException;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Transaction;
+import com.apollocurrency.aplwallet.apl.core.service.blockchain.Blockchain;
+import com.apollocurrency.aplwallet.apl.core.service.blockchain.MemPool;
+import com.apollocurrency.aplwallet.apl.crypto.Convert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+class TransactionInventoryTest {
+    private final MemPool memPool = mock(MemPool.class);
+    private final Blockchain blockchain = mock(Blockchain.class);
+    private final TransactionInventory inventory = new TransactionInventory(memPool, blockchain, true);
+    private final byte[] unconfirmedHash = hash(1);
+    private final byte[] confirmedHash = hash(2);
+    private final byte[] unknownHash = hash(3);
+    private final Peer peer1 = connectedPeer();
+    private final Peer peer2 = connectedPeer();
+    private final Peer peer3 = connectedPeer();
+
+    @AfterEach
+    void tearDown() {
+        inventory.shutdown();
+    }
+
+    @Test
+    void testEncodeDecodeFullHashes() throws AplException.NotValidException {
+        List<byte[]> fullHashes = TransactionInventory.decodeFullHashes(TransactionInventory.encodeFullHashes(List.of(unconfirmedHash, unknownHash)));
+
+        assertEquals(2, fullHashes.size());
+        assertArrayEquals(unconfirmedHash, fullHashes.get(0));
+        assertArrayEquals(unknownHash, fullHashes.get(1));
+        assertTrue(TransactionInventory.decodeFullHashes("").isEmpty());
+    }
+
+    @Test
+    void testDecodeMalformedFullHashes() {
+        assertThrows(AplException.NotValidException.class, () -> TransactionInventory.decodeFullHashes(null));
+        assertThrows(AplException.NotValidException.class, () -> TransactionInventory.decodeFullHashes("not base64!"));
+        assertThrows(AplException.NotValidException.class, () -> TransactionInventory.decodeFullHashes(Base64.getEncoder().encodeToString(new byte[33])));
+        String tooMany = TransactionInventory.encodeFullHashes(Collections.nCopies(TransactionInventory.MAX_FULL_HASHES + 1, unknownHash));
+        assertThrows(AplException.NotValidException.class, () -> TransactionInventory.decodeFullHashes(tooMany));
+    }
+
+    @Test
+    void testClaimOnlyUnknownTransactionsOnce() {
+        doReturn(true).when(memPool).hasUnconfirmedTransaction(Convert.fullHashToId(unconfirmedHash));
+        doReturn(true).when(blockchain).hasTransactionByFullHash(confirmedHash);
+
+        List<byte[]> missing = inventory.claimMissing(peer1, List.of(unconfirmedHash, confirmedHash, unknownHash));
+
+        assertEquals(1, missing.size());
+        assertArrayEquals(unknownHash, missing.get(0));
+        assertTrue(inventory.claimMissing(peer1, List.of(unknownHash)).isEmpty());
+
+        assertTrue(inventory.release(peer1, missing).isEmpty());
+        assertEquals(1, inventory.claimMissing(peer1, List.of(unknownHash)).size());
+    }
+
+    @Test
+    void testStillMissingTransactionIsClaimedForNextAnnouncer() {
+        assertEquals(1, inventory.claimMissing(peer1, List.of(unknownHash)).size());
+        assertTrue(inventory.claimMissing(peer2, List.of(unknownHash)).isEmpty());
+        assertTrue(inventory.claimMissing(peer3, List.of(unknownHash)).isEmpty());
+        doReturn(PeerState.NON_CONNECTED).when(peer2).getState();
+
+        // only the peer, which the transaction is requested from, releases it
+        assertTrue(inventory.release(peer2, List.of(unknownHash)).isEmpty());
+        Map<Peer, List<byte[]>> next = inventory.release(peer1, List.of(unknownHash));
+
+        assertEquals(Set.of(peer3), next.keySet());
+        assertArrayEquals(unknownHash, next.get(peer3).get(0));
+        assertTrue(inventory.claimMissing(peer1, List.of(unknownHash)).isEmpty());
+        doReturn(true).when(memPool).hasUnconfirmedTransaction(Convert.fullHashToId(unknownHash));
+        assertTrue(inventory.release(peer3, List.of(unknownHash)).isEmpty());
+    }
+
+    @Test
+    void testIsRequested() {
+        Transaction transaction = mock(Transaction.class);
+        doReturn(Convert.fullHashToId(unknownHash)).when(transaction).getId();
+        doReturn(unknownHash).when(transaction).getFullHash();
+        Transaction sameIdTransaction = mock(Transaction.class);
+        byte[] sameIdHash = unknownHash.clone();
+        sameIdHash[31]++;
+        doReturn(Convert.fullHashToId(sameIdHash)).when(sameIdTransaction).getId();
+        doReturn(sameIdHash).when(sameIdTransaction).getFullHash();
+
+        assertTrue(TransactionInventory.isRequested(List.of(unconfirmedHash, unknownHash), List.of(transaction)));
+        assertFalse(TransactionInventory.isRequested(List.of(unconfirmedHash), List.of(transaction)));
+        assertFalse(TransactionInventory.isRequested(List.of(unknownHash), List.of(sameIdTransaction)));
+        assertFalse(TransactionInventory.isRequested(List.of(unknownHash), List.of(transaction, transaction)));
+    }
+
+    @Test
+    void testGetMemPoolTransactionsChecksFullHash() {
+        Transaction transaction = mock(Transaction.class);
+        doReturn(unconfirmedHash).when(transaction).getFullHash();
+        doReturn(transaction).when(memPool).getUnconfirmedTransaction(Convert.fullHashToId(unconfirmedHash));
+        byte[] sameIdHash = unconfirmedHash.clone();
+        sameIdHash[31]++;
+
+        assertEquals(List.of(transaction), inventory.getMemPoolTransactions(List.of(unconfirmedHash, sameIdHash, unknownHash)));
+    }
+
+    @Test
+    void testCanServeOnlyMemPoolTransactions() {
+        Transaction transaction = mock(Transaction.class);
+        doReturn(Convert.fullHashToId(unconfirmedHash)).when(transaction).getId();
+        doReturn(unconfirmedHash).when(transaction).getFullHash();
+        Transaction broadcasted = mock(Transaction.class);
+        doReturn(Convert.fullHashToId(unknownHash)).when(broadcasted).getId();
+        doReturn(unknownHash).when(broadcasted).getFullHash();
+        doReturn(transaction).when(memPool).getUnconfirmedTransaction(Convert.fullHashToId(unconfirmedHash));
+
+        assertTrue(inventory.canServe(transaction));
+        assertFalse(inventory.canServe(broadcasted));
+    }
+
+    @Test
+    void testSupportedByPeer() {
+        Peer peer = mock(Peer.class);
+        doReturn(true).when(peer).providesService(Peer.Service.TX_INVENTORY);
+
+        assertTrue(inventory.isSupportedBy(peer));
+        TransactionInventory disabled = new TransactionInventory(memPool, blockchain, false);
+        assertFalse(disabled.isSupportedBy(peer));
+        disabled.shutdown();
+    }
+
+    private static Peer connectedPeer() {
+        Peer peer = mock(Peer.class);
+        doReturn(PeerState.CONNECTED).when(peer).getState();
+        return peer;
+    }
+
+    private static byte[] hash(int seed) {
+        byte[] hash = new byte[32];
+        for (int i = 0; i < hash.length; i++) {
+            hash[i] = (byte) (seed * 31 + i);
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.core.peer;
+
+import com.google.common.util.concurrent.TimeLimiter;
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class WebSocketPayloadTest {
+
+    @AfterEach
+    void tearDown() {
+        PeersService.isGzipEnabled = false;
+    }
+
+    @Test
+    void testEncodeSmallMessage() throws IOException {
+        PeersService.isGzipEnabled = true;
+
+        WebSocketPayload payload = WebSocketPayload.encode("{\"requestType\":\"getInfo\"}");
+
+        assertEquals(0, payload.getFlags());
+        assertEquals(payload.getLength(), payload.getBodySize());
+        assertEquals("{\"requestType\":\"getInfo\"}", new String(bytes(payload.getBody()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testEncodeCompressedMessageOnce() throws IOException {
+        PeersService.isGzipEnabled = true;
+        String message = "{\"transactions\":\"" + "a".repeat(PeersService.MIN_COMPRESS_SIZE) + "\"}";
+
+        WebSocketPayload payload = WebSocketPayload.encode(message);
+
+        assertEquals(PeerWebSocket.FLAG_COMPRESSED, payload.getFlags());
+        assertEquals(message.length(), payload.getMessageLength());
+        assertEquals(message.length(), payload.getLength());
+        byte[] first = bytes(payload.getBody());
+        byte[] second = bytes(payload.getBody());
+        assertArrayEquals(first, second);
+        assertEquals(payload.getBodySize(), first.length);
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(first))) {
+            assertEquals(message, new String(gzip.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void testAttachmentIsReceivedAsIs() throws IOException {
+        PeersService.isGzipEnabled = true;
+        String message = "{\"requestType\":\"processBlock\"}";
+        byte[] attachment = new byte[PeersService.MIN_COMPRESS_SIZE];
+        attachment[0] = 1;
+
+        WebSocketPayload payload = WebSocketPayload.encode(message, attachment);
+
+        assertEquals(PeerWebSocket.FLAG_ATTACHMENT | PeerWebSocket.FLAG_COMPRESSED, payload.getFlags());
+        assertEquals(message.length() + attachment.length, payload.getMessageLength());
+        Peer2PeerTransport transport = mock(Peer2PeerTransport.class);
+        PeerWebSocket webSocket = new PeerWebSocket(transport);
+        byte[] frame = ByteBuffer.allocate(20 + payload.getBodySize())
+            .putInt(1)
+            .putLong(7L)
+            .putInt(payload.getFlags())
+            .putInt(payload.getLength())
+            .put(payload.getBody())
+            .array();
+
+        webSocket.onWebSocketBinary(frame, 0, frame.length);
+
+        verify(transport).onIncomingMessage(eq(message), aryEq(attachment), same(webSocket), eq(7L));
+    }
+
+    @Test
+    void testPayloadIsSentAsSingleFrame() throws Exception {
+        RemoteEndpoint remote = mock(RemoteEndpoint.class);
+        PeerWebSocket webSocket = connectedWebSocket(remote);
+        WebSocketPayload payload = WebSocketPayload.encode("a".repeat(PeerWebSocket.MIN_FRAGMENTED_BODY_SIZE));
+
+        webSocket.send(payload, 7L);
+
+        ArgumentCaptor<ByteBuffer> frame = ArgumentCaptor.forClass(ByteBuffer.class);
+        verify(remote).sendBytes(frame.capture());
+        verify(remote, never()).sendPartialBytes(any(ByteBuffer.class), anyBoolean());
+        ByteBuffer sent = frame.getValue();
+        assertEquals(20 + payload.getBodySize(), sent.remaining());
+        assertEquals(7L, sent.getLong(4));
+        assertEquals(payload.getBody(), sent.position(20));
+    }
+
+    @Test
+    void testLargeSharedPayloadIsSentAsFragmentedMessage() throws Exception {
+        RemoteEndpoint remote = mock(RemoteEndpoint.class);
+        PeerWebSocket webSocket = connectedWebSocket(remote);
+        WebSocketPayload payload = WebSocketPayload.encodeShared("a".repeat(PeerWebSocket.MIN_FRAGMENTED_BODY_SIZE), null);
+
+        webSocket.send(payload, 7L);
+
+        verify(remote).sendPartialBytes(any(ByteBuffer.class), eq(false));
+        verify(remote).sendPartialBytes(eq(payload.getBody()), eq(true));
+        verify(remote, never()).sendBytes(any(ByteBuffer.class));
+    }
+
+    private static PeerWebSocket connectedWebSocket(RemoteEndpoint remote) throws Exception {
+        TimeLimiter limiter = mock(TimeLimiter.class);
+        doAnswer(invocation -> {
+            invocation.getArgument(0, Runnable.class).run();
+            return null;
+        }).when(limiter).runWithTimeout(any(Runnable.class), anyLong(), any(TimeUnit.class));
+        Peer2PeerTransport transport = mock(Peer2PeerTransport.class);
+        doReturn(limiter).when(transport).getLimiter();
+        Session session = mock(Session.class);
+        doReturn(remote).when(session).getRemote();
+        PeerWebSocket webSocket = new PeerWebSocket(transport);
+        webSocket.onWebSocketConnect(session);
+        return webSocket;
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
@@ -23,6 +23,8 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.util.Collections;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -112,6 +114,29 @@ class DeleteTrimObserverTest {
         observer.performOneTableDelete(delete);
 
         verify(dataSource).commit(false);
-        verify(preparedStatement, times(2)).executeUpdate();
+        verify(con).prepareStatement("DELETE FROM account WHERE db_id IN (?, ?)");
+        verify(preparedStatement).setLong(1, 1739068987193023818L);
+        verify(preparedStatement).setLong(2, 9211698109297098287L);
+        verify(preparedStatement, times(1)).executeUpdate();
+    }
+
+    @Test
+    void performDeleteInBatches() throws Exception {
+        TransactionalDataSource dataSource = mock(TransactionalDataSource.class);
+        doReturn(true).when(dataSource).isInTransaction();
+        doReturn(dataSource).when(databaseManager).getDataSource();
+        Connection con = mock(Connection.class);
+        doReturn(con).when(dataSource).getConnection();
+        PreparedStatement preparedStatement = mock(PreparedStatement.class);
+        doReturn(preparedStatement).when(con).prepareStatement(anyString());
+        doReturn(10).when(preparedStatement).executeUpdate();
+        observer = new DeleteTrimObserver(databaseManager, propertiesHolder);
+        Set<Long> dbIds = LongStream.rangeClosed(1, 25).boxed().collect(Collectors.toSet());
+
+        long deleted = observer.performOneTableDelete(new DeleteOnTrimData(false, dbIds, "account"));
+
+        assertEquals(30, deleted);
+        verify(preparedStatement, times(3)).executeUpdate();
+        verify(dataSource, times(3)).commit(false);
     }
 }
\ No newline at end of file
@@ -8,6 +8,7 @@ import com.apollocurrency.aplwallet.apl.core.app.observer.events.TrimEvent;
 import com.apollocurrency.aplwallet.apl.core.dao.TransactionalDataSource;
 import com.apollocurrency.aplwallet.apl.core.dao.appdata.TrimDao;
 import com.apollocurrency.aplwallet.apl.core.dao.state.derived.DerivedTableInterface;
+import com.apollocurrency.aplwallet.apl.core.entity.appdata.TableTrimStats;
 import com.apollocurrency.aplwallet.apl.core.entity.appdata.TrimEntry;
 import com.apollocurrency.aplwallet.apl.core.service.blockchain.GlobalSync;
 import com.apollocurrency.aplwallet.apl.core.service.blockchain.GlobalSyncImpl;
@@ -23,6 +24,8 @@ import org.mockito.Mockito;
 import javax.enterprise.event.Event;
 import javax.enterprise.util.AnnotationLiteral;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -284,4 +287,65 @@ class TrimServiceTest {
 
         verify(derivedTable, times(2)).trim(2000, false);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testDoTrimDerivedTablesOnHeightConcurrently() {
+        DerivedTableInterface phasingPoll = table("phasing_poll", Set.of("phasing_vote"));
+        DerivedTableInterface account = table("account", Set.of());
+        DerivedTableInterface phasingVote = table("phasing_vote", Set.of());
+        doReturn(List.of(phasingPoll, account, phasingVote)).when(registry).getDerivedTables();
+        TrimService concurrentTrimService = new TrimService(databaseManager, registry, timeService, trimConfigEvent, trimDao, 1000, 2);
+        try {
+            DbUtils.inTransaction(extension, con -> concurrentTrimService.doTrimDerivedTablesOnHeightLocked(2000, false));
+        } finally {
+            concurrentTrimService.shutdown();
+        }
+
+        verify(phasingPoll).trim(2000, false);
+        verify(account).trim(2000, false);
+        verify(phasingVote).trim(2000, false);
+        List<String> trimmedTables = concurrentTrimService.getTrimStats().stream().map(TableTrimStats::getTableName).collect(Collectors.toList());
+        assertEquals(Set.of("phasing_poll", "account", "phasing_vote"), Set.copyOf(trimmedTables));
+        concurrentTrimService.getTrimStats().forEach(stats -> {
+            assertEquals(1, stats.getTrimCount());
+            assertEquals(2000, stats.getLastHeight());
+        });
+    }
+
+    @Test
+    void testDoTrimDerivedTablesOnHeightConcurrentlyWithException() {
+        DerivedTableInterface account = table("account", Set.of());
+        DerivedTableInterface alias = table("alias", Set.of());
+        doThrow(new RuntimeException("Trim failed")).when(alias).trim(2000, false);
+        doReturn(List.of(account, alias)).when(registry).getDerivedTables();
+        TrimService concurrentTrimService = new TrimService(databaseManager, registry, timeService, trimConfigEvent, trimDao, 1000, 2);
+        try {
+            assertThrows(RuntimeException.class, () -> DbUtils.inTransaction(extension, con -> concurrentTrimService.doTrimDerivedTablesOnHeightLocked(2000, false)));
+        } finally {
+            concurrentTrimService.shutdown();
+        }
+
+        verify(account).trim(2000, false);
+    }
+
+    @Test
+    void testGroupTablesForTrim() {
+        DerivedTableInterface phasingPoll = table("phasing_poll", Set.of("phasing_vote", "phasing_poll_voter"));
+        DerivedTableInterface account = table("account", Set.of());
+        DerivedTableInterface phasingVote = table("phasing_vote", Set.of());
+        DerivedTableInterface vote = table("vote", Set.of("poll"));
+        DerivedTableInterface phasingPollVoter = table("phasing_poll_voter", Set.of());
+        DerivedTableInterface poll = table("poll", Set.of());
+
+        List<List<DerivedTableInterface>> groups = TrimService.groupTablesForTrim(List.of(phasingPoll, account, phasingVote, vote, phasingPollVoter, poll));
+
+        assertEquals(List.of(List.of(phasingPoll, phasingVote, phasingPollVoter), List.of(account), List.of(vote, poll)), groups);
+    }
+
+    private DerivedTableInterface table(String name, Set<String> trimDependencies) {
+        DerivedTableInterface table = mock(DerivedTableInterface.class);
+        doReturn(name).when(table).getName();
+        doReturn(trimDependencies).when(table).getTrimDependencies();
+        return table;
+    }
+}
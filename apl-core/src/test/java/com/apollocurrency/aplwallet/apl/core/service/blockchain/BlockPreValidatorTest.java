@@ -0,0 +1,144 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.core.service.blockchain;
+
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Block;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Transaction;
+import com.apollocurrency.aplwallet.apl.crypto.Crypto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.security.MessageDigest;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BlockPreValidatorTest {
+    @Mock
+    BlockSignatureVerifier blockSignatureVerifier;
+    @Mock
+    Blockchain blockchain;
+    @Mock
+    Block block;
+
+    BlockPreValidator preValidator;
+    List<Transaction> transactions;
+
+    @BeforeEach
+    void setUp() {
+        preValidator = new BlockPreValidator(blockSignatureVerifier, blockchain);
+        transactions = List.of(mockTransaction(1, 100, 10, 200), mockTransaction(2, 300, 20, 250));
+        MessageDigest digest = Crypto.sha256();
+        transactions.forEach(tx -> digest.update(tx.bytes()));
+        doReturn(transactions).when(blockchain).getOrLoadTransactions(block);
+        doReturn(1L).when(block).getId();
+        doReturn(400L).when(block).getTotalAmountATM();
+        doReturn(30L).when(block).getTotalFeeATM();
+        doReturn(450).when(block).getPayloadLength();
+        doReturn(digest.digest()).when(block).getPayloadHash();
+    }
+
+    @AfterEach
+    void tearDown() {
+        preValidator.shutdown();
+    }
+
+    @Test
+    void testValidBlock() {
+        BlockPreValidator.Result result = preValidator.validate(block);
+
+        assertTrue(result.isValid());
+        verify(blockSignatureVerifier).verify(block);
+    }
+
+    @Test
+    void testInvalidPayloadHash() {
+        doReturn(new byte[32]).when(block).getPayloadHash();
+
+        BlockPreValidator.Result result = preValidator.validate(block);
+
+        assertFalse(result.isValid());
+        assertEquals("Payload hash doesn't match", result.getError());
+    }
+
+    @Test
+    void testInvalidTotals() {
+        doReturn(401L).when(block).getTotalAmountATM();
+
+        BlockPreValidator.Result result = preValidator.validate(block);
+
+        assertEquals("Total amount or fee don't match transaction totals", result.getError());
+    }
+
+    @Test
+    void testInvalidPayloadLength() {
+        doReturn(451).when(block).getPayloadLength();
+
+        BlockPreValidator.Result result = preValidator.validate(block);
+
+        assertEquals("Transaction payload length 450 does not match block payload length 451", result.getError());
+    }
+
+    @Test
+    void testSubmittedBlockIsValidatedOnce() {
+        preValidator.submit(block);
+        verify(blockSignatureVerifier, timeout(5_000)).verify(block);
+
+        BlockPreValidator.Result result = preValidator.await(block);
+
+        assertTrue(result.isValid());
+        verify(blockSignatureVerifier, times(1)).verify(block);
+    }
+
+    @Test
+    void testPreparedBlockIsNotValidatedOnAwait() {
+        preValidator.prepare(block);
+        verify(blockSignatureVerifier).verify(block);
+
+        BlockPreValidator.Result result = preValidator.await(block);
+
+        assertTrue(result.isValid());
+        verify(blockSignatureVerifier, times(1)).verify(block);
+    }
+
+    @Test
+    void testNotSubmittedBlockIsValidatedOnAwait() {
+        preValidator.submit(block);
+        Block otherBlockWithSameId = mock(Block.class);
+        doReturn(1L).when(otherBlockWithSameId).getId();
+        doReturn(transactions).when(blockchain).getOrLoadTransactions(otherBlockWithSameId);
+
+        BlockPreValidator.Result result = preValidator.await(otherBlockWithSameId);
+
+        assertFalse(result.isValid());
+        verify(blockSignatureVerifier).verify(otherBlockWithSameId);
+    }
+
+    private Transaction mockTransaction(long id, long amount, long fee, int fullSize) {
+        Transaction transaction = mock(Transaction.class);
+        doReturn(id).when(transaction).getId();
+        doReturn(amount).when(transaction).getAmountATM();
+        doReturn(fee).when(transaction).getFeeATM();
+        doReturn(fullSize).when(transaction).getFullSize();
+        doReturn(new byte[]{(byte) id, 1, 2, 3}).when(transaction).bytes();
+        doReturn(List.of()).when(transaction).getAppendages();
+        return transaction;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.core.service.blockchain;
+
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Block;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Transaction;
+import com.apollocurrency.aplwallet.apl.core.transaction.TransactionValidator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BlockSignatureVerifierTest {
+    @Mock
+    TransactionValidator transactionValidator;
+    @Mock
+    Block block;
+
+    BlockSignatureVerifier verifier;
+
+    @AfterEach
+    void tearDown() {
+        verifier.shutdown();
+    }
+
+    @Test
+    void verifyAllTransactionsInParallel() {
+        verifier = new BlockSignatureVerifier(transactionValidator, 4, 2);
+        List<Transaction> transactions = mockTransactions(25);
+        doReturn(transactions).when(block).getTransactions();
+        doReturn(new byte[32]).when(block).getGeneratorPublicKey();
+        doReturn(true).when(transactionValidator).verifySignatureOnly(any(Transaction.class));
+        doReturn(false).when(transactionValidator).verifySignatureOnly(transactions.get(7));
+        doThrow(new IllegalStateException("Test error")).when(transactionValidator).verifySignatureOnly(transactions.get(20));
+
+        int failed = verifier.verify(block);
+
+        assertEquals(2, failed);
+        transactions.forEach(tx -> verify(transactionValidator).verifySignatureOnly(tx));
+        verify(block).checkSignature();
+    }
+
+    @Test
+    void verifySequentiallyBelowThreshold() {
+        verifier = new BlockSignatureVerifier(transactionValidator, 4, 10);
+        List<Transaction> transactions = mockTransactions(3);
+        doReturn(transactions).when(block).getTransactions();
+        doReturn(true).when(transactionValidator).verifySignatureOnly(any(Transaction.class));
+
+        int failed = verifier.verify(block);
+
+        assertEquals(0, failed);
+        verify(transactionValidator, times(3)).verifySignatureOnly(any(Transaction.class));
+        verify(block, never()).checkSignature();
+    }
+
+    @Test
+    void verifyBlockWithoutTransactions() {
+        verifier = new BlockSignatureVerifier(transactionValidator, 2, 1);
+        doReturn(new byte[32]).when(block).getGeneratorPublicKey();
+        doThrow(new IllegalStateException("Test error")).when(block).checkSignature();
+
+        int failed = verifier.verify(block);
+
+        assertEquals(0, failed);
+        verify(transactionValidator, never()).verifySignatureOnly(any(Transaction.class));
+    }
+
+    private List<Transaction> mockTransactions(int count) {
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            transactions.add(mock(Transaction.class));
+        }
+        return transactions;
+    }
+}
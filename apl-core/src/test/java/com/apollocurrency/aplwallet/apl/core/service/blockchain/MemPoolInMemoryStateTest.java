@@ -0,0 +1,137 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.core.service.blockchain;
+
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Transaction;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.UnconfirmedTransaction;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+class MemPoolInMemoryStateTest {
+    private static final long SENDER_1 = 1L;
+    private static final long SENDER_2 = 2L;
+
+    MemPoolInMemoryState state = new MemPoolInMemoryState(10, 10, 10);
+
+    @Test
+    void testProcessedCountIsRestoredOnce() {
+        assertFalse(state.isProcessedStateInitialized());
+
+        state.initializeProcessedState(Stream.of(unconfirmedTx(1, SENDER_1), unconfirmedTx(2, SENDER_1), unconfirmedTx(3, SENDER_2)));
+        state.initializeProcessedState(Stream.of(unconfirmedTx(4, SENDER_2)));
+
+        assertTrue(state.isProcessedStateInitialized());
+        assertEquals(3, state.processedCount());
+    }
+
+    @Test
+    void testAddAndRemoveProcessed() {
+        state.addProcessed(unconfirmedTx(1, SENDER_1));
+        state.addProcessed(unconfirmedTx(2, SENDER_1));
+        state.addProcessed(unconfirmedTx(2, SENDER_1));
+        state.addProcessed(unconfirmedTx(3, SENDER_2));
+
+        assertEquals(3, state.processedCount());
+
+        state.removeProcessed(1);
+        state.removeProcessed(1);
+        state.removeProcessed(3);
+
+        assertEquals(1, state.processedCount());
+        assertEquals(List.of(2L), processedIds());
+    }
+
+    @Test
+    void testProcessedTransactionsIteratedInPriorityOrder() {
+        UnconfirmedTransaction lowFee = unconfirmedTx(1, SENDER_1, 10, 100);
+        UnconfirmedTransaction highFee = unconfirmedTx(2, SENDER_1, 20, 100);
+        UnconfirmedTransaction highFeeLateArrival = unconfirmedTx(3, SENDER_2, 20, 200);
+        UnconfirmedTransaction removed = unconfirmedTx(4, SENDER_2, 30, 100);
+        state.addProcessed(lowFee);
+        state.addProcessed(highFeeLateArrival);
+        state.addProcessed(removed);
+        state.addProcessed(highFee);
+
+        state.removeProcessed(4);
+
+        List<UnconfirmedTransaction> ordered = new ArrayList<>();
+        state.processedTransactionsIterator().forEachRemaining(ordered::add);
+        assertEquals(List.of(highFee, highFeeLateArrival, lowFee), ordered);
+    }
+
+    @Test
+    void testProcessedTransactionRemovedAfterHeightChange() {
+        UnconfirmedTransaction first = unconfirmedTx(1, SENDER_1, 10, 100);
+        UnconfirmedTransaction second = unconfirmedTx(2, SENDER_1, 10, 200);
+        state.addProcessed(first);
+        state.addProcessed(second);
+        doReturn(Integer.MAX_VALUE).when(first.getTransaction()).getHeight();
+
+        List<UnconfirmedTransaction> ordered = new ArrayList<>();
+        state.processedTransactionsIterator().forEachRemaining(ordered::add);
+        assertEquals(List.of(first, second), ordered);
+
+        state.removeProcessed(1);
+
+        ordered.clear();
+        state.processedTransactionsIterator().forEachRemaining(ordered::add);
+        assertEquals(List.of(second), ordered);
+        assertEquals(1, state.processedCount());
+    }
+
+    @Test
+    void testClearResetsProcessedCount() {
+        state.addProcessed(unconfirmedTx(1, SENDER_1));
+
+        state.clear();
+
+        assertFalse(state.processedTransactionsIterator().hasNext());
+        assertEquals(0, state.processedCount());
+    }
+
+    @Test
+    void testResetProcessedStateRestoresItAgain() {
+        state.initializeProcessedState(Stream.of(unconfirmedTx(1, SENDER_1), unconfirmedTx(2, SENDER_2)));
+        state.putInCache(unconfirmedTx(1, SENDER_1));
+
+        state.resetProcessedState();
+
+        assertFalse(state.isProcessedStateInitialized());
+        assertFalse(state.isCacheInitialized());
+        assertEquals(0, state.processedCount());
+        assertEquals(0, state.txCacheSize());
+
+        state.initializeProcessedState(Stream.of(unconfirmedTx(2, SENDER_2)));
+
+        assertTrue(state.isProcessedStateInitialized());
+        assertEquals(List.of(2L), processedIds());
+    }
+
+    private List<Long> processedIds() {
+        List<Long> ids = new ArrayList<>();
+        state.processedTransactionsIterator().forEachRemaining(tx -> ids.add(tx.getId()));
+        return ids;
+    }
+
+    private UnconfirmedTransaction unconfirmedTx(long id, long senderId) {
+        return unconfirmedTx(id, senderId, 1, 0);
+    }
+
+    private UnconfirmedTransaction unconfirmedTx(long id, long senderId, long feePerByte, long arrivalTimestamp) {
+        Transaction tx = mock(Transaction.class);
+        doReturn(id).when(tx).getId();
+        doReturn(senderId).when(tx).getSenderId();
+        return new UnconfirmedTransaction(tx, arrivalTimestamp, feePerByte);
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.core.service.blockchain;
+
+import com.apollocurrency.aplwallet.apl.core.dao.TransactionalDataSource;
+import com.apollocurrency.aplwallet.apl.core.dao.appdata.MemPoolUnconfirmedTransactionTable;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Transaction;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.UnconfirmedTransaction;
+import com.apollocurrency.aplwallet.apl.core.service.appdata.DatabaseManager;
+import com.apollocurrency.aplwallet.apl.core.service.fulltext.TransactionCallback;
+import com.apollocurrency.aplwallet.apl.core.transaction.TransactionValidator;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class MemPoolTest {
+    MemPoolUnconfirmedTransactionTable table = mock(MemPoolUnconfirmedTransactionTable.class);
+    DatabaseManager databaseManager = mock(DatabaseManager.class);
+    TransactionalDataSource dataSource = mock(TransactionalDataSource.class);
+    MemPoolInMemoryState memoryState = new MemPoolInMemoryState(10, 10, 10);
+
+    MemPool memPool = new MemPool(table, memoryState, mock(GlobalSync.class), mock(TransactionValidator.class),
+        databaseManager, 10, false);
+
+    @Test
+    void testProcessedStateIsRestoredAfterRollback() {
+        doReturn(dataSource).when(databaseManager).getDataSource();
+        doReturn(true).when(dataSource).isInTransaction();
+        doReturn(Stream.empty(), Stream.empty()).when(table).getAllUnconfirmedTransactionsStream();
+
+        assertTrue(memPool.addProcessed(unconfirmedTx(1)));
+        assertEquals(1, memPool.allProcessedCount());
+
+        ArgumentCaptor<TransactionCallback> callback = ArgumentCaptor.forClass(TransactionCallback.class);
+        verify(dataSource).registerCallback(callback.capture());
+        callback.getValue().rollback();
+
+        assertEquals(0, memPool.allProcessedCount());
+    }
+
+    private UnconfirmedTransaction unconfirmedTx(long id) {
+        Transaction tx = mock(Transaction.class);
+        doReturn(id).when(tx).getId();
+        return new UnconfirmedTransaction(tx, 0, 1);
+    }
+}
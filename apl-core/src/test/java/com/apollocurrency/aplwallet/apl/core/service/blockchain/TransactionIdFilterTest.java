@@ -0,0 +1,72 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.core.service.blockchain;
+
+import com.google.common.hash.BloomFilter;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransactionIdFilterTest {
+
+    @Test
+    void testNotLoadedFilterContainsAnyId() {
+        TransactionIdFilter filter = new TransactionIdFilter(true, 100);
+
+        filter.add(1L);
+
+        assertTrue(filter.mightContain(2L));
+        assertEquals(0, filter.approximateSize());
+    }
+
+    @Test
+    void testDisabledFilterIsNeverInstalled() {
+        TransactionIdFilter filter = new TransactionIdFilter(false, 100);
+
+        filter.install(filter.newFilter(10));
+        filter.clear();
+
+        assertTrue(filter.mightContain(1L));
+    }
+
+    @Test
+    void testLoadedFilterHasNoFalseNegatives() {
+        TransactionIdFilter filter = new TransactionIdFilter(true, 100);
+        BloomFilter<Long> bloomFilter = filter.newFilter(5_000);
+        Random random = new Random(7);
+        long[] ids = random.longs(5_000).toArray();
+        for (int i = 0; i < ids.length / 2; i++) {
+            bloomFilter.put(ids[i]);
+        }
+        filter.install(bloomFilter);
+        for (int i = ids.length / 2; i < ids.length; i++) {
+            filter.add(ids[i]);
+        }
+
+        for (long id : ids) {
+            assertTrue(filter.mightContain(id));
+        }
+        long falsePositives = random.longs(10_000).filter(filter::mightContain).count();
+        assertTrue(falsePositives < 300, "Too many false positives: " + falsePositives);
+    }
+
+    @Test
+    void testClearAndUnload() {
+        TransactionIdFilter filter = new TransactionIdFilter(true, 100);
+        filter.clear();
+        filter.add(1L);
+
+        assertTrue(filter.mightContain(1L));
+        filter.clear();
+        assertFalse(filter.mightContain(1L));
+
+        filter.unload();
+        assertTrue(filter.mightContain(1L));
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ *  Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.service.fulltext;
+
+import com.apollocurrency.aplwallet.apl.util.NtpTime;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class LuceneFullTextSearchEngineTest {
+    private final TableData tableData = new TableData(0, "currency", "public", List.of("DB_ID", "NAME"),
+        List.of(Types.BIGINT, Types.VARCHAR), List.of(1));
+    private Path indexDir;
+    private LuceneFullTextSearchEngine engine;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        indexDir = Files.createTempDirectory("indexDir");
+        engine = new LuceneFullTextSearchEngine(mock(NtpTime.class), indexDir);
+        engine.init();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        engine.shutdown();
+        FileUtils.deleteDirectory(indexDir.toFile());
+    }
+
+    @Test
+    void testRowIsSearchableAfterRefreshWithoutCommit() throws SQLException {
+        engine.commitRow(null, new Object[]{1L, "apollo"}, tableData);
+        assertFalse(search("apollo"));
+
+        engine.refreshIndex();
+
+        assertTrue(search("apollo"));
+        assertEquals(-1, engine.getCommittedDbId("PUBLIC", "CURRENCY"));
+    }
+
+    @Test
+    void testDeleteRow() throws SQLException {
+        engine.commitRow(null, new Object[]{1L, "apollo"}, tableData);
+        engine.refreshIndex();
+
+        engine.commitRow(new Object[]{1L, "apollo"}, null, tableData);
+        engine.refreshIndex();
+
+        assertFalse(search("apollo"));
+    }
+
+    @Test
+    void testCommittedDbIdIsRestoredAfterRestart() throws IOException, SQLException {
+        engine.commitRow(null, new Object[]{2L, "apollo"}, tableData);
+        engine.commitRow(null, new Object[]{1L, "coin"}, tableData);
+        engine.commitIndex();
+        engine.commitRow(null, new Object[]{3L, "token"}, tableData);
+        engine.refreshIndex();
+        assertEquals(2, engine.getCommittedDbId("public", "currency"));
+
+        engine.shutdown();
+        engine = new LuceneFullTextSearchEngine(mock(NtpTime.class), indexDir);
+        engine.init();
+
+        assertEquals(3, engine.getCommittedDbId("public", "currency"));
+        assertTrue(search("token"));
+        assertEquals(-1, engine.getCommittedDbId("public", "poll"));
+    }
+
+    @Test
+    void testCommittedDbIdIsResetOnClear() throws SQLException {
+        engine.commitRow(null, new Object[]{1L, "apollo"}, tableData);
+        engine.commitIndex();
+
+        engine.clearIndex();
+
+        assertEquals(-1, engine.getCommittedDbId("PUBLIC", "CURRENCY"));
+        assertFalse(search("apollo"));
+    }
+
+    @Test
+    void testBackgroundRefresh() throws IOException, SQLException, InterruptedException {
+        engine.shutdown();
+        engine = new LuceneFullTextSearchEngine(mock(NtpTime.class), indexDir, 10, 0);
+        engine.init();
+
+        engine.commitRow(null, new Object[]{1L, "apollo"}, tableData);
+        engine.refreshIndex();
+
+        boolean found = false;
+        for (int i = 0; i < 100 && !found; i++) {
+            Thread.sleep(50);
+            found = search("apollo");
+        }
+        assertTrue(found);
+    }
+
+    private boolean search(String text) throws SQLException {
+        try (ResultSet rs = engine.search("PUBLIC", "CURRENCY", text, 10, 0)) {
+            return rs.next();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.core.shard;
+
+import com.apollocurrency.aplwallet.apl.core.dao.TransactionalDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.mock;
+
+class ShardQueryExecutorTest {
+    private final TransactionalDataSource shard1 = mock(TransactionalDataSource.class);
+    private final TransactionalDataSource shard2 = mock(TransactionalDataSource.class);
+    private final TransactionalDataSource shard3 = mock(TransactionalDataSource.class);
+    // rows of the shards ordered from the newest to the oldest
+    private final Map<TransactionalDataSource, List<Integer>> rows = Map.of(
+        shard1, List.of(10, 9, 8),
+        shard2, List.of(),
+        shard3, List.of(7, 6, 5, 4));
+    private final Set<TransactionalDataSource> fetched = ConcurrentHashMap.newKeySet();
+    private ShardQueryExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 2})
+    void testFetchPage(int threads) {
+        executor = new ShardQueryExecutor(threads);
+
+        assertEquals(List.of(9, 8, 7, 6), page(1, 4));
+        assertEquals(List.of(6, 5, 4), page(4, Integer.MAX_VALUE));
+        assertEquals(List.of(), page(7, 10));
+        assertEquals(List.of(10), page(0, 1));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 2})
+    void testFetchPageQueriesOnlyShardsOfThePage(int threads) {
+        executor = new ShardQueryExecutor(threads);
+
+        assertEquals(List.of(10, 9), page(0, 2));
+        assertFalse(fetched.contains(shard2));
+        assertFalse(fetched.contains(shard3));
+
+        fetched.clear();
+        assertEquals(List.of(5, 4), page(5, 2));
+        assertEquals(Set.of(shard3), fetched);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 2})
+    void testSum(int threads) {
+        executor = new ShardQueryExecutor(threads);
+
+        assertEquals(7, executor.sum("test", List.of(shard1, shard2, shard3), dataSource -> rows.get(dataSource).size()));
+    }
+
+    private List<Integer> page(int from, int limit) {
+        return executor.fetchPage("test", List.of(shard1, shard2, shard3), from, limit, dataSource -> rows.get(dataSource).size(),
+            (dataSource, pageFrom, pageTo) -> {
+                fetched.add(dataSource);
+                return IntStream.rangeClosed(pageFrom, pageTo).mapToObj(rows.get(dataSource)::get).collect(Collectors.toList());
+            });
+    }
+}
@@ -158,4 +158,33 @@ class SignatureToolFactoryTest extends AbstractSigData {
         assertTrue(rc);
         assertTrue(signature.isVerified());
     }
+
+    @Test
+    void testVerificationResultIsBoundToCredential() {
+        //GIVEN
+        String secretPhrase1 = "topSecret1";
+        String secretPhrase2 = "topSecret2";
+        byte[] document = "The document".getBytes();
+        Credential signCredential = SignatureToolFactory.createCredential(2, Crypto.getKeySeed(secretPhrase1), Crypto.getKeySeed(secretPhrase2));
+        Credential verifyCredential = SignatureToolFactory.createCredential(2, Crypto.getPublicKey(secretPhrase1), Crypto.getPublicKey(secretPhrase2));
+        Credential sameCredential = SignatureToolFactory.createCredential(2, Crypto.getPublicKey(secretPhrase1), Crypto.getPublicKey(secretPhrase2));
+        Credential singleSignerCredential = new MultiSigCredential(Crypto.getPublicKey(secretPhrase2));
+        Signature signature = SignatureToolFactory.selectBuilder(2).get().sign(document, signCredential);
+
+        //WHEN
+        boolean rc = SignatureToolFactory.selectValidator(2).get().verify(document, signature, singleSignerCredential);
+
+        //THEN
+        assertTrue(rc);
+        assertTrue(signature.isVerifiedWith(singleSignerCredential));
+        assertFalse(signature.isVerifiedWith(verifyCredential));
+
+        //WHEN
+        rc = SignatureToolFactory.selectValidator(2).get().verify(document, signature, verifyCredential);
+
+        //THEN
+        assertTrue(rc);
+        assertTrue(signature.isVerifiedWith(sameCredential));
+        assertFalse(signature.isVerifiedWith(singleSignerCredential));
+    }
 }
\ No newline at end of file
@@ -10,6 +10,7 @@ import com.apollocurrency.aplwallet.apl.core.chainid.HeightConfig;
 import com.apollocurrency.aplwallet.apl.core.dao.appdata.ReferencedTransactionDao;
 import com.apollocurrency.aplwallet.apl.core.entity.blockchain.EcBlockData;
 import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Transaction;
+import com.apollocurrency.aplwallet.apl.core.entity.state.account.Account;
 import com.apollocurrency.aplwallet.apl.core.entity.state.account.AddressScope;
 import com.apollocurrency.aplwallet.apl.core.model.CreateTransactionRequest;
 import com.apollocurrency.aplwallet.apl.core.rest.TransactionCreator;
@@ -20,6 +21,8 @@ import com.apollocurrency.aplwallet.apl.core.service.state.PhasingPollService;
 import com.apollocurrency.aplwallet.apl.core.service.state.account.AccountControlPhasingService;
 import com.apollocurrency.aplwallet.apl.core.service.state.account.AccountPublicKeyService;
 import com.apollocurrency.aplwallet.apl.core.service.state.account.AccountService;
+import com.apollocurrency.aplwallet.apl.core.signature.Signature;
+import com.apollocurrency.aplwallet.apl.core.signature.SignatureToolFactory;
 import com.apollocurrency.aplwallet.apl.core.transaction.messages.AppendixApplierRegistry;
 import com.apollocurrency.aplwallet.apl.core.transaction.messages.AppendixValidatorRegistry;
 import com.apollocurrency.aplwallet.apl.core.transaction.messages.ChildAccountAttachment;
@@ -47,15 +50,19 @@ import static com.apollocurrency.aplwallet.apl.core.transaction.ChildAccountTest
 import static com.apollocurrency.aplwallet.apl.core.transaction.ChildAccountTestData.CHILD_ID_2;
 import static com.apollocurrency.aplwallet.apl.core.transaction.ChildAccountTestData.CHILD_PUBLIC_KEY_1;
 import static com.apollocurrency.aplwallet.apl.core.transaction.ChildAccountTestData.CHILD_PUBLIC_KEY_2;
+import static com.apollocurrency.aplwallet.apl.core.transaction.ChildAccountTestData.CHILD_SECRET_PHRASE_1;
 import static com.apollocurrency.aplwallet.apl.core.transaction.ChildAccountTestData.SENDER;
 import static com.apollocurrency.aplwallet.apl.core.transaction.ChildAccountTestData.SENDER_ID;
 import static com.apollocurrency.aplwallet.apl.core.transaction.ChildAccountTestData.SENDER_PUBLIC_KEY;
 import static com.apollocurrency.aplwallet.apl.core.transaction.ChildAccountTestData.SENDER_SECRET_PHRASE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -94,7 +101,7 @@ public class ChildAccountTransactionTypeTest {
     TransactionBuilder builder = new TransactionBuilder(new CachedTransactionTypeFactory(List.of(type)));
     TransactionVersionValidator txVersionValidator = new TransactionVersionValidator(blockchainConfig, blockchain);
     TransactionApplier txApplier = new TransactionApplier(blockchainConfig, referencedTransactionDao, accountService, accountPublicKeyService, prunableLoadingService, applierRegistry);
-    TransactionValidator txValidator = new TransactionValidator(blockchainConfig, phasingPollService, blockchain, calculator, accountService, accountPublicKeyService, accountControlPhasingService, txVersionValidator, prunableLoadingService, validatorRegistry);
+    TransactionValidator txValidator = new TransactionValidator(blockchainConfig, phasingPollService, blockchain, calculator, accountService, accountPublicKeyService, accountControlPhasingService, txVersionValidator, prunableLoadingService, validatorRegistry, mock(VerifiedSignatureCache.class));
     TransactionSigner txSigner = new TransactionSigner(accountPublicKeyService);
     TransactionCreator txCreator = new TransactionCreator(txValidator, propertiesHolder, timeService, calculator, blockchain, processor, new CachedTransactionTypeFactory(List.of(type)), builder, txSigner);
 
@@ -368,4 +375,29 @@ public class ChildAccountTransactionTypeTest {
         }
     }
 
-}
\ No newline at end of file
+    @Test
+    void checkSignature_verifiedBeforeSenderBecameChild() {
+        //GIVEN
+        byte[] document = "The unsigned transaction".getBytes();
+        Signature signature = SignatureToolFactory.selectBuilder(2).get()
+            .sign(document, SignatureToolFactory.createCredential(2, Crypto.getKeySeed(CHILD_SECRET_PHRASE_1)));
+        Transaction tx = mock(Transaction.class);
+        when(tx.getVersion()).thenReturn(2);
+        when(tx.getSenderId()).thenReturn(CHILD_ID_1);
+        when(tx.getSenderPublicKey()).thenReturn(CHILD_PUBLIC_KEY_1);
+        when(tx.getUnsignedBytes()).thenReturn(document);
+        when(tx.getSignature()).thenReturn(signature);
+        Account sender = new Account(CHILD_ID_1, 0L, 0L, 0L, 0L, 0);
+        when(accountService.getAccount(CHILD_ID_1)).thenReturn(sender);
+        when(accountService.getPublicKeyByteArray(SENDER_ID)).thenReturn(Convert.parseHexString(SENDER_PUBLIC_KEY));
+        when(accountPublicKeyService.setOrVerifyPublicKey(anyLong(), any())).thenReturn(true);
+        assertTrue(txValidator.verifySignatureOnly(tx));
+        assertTrue(txValidator.checkSignature(tx));
+
+        //WHEN
+        sender.setParentId(SENDER_ID);
+
+        //THEN the signature of the sender only is not enough for the child account
+        assertFalse(txValidator.checkSignature(tx));
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.core.transaction;
+
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Transaction;
+import com.apollocurrency.aplwallet.apl.core.signature.Credential;
+import com.apollocurrency.aplwallet.apl.core.signature.MultiSigCredential;
+import com.apollocurrency.aplwallet.apl.core.signature.SignatureCredential;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+class VerifiedSignatureCacheTest {
+    Cache<HashCode, Boolean> cache = CacheBuilder.newBuilder().maximumSize(2).recordStats().build();
+    VerifiedSignatureCache verifiedSignatureCache = new VerifiedSignatureCache(cache);
+    byte[] senderPublicKey = new byte[]{1, 2, 3};
+    byte[] parentPublicKey = new byte[]{4, 5, 6};
+    Credential credential = new MultiSigCredential(senderPublicKey);
+
+    @Test
+    void testVerifiedTransactionIsFoundByFullHash() {
+        Transaction transaction = mockTransaction((byte) 1);
+        Transaction sameTransaction = mockTransaction((byte) 1);
+        Transaction otherTransaction = mockTransaction((byte) 2);
+
+        assertFalse(verifiedSignatureCache.isVerified(transaction, credential));
+        verifiedSignatureCache.verified(transaction, credential);
+
+        assertTrue(verifiedSignatureCache.isVerified(sameTransaction, credential));
+        assertFalse(verifiedSignatureCache.isVerified(otherTransaction, credential));
+        assertEquals(1, cache.stats().hitCount());
+        assertEquals(2, cache.stats().missCount());
+    }
+
+    @Test
+    void testVerifiedTransactionIsNotFoundForOtherCredential() {
+        Transaction transaction = mockTransaction((byte) 1);
+
+        verifiedSignatureCache.verified(transaction, credential);
+
+        assertTrue(verifiedSignatureCache.isVerified(transaction, new MultiSigCredential(new byte[]{1, 2, 3})));
+        assertFalse(verifiedSignatureCache.isVerified(transaction, new MultiSigCredential(2, parentPublicKey, senderPublicKey)));
+        assertFalse(verifiedSignatureCache.isVerified(transaction, new SignatureCredential(senderPublicKey)));
+    }
+
+    @Test
+    void testCacheIsBounded() {
+        for (byte i = 0; i < 10; i++) {
+            verifiedSignatureCache.verified(mockTransaction(i), credential);
+        }
+
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void testCacheIsNotAvailable() {
+        VerifiedSignatureCache disabledCache = new VerifiedSignatureCache(null);
+        Transaction transaction = mockTransaction((byte) 1);
+
+        disabledCache.verified(transaction, credential);
+
+        assertFalse(disabledCache.isVerified(transaction, credential));
+    }
+
+    private Transaction mockTransaction(byte hashByte) {
+        Transaction transaction = mock(Transaction.class);
+        byte[] fullHash = new byte[32];
+        fullHash[0] = hashByte;
+        fullHash[31] = hashByte;
+        doReturn(fullHash).when(transaction).getFullHash();
+        return transaction;
+    }
+}
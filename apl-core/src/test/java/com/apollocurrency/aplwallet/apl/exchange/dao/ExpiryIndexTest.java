@@ -0,0 +1,73 @@
+/*
+ * Copyright (c)  2018-2020. Apollo Foundation.
+ */
+
+package com.apollocurrency.aplwallet.apl.exchange.dao;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExpiryIndexTest {
+    ExpiryIndex index = new ExpiryIndex("test");
+
+    @Test
+    void testGetExpired() {
+        List<Long> expired = index.getExpired(200, () -> Map.of(1L, 100, 2L, 200, 3L, 199, 4L, 300));
+
+        assertEquals(List.of(1L, 3L), expired);
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void testIndexIsLoadedOnce() {
+        AtomicInteger loads = new AtomicInteger();
+
+        index.getExpired(100, () -> {
+            loads.incrementAndGet();
+            return Map.of(1L, 50);
+        });
+        List<Long> expired = index.getExpired(100, () -> {
+            loads.incrementAndGet();
+            return Map.of();
+        });
+
+        assertEquals(1, loads.get());
+        assertEquals(List.of(1L), expired);
+    }
+
+    @Test
+    void testUpdate() {
+        index.getExpired(0, () -> Map.of(1L, 100, 2L, 150));
+
+        index.update(1L, 500);
+        index.update(2L, null);
+        index.update(3L, 120);
+
+        assertEquals(List.of(3L), index.getExpired(200, Map::of));
+        assertEquals(List.of(3L, 1L), index.getExpired(1000, Map::of));
+    }
+
+    @Test
+    void testUpdateIsIgnoredUntilLoaded() {
+        index.update(1L, 100);
+
+        assertEquals(0, index.size());
+        assertTrue(index.getExpired(1000, Map::of).isEmpty());
+    }
+
+    @Test
+    void testIndexIsReloadedAfterTransactionRollback() {
+        index.getExpired(0, () -> Map.of(1L, 100));
+        index.update(2L, 100);
+
+        index.rollback();
+
+        assertEquals(List.of(1L), index.getExpired(1000, () -> Map.of(1L, 100)));
+    }
+}
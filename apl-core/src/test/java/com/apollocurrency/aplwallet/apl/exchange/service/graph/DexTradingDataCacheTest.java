@@ -0,0 +1,136 @@
+package com.apollocurrency.aplwallet.apl.exchange.service.graph;
+
+import com.apollocurrency.aplwallet.apl.core.app.GenesisImporter;
+import com.apollocurrency.aplwallet.apl.core.dao.TransactionalDataSource;
+import com.apollocurrency.aplwallet.apl.core.entity.blockchain.Block;
+import com.apollocurrency.aplwallet.apl.core.service.appdata.DatabaseManager;
+import com.apollocurrency.aplwallet.apl.core.service.fulltext.TransactionCallback;
+import com.apollocurrency.aplwallet.apl.exchange.dao.DexOrderDao;
+import com.apollocurrency.aplwallet.apl.exchange.model.DexCandlestick;
+import com.apollocurrency.aplwallet.apl.exchange.model.DexCurrency;
+import com.apollocurrency.aplwallet.apl.exchange.model.OrderDbIdPaginationDbRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+
+import static com.apollocurrency.aplwallet.apl.exchange.service.graph.CandlestickTestUtil.apl;
+import static com.apollocurrency.aplwallet.apl.exchange.service.graph.CandlestickTestUtil.dec;
+import static com.apollocurrency.aplwallet.apl.exchange.service.graph.CandlestickTestUtil.eOrder;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class DexTradingDataCacheTest {
+
+    DexOrderDao orderDao = mock(DexOrderDao.class);
+    DatabaseManager databaseManager = mock(DatabaseManager.class);
+    TransactionalDataSource dataSource = mock(TransactionalDataSource.class);
+
+    DexTradingDataCache cache;
+
+    @BeforeEach
+    void setUp() {
+        GenesisImporter.EPOCH_BEGINNING = 0;
+        doReturn(dataSource).when(databaseManager).getDataSource();
+        cache = new DexTradingDataCache(orderDao, databaseManager, 2);
+        doReturn(List.of(eOrder(1, 7801, dec("2"), apl(100_000)), eOrder(2, 8501, dec("1"), apl(100_000))))
+            .when(orderDao).getOrdersFromDbIdBetweenTimestamps(request(0));
+        doReturn(List.of(eOrder(3, 11001, dec("3"), apl(50_000))))
+            .when(orderDao).getOrdersFromDbIdBetweenTimestamps(request(2));
+    }
+
+    @Test
+    void testGetCandlesticks() {
+        List<DexCandlestick> candlesticks = cache.getCandlesticks(7200, 14400, DexCurrency.ETH, TimeFrame.HOUR);
+
+        assertEquals(2, candlesticks.size());
+        DexCandlestick first = candlesticks.get(0);
+        assertEquals(7200, first.getTimestamp());
+        assertEquals(dec("2"), first.getOpen());
+        assertEquals(dec("1"), first.getClose());
+        assertEquals(dec("1"), first.getMin());
+        assertEquals(dec("2"), first.getMax());
+        DexCandlestick second = candlesticks.get(1);
+        assertEquals(10800, second.getTimestamp());
+        assertEquals(dec("3"), second.getOpen());
+
+        List<DexCandlestick> quarterCandlesticks = cache.getCandlesticks(7200, 14400, DexCurrency.ETH, TimeFrame.QUARTER);
+        assertEquals(3, quarterCandlesticks.size());
+        assertEquals(List.of(7200, 8100, 10800), List.of(quarterCandlesticks.get(0).getTimestamp(),
+            quarterCandlesticks.get(1).getTimestamp(), quarterCandlesticks.get(2).getTimestamp()));
+    }
+
+    @Test
+    void testOnlyNewOrdersAreReadOnRefresh() {
+        cache.getCandlesticks(7200, 14400, DexCurrency.ETH, TimeFrame.HOUR);
+        doReturn(List.of(eOrder(4, 11501, dec("4"), apl(50_000))))
+            .when(orderDao).getOrdersFromDbIdBetweenTimestamps(request(3));
+
+        List<DexCandlestick> candlesticks = cache.getCandlesticks(7200, 14400, DexCurrency.ETH, TimeFrame.HOUR);
+
+        assertEquals(dec("4"), candlesticks.get(1).getClose());
+        assertEquals(dec("4"), candlesticks.get(1).getMax());
+        verify(orderDao).getOrdersFromDbIdBetweenTimestamps(request(0));
+    }
+
+    @Test
+    void testCandlesticksAreNotMutatedByCaller() {
+        cache.getCandlesticks(7200, 14400, DexCurrency.ETH, TimeFrame.HOUR).get(0).setOpen(dec("10"));
+
+        assertEquals(dec("2"), cache.getCandlesticks(7200, 14400, DexCurrency.ETH, TimeFrame.HOUR).get(0).getOpen());
+    }
+
+    @Test
+    void testLastCandlestickWithOrdersAfterRequestedTime() {
+        assertNull(cache.getCandlesticks(7200, 8000, DexCurrency.ETH, TimeFrame.HOUR));
+        assertEquals(1, cache.getCandlesticks(7200, 9000, DexCurrency.ETH, TimeFrame.HOUR).size());
+    }
+
+    @Test
+    void testCacheIsDroppedWhenBlockWithCachedOrdersIsPopped() {
+        cache.getCandlesticks(7200, 14400, DexCurrency.ETH, TimeFrame.HOUR);
+
+        cache.onBlockPopped(block(101));
+        cache.getCandlesticks(7200, 14400, DexCurrency.ETH, TimeFrame.HOUR);
+        verify(orderDao, times(1)).getOrdersFromDbIdBetweenTimestamps(request(0));
+
+        cache.onBlockPopped(block(100));
+        cache.getCandlesticks(7200, 14400, DexCurrency.ETH, TimeFrame.HOUR);
+        verify(orderDao, times(2)).getOrdersFromDbIdBetweenTimestamps(request(0));
+    }
+
+    @Test
+    void testOrdersReadBeforePopOffCommitAreDropped() {
+        cache.onBlockPopped(block(100));
+        // orders of the popped block are still visible until the pop off transaction is committed
+        cache.getCandlesticks(7200, 14400, DexCurrency.ETH, TimeFrame.HOUR);
+        ArgumentCaptor<TransactionCallback> callback = ArgumentCaptor.forClass(TransactionCallback.class);
+        verify(dataSource).registerCallback(callback.capture());
+
+        callback.getValue().commit();
+        cache.getCandlesticks(7200, 14400, DexCurrency.ETH, TimeFrame.HOUR);
+
+        verify(orderDao, times(2)).getOrdersFromDbIdBetweenTimestamps(request(0));
+    }
+
+    private Block block(int height) {
+        Block block = mock(Block.class);
+        doReturn(height).when(block).getHeight();
+        return block;
+    }
+
+    private OrderDbIdPaginationDbRequest request(long fromDbId) {
+        return OrderDbIdPaginationDbRequest.builder()
+            .fromTime(0)
+            .fromDbId(fromDbId)
+            .toTime(Integer.MAX_VALUE)
+            .limit(2)
+            .coin(DexCurrency.ETH)
+            .build();
+    }
+}
@@ -15,6 +15,7 @@ import com.apollocurrency.aplwallet.apl.core.peer.Peer2PeerTransport;
 import com.apollocurrency.aplwallet.apl.core.peer.PeerNotConnectedException;
 import com.apollocurrency.aplwallet.apl.core.peer.PeerState;
 import com.apollocurrency.aplwallet.apl.core.peer.PeerTrustLevel;
+import com.apollocurrency.aplwallet.apl.core.peer.WebSocketPayload;
 import com.apollocurrency.aplwallet.apl.core.peer.parser.JsonReqRespParser;
 import com.apollocurrency.aplwallet.apl.data.AccountTestData;
 import com.apollocurrency.aplwallet.apl.util.Version;
@@ -25,6 +26,8 @@ import javax.enterprise.inject.Produces;
 import javax.inject.Named;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 public class EntityProducer {
 
@@ -167,6 +170,16 @@ public class EntityProducer {
                 return 0;
             }
 
+            @Override
+            public int getOutboundQueueSize() {
+                return 0;
+            }
+
+            @Override
+            public long getDroppedOutboundMessages() {
+                return 0;
+            }
+
             @Override
             public int getLastUpdated() {
                 return 0;
@@ -238,10 +251,15 @@ public class EntityProducer {
             }
 
             @Override
-            public void sendAsync(BaseP2PRequest request) {
+            public void sendAsync(WebSocketPayload payload, String mergeKey) {
 
             }
 
+            @Override
+            public <T> CompletableFuture<T> sendAsync(BaseP2PRequest request, JsonReqRespParser<T> parser, Executor parserExecutor) {
+                return CompletableFuture.completedFuture(null);
+            }
+
             @Override
             public boolean isOutbound() {
                 return false;
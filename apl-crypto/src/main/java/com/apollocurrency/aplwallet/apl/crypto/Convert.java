@@ -83,7 +83,7 @@ public final class Convert {
     }
 
     public static long getId(byte[] publicKey) {
-        byte[] publicKeyHash = Crypto.sha256().digest(publicKey);
+        byte[] publicKeyHash = Crypto.digestSha256(publicKey);
         return Convert.fullHashToId(publicKeyHash);
     }
 
@@ -37,6 +37,7 @@ import org.bouncycastle.jcajce.provider.digest.Keccak;
 import org.bouncycastle.jcajce.provider.digest.RIPEMD160;
 import org.slf4j.Logger;
 
+import java.nio.ByteBuffer;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
@@ -60,6 +61,12 @@ public final class Crypto {
             throw new RuntimeException(e.getMessage(), e);
         }
     });
+    // prototypes are never updated and only cloned, which is much cheaper than the provider lookup
+    private static final MessageDigest SHA256_PROTOTYPE = getMessageDigest("SHA-256");
+    private static final MessageDigest SHA512_PROTOTYPE = getMessageDigest("SHA-512");
+    // thread-confined digests for the digestShaXXX methods, should never escape this class
+    private static final ThreadLocal<MessageDigest> threadSha256 = ThreadLocal.withInitial(Crypto::sha256);
+    private static final ThreadLocal<MessageDigest> threadSha512 = ThreadLocal.withInitial(Crypto::sha512);
 
     private Crypto() {
     } //never
@@ -79,12 +86,99 @@ public final class Crypto {
         }
     }
 
+    /**
+     * @return new SHA-256 digest, which may be kept and used by the caller; use {@link #digestSha256(byte[]...)}
+     * to hash the data without the digest allocation
+     */
     public static MessageDigest sha256() {
-        return getMessageDigest("SHA-256");
+        return copyOf(SHA256_PROTOTYPE);
     }
 
+    /**
+     * @return new SHA-512 digest, which may be kept and used by the caller; use {@link #digestSha512(byte[]...)}
+     * to hash the data without the digest allocation
+     */
     public static MessageDigest sha512() {
-        return getMessageDigest("SHA-512");
+        return copyOf(SHA512_PROTOTYPE);
+    }
+
+    /**
+     * Calculate SHA-256 hash of the concatenated data using the digest confined to the current thread
+     */
+    public static byte[] digestSha256(byte[]... data) {
+        return digest(threadSha256, data);
+    }
+
+    /**
+     * Calculate SHA-256 hash of the array part without copying it
+     */
+    public static byte[] digestSha256(byte[] data, int offset, int length) {
+        MessageDigest digest = pooled(threadSha256);
+        digest.update(data, offset, length);
+        return digest.digest();
+    }
+
+    /**
+     * Calculate SHA-256 hash of the remaining bytes of the concatenated buffers without copying them,
+     * position of each buffer is advanced to its limit
+     */
+    public static byte[] digestSha256(ByteBuffer... data) {
+        return digest(threadSha256, data);
+    }
+
+    /**
+     * Calculate SHA-512 hash of the concatenated data using the digest confined to the current thread
+     */
+    public static byte[] digestSha512(byte[]... data) {
+        return digest(threadSha512, data);
+    }
+
+    /**
+     * Calculate SHA-512 hash of the array part without copying it
+     */
+    public static byte[] digestSha512(byte[] data, int offset, int length) {
+        MessageDigest digest = pooled(threadSha512);
+        digest.update(data, offset, length);
+        return digest.digest();
+    }
+
+    /**
+     * Calculate SHA-512 hash of the remaining bytes of the concatenated buffers without copying them,
+     * position of each buffer is advanced to its limit
+     */
+    public static byte[] digestSha512(ByteBuffer... data) {
+        return digest(threadSha512, data);
+    }
+
+    private static byte[] digest(ThreadLocal<MessageDigest> threadDigest, byte[]... data) {
+        MessageDigest digest = pooled(threadDigest);
+        for (byte[] part : data) {
+            digest.update(part);
+        }
+        return digest.digest();
+    }
+
+    private static byte[] digest(ThreadLocal<MessageDigest> threadDigest, ByteBuffer... data) {
+        MessageDigest digest = pooled(threadDigest);
+        for (ByteBuffer part : data) {
+            digest.update(part);
+        }
+        return digest.digest();
+    }
+
+    private static MessageDigest pooled(ThreadLocal<MessageDigest> threadDigest) {
+        MessageDigest digest = threadDigest.get();
+        // previous usage may be interrupted by the exception
+        digest.reset();
+        return digest;
+    }
+
+    private static MessageDigest copyOf(MessageDigest prototype) {
+        try {
+            return (MessageDigest) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            return getMessageDigest(prototype.getAlgorithm());
+        }
     }
 
     public static MessageDigest ripemd160() {
@@ -100,7 +194,7 @@ public final class Crypto {
     }
 
     public static byte[] getKeySeed(byte[] secretBytes, byte[]... nonces) {
-        MessageDigest digest = Crypto.sha256();
+        MessageDigest digest = pooled(threadSha256);
         digest.update(secretBytes);
         for (byte[] nonce : nonces) {
             digest.update(nonce);
@@ -116,7 +210,7 @@ public final class Crypto {
 
     public static byte[] getPublicKey(String secretPhrase) {
         byte[] publicKey = new byte[32];
-        Curve25519.keygen(publicKey, null, Crypto.sha256().digest(Convert.toBytes(secretPhrase)));
+        Curve25519.keygen(publicKey, null, digestSha256(Convert.toBytes(secretPhrase)));
         return publicKey;
     }
 
@@ -127,7 +221,7 @@ public final class Crypto {
     }
 
     public static byte[] getPrivateKey(String secretPhrase) {
-        byte[] s = Crypto.sha256().digest(Convert.toBytes(secretPhrase));
+        byte[] s = digestSha256(Convert.toBytes(secretPhrase));
         Curve25519.clamp(s);
         return s;
     }
@@ -137,25 +231,22 @@ public final class Crypto {
     }
 
     public static byte[] sign(byte[] message, String secretPhrase) {
-        return sign(message, sha256().digest(Convert.toBytes(secretPhrase)));
+        return sign(message, digestSha256(Convert.toBytes(secretPhrase)));
     }
 
     public static byte[] sign(byte[] message, byte[] keySeed) {
         byte[] P = new byte[32];
         byte[] s = new byte[32];
-        MessageDigest digest = Crypto.sha256();
         Curve25519.keygen(P, s, keySeed);
 
-        byte[] m = digest.digest(message);
+        byte[] m = digestSha256(message);
 
-        digest.update(m);
-        byte[] x = digest.digest(s);
+        byte[] x = digestSha256(m, s);
 
         byte[] Y = new byte[32];
         Curve25519.keygen(Y, null, x);
 
-        digest.update(m);
-        byte[] h = digest.digest(Y);
+        byte[] h = digestSha256(m, Y);
 
         byte[] v = new byte[32];
         Curve25519.sign(v, h, x, s);
@@ -175,7 +266,7 @@ public final class Crypto {
                     res[j] ^= publicKeys[i][j];
                 }
             }
-            res = sha256().digest(res);
+            res = digestSha256(res);
         }
         return res;
     }
@@ -218,10 +309,8 @@ public final class Crypto {
             System.arraycopy(signature, 32, h, 0, 32);
             Curve25519.verify(Y, v, h, publicKey);
 
-            MessageDigest digest = Crypto.sha256();
-            byte[] m = digest.digest(message);
-            digest.update(m);
-            byte[] h2 = digest.digest(Y);
+            byte[] m = digestSha256(message);
+            byte[] h2 = digestSha256(m, Y);
 
             return Arrays.equals(h, h2);
         } catch (RuntimeException e) {
@@ -231,7 +320,7 @@ public final class Crypto {
     }
 
     public static byte[] getSharedKey(byte[] myPrivateKey, byte[] theirPublicKey) {
-        return sha256().digest(getSharedSecret(myPrivateKey, theirPublicKey));
+        return digestSha256(getSharedSecret(myPrivateKey, theirPublicKey));
     }
 
     public static byte[] getSharedKey(byte[] myPrivateKey, byte[] theirPublicKey, byte[] nonce) {
@@ -239,7 +328,7 @@ public final class Crypto {
         for (int i = 0; i < 32; i++) {
             dhSharedSecret[i] ^= nonce[i];
         }
-        return sha256().digest(dhSharedSecret);
+        return digestSha256(dhSharedSecret);
     }
 
     private static byte[] getSharedSecret(byte[] myPrivateKey, byte[] theirPublicKey) {
@@ -27,7 +27,7 @@ public enum HashFunction {
      */
     SHA256((byte) 2) {
         public byte[] hash(byte[] input) {
-            return Crypto.sha256().digest(input);
+            return Crypto.digestSha256(input);
         }
     },
     /**
@@ -61,7 +61,7 @@ public enum HashFunction {
     },
     RIPEMD160_SHA256((byte) 62) {
         public byte[] hash(byte[] input) {
-            return Crypto.ripemd160().digest(Crypto.sha256().digest(input));
+            return Crypto.ripemd160().digest(Crypto.digestSha256(input));
         }
     };
 
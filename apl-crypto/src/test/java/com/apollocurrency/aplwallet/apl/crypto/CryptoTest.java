@@ -296,4 +296,28 @@ public class CryptoTest extends TestsCommons {
 
     }
 
+    @Test
+    public void testPooledSha256MatchesNewDigest() throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update(plain_data);
+        byte[] expected = digest.digest(Convert.toBytes(secretPhraseA));
+
+        assertArrayEquals(expected, Crypto.digestSha256(plain_data, Convert.toBytes(secretPhraseA)));
+        byte[] padded = new byte[plain_data.length + 10];
+        System.arraycopy(plain_data, 0, padded, 5, plain_data.length);
+        assertArrayEquals(Crypto.sha256().digest(plain_data), Crypto.digestSha256(padded, 5, plain_data.length));
+        ByteBuffer buffer = ByteBuffer.wrap(padded, 5, plain_data.length);
+        assertArrayEquals(Crypto.sha256().digest(plain_data), Crypto.digestSha256(buffer));
+        assertEquals(0, buffer.remaining());
+    }
+
+    @Test
+    public void testPooledSha512MatchesNewDigest() throws Exception {
+        byte[] expected = MessageDigest.getInstance("SHA-512").digest(plain_data);
+
+        assertArrayEquals(expected, Crypto.digestSha512(plain_data));
+        assertArrayEquals(expected, Crypto.digestSha512(ByteBuffer.wrap(plain_data, 0, 1), ByteBuffer.wrap(plain_data, 1, plain_data.length - 1)));
+        assertArrayEquals(expected, Crypto.sha512().digest(plain_data));
+    }
+
 }
@@ -0,0 +1,158 @@
+/*
+ *  Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Concurrent map, which entries are removed after the time to live since the last put.
+ * <p>Expiration of each entry is scheduled on the {@link HashedTimerWheel}, which may be shared by many maps, so that
+ * put and remove are O(1), expired entries are removed without the scan of the whole map, and map access does not require locking.
+ * Expiration precision is limited by the tick duration of the wheel.</p>
+ * <p>Expiration listener is called on the wheel worker thread for each expired entry and should be short and non-blocking.
+ * It is not called for the removed and replaced entries.</p>
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+@Slf4j
+public class ExpiringConcurrentMap<K, V> {
+    private final Map<K, Entry<V>> map = new ConcurrentHashMap<>();
+    private final HashedTimerWheel timerWheel;
+    private final long defaultTtlNanos;
+    private final BiConsumer<K, V> expirationListener;
+
+    public ExpiringConcurrentMap(HashedTimerWheel timerWheel, long defaultTtl, TimeUnit unit) {
+        this(timerWheel, defaultTtl, unit, null);
+    }
+
+    /**
+     * @param timerWheel         timer wheel to schedule expiration of the entries
+     * @param defaultTtl         time to live of the entries, which are put without the explicit time to live
+     * @param unit               time unit of the default time to live
+     * @param expirationListener listener of the expired entries, may be null
+     */
+    public ExpiringConcurrentMap(HashedTimerWheel timerWheel, long defaultTtl, TimeUnit unit, BiConsumer<K, V> expirationListener) {
+        if (defaultTtl <= 0) {
+            throw new IllegalArgumentException("Time to live should be positive, got " + defaultTtl);
+        }
+        this.timerWheel = timerWheel;
+        this.defaultTtlNanos = unit.toNanos(defaultTtl);
+        this.expirationListener = expirationListener;
+    }
+
+    /**
+     * Put the value, which will be removed after the default time to live
+     *
+     * @return previous value or null
+     */
+    public V put(K key, V value) {
+        return put(key, value, defaultTtlNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Put the value, which will be removed after the given time to live
+     *
+     * @return previous value or null
+     */
+    public V put(K key, V value, long ttl, TimeUnit unit) {
+        Entry<V> entry = new Entry<>(value);
+        Entry<V> prev = map.put(key, entry);
+        // schedule after the put, so that entry can not expire before it appears in the map
+        entry.timeout = timerWheel.newTimeout(() -> expire(key, entry), ttl, unit);
+        return release(prev);
+    }
+
+    /**
+     * Put the value, which will be removed after the default time to live, only when there is no value for the key
+     *
+     * @return current value or null, when the value was put
+     */
+    public V putIfAbsent(K key, V value) {
+        Entry<V> entry = new Entry<>(value);
+        Entry<V> current = map.putIfAbsent(key, entry);
+        if (current != null) {
+            return current.value;
+        }
+        entry.timeout = timerWheel.newTimeout(() -> expire(key, entry), defaultTtlNanos, TimeUnit.NANOSECONDS);
+        return null;
+    }
+
+    public V get(K key) {
+        Entry<V> entry = map.get(key);
+        return entry != null ? entry.value : null;
+    }
+
+    /**
+     * Remove the value and cancel its expiration
+     *
+     * @return removed value or null
+     */
+    public V remove(K key) {
+        return release(map.remove(key));
+    }
+
+    /**
+     * Remove the entry only when it has the given value and cancel its expiration
+     *
+     * @return true, when the entry was removed
+     */
+    public boolean remove(K key, V value) {
+        Entry<V> entry = map.get(key);
+        if (entry != null && Objects.equals(entry.value, value) && map.remove(key, entry)) {
+            release(entry);
+            return true;
+        }
+        return false;
+    }
+
+    public boolean containsKey(K key) {
+        return map.containsKey(key);
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    public void clear() {
+        map.keySet().forEach(this::remove);
+    }
+
+    private void expire(K key, Entry<V> entry) {
+        if (map.remove(key, entry) && expirationListener != null) {
+            try {
+                expirationListener.accept(key, entry.value);
+            } catch (Throwable e) {
+                log.warn("Expiration listener failed for the key " + key, e);
+            }
+        }
+    }
+
+    private V release(Entry<V> entry) {
+        if (entry == null) {
+            return null;
+        }
+        HashedTimerWheel.Timeout timeout = entry.timeout;
+        if (timeout != null) {
+            timeout.cancel();
+        }
+        return entry.value;
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private volatile HashedTimerWheel.Timeout timeout;
+
+        private Entry(V value) {
+            this.value = value;
+        }
+    }
+}
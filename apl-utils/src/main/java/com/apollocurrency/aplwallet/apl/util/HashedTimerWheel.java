@@ -0,0 +1,188 @@
+/*
+ *  Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.util;
+
+import com.apollocurrency.aplwallet.apl.util.task.NamedThreadFactory;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hashed timer wheel for a large number of short timeouts which are mostly cancelled before expiration
+ * (request timeouts, entry expiration).
+ * <p>Scheduling and cancellation are O(1) and do not require any locking, expiration is checked by a single
+ * worker thread once per tick, so that timeout precision is limited by the tick duration.</p>
+ * <p>Expiration tasks are executed on the worker thread and should be short and non-blocking,
+ * heavy work should be handed off to an executor.</p>
+ */
+@Slf4j
+public class HashedTimerWheel {
+    private final long tickNanos;
+    private final int mask;
+    private final Queue<Timeout>[] buckets;
+    private final Queue<Timeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final long startTime;
+    private final Thread worker;
+    private volatile boolean running = true;
+    private long tick;
+
+    /**
+     * @param name         name of the worker thread
+     * @param tickDuration duration of the single tick in milliseconds
+     * @param wheelSize    number of buckets, will be rounded up to the power of two
+     */
+    @SuppressWarnings("unchecked")
+    public HashedTimerWheel(String name, long tickDuration, int wheelSize) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("Tick duration should be positive, got " + tickDuration);
+        }
+        if (wheelSize <= 0 || wheelSize > 1 << 20) {
+            throw new IllegalArgumentException("Wheel size should be in range [1..2^20], got " + wheelSize);
+        }
+        int normalizedSize = Integer.highestOneBit(wheelSize) == wheelSize ? wheelSize : Integer.highestOneBit(wheelSize) << 1;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickDuration);
+        this.mask = normalizedSize - 1;
+        this.buckets = new Queue[normalizedSize];
+        for (int i = 0; i < normalizedSize; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        this.startTime = System.nanoTime();
+        this.worker = new NamedThreadFactory(name, true).newThread(this::run);
+        this.worker.start();
+    }
+
+    /**
+     * Schedule task execution after the given delay
+     *
+     * @return timeout handle, which may be used to cancel the task
+     */
+    public Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+        if (!running) {
+            throw new IllegalStateException("Timer wheel is stopped");
+        }
+        Timeout timeout = new Timeout(task, System.nanoTime() + unit.toNanos(Math.max(delay, 0)));
+        pendingTimeouts.add(timeout);
+        pendingCount.incrementAndGet();
+        return timeout;
+    }
+
+    /**
+     * @return number of scheduled timeouts, which are not expired yet, including cancelled timeouts, which were not purged yet
+     */
+    public int pendingTimeouts() {
+        return pendingCount.get();
+    }
+
+    public void stop() {
+        running = false;
+        worker.interrupt();
+    }
+
+    private void run() {
+        while (running) {
+            long deadline = startTime + (tick + 1) * tickNanos;
+            if (!waitUntil(deadline)) {
+                break;
+            }
+            transferPendingTimeouts();
+            expireTimeouts(buckets[(int) (tick & mask)]);
+            tick++;
+        }
+        log.debug("Timer wheel worker {} stopped", Thread.currentThread().getName());
+    }
+
+    private boolean waitUntil(long deadline) {
+        long sleepNanos;
+        while ((sleepNanos = deadline - System.nanoTime()) > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(sleepNanos);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return running;
+    }
+
+    private void transferPendingTimeouts() {
+        Timeout timeout;
+        while ((timeout = pendingTimeouts.poll()) != null) {
+            if (timeout.isCancelled()) {
+                pendingCount.decrementAndGet();
+                continue;
+            }
+            long expirationTick = Math.max((timeout.deadline - startTime) / tickNanos, tick);
+            timeout.remainingRounds = (expirationTick - tick) / buckets.length;
+            buckets[(int) (expirationTick & mask)].add(timeout);
+        }
+    }
+
+    private void expireTimeouts(Queue<Timeout> bucket) {
+        Iterator<Timeout> iterator = bucket.iterator();
+        while (iterator.hasNext()) {
+            Timeout timeout = iterator.next();
+            if (timeout.isCancelled()) {
+                iterator.remove();
+                pendingCount.decrementAndGet();
+            } else if (timeout.remainingRounds <= 0) {
+                iterator.remove();
+                pendingCount.decrementAndGet();
+                timeout.expire();
+            } else {
+                timeout.remainingRounds--;
+            }
+        }
+    }
+
+    public static class Timeout {
+        private static final int ST_INIT = 0;
+        private static final int ST_CANCELLED = 1;
+        private static final int ST_EXPIRED = 2;
+
+        private final AtomicInteger state = new AtomicInteger(ST_INIT);
+        private final Runnable task;
+        private final long deadline;
+        // accessed only by the worker thread
+        private long remainingRounds;
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * @return true when timeout was cancelled by this call, false when it is already expired or cancelled
+         */
+        public boolean cancel() {
+            return state.compareAndSet(ST_INIT, ST_CANCELLED);
+        }
+
+        public boolean isCancelled() {
+            return state.get() == ST_CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == ST_EXPIRED;
+        }
+
+        private void expire() {
+            if (state.compareAndSet(ST_INIT, ST_EXPIRED)) {
+                try {
+                    task.run();
+                } catch (Throwable e) {
+                    log.warn("Timeout task execution failed", e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ *  Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExpiringConcurrentMapTest {
+    HashedTimerWheel wheel = new HashedTimerWheel("TestTimerWheel", 10, 8);
+    List<String> expired = new CopyOnWriteArrayList<>();
+    ExpiringConcurrentMap<Long, String> map = new ExpiringConcurrentMap<>(wheel, 50, TimeUnit.MILLISECONDS,
+        (key, value) -> expired.add(value));
+
+    @AfterEach
+    void tearDown() {
+        wheel.stop();
+    }
+
+    @Test
+    void testEntryExpires() throws InterruptedException {
+        map.put(1L, "one");
+        map.put(2L, "two", 5, TimeUnit.SECONDS);
+        assertEquals("one", map.get(1L));
+
+        waitForExpiration(1);
+
+        assertNull(map.get(1L));
+        assertEquals("two", map.get(2L));
+        assertEquals(List.of("one"), expired);
+    }
+
+    @Test
+    void testRemovedEntryIsNotExpired() throws InterruptedException {
+        map.put(1L, "one");
+        map.put(2L, "two");
+
+        assertEquals("one", map.remove(1L));
+
+        waitForExpiration(1);
+        assertEquals(List.of("two"), expired);
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    void testReplacedEntryLivesAfterPreviousExpiration() throws InterruptedException {
+        map.put(1L, "one");
+
+        assertEquals("one", map.put(1L, "two", 5, TimeUnit.SECONDS));
+
+        Thread.sleep(200);
+        assertEquals("two", map.get(1L));
+        assertTrue(expired.isEmpty());
+    }
+
+    @Test
+    void testPutIfAbsent() throws InterruptedException {
+        assertNull(map.putIfAbsent(1L, "one"));
+        assertEquals("one", map.putIfAbsent(1L, "two"));
+
+        waitForExpiration(1);
+
+        assertEquals(List.of("one"), expired);
+        assertNull(map.putIfAbsent(1L, "three"));
+        assertEquals("three", map.get(1L));
+    }
+
+    @Test
+    void testRemoveOnlyGivenValue() throws InterruptedException {
+        map.put(1L, "one");
+
+        assertFalse(map.remove(1L, "two"));
+        assertTrue(map.remove(1L, "one"));
+        assertFalse(map.containsKey(1L));
+
+        Thread.sleep(200);
+        assertTrue(expired.isEmpty());
+    }
+
+    @Test
+    void testClear() {
+        map.put(1L, "one");
+        map.put(2L, "two");
+
+        map.clear();
+
+        assertFalse(map.containsKey(1L));
+        assertEquals(0, map.size());
+    }
+
+    private void waitForExpiration(int count) throws InterruptedException {
+        for (int i = 0; i < 100 && expired.size() < count; i++) {
+            Thread.sleep(50);
+        }
+    }
+}
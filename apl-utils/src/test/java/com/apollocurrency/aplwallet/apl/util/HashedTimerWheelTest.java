@@ -0,0 +1,72 @@
+/*
+ *  Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashedTimerWheelTest {
+    HashedTimerWheel wheel = new HashedTimerWheel("TestTimerWheel", 10, 8);
+
+    @AfterEach
+    void tearDown() {
+        wheel.stop();
+    }
+
+    @Test
+    void testTimeoutExpiresAfterDelay() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        long start = System.currentTimeMillis();
+
+        HashedTimerWheel.Timeout timeout = wheel.newTimeout(latch::countDown, 50, TimeUnit.MILLISECONDS);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(System.currentTimeMillis() - start >= 50);
+        assertTrue(timeout.isExpired());
+        assertFalse(timeout.cancel());
+    }
+
+    @Test
+    void testTimeoutLongerThanWheelRevolution() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        long start = System.currentTimeMillis();
+
+        wheel.newTimeout(latch::countDown, 200, TimeUnit.MILLISECONDS);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(System.currentTimeMillis() - start >= 200);
+    }
+
+    @Test
+    void testCancelledTimeoutIsNotExecuted() throws InterruptedException {
+        AtomicInteger executed = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(1);
+
+        HashedTimerWheel.Timeout cancelled = wheel.newTimeout(executed::incrementAndGet, 30, TimeUnit.MILLISECONDS);
+        wheel.newTimeout(latch::countDown, 60, TimeUnit.MILLISECONDS);
+        assertTrue(cancelled.cancel());
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(0, executed.get());
+        assertTrue(cancelled.isCancelled());
+        assertEquals(0, wheel.pendingTimeouts());
+    }
+
+    @Test
+    void testStoppedWheelRejectsTimeouts() {
+        wheel.stop();
+
+        assertThrows(IllegalStateException.class, () -> wheel.newTimeout(() -> {}, 1, TimeUnit.SECONDS));
+    }
+}